@@ -0,0 +1,109 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Callback;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of JNA invoking a callback bound through direct
+ * mapping, comparing Pointer arguments (as JackSyncCallback) with raw long
+ * addresses (as JackSyncAddressCallback). No JACK server is required - the
+ * callback is invoked natively by the C library qsort, which calls it once
+ * to compare two elements.
+ *
+ * Run with <code>-prof gc</code>. The Pointer callback allocates a Pointer
+ * per non-null argument on each call, the address callback nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallbackMarshallingBenchmark {
+
+    private Memory elements;
+    private long base;
+    private PointerCallback pointerCallback;
+    private AddressCallback addressCallback;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        elements = new Memory(16);
+        elements.clear();
+        base = Pointer.nativeValue(elements);
+        pointerCallback = (a, b) -> 0;
+        addressCallback = (a, b) -> 0;
+    }
+
+    @Benchmark
+    public void pointerCallback() {
+        LibC.qsort(base, 2, 8, pointerCallback);
+    }
+
+    @Benchmark
+    public void addressCallback() {
+        LibC.qsort(base, 2, 8, addressCallback);
+    }
+
+    public interface PointerCallback extends Callback {
+
+        int invoke(Pointer a, Pointer b);
+    }
+
+    public interface AddressCallback extends Callback {
+
+        int invoke(long a, long b);
+    }
+
+    private static class LibC {
+
+        static {
+            Native.register(LibC.class, NativeLibrary.getInstance(Platform.C_LIBRARY_NAME));
+        }
+
+        private static native void qsort(long base, long count, long size, PointerCallback compare);
+
+        private static native void qsort(long base, long count, long size, AddressCallback compare);
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Pointer;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+
+/**
+ * Simulated server that keeps a reference to the process, sync and timebase
+ * callbacks set by a client, so that benchmarks can invoke the JNAJack
+ * wrappers directly without the server cycle.
+ */
+class CapturingJackLibrary extends JackLibrarySimulated {
+
+    JackProcessCallback processCallback;
+    JackSyncAddressCallback syncCallback;
+    JackTimebaseAddressCallback timebaseCallback;
+
+    CapturingJackLibrary(int bufferSize) {
+        super(DEFAULT_SAMPLE_RATE, bufferSize);
+        setAutoStart(false);
+    }
+
+    @Override
+    public int jack_set_process_callback(_jack_client client, JackProcessCallback process_callback, Pointer arg) {
+        processCallback = process_callback;
+        return super.jack_set_process_callback(client, process_callback, arg);
+    }
+
+    @Override
+    public int jack_set_sync_callback_address(_jack_client client, JackSyncAddressCallback sync_callback, long arg) {
+        syncCallback = sync_callback;
+        return super.jack_set_sync_callback_address(client, sync_callback, arg);
+    }
+
+    @Override
+    public int jack_set_timebase_callback_address(_jack_client client, int conditional,
+            JackTimebaseAddressCallback timebase_callback, long arg) {
+        timebaseCallback = timebase_callback;
+        return super.jack_set_timebase_callback_address(client, conditional, timebase_callback, arg);
+    }
+
+}
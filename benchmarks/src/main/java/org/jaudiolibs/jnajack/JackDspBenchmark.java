@@ -0,0 +1,189 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.util.JackDsp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares JackDsp kernels with naive loops using relative get and put on
+ * direct FloatBuffers, as typically written against
+ * {@link JackPort#getFloatBuffer()}.
+ *
+ * The JackDsp kernels are only vectorized on Java 22 and above with the
+ * incubator module available to the forked JVM - run with
+ * <code>-jvmArgsAppend --add-modules=jdk.incubator.vector</code>. The
+ * <code>vectorized</code> state is printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JackDspBenchmark {
+
+    @Param({"64", "256", "1024"})
+    public int bufferSize;
+
+    private FloatBuffer left;
+    private FloatBuffer right;
+    private FloatBuffer mix;
+    private FloatBuffer interleaved;
+    private FloatBuffer[] stereo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        left = buffer(bufferSize);
+        right = buffer(bufferSize);
+        mix = buffer(bufferSize);
+        interleaved = buffer(bufferSize * 2);
+        stereo = new FloatBuffer[]{left, right};
+        for (int i = 0; i < bufferSize; i++) {
+            left.put(i, (float) Math.sin(i * 0.1));
+            right.put(i, (float) Math.cos(i * 0.1));
+        }
+        System.out.println("\nJackDsp vectorized : " + JackDsp.isVectorized());
+    }
+
+    @Benchmark
+    public FloatBuffer gainNaive() {
+        mix.rewind();
+        left.rewind();
+        while (left.hasRemaining()) {
+            mix.put(left.get() * 0.5f);
+        }
+        return mix;
+    }
+
+    @Benchmark
+    public FloatBuffer gainDsp() {
+        JackDsp.gain(left, mix, 0.5f, bufferSize);
+        return mix;
+    }
+
+    @Benchmark
+    public FloatBuffer mixAddNaive() {
+        mix.rewind();
+        left.rewind();
+        while (left.hasRemaining()) {
+            mix.put(mix.get(mix.position()) + left.get() * 0.5f);
+        }
+        return mix;
+    }
+
+    @Benchmark
+    public FloatBuffer mixAddDsp() {
+        JackDsp.mixAdd(left, mix, 0.5f, bufferSize);
+        return mix;
+    }
+
+    @Benchmark
+    public float peakNaive() {
+        float peak = 0;
+        left.rewind();
+        while (left.hasRemaining()) {
+            peak = Math.max(peak, Math.abs(left.get()));
+        }
+        return peak;
+    }
+
+    @Benchmark
+    public float peakDsp() {
+        return JackDsp.peak(left, bufferSize);
+    }
+
+    @Benchmark
+    public float rmsNaive() {
+        double sum = 0;
+        left.rewind();
+        while (left.hasRemaining()) {
+            float f = left.get();
+            sum += f * f;
+        }
+        return (float) Math.sqrt(sum / bufferSize);
+    }
+
+    @Benchmark
+    public float rmsDsp() {
+        return JackDsp.rms(left, bufferSize);
+    }
+
+    @Benchmark
+    public FloatBuffer interleaveNaive() {
+        interleaved.rewind();
+        left.rewind();
+        right.rewind();
+        while (left.hasRemaining()) {
+            interleaved.put(left.get());
+            interleaved.put(right.get());
+        }
+        return interleaved;
+    }
+
+    @Benchmark
+    public FloatBuffer interleaveDsp() {
+        JackDsp.interleave(stereo, interleaved, bufferSize);
+        return interleaved;
+    }
+
+    @Benchmark
+    public FloatBuffer deinterleaveNaive() {
+        interleaved.rewind();
+        left.rewind();
+        right.rewind();
+        while (left.hasRemaining()) {
+            left.put(interleaved.get());
+            right.put(interleaved.get());
+        }
+        return right;
+    }
+
+    @Benchmark
+    public FloatBuffer deinterleaveDsp() {
+        JackDsp.deinterleave(interleaved, stereo, bufferSize);
+        return right;
+    }
+
+    private static FloatBuffer buffer(int size) {
+        return ByteBuffer.allocateDirect(size * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.CallbackReference;
+import com.sun.jna.Function;
+import com.sun.jna.Pointer;
+import java.lang.reflect.Field;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibraryDirect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-cycle native call overhead of the JNA and FFM
+ * JackLibrary implementations - retrieving the buffers of all ports, as done
+ * before every process callback, the frame time query, and dispatch of the
+ * process callback upcall. Requires a running JACK server.
+ *
+ * The <code>processUpcall</code> benchmark calls the native process callback
+ * stub registered by the library directly, through a JNA function call, in
+ * place of the server. The callback retrieves the buffers of all ports. The
+ * cost of the JNA function call is the same for both libraries.
+ *
+ * The FFM benchmarks require Java 22 or above, and are forked with native
+ * access enabled. The JNA benchmarks run on any supported Java version.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public abstract class NativeLibraryBenchmark {
+
+    @Param({"8", "64"})
+    public int ports;
+
+    private JackLibrary lib;
+    private JackClient client;
+    private JackLibrary._jack_port[] portPtrs;
+    private int nframes;
+    private Function processStub;
+    private Object[] processArgs;
+
+    abstract JackLibrary createLibrary() throws Exception;
+
+    /**
+     * Native address of the upcall stub the library has registered for the
+     * process callback.
+     */
+    abstract Pointer processStub(JackLibrary lib, JackLibrary._jack_client client,
+            JackLibrary.JackProcessCallback callback) throws Exception;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        lib = createLibrary();
+        client = new Jack(lib, false).openClient("NativeLibraryBenchmark",
+                EnumSet.of(JackOptions.JackNoStartServer), null);
+        portPtrs = new JackLibrary._jack_port[ports];
+        for (int i = 0; i < ports; i++) {
+            portPtrs[i] = client.registerPort("port" + i, JackPortType.AUDIO,
+                    JackPortFlags.JackPortIsOutput).portPtr;
+        }
+        nframes = client.getBufferSize();
+        Processor processor = new Processor();
+        if (lib.jack_set_process_callback(client.clientPtr, processor, null) != 0) {
+            throw new IllegalStateException("Unable to set process callback");
+        }
+        processStub = Function.getFunction(processStub(lib, client.clientPtr, processor));
+        processArgs = new Object[]{nframes, null};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public long portBuffers() {
+        long acc = 0;
+        for (JackLibrary._jack_port port : portPtrs) {
+            acc += lib.jack_port_get_buffer_address(port, nframes);
+        }
+        return acc;
+    }
+
+    @Benchmark
+    public int frameTime() {
+        return lib.jack_frame_time(client.clientPtr);
+    }
+
+    @Benchmark
+    public int processUpcall() {
+        return processStub.invokeInt(processArgs);
+    }
+
+    private class Processor implements JackLibrary.JackProcessCallback {
+
+        private long acc;
+
+        @Override
+        public int invoke(int nframes) {
+            for (JackLibrary._jack_port port : portPtrs) {
+                acc += lib.jack_port_get_buffer_address(port, nframes);
+            }
+            return 0;
+        }
+
+    }
+
+    @Fork(1)
+    public static class JNA extends NativeLibraryBenchmark {
+
+        @Override
+        JackLibrary createLibrary() {
+            return new JackLibraryDirect();
+        }
+
+        @Override
+        Pointer processStub(JackLibrary lib, JackLibrary._jack_client client,
+                JackLibrary.JackProcessCallback callback) {
+            // JNA caches one native stub per callback object
+            return CallbackReference.getFunctionPointer(callback);
+        }
+
+    }
+
+    @Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+    public static class FFM extends NativeLibraryBenchmark {
+
+        @Override
+        JackLibrary createLibrary() throws Exception {
+            return (JackLibrary) Class.forName("org.jaudiolibs.jnajack.lowlevel.JackLibraryFFM")
+                    .getDeclaredConstructor().newInstance();
+        }
+
+        @Override
+        Pointer processStub(JackLibrary lib, JackLibrary._jack_client client,
+                JackLibrary.JackProcessCallback callback) throws Exception {
+            // stubs are not exposed by the library, so read the per client
+            // cache - benchmarks are compiled for Java 8 so cannot use FFM types
+            Field upcallsField = lib.getClass().getDeclaredField("clientUpcalls");
+            upcallsField.setAccessible(true);
+            Object upcalls = ((Map<?, ?>) upcallsField.get(lib))
+                    .get(Pointer.nativeValue(client.getPointer()));
+            Field stubsField = upcalls.getClass().getDeclaredField("stubs");
+            stubsField.setAccessible(true);
+            Object stub = ((Map<?, ?>) stubsField.get(upcalls)).get(callback);
+            long address = (long) Class.forName("java.lang.foreign.MemorySegment")
+                    .getMethod("address").invoke(stub);
+            return new Pointer(address);
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.util.ParallelProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how one cycle of per-channel DSP scales with the number of
+ * ParallelProcessor workers. Each channel runs a cascade of biquad filters
+ * over its own buffer. Does not require a JACK server.
+ *
+ * Scaling results are only meaningful where there are at least as many
+ * otherwise idle cores as workers + 1. With more workers than free cores,
+ * expect the cost per cycle to rise rather than fall.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelProcessorBenchmark {
+
+    @Param({"0", "1", "3", "7", "15"})
+    public int workers;
+
+    @Param({"16", "128"})
+    public int channels;
+
+    @Param({"64", "256"})
+    public int bufferSize;
+
+    /**
+     * Number of biquad stages per channel.
+     */
+    @Param({"8"})
+    public int stages;
+
+    private ParallelProcessor processor;
+    private ParallelProcessor.Task task;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        processor = ParallelProcessor.create(workers);
+        task = new FilterBank(channels, bufferSize, stages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.close();
+        processor = null;
+    }
+
+    @Benchmark
+    public void cycle() {
+        processor.process(task, channels, bufferSize);
+    }
+
+    private static class FilterBank implements ParallelProcessor.Task {
+
+        private final float[][] buffers;
+        // per channel and stage : x1, x2, y1, y2
+        private final float[][] state;
+        private final int stages;
+
+        private FilterBank(int channels, int bufferSize, int stages) {
+            this.stages = stages;
+            buffers = new float[channels][bufferSize];
+            state = new float[channels][stages * 4];
+            for (float[] buffer : buffers) {
+                for (int i = 0; i < bufferSize; i++) {
+                    buffer[i] = (float) Math.sin(i * 0.1);
+                }
+            }
+        }
+
+        @Override
+        public void process(int index, int nframes) {
+            float[] buffer = buffers[index];
+            float[] s = state[index];
+            // fixed low pass coefficients, stable and close to unity gain
+            final float b0 = 0.2f, b1 = 0.4f, b2 = 0.2f, a1 = -0.3f, a2 = 0.1f;
+            for (int stage = 0; stage < stages; stage++) {
+                int o = stage * 4;
+                float x1 = s[o], x2 = s[o + 1], y1 = s[o + 2], y2 = s[o + 3];
+                for (int i = 0; i < nframes; i++) {
+                    float x = buffer[i];
+                    float y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+                    x2 = x1;
+                    x1 = x;
+                    y2 = y1;
+                    y1 = y;
+                    buffer[i] = y;
+                }
+                s[o] = x1;
+                s[o + 1] = x2;
+                s[o + 2] = y1;
+                s[o + 3] = y2;
+            }
+        }
+
+    }
+
+}
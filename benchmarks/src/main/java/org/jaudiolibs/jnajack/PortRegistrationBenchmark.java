@@ -0,0 +1,105 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares registering and unregistering all ports of a large client one at
+ * a time against the batch API, using the simulated server so no JACK
+ * server is required.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PortRegistrationBenchmark {
+
+    @Param({"64", "1024"})
+    public int ports;
+
+    private String[] names;
+    private JackLibrarySimulated server;
+    private JackClient client;
+
+    @Setup(Level.Trial)
+    public void setupNames() {
+        names = new String[ports];
+        for (int i = 0; i < ports; i++) {
+            names[i] = "port" + i;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupClient() throws JackException {
+        server = new JackLibrarySimulated(JackLibrarySimulated.DEFAULT_SAMPLE_RATE, 64);
+        server.setAutoStart(false);
+        client = Jack.getSimulatedInstance(server).openClient("Benchmark", null, null);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownClient() {
+        server.shutdown();
+        server = null;
+        client = null;
+    }
+
+    @Benchmark
+    public JackPort[] single() throws JackException {
+        JackPort[] registered = new JackPort[ports];
+        for (int i = 0; i < ports; i++) {
+            registered[i] = client.registerPort(names[i], JackPortType.AUDIO,
+                    JackPortFlags.JackPortIsOutput);
+        }
+        for (JackPort port : registered) {
+            client.unregisterPort(port);
+        }
+        return registered;
+    }
+
+    @Benchmark
+    public JackPort[] batch() throws JackException {
+        JackPort[] registered = client.registerPorts(names, JackPortType.AUDIO,
+                JackPortFlags.JackPortIsOutput);
+        client.unregisterPorts(registered);
+        return registered;
+    }
+
+}
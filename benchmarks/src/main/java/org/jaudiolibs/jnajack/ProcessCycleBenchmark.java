@@ -0,0 +1,128 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead JNAJack adds to each process cycle, driving the
+ * process callback of a JackClient backed by the simulated server directly,
+ * without running server cycles. The user callback touches a configurable
+ * number of ports.
+ *
+ * Run with <code>-prof gc</code> to check the allocation rate, which should
+ * be zero.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessCycleBenchmark {
+
+    @Param({"8", "64", "256"})
+    public int ports;
+
+    @Param({"64", "256", "1024"})
+    public int bufferSize;
+
+    /**
+     * Number of ports accessed by the callback each cycle, as a percentage.
+     */
+    @Param({"100", "10"})
+    public int used;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private CapturingJackLibrary lib;
+    private JackClient client;
+    private JackLibrary.JackProcessCallback cycle;
+
+    @Setup(Level.Trial)
+    public void setup() throws JackException {
+        lib = new CapturingJackLibrary(bufferSize);
+        client = Jack.getSimulatedInstance(lib).openClient("Benchmark", null, null);
+        JackPort[] registered = new JackPort[ports];
+        for (int i = 0; i < ports; i++) {
+            registered[i] = client.registerPort("port" + i, JackPortType.AUDIO,
+                    JackPortFlags.JackPortIsOutput);
+        }
+        int count = Math.max(1, ports * used / 100);
+        JackPort[] active = new JackPort[count];
+        System.arraycopy(registered, 0, active, 0, count);
+        client.setLazyPortBuffers(lazy);
+        client.setProcessCallback(new Processor(active));
+        cycle = lib.processCallback;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lib.shutdown();
+        lib = null;
+        client = null;
+        cycle = null;
+    }
+
+    @Benchmark
+    public int cycle() {
+        return cycle.invoke(bufferSize);
+    }
+
+    private static class Processor implements JackProcessCallback {
+
+        private final JackPort[] ports;
+
+        private Processor(JackPort[] ports) {
+            this.ports = ports;
+        }
+
+        @Override
+        public boolean process(JackClient client, int nframes) {
+            for (JackPort port : ports) {
+                FloatBuffer buffer = port.getFloatBuffer();
+                buffer.put(0, buffer.get(0) + 1);
+            }
+            return true;
+        }
+
+    }
+
+}
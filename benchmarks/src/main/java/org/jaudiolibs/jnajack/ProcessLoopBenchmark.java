@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.FloatBuffer;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibraryDirect;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-cycle cost of running the process callback as a native
+ * upcall with running it from a Java owned process loop using
+ * jack_cycle_wait / jack_cycle_signal. Requires a running JACK server, which
+ * is switched to the requested buffer size.
+ *
+ * Each benchmark operation waits for one process cycle, so the primary score
+ * is the period. The result of interest is the <code>cpuPerCycle</code>
+ * secondary score - CPU time in nanoseconds used by the process thread per
+ * cycle, including time spent in the server library.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessLoopBenchmark {
+
+    @Param({"callback", "loop"})
+    public String mode;
+
+    @Param({"32", "64"})
+    public int bufferSize;
+
+    @Param({"8"})
+    public int ports;
+
+    private JackLibrary lib;
+    private JackClient client;
+    private Processor processor;
+    private ThreadMXBean threads;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        lib = new JackLibraryDirect();
+        client = new Jack(lib, true).openClient("ProcessLoopBenchmark",
+                EnumSet.of(JackOptions.JackNoStartServer), null);
+        if (lib.jack_set_buffer_size(client.clientPtr, bufferSize) != 0) {
+            throw new IllegalStateException("Unable to set buffer size " + bufferSize);
+        }
+        JackPort[] registered = new JackPort[ports];
+        for (int i = 0; i < ports; i++) {
+            registered[i] = client.registerPort("port" + i, JackPortType.AUDIO,
+                    JackPortFlags.JackPortIsOutput);
+        }
+        processor = new Processor(registered);
+        if ("loop".equals(mode)) {
+            client.setProcessLoop(processor);
+        } else {
+            client.setProcessCallback(processor);
+        }
+        threads = ManagementFactory.getThreadMXBean();
+        client.activate();
+        awaitCycle(processor.cycles + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public long cycle(CpuCounters counters) {
+        long cycles = awaitCycle(processor.cycles + 1);
+        counters.update(threads, processor);
+        return cycles;
+    }
+
+    private long awaitCycle(long target) {
+        long cycles;
+        while ((cycles = processor.cycles) < target) {
+            LockSupport.parkNanos(10_000);
+        }
+        return cycles;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CpuCounters {
+
+        public double cpuPerCycle;
+
+        private long startCycles = -1;
+        private long startCpu;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            startCycles = -1;
+            cpuPerCycle = 0;
+        }
+
+        private void update(ThreadMXBean threads, Processor processor) {
+            long cycles = processor.cycles;
+            long cpu = threads.getThreadCpuTime(processor.threadId);
+            if (startCycles < 0) {
+                startCycles = cycles;
+                startCpu = cpu;
+            } else if (cycles > startCycles) {
+                cpuPerCycle = (double) (cpu - startCpu) / (cycles - startCycles);
+            }
+        }
+
+    }
+
+    private static class Processor implements JackProcessCallback {
+
+        private final JackPort[] ports;
+
+        private volatile long cycles;
+        private volatile long threadId;
+
+        private Processor(JackPort[] ports) {
+            this.ports = ports;
+        }
+
+        @Override
+        public boolean process(JackClient client, int nframes) {
+            for (JackPort port : ports) {
+                FloatBuffer buffer = port.getFloatBuffer();
+                buffer.put(0, buffer.get(0) + 1);
+            }
+            threadId = Thread.currentThread().getId();
+            cycles++;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.util.concurrent.TimeUnit;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary.jack_position_t;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead JNAJack adds to the timebase and sync callbacks,
+ * driving the wrappers of a JackClient backed by the simulated server
+ * directly. As JACK does, the position alternates between two native
+ * structures.
+ *
+ * The wrappers are address callbacks, taking the position as a long. With
+ * the default JNA direct mapping, JNA invokes them directly with the native
+ * int and long arguments, without a Pointer, boxing or an argument array,
+ * so this covers all of the Java side of a callback. Run with
+ * <code>-prof gc</code> to check the allocation rate, which should be zero.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransportCallbackBenchmark {
+
+    private final static int BUFFER_SIZE = 256;
+
+    private CapturingJackLibrary lib;
+    private JackClient client;
+    private JackLibrary.JackTimebaseAddressCallback timebase;
+    private JackLibrary.JackSyncAddressCallback sync;
+    private long[] positions;
+    private Memory[] memory;
+    private int cycle;
+
+    @Setup(Level.Trial)
+    public void setup() throws JackException {
+        lib = new CapturingJackLibrary(BUFFER_SIZE);
+        client = Jack.getSimulatedInstance(lib).openClient("Benchmark", null, null);
+        client.setTimebaseCallback(new Timebase(), false);
+        client.setSyncCallback((c, position, state) -> true);
+        timebase = lib.timebaseCallback;
+        sync = lib.syncCallback;
+        int size = new jack_position_t().size();
+        memory = new Memory[]{new Memory(size), new Memory(size)};
+        positions = new long[memory.length];
+        for (int i = 0; i < memory.length; i++) {
+            memory[i].clear();
+            positions[i] = Pointer.nativeValue(memory[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lib.shutdown();
+        lib = null;
+        client = null;
+        timebase = null;
+        sync = null;
+    }
+
+    @Benchmark
+    public void timebase() {
+        long pos = positions[cycle++ & 1];
+        timebase.invoke(JackTransportState.JackTransportRolling.getIntValue(),
+                BUFFER_SIZE, pos, 0, 0);
+    }
+
+    @Benchmark
+    public int sync() {
+        long pos = positions[cycle++ & 1];
+        return sync.invoke(JackTransportState.JackTransportStarting.getIntValue(),
+                pos, 0);
+    }
+
+    private static class Timebase implements JackTimebaseCallback {
+
+        @Override
+        public void updatePosition(JackClient invokingClient, JackTransportState state,
+                int nframes, JackPosition position, boolean newPosition) {
+            position.setValid(JackPositionBits.JackPositionBBT);
+            position.setBeatsPerMinute(120);
+            position.incrementTick();
+        }
+
+    }
+
+}
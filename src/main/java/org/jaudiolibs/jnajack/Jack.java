@@ -27,14 +27,21 @@ package org.jaudiolibs.jnajack;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary._jack_port;
 import org.jaudiolibs.jnajack.lowlevel.JackLibraryDirect;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
 
 import com.sun.jna.Callback;
 import com.sun.jna.Native;
@@ -58,6 +65,12 @@ public class Jack {
     private final static Logger LOG = Logger.getLogger(Jack.class.getName());
     private final static String CALL_ERROR_MSG = "Error calling native lib";
     private final static String PROP_DISABLE_CTI = "jnajack.disable-cti";
+    private final static String PROP_LIBRARY = "jnajack.library";
+    private final static String FFM_LIBRARY = "org.jaudiolibs.jnajack.lowlevel.JackLibraryFFM";
+    private final static String PROP_SIM_SAMPLE_RATE = "jnajack.simulated.samplerate";
+    private final static String PROP_SIM_BUFFER_SIZE = "jnajack.simulated.buffersize";
+    private final static String PROP_SIM_REALTIME = "jnajack.simulated.realtime";
+    // errno returned by jack_connect if the ports are already connected
     private static Jack instance;
     final JackLibrary jackLib;
     private Method setCTIMethod;
@@ -65,8 +78,12 @@ public class Jack {
     private Constructor<?> ctiConstructor;
 
     Jack(JackLibrary jackLib) {
+        this(jackLib, !Boolean.getBoolean(PROP_DISABLE_CTI));
+    }
+
+    Jack(JackLibrary jackLib, boolean useCTI) {
         this.jackLib = jackLib;
-        if (!Boolean.getBoolean(PROP_DISABLE_CTI)) {
+        if (useCTI) {
             initCallbackMethods();
         }
     }
@@ -89,11 +106,15 @@ public class Jack {
     }
 
     void setupCTI(Callback callback) {
+        setupCTI(callback, "JNAJack", false);
+    }
+
+    void setupCTI(Callback callback, String threadName, boolean daemon) {
         if (setCTIMethod == null) {
             return;
         }
         try {
-            setCTIMethod.invoke(null, callback, ctiConstructor.newInstance(false, false, "JNAJack"));
+            setCTIMethod.invoke(null, callback, ctiConstructor.newInstance(daemon, false, threadName));
         } catch (Exception ex) {
             LOG.log(Level.WARNING, "Error setting up CallbackThreadInitializer", ex);
         }
@@ -229,26 +250,39 @@ public class Jack {
     public String[] getPorts(JackClient client, String regex, JackPortType type,
             EnumSet<JackPortFlags> flags) throws JackException {
         // don't pass regex String to native method. Invalid Strings can crash the VM
-
-        int fl = 0;
-        if (flags != null) {
-            for (JackPortFlags flag : flags) {
-                fl |= flag.getIntValue();
-            }
+        JackPortQuery query;
+        try {
+            query = JackPortQuery.of(regex, type, flags);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
         }
+        return getPorts(client, query);
+    }
+
+    /**
+     *  Get an array of port names that match the supplied query. Queries
+     * should be created once and reused for repeated lookups.
+     *
+     *  @param client A currently open client
+     *  @param query port query
+     *  @return String[] of full port names, interned.
+     *  @throws JackException
+     *  @see JackPortQuery#withNativeFilter(boolean)
+     */
+    public String[] getPorts(JackClient client, JackPortQuery query) throws JackException {
+        JackPortType type = query.getType();
         String typeString = type == null ? null : type.getTypeString();
         try {
-            Pointer ptr = jackLib.jack_get_ports(client.clientPtr, null,
-                    typeString, new NativeLong(fl));
+            Pointer ptr = jackLib.jack_get_ports(client.clientPtr, query.getNativePattern(),
+                    typeString, new NativeLong(query.getFlagBits()));
             if (ptr == null) {
                 return new String[0];
             } else {
                 String[] names = ptr.getStringArray(0);
                 jackLib.jack_free(ptr);
-                if (regex != null && !regex.isEmpty()) {
-                    names = filterRegex(names, regex);
-                }
-                return names;
+                int count = query.filter(names);
+                return count == names.length ? names : Arrays.copyOf(names, count);
             }
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
@@ -256,17 +290,6 @@ public class Jack {
         }
     }
 
-    private String[] filterRegex(String[] names, String regex) {
-        Pattern pattern = Pattern.compile(regex);
-        ArrayList<String> list = new ArrayList<String>();
-        for (String name : names) {
-            if (pattern.matcher(name).find()) {
-                list.add(name);
-            }
-        }
-        return list.toArray(new String[list.size()]);
-    }
-
     /**
      *  Establish a connection between two ports. When a connection exists, data
      * written to the source port will be available to be read at the
@@ -350,6 +373,176 @@ public class Jack {
         }
     }
 
+    /**
+     *  Make the desired connections, making only the native connect calls
+     * required. Existing connections are never removed - use
+     * {@link #applyConnections(JackClient, Set, JackPortQuery, Executor)}
+     * with a scope to also remove connections that are not desired.
+     *
+     *  @param client A currently open client
+     *  @param desired desired connections
+     *  @return result for every desired connection
+     *  @throws JackException if the current connections cannot be queried
+     *  @see #applyConnections(JackClient, Set, JackPortQuery, Executor)
+     */
+    public List<JackConnectionResult> applyConnections(JackClient client,
+            Set<JackConnection> desired) throws JackException {
+        return applyConnections(client, desired, null, null);
+    }
+
+    /**
+     *  Bring the connections of a set of ports into line with the desired
+     * connections, making only the native connect and disconnect calls
+     * required. If a scope is given, existing connections to the ports it
+     * selects that are not in the desired set are removed. Without a scope,
+     * no connections are removed.
+     *
+     *  If the client has the connection graph enabled, current connections
+     * are read from the {@link JackGraph} rather than queried from the server.
+     * Before each connect call the ports are checked with
+     * <code>jack_port_connected_to</code>, so a connection made since the
+     * current connections were read is reported as unchanged.
+     *
+     *  Individual connection failures do not throw, and are reported in the
+     * returned results.
+     *
+     *  @param client A currently open client
+     *  @param desired desired connections
+     *  @param scope query selecting the ports to remove undesired connections
+     * from, or null to remove no connections
+     *  @param executor executor to issue native calls on in parallel, or null
+     * to issue them sequentially on the calling thread
+     *  @return result for every desired or removed connection, disconnections
+     * first
+     *  @throws JackException if the current connections cannot be queried
+     */
+    public List<JackConnectionResult> applyConnections(JackClient client,
+            Set<JackConnection> desired, JackPortQuery scope, Executor executor)
+            throws JackException {
+        Set<String> managed = new HashSet<>();
+        if (scope != null) {
+            JackGraph graph = client.getGraph();
+            Collections.addAll(managed, graph == null
+                    ? getPorts(client, scope) : graph.getPorts(scope));
+        }
+        Set<String> ports = new HashSet<>(managed);
+        for (JackConnection connection : desired) {
+            ports.add(connection.getSource());
+        }
+        Set<JackConnection> current = findConnections(client, ports);
+        List<JackConnection> disconnect = new ArrayList<>();
+        for (JackConnection connection : current) {
+            if (!desired.contains(connection)
+                    && (managed.contains(connection.getSource())
+                    || managed.contains(connection.getDestination()))) {
+                disconnect.add(connection);
+            }
+        }
+        List<JackConnection> connect = new ArrayList<>();
+        List<JackConnectionResult> results = new ArrayList<>(disconnect.size() + desired.size());
+        for (JackConnection connection : desired) {
+            if (!current.contains(connection)) {
+                connect.add(connection);
+            }
+        }
+        results.addAll(apply(client, disconnect, JackConnectionResult.Action.DISCONNECT, executor));
+        results.addAll(apply(client, connect, JackConnectionResult.Action.CONNECT, executor));
+        for (JackConnection connection : desired) {
+            if (current.contains(connection)) {
+                results.add(new JackConnectionResult(connection,
+                        JackConnectionResult.Action.NONE, 0, null));
+            }
+        }
+        return results;
+    }
+
+    private Set<JackConnection> findConnections(JackClient client, Set<String> ports)
+            throws JackException {
+        Set<JackConnection> connections = new HashSet<>();
+        JackGraph graph = client.getGraph();
+        if (graph != null) {
+            for (String name : ports) {
+                EnumSet<JackPortFlags> flags = graph.getPortFlags(name);
+                if (flags == null) {
+                    continue;
+                }
+                boolean output = flags.contains(JackPortFlags.JackPortIsOutput);
+                for (String other : graph.getConnections(name)) {
+                    connections.add(output ? new JackConnection(name, other)
+                            : new JackConnection(other, name));
+                }
+            }
+            return connections;
+        }
+        try {
+            for (String name : ports) {
+                _jack_port port = jackLib.jack_port_by_name(client.clientPtr, name);
+                if (port == null) {
+                    continue;
+                }
+                boolean output = (jackLib.jack_port_flags(port)
+                        & JackLibrary.JackPortFlags.JackPortIsOutput) != 0;
+                Pointer ptr = jackLib.jack_port_get_all_connections(client.clientPtr, port);
+                if (ptr == null) {
+                    continue;
+                }
+                for (String other : ptr.getStringArray(0)) {
+                    connections.add(output ? new JackConnection(name, other)
+                            : new JackConnection(other, name));
+                }
+                jackLib.jack_free(ptr);
+            }
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        return connections;
+    }
+
+    private List<JackConnectionResult> apply(JackClient client, List<JackConnection> connections,
+            JackConnectionResult.Action action, Executor executor) {
+        List<JackConnectionResult> results = new ArrayList<>(connections.size());
+        if (executor == null || connections.size() < 2) {
+            for (JackConnection connection : connections) {
+                results.add(apply(client, connection, action));
+            }
+            return results;
+        }
+        List<CompletableFuture<JackConnectionResult>> futures = new ArrayList<>(connections.size());
+        for (JackConnection connection : connections) {
+            futures.add(CompletableFuture.supplyAsync(() -> apply(client, connection, action), executor));
+        }
+        for (CompletableFuture<JackConnectionResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private JackConnectionResult apply(JackClient client, JackConnection connection,
+            JackConnectionResult.Action action) {
+        try {
+            int ret;
+            if (action == JackConnectionResult.Action.CONNECT) {
+                _jack_port port = jackLib.jack_port_by_name(client.clientPtr,
+                        connection.getSource());
+                if (port != null && jackLib.jack_port_connected_to(port,
+                        connection.getDestination()) != 0) {
+                    return new JackConnectionResult(connection,
+                            JackConnectionResult.Action.NONE, 0, null);
+                }
+                ret = jackLib.jack_connect(client.clientPtr,
+                        connection.getSource(), connection.getDestination());
+            } else {
+                ret = jackLib.jack_disconnect(client.clientPtr,
+                        connection.getSource(), connection.getDestination());
+            }
+            return new JackConnectionResult(connection, action, ret, null);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            return new JackConnectionResult(connection, action, -1, e);
+        }
+    }
+
     /**
      *  Get the maximum number of characters allowed in a JACK client name
      *
@@ -440,7 +633,31 @@ public class Jack {
             throw new JackException(e);
         }
     }
-    
+
+    /**
+     *  Create a lock-free ring buffer backed by the native jack_ringbuffer.
+     * This does not require an open client, and should not be called from a
+     * realtime thread. The ring buffer should be closed when no longer
+     * required. If the library does not provide native ring buffers, or one
+     * cannot be created, a ring buffer using Java managed off-heap memory is
+     * returned.
+     *
+     *  @param size size in bytes, rounded up to a power of two
+     *  @return ring buffer
+     *  @throws JackException
+     *  @see JackRingBuffer#allocate(int)
+     */
+    public JackRingBuffer createRingBuffer(int size) throws JackException {
+        try {
+            return JackRingBuffer.create(jackLib, size);
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+    }
+
     // @TODO this is not in Jack 1 API - implement usable workaround.
 //    public int[] getVersion() throws JackException {
 //        try {
@@ -462,6 +679,18 @@ public class Jack {
     /**
      *  Get access to the single JNAJack Jack instance.
      *
+     *  By default the native library is accessed using JNA direct mapping. On
+     * Java 22 and above, setting the system property
+     * <code>jnajack.library=ffm</code> will use the Foreign Function and
+     * Memory API instead. If the FFM library is not available, JNA will be
+     * used.
+     *
+     *  Setting <code>jnajack.library=simulated</code> will use an in-process
+     * simulated server instead of the native library. The properties
+     * <code>jnajack.simulated.samplerate</code>,
+     * <code>jnajack.simulated.buffersize</code> and
+     * <code>jnajack.simulated.realtime</code> may be used to configure it.
+     *
      *  @return Jack
      *  @throws net.neilcsmith.jnajack.JackException if native library cannot be
      * loaded.
@@ -470,6 +699,23 @@ public class Jack {
         if (instance != null) {
             return instance;
         }
+        String library = System.getProperty(PROP_LIBRARY);
+        if ("simulated".equals(library)) {
+            JackLibrarySimulated sim = new JackLibrarySimulated(
+                    Integer.getInteger(PROP_SIM_SAMPLE_RATE, JackLibrarySimulated.DEFAULT_SAMPLE_RATE),
+                    Integer.getInteger(PROP_SIM_BUFFER_SIZE, JackLibrarySimulated.DEFAULT_BUFFER_SIZE));
+            sim.setRealtime(!"false".equals(System.getProperty(PROP_SIM_REALTIME)));
+            instance = new Jack(sim, false);
+            return instance;
+        }
+        if ("ffm".equals(library)) {
+            JackLibrary ffmLib = loadFFMLibrary();
+            if (ffmLib != null) {
+                // JNA callback thread handling not required
+                instance = new Jack(ffmLib, false);
+                return instance;
+            }
+        }
         JackLibrary jackLib;
         try {
             jackLib = new JackLibraryDirect();
@@ -480,4 +726,32 @@ public class Jack {
         instance = new Jack(jackLib);
         return instance;
     }
-}
\ No newline at end of file
+
+    /**
+     *  Create a Jack instance backed by the provided simulated server rather
+     * than the native library. Unlike getInstance() a new Jack instance is
+     * returned on each call. Clients opened with it are only visible to
+     * other clients of the same simulated server.
+     *
+     *  @param server simulated server
+     *  @return Jack
+     */
+    public static Jack getSimulatedInstance(JackLibrarySimulated server) {
+        if (server == null) {
+            throw new NullPointerException();
+        }
+        return new Jack(server, false);
+    }
+
+    private static JackLibrary loadFFMLibrary() {
+        try {
+            return (JackLibrary) Class.forName(FFM_LIBRARY)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException ex) {
+            LOG.log(Level.WARNING, "FFM library requires Java 22 or above - falling back to JNA");
+        } catch (Throwable ex) {
+            LOG.log(Level.WARNING, "Unable to load FFM library - falling back to JNA", ex);
+        }
+        return null;
+    }
+}
@@ -26,22 +26,21 @@
  */
 package org.jaudiolibs.jnajack;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary._jack_port;
-import org.jaudiolibs.jnajack.lowlevel.JackLibrary.jack_position_t;
 
 import com.sun.jna.NativeLong;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.ByteByReference;
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
 
 /**
  * Wraps a native Jack client.
@@ -55,7 +54,6 @@ public class JackClient {
 
     private final static Logger LOG = Logger.getLogger(JackClient.class.getName());
     private final static String CALL_ERROR_MSG = "Error calling native lib";
-    private final static int FRAME_SIZE = 4;
 
     final Jack jack;
     final JackLibrary jackLib;
@@ -64,24 +62,43 @@ public class JackClient {
     JackLibrary._jack_client clientPtr; // package private
 
     private ProcessCallbackWrapper processCallback; // reference kept - is in use!
+    private ProcessLoopWrapper processLoop; // reference kept - is in use!
+    private ThreadInitCallbackWrapper threadInitCallback;
     private XRunCallbackWrapper xrunCallback;
     private BufferSizeCallbackWrapper buffersizeCallback;
     private SampleRateCallbackWrapper samplerateCallback;
+    private FreewheelCallbackWrapper freewheelCallback;
     private ClientRegistrationCallbackWrapper clientRegistrationCallback;
     private GraphOrderCallbackWrapper graphOrderChangeCallback;
     private PortRegistrationCallbackWrapper portRegistrationCallback;
     private PortConnectCallbackWrapper portConnectCallback;
+    private PortRenameCallbackWrapper portRenameCallback;
     private ShutdownCallback shutdownCallback;
     private JackShutdownCallback userShutdownCallback;
     private TimebaseCallbackWrapper timebaseCallback;
     private SyncCallbackWrapper syncCallback;
-    private JackPort[] ports;
+    private volatile JackPort[] ports; // copy on write, read by process thread
+    private volatile boolean lazyPortBuffers;
+    private volatile JackProcessTiming processTiming;
+    private volatile JackClientMetrics metrics;
+    private volatile JackTransportSnapshot transportSnapshot;
+    private volatile JackGraph graph;
+    private volatile JackNotificationDispatcher dispatcher;
+    private final JackPortIdCache portIds;
+
+    private int midiBufferSize = -1;
+
+    // process thread state, used for lazy port buffer resolution
+    long processCycle;
+    int processFrames;
+    boolean resolveLazily;
 
     JackClient(String name, Jack jack, JackLibrary._jack_client client) {
         this.name = name;
         this.jack = jack;
         this.jackLib = jack.jackLib;
         this.clientPtr = client;
+        this.portIds = new JackPortIdCache(this);
         shutdownCallback = new ShutdownCallback();
         try {
             jackLib.jack_on_shutdown(client, shutdownCallback, null);
@@ -109,14 +126,95 @@ public class JackClient {
      */
     public JackPort registerPort(String name, JackPortType type, EnumSet<JackPortFlags> flags)
             throws JackException {
+        JackPort port = createPort(name, type, portFlags(flags));
+        addToPortArray(port);
+        return port;
+
+    }
+
+    /**
+     * Convenience method for calling other registerPort - most port creation
+     * only requires one flag so this removes the need to create an EnumSet
+     *
+     * @param name
+     * @param type
+     * @param flag
+     * @return JackPort
+     * @throws JackException
+     */
+    public JackPort registerPort(String name, JackPortType type, JackPortFlags flag)
+            throws JackException {
+        return registerPort(name, type, EnumSet.of(flag));
+    }
+
+    /**
+     * Create multiple ports for the client, all of the same type and flags.
+     * The new ports become visible to the process callback together, in a
+     * single update, which is considerably cheaper than registering each port
+     * in turn for clients with many ports.
+     *
+     * If any port cannot be registered, the ports already registered by this
+     * call are unregistered again before the exception is thrown.
+     *
+     * @param names short names of the ports
+     * @param type
+     * @param flags
+     * @return registered ports, in the same order as names
+     * @throws JackException
+     * @see #registerPort(java.lang.String, org.jaudiolibs.jnajack.JackPortType,
+     * java.util.EnumSet)
+     */
+    public JackPort[] registerPorts(String[] names, JackPortType type, EnumSet<JackPortFlags> flags)
+            throws JackException {
+        int fl = portFlags(flags);
+        JackPort[] registered = new JackPort[names.length];
+        int count = 0;
+        try {
+            for (; count < names.length; count++) {
+                registered[count] = createPort(names[count], type, fl);
+            }
+        } catch (JackException ex) {
+            for (int i = 0; i < count; i++) {
+                try {
+                    jackLib.jack_port_unregister(clientPtr, registered[i].portPtr);
+                } catch (Throwable e) {
+                    LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+                }
+            }
+            throw ex;
+        }
+        addToPortArray(registered);
+        return registered;
+    }
+
+    /**
+     * Convenience method for calling other registerPorts - most port creation
+     * only requires one flag so this removes the need to create an EnumSet
+     *
+     * @param names short names of the ports
+     * @param type
+     * @param flag
+     * @return registered ports, in the same order as names
+     * @throws JackException
+     */
+    public JackPort[] registerPorts(String[] names, JackPortType type, JackPortFlags flag)
+            throws JackException {
+        return registerPorts(names, type, EnumSet.of(flag));
+    }
+
+    private static int portFlags(EnumSet<JackPortFlags> flags) {
         int fl = 0;
         for (JackPortFlags flag : flags) {
             fl |= flag.getIntValue();
-
         }
+        return fl;
+    }
+
+    private JackPort createPort(String name, JackPortType type, int flags)
+            throws JackException {
         String typeString = type.getTypeString();
         NativeLong bufferSize = new NativeLong(type.getBufferSize());
-        NativeLong nativeFlags = new NativeLong(fl);
+        NativeLong nativeFlags = new NativeLong(flags);
         JackLibrary._jack_port portPtr = null;
         try {
             portPtr = jackLib.jack_port_register(
@@ -128,33 +226,30 @@ public class JackClient {
         if (portPtr == null) {
             throw new JackException("Could not register port");
         }
-        JackPort port = new JackPort(name, this, type, portPtr);
-        addToPortArray(port);
-        return port;
-
+        return new JackPort(name, this, type, portPtr);
     }
 
     /**
-     * Convenience method for calling other registerPort - most port creation
-     * only requires one flag so this removes the need to create an EnumSet
-     *
-     * @param name
-     * @param type
-     * @param flag
-     * @return JackPort
-     * @throws JackException
+     * Size in bytes of MIDI port buffers, or 0 if not known.
      */
-    public JackPort registerPort(String name, JackPortType type, JackPortFlags flag)
-            throws JackException {
-        return registerPort(name, type, EnumSet.of(flag));
+    synchronized int getMidiBufferSize() {
+        if (midiBufferSize < 0) {
+            try {
+                midiBufferSize = (int) jackLib.jack_port_type_get_buffer_size(clientPtr,
+                        JackPortType.MIDI.getTypeString()).longValue();
+            } catch (Throwable e) {
+                LOG.log(Level.FINE, "Unable to query MIDI buffer size", e);
+                midiBufferSize = 0;
+            }
+        }
+        return midiBufferSize;
     }
 
-    private void addToPortArray(JackPort port) {
+    private synchronized void addToPortArray(JackPort... added) {
         JackPort[] pts = ports;
-        List<JackPort> portList = new ArrayList<JackPort>(Arrays.asList(pts));
-        portList.add(port);
-        pts = portList.toArray(new JackPort[portList.size()]);
-        ports = pts;
+        JackPort[] updated = Arrays.copyOf(pts, pts.length + added.length);
+        System.arraycopy(added, 0, updated, pts.length, added.length);
+        ports = updated;
     }
 
     /**
@@ -177,12 +272,52 @@ public class JackClient {
         }
     }
 
-    private void removePortFromArray(JackPort port) {
+    /**
+     * Remove multiple ports registered for the client. The ports are removed
+     * from the process callback together, in a single update.
+     * <em>Once unregistered the ports should not be used</em>.
+     *
+     * @param ports The jack ports to unregister
+     * @throws JackException if any port could not be unregistered
+     */
+    public void unregisterPorts(JackPort... ports)
+            throws JackException {
+        Throwable error = null;
+        int failed = 0;
+        for (JackPort port : ports) {
+            try {
+                if (jackLib.jack_port_unregister(clientPtr, port.portPtr) != 0) {
+                    failed++;
+                }
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+                error = e;
+                failed++;
+            }
+        }
+        removePortFromArray(ports);
+        if (error != null) {
+            throw new JackException(error);
+        } else if (failed > 0) {
+            throw new JackException("Could not unregister " + failed + " ports");
+        }
+    }
+
+    private synchronized void removePortFromArray(JackPort... removed) {
         JackPort[] pts = ports;
-        List<JackPort> portList = new ArrayList<JackPort>(Arrays.asList(pts));
-        portList.remove(port);
-        pts = portList.toArray(new JackPort[portList.size()]);
-        ports = pts;
+        Set<JackPort> remove = Collections.newSetFromMap(
+                new IdentityHashMap<JackPort, Boolean>(removed.length * 2));
+        remove.addAll(Arrays.asList(removed));
+        JackPort[] updated = new JackPort[pts.length];
+        int count = 0;
+        for (JackPort port : pts) {
+            if (!remove.contains(port)) {
+                updated[count++] = port;
+            }
+        }
+        if (count < pts.length) {
+            ports = Arrays.copyOf(updated, count);
+        }
     }
 
     /**
@@ -191,8 +326,11 @@ public class JackClient {
      * real-time execution. That means that it cannot call functions that might
      * block for a long time.
      *
+     * NOTE: this cannot be combined with a process loop set with
+     * {@link #setProcessLoop(JackProcessCallback)}.
+     *
      * @param callback
-     * @throws JackException
+     * @throws JackException if a process loop is already set
      */
     public void setProcessCallback(JackProcessCallback callback) throws JackException {
         if (callback == null) {
@@ -204,7 +342,11 @@ public class JackClient {
                 throw new JackException(e);
             }
         } else {
+            if (processLoop != null) {
+                throw new JackException("Process loop already set");
+            }
             ProcessCallbackWrapper wrapper = new ProcessCallbackWrapper(callback);
+            jack.setupCTI(wrapper);
             int ret = -1;
             try {
                 ret = jackLib.jack_set_process_callback(clientPtr, wrapper, null);
@@ -221,39 +363,315 @@ public class JackClient {
     }
 
     /**
-     * Tell the jack server to call the JackXrunCallback whenever there is an
-     * xrun reported by the Jack server.
+     * Run the supplied JackProcessCallback from a process loop owned by
+     * JNAJack, rather than as a callback from the server. The server calls
+     * into Java once, when the client is activated, and a single thread then
+     * loops for the lifetime of the activation, blocking in
+     * <code>jack_cycle_wait</code> until each cycle starts and reporting
+     * completion with <code>jack_cycle_signal</code>. This avoids the cost of
+     * a native to Java callback, and checking the thread is attached to the
+     * VM, every cycle.
      *
-     * @param callback
-     * @throws JackException
+     * The callback is called in exactly the same way as one set with
+     * {@link #setProcessCallback(JackProcessCallback)}, including process
+     * timing, metrics, transport snapshots and port buffer handling.
+     * Returning false ends the loop and removes the client from the process
+     * graph.
      *
+     * NOTE: this cannot be combined with a process callback, and cannot be
+     * called while the client is activated.
+     *
+     * @param callback
+     * @throws JackException if a process callback is already set, or the
+     * server does not support process threads
      */
-    public void setXrunCallback(JackXrunCallback callback) throws JackException {
+    public void setProcessLoop(JackProcessCallback callback) throws JackException {
         if (callback == null) {
             try {
-                jackLib.jack_set_xrun_callback(clientPtr, null, null);
-                xrunCallback = null;
+                jackLib.jack_set_process_thread(clientPtr, null, null);
+                processLoop = null;
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
                 throw new JackException(e);
             }
         } else {
-            XRunCallbackWrapper wrapper = new XRunCallbackWrapper(callback);
+            if (processCallback != null) {
+                throw new JackException("Process callback already set");
+            }
+            ProcessLoopWrapper wrapper = new ProcessLoopWrapper(callback);
             int ret = -1;
             try {
-                ret = jackLib.jack_set_xrun_callback(clientPtr, wrapper, null);
+                ret = jackLib.jack_set_process_thread(clientPtr, wrapper, null);
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
                 throw new JackException(e);
             }
             if (ret == 0) {
-                xrunCallback = wrapper;
+                processLoop = wrapper;
             } else {
                 throw new JackException();
             }
         }
     }
 
+    /**
+     * Tell the JACK server to call the supplied JackThreadInitCallback once on
+     * the thread in which the process callback (or process loop) will run,
+     * before the first cycle. Use a {@link JackThreadInitializer} to name the
+     * thread, set its CPU affinity, touch buffers and warm up code before
+     * the first cycle.
+     *
+     * NOTE: this method cannot be called while the client is activated (after
+     * activate() has been called.)
+     *
+     * @param callback
+     * @throws JackException
+     * @see JackThreadInitializer
+     */
+    public synchronized void setThreadInitCallback(JackThreadInitCallback callback)
+            throws JackException {
+        if (callback == null) {
+            throw new NullPointerException("Passed callback is null.");
+        }
+        ThreadInitCallbackWrapper wrapper = new ThreadInitCallbackWrapper(callback);
+        int ret = -1;
+        try {
+            ret = jackLib.jack_set_thread_init_callback(clientPtr, wrapper, null);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        if (ret == 0) {
+            threadInitCallback = wrapper;
+        } else {
+            throw new JackException();
+        }
+    }
+
+    /**
+     * Set whether port buffers should be resolved lazily. By default, the
+     * buffers of all registered ports are retrieved from the server before
+     * every call to the JackProcessCallback. In lazy mode, a port's buffer is
+     * only retrieved the first time {@link JackPort#getBuffer()},
+     * {@link JackPort#getFloatBuffer()} or a {@link JackMidi} function is
+     * called for that port within the current process cycle. This can
+     * significantly reduce overhead for clients with many ports that are not
+     * all used in every cycle.
+     *
+     * In lazy mode, port buffers must only be accessed from within the
+     * process callback.
+     *
+     * @param lazy whether to resolve port buffers lazily
+     */
+    public void setLazyPortBuffers(boolean lazy) {
+        lazyPortBuffers = lazy;
+    }
+
+    /**
+     * Query whether port buffers are resolved lazily.
+     *
+     * @return true if lazy port buffer resolution is enabled
+     * @see #setLazyPortBuffers(boolean)
+     */
+    public boolean isLazyPortBuffers() {
+        return lazyPortBuffers;
+    }
+
+    /**
+     * Enable or disable per-cycle timing of the process callback. When
+     * enabled, the time taken to refresh port buffers and the time taken by
+     * the JackProcessCallback are recorded every cycle, and the timing is
+     * registered as a JMX MBean. Timing is recorded without locking or
+     * allocation on the process thread. Timing should be enabled before the
+     * client is activated for sample rate changes to be tracked. Disabling
+     * timing discards any recorded statistics.
+     *
+     * @param enabled whether to record process timing
+     * @throws JackException
+     * @see JackProcessTiming
+     */
+    public synchronized void setProcessTimingEnabled(boolean enabled) throws JackException {
+        JackProcessTiming timing = processTiming;
+        if (enabled && timing == null) {
+            installSampleRateCallback();
+            timing = new JackProcessTiming(name, getSampleRate());
+            timing.register();
+            processTiming = timing;
+        } else if (!enabled && timing != null) {
+            processTiming = null;
+            timing.unregister();
+        }
+    }
+
+    /**
+     * Access the process timing for this client, if enabled.
+     *
+     * @return process timing, or null if not enabled
+     * @see #setProcessTimingEnabled(boolean)
+     */
+    public JackProcessTiming getProcessTiming() {
+        return processTiming;
+    }
+
+    /**
+     * Enable or disable client metrics. When enabled, xruns and process cycle
+     * timing are tracked, and the metrics are registered as a JMX MBean.
+     * Metrics must be enabled before the client is activated for xruns to be
+     * counted and sample rate changes to be tracked. Disabling metrics discards any recorded statistics.
+     *
+     * @param enabled whether to track metrics
+     * @throws JackException
+     * @see JackClientMetrics
+     */
+    public synchronized void setMetricsEnabled(boolean enabled) throws JackException {
+        JackClientMetrics m = metrics;
+        if (enabled && m == null) {
+            if (xrunCallback == null) {
+                installXrunCallback(new XRunCallbackWrapper(null));
+            }
+            installSampleRateCallback();
+            m = new JackClientMetrics(this, getSampleRate());
+            m.register();
+            metrics = m;
+        } else if (!enabled && m != null) {
+            metrics = null;
+            m.unregister();
+        }
+    }
+
+    /**
+     * Access the metrics for this client, if enabled. Sample rate changes are
+     * tracked if a JackSampleRateCallback has been set.
+     *
+     * @return client metrics, or null if not enabled
+     * @see #setMetricsEnabled(boolean)
+     */
+    public JackClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enable or disable the transport snapshot. When enabled, the transport
+     * state and position are queried once at the start of every process
+     * cycle and published for other threads to read without native calls.
+     *
+     * @param enabled whether to capture transport snapshots
+     * @see JackTransportSnapshot
+     */
+    public synchronized void setTransportSnapshotEnabled(boolean enabled) {
+        if (enabled && transportSnapshot == null) {
+            transportSnapshot = new JackTransportSnapshot();
+        } else if (!enabled) {
+            transportSnapshot = null;
+        }
+    }
+
+    /**
+     * Access the transport snapshot for this client, if enabled. The snapshot
+     * is only updated while the client is active.
+     *
+     * @return transport snapshot, or null if not enabled
+     * @see #setTransportSnapshotEnabled(boolean)
+     */
+    public JackTransportSnapshot getTransportSnapshot() {
+        return transportSnapshot;
+    }
+
+    /**
+     * Enable or disable the cached connection graph. When enabled, the client
+     * tracks port registration, port connect, client registration and graph
+     * order notifications to keep a {@link JackGraph} up to date. Any
+     * callbacks of these types set on this client continue to be called.
+     *
+     * NOTE: the graph must be enabled before the client is activated.
+     *
+     * @param enabled whether to track the graph
+     * @throws JackException
+     * @see JackGraph
+     */
+    public synchronized void setGraphEnabled(boolean enabled) throws JackException {
+        if (enabled && graph == null) {
+            try {
+                if (portRegistrationCallback == null) {
+                    PortRegistrationCallbackWrapper wrapper = new PortRegistrationCallbackWrapper(null, null);
+                    jackLib.jack_set_port_registration_callback(clientPtr, wrapper, null);
+                    portRegistrationCallback = wrapper;
+                }
+                if (portConnectCallback == null) {
+                    PortConnectCallbackWrapper wrapper = new PortConnectCallbackWrapper(null, null);
+                    jackLib.jack_set_port_connect_callback(clientPtr, wrapper, null);
+                    portConnectCallback = wrapper;
+                }
+                if (clientRegistrationCallback == null) {
+                    ClientRegistrationCallbackWrapper wrapper = new ClientRegistrationCallbackWrapper(null);
+                    jackLib.jack_set_client_registration_callback(clientPtr, wrapper, null);
+                    clientRegistrationCallback = wrapper;
+                }
+                if (graphOrderChangeCallback == null) {
+                    GraphOrderCallbackWrapper wrapper = new GraphOrderCallbackWrapper(null);
+                    jackLib.jack_set_graph_order_callback(clientPtr, wrapper, null);
+                    graphOrderChangeCallback = wrapper;
+                }
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+                throw new JackException(e);
+            }
+            installPortRenameCallback();
+            graph = new JackGraph(this);
+        } else if (!enabled) {
+            graph = null;
+        }
+    }
+
+    /**
+     * Access the cached connection graph for this client, if enabled. The
+     * graph is synchronized with the server when the client is activated.
+     *
+     * @return graph, or null if not enabled
+     * @see #setGraphEnabled(boolean)
+     */
+    public JackGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Tell the jack server to call the JackXrunCallback whenever there is an
+     * xrun reported by the Jack server.
+     *
+     * @param callback
+     * @throws JackException
+     *
+     */
+    public synchronized void setXrunCallback(JackXrunCallback callback) throws JackException {
+        if (callback == null && metrics == null) {
+            try {
+                jackLib.jack_set_xrun_callback(clientPtr, null, null);
+                xrunCallback = null;
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+                throw new JackException(e);
+            }
+        } else {
+            // keep xrun callback while metrics enabled
+            installXrunCallback(new XRunCallbackWrapper(callback));
+        }
+    }
+
+    private void installXrunCallback(XRunCallbackWrapper wrapper) throws JackException {
+        int ret = -1;
+        try {
+            ret = jackLib.jack_set_xrun_callback(clientPtr, wrapper, null);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        if (ret == 0) {
+            xrunCallback = wrapper;
+        } else {
+            throw new JackException();
+        }
+    }
+
     /**
      * Tell the JACK server to call the supplied JackGraphOrderCallback whenever
      * the processing graph is reordered. * All "notification events" are
@@ -310,6 +728,28 @@ public class JackClient {
         }
     }
 
+    /**
+     * Deliver client registration, port registration, port connect, graph
+     * order and xrun callbacks through the provided dispatcher rather than
+     * directly on the JACK notification thread. Pass null to restore direct
+     * delivery. May be changed at any time.
+     *
+     * @param dispatcher dispatcher, or null
+     * @see JackNotificationDispatcher#create()
+     */
+    public void setNotificationDispatcher(JackNotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Access the notification dispatcher, if set.
+     *
+     * @return dispatcher, or null for direct delivery
+     */
+    public JackNotificationDispatcher getNotificationDispatcher() {
+        return dispatcher;
+    }
+
     /**
      * Tell the JACK server to call the supplied JackPortConnectCallback
      * whenever a port is connected or disconnected.
@@ -326,17 +766,56 @@ public class JackClient {
      * @since Jul 23, 2012
      */
     //cjritola 2012
-    public void setPortConnectCallback(JackPortConnectCallback callback)
+    public synchronized void setPortConnectCallback(JackPortConnectCallback callback)
             throws JackException {
         if (callback == null) {
             throw new NullPointerException("Passed callback is null.");
         }
+        PortConnectCallbackWrapper existing = portConnectCallback;
         try {
             jackLib.jack_set_port_connect_callback(
-                    clientPtr, portConnectCallback = new PortConnectCallbackWrapper(callback), null);
+                    clientPtr, portConnectCallback = new PortConnectCallbackWrapper(callback,
+                            existing == null ? null : existing.idCallback), null);
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
         }
+        installPortRenameCallback();
+    }
+
+    /**
+     * Tell the JACK server to call the supplied JackPortIdConnectCallback
+     * whenever a port is connected or disconnected. Unlike
+     * {@link #setPortConnectCallback(JackPortConnectCallback)}, ports are
+     * identified by id, and no port names are looked up unless required by
+     * another callback. May be used alongside a name based callback.
+     *
+     * All "notification events" are received in a separated non RT thread, the
+     * code in the supplied function does not need to be suitable for real-time
+     * execution.
+     *
+     * NOTE: this method cannot be called while the client is activated (after
+     * activate() has been called.)
+     *
+     * @param callback
+     * @throws JackException
+     * @see #getPortName(int)
+     */
+    public synchronized void setPortIdConnectCallback(JackPortIdConnectCallback callback)
+            throws JackException {
+        if (callback == null) {
+            throw new NullPointerException("Passed callback is null.");
+        }
+        PortConnectCallbackWrapper existing = portConnectCallback;
+        PortConnectCallbackWrapper wrapper = new PortConnectCallbackWrapper(
+                existing == null ? null : existing.callback, callback);
+        try {
+            jackLib.jack_set_port_connect_callback(clientPtr, wrapper, null);
+            portConnectCallback = wrapper;
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        installPortRenameCallback();
     }
 
     /**
@@ -355,16 +834,93 @@ public class JackClient {
      * @since Jul 23, 2012
      */
     //cjritola 2012
-    public void setPortRegistrationCallback(JackPortRegistrationCallback callback)
+    public synchronized void setPortRegistrationCallback(JackPortRegistrationCallback callback)
             throws JackException {
         if (callback == null) {
             throw new NullPointerException("Passed callback is null.");
         }
+        PortRegistrationCallbackWrapper existing = portRegistrationCallback;
         try {
             jackLib.jack_set_port_registration_callback(
-                    clientPtr, portRegistrationCallback = new PortRegistrationCallbackWrapper(callback), null);
+                    clientPtr, portRegistrationCallback = new PortRegistrationCallbackWrapper(callback,
+                            existing == null ? null : existing.idCallback), null);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+        }
+        installPortRenameCallback();
+    }
+
+    /**
+     * Tell the JACK server to call the supplied JackPortIdRegistrationCallback
+     * whenever a port is registered or unregistered. Unlike
+     * {@link #setPortRegistrationCallback(JackPortRegistrationCallback)},
+     * ports are identified by id, and no port names are looked up unless
+     * required by another callback. May be used alongside a name based
+     * callback.
+     *
+     * All "notification events" are received in a separated non RT thread, the
+     * code in the supplied function does not need to be suitable for real-time
+     * execution.
+     *
+     * NOTE: this method cannot be called while the client is activated (after
+     * activate() has been called.)
+     *
+     * @param callback
+     * @throws JackException
+     * @see #getPortName(int)
+     */
+    public synchronized void setPortIdRegistrationCallback(JackPortIdRegistrationCallback callback)
+            throws JackException {
+        if (callback == null) {
+            throw new NullPointerException("Passed callback is null.");
+        }
+        PortRegistrationCallbackWrapper existing = portRegistrationCallback;
+        PortRegistrationCallbackWrapper wrapper = new PortRegistrationCallbackWrapper(
+                existing == null ? null : existing.callback, callback);
+        try {
+            jackLib.jack_set_port_registration_callback(clientPtr, wrapper, null);
+            portRegistrationCallback = wrapper;
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        installPortRenameCallback();
+    }
+
+    /**
+     * Get the full name of the port with the given id, as passed to
+     * {@link JackPortIdRegistrationCallback} and
+     * {@link JackPortIdConnectCallback}. Names are cached by id, and the cache
+     * is kept up to date by the port registration notifications, and by port
+     * rename notifications where supported by the server. Otherwise the name
+     * is queried from the server on each call.
+     *
+     * @param portId port id
+     * @return full port name, or null if no port exists with this id
+     * @throws JackException
+     */
+    public String getPortName(int portId) throws JackException {
+        try {
+            return portIds.getName(portId);
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+    }
+
+    private void installPortRenameCallback() {
+        if (portRenameCallback != null) {
+            return;
+        }
+        PortRenameCallbackWrapper wrapper = new PortRenameCallbackWrapper();
+        try {
+            if (jackLib.jack_set_port_rename_callback(clientPtr, wrapper, null) == 0) {
+                portRenameCallback = wrapper;
+                portIds.setRenamesTracked(true);
+            }
+        } catch (Throwable e) {
+            // not supported by all servers - names are queried on each use
+            LOG.log(Level.FINE, "Port rename callback not available", e);
         }
     }
 
@@ -420,6 +976,77 @@ public class JackClient {
         }
     }
 
+    private void installSampleRateCallback() {
+        if (samplerateCallback != null) {
+            return;
+        }
+        SampleRateCallbackWrapper wrapper = new SampleRateCallbackWrapper(null);
+        try {
+            if (jackLib.jack_set_sample_rate_callback(clientPtr, wrapper, null) == 0) {
+                samplerateCallback = wrapper;
+            }
+        } catch (Throwable e) {
+            // cannot be set on an active client - sample rate changes not tracked
+            LOG.log(Level.FINE, "Sample rate callback not available", e);
+        }
+    }
+
+    /**
+     * Set interface to be called whenever the server starts or stops
+     * freewheeling.
+     *
+     * NOTE: this method cannot be called while the client is activated (after
+     * activate() has been called.)
+     *
+     * @param callback
+     * @throws JackException
+     * @see #setFreewheel(boolean)
+     */
+    public void setFreewheelCallback(JackFreewheelCallback callback)
+            throws JackException {
+        if (callback == null) {
+            throw new NullPointerException();
+        }
+        FreewheelCallbackWrapper wrapper = new FreewheelCallbackWrapper(callback);
+        int ret = -1;
+        try {
+            ret = jackLib.jack_set_freewheel_callback(clientPtr, wrapper, null);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        if (ret == 0) {
+            freewheelCallback = wrapper;
+        } else {
+            throw new JackException();
+        }
+    }
+
+    /**
+     * Start or stop the server's freewheel mode. When freewheeling, the
+     * server no longer waits for any external event to begin the start of the
+     * next process cycle, and runs the process graph as fast as all clients
+     * allow. Clients are not called with realtime scheduling, and xruns are
+     * not reported. This affects every client of the server.
+     *
+     * @param freewheel true to start freewheeling, false to return to
+     * realtime mode
+     * @throws JackException
+     * @see org.jaudiolibs.jnajack.util.JackBounce
+     */
+    public void setFreewheel(boolean freewheel) throws JackException {
+        int ret = -1;
+        try {
+            ret = jackLib.jack_set_freewheel(clientPtr, freewheel ? 1 : 0);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            throw new JackException(e);
+        }
+        if (ret != 0) {
+            throw new JackException();
+        }
+    }
+
     /**
      * Set interface to be called if timebase state or position changes
      *
@@ -436,7 +1063,7 @@ public class JackClient {
 
         int ret = -1;
         try {
-            ret = jackLib.jack_set_timebase_callback(clientPtr, conditional ? 1 : 0, wrapper, null);
+            ret = jackLib.jack_set_timebase_callback_address(clientPtr, conditional ? 1 : 0, wrapper, 0);
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
             throw new JackException(e);
@@ -466,7 +1093,7 @@ public class JackClient {
 
         int ret = -1;
         try {
-            ret = jackLib.jack_set_sync_callback(clientPtr, wrapper, null);
+            ret = jackLib.jack_set_sync_callback_address(clientPtr, wrapper, 0);
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
             throw new JackException(e);
@@ -512,6 +1139,15 @@ public class JackClient {
         if (ret != 0) {
             throw new JackException();
         }
+        JackGraph g = graph;
+        if (g != null) {
+            try {
+                g.resync();
+            } catch (JackException ex) {
+                // client is active - graph is left stale for a later resync
+                LOG.log(Level.WARNING, "Unable to synchronize graph on activation", ex);
+            }
+        }
     }
 
     /**
@@ -540,6 +1176,17 @@ public class JackClient {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
         } finally {
             clientPtr = null;
+            portIds.clear();
+            JackProcessTiming timing = processTiming;
+            if (timing != null) {
+                processTiming = null;
+                timing.unregister();
+            }
+            JackClientMetrics m = metrics;
+            if (m != null) {
+                metrics = null;
+                m.unregister();
+            }
         }
     }
 
@@ -554,7 +1201,7 @@ public class JackClient {
      */
     public JackTransportState transportQuery(JackPosition position) throws JackException {
         try {
-            int state = jackLib.jack_transport_query(clientPtr, position.getNativePosition());
+            int state = jackLib.jack_transport_query_address(clientPtr, position.getAddress());
             return JackTransportState.forVal(state);
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
@@ -608,7 +1255,7 @@ public class JackClient {
      */
     public boolean transportReposition(JackPosition position) throws JackException {
         try {
-            return jackLib.jack_transport_reposition(clientPtr, position.getNativePosition()) == 0;
+            return jackLib.jack_transport_reposition_address(clientPtr, position.getAddress()) == 0;
         } catch (Throwable e) {
             LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
             throw new JackException(e);
@@ -778,53 +1425,119 @@ public class JackClient {
 
         ProcessCallbackWrapper(JackProcessCallback callback) {
             this.callback = callback;
-            jack.setupCTI(this);
         }
 
         public int invoke(int nframes) {
+            int ret = cycle(nframes);
+            if (ret != 0) {
+                jack.forceThreadDetach();
+            }
+            return ret;
+        }
+
+        int cycle(int nframes) {
             int ret = 1;
             try {
-                JackPort[] pts = ports;
-
-                for (JackPort port : pts) {
-                    Pointer ptr = jackLib.jack_port_get_buffer(
-                            port.portPtr, nframes);
-                    if (!ptr.equals(port.bufferPtr)) {
-                        port.bufferPtr = ptr;
-                        if (port.type.equals(JackPortType.AUDIO)) {
-                            LOG.log(Level.FINEST, "Creating new audio port buffer");
-                            int nbyteframes = nframes * FRAME_SIZE;
-                            port.byteBuffer = ptr.getByteBuffer(0, nbyteframes);
-                            port.floatBuffer = port.byteBuffer.asFloatBuffer();
-                        } else if (port.type.equals(JackPortType.MIDI)) {
-                            LOG.log(Level.FINEST, "Creating new MIDI port buffer");
-                            port.byteBuffer = ptr.getByteBuffer(0, 0);
-                            port.floatBuffer = port.byteBuffer.asFloatBuffer();
-                        } else {
-                            LOG.log(Level.FINEST, "Creating new custom port buffer");
-                            port.byteBuffer = ptr.getByteBuffer(0, port.type.getBufferSize());
-                            port.floatBuffer = port.byteBuffer.asFloatBuffer();
-                        }
-
-                    } else {
-                        port.byteBuffer.rewind();
-                        port.floatBuffer.rewind();
+                JackProcessTiming timing = processTiming;
+                JackClientMetrics m = metrics;
+                boolean timed = timing != null || m != null;
+                long start = timed ? System.nanoTime() : 0;
+                processCycle++;
+                processFrames = nframes;
+                JackTransportSnapshot snapshot = transportSnapshot;
+                if (snapshot != null) {
+                    snapshot.capture(jackLib, clientPtr);
+                }
+                if (lazyPortBuffers) {
+                    resolveLazily = true;
+                } else {
+                    JackPort[] pts = ports;
+                    for (JackPort port : pts) {
+                        port.updateBuffer(jackLib.jack_port_get_buffer_address(
+                                port.portPtr, nframes), nframes);
                     }
                 }
+                long refreshed = timing == null ? 0 : System.nanoTime();
                 if (callback.process(JackClient.this, nframes)) {
                     ret = 0;
                 }
+                if (timed) {
+                    long end = System.nanoTime();
+                    if (timing != null) {
+                        timing.record(start, refreshed, end, nframes);
+                    }
+                    if (m != null) {
+                        m.record(start, end, nframes);
+                    }
+                }
             } catch (Throwable ex) {
                 LOG.log(Level.SEVERE, "Error in process callback", ex);
                 ret = 1;
-            }
-            if (ret != 0) {
-                jack.forceThreadDetach();
+            } finally {
+                resolveLazily = false;
             }
             return ret;
         }
     }
 
+    private class ThreadInitCallbackWrapper implements JackLibrary.JackThreadInitCallback {
+
+        private final JackThreadInitCallback callback;
+
+        ThreadInitCallbackWrapper(JackThreadInitCallback callback) {
+            this.callback = callback;
+            if (callback instanceof JackThreadInitializer) {
+                // this is the first callback on the thread, so decides how it is attached
+                JackThreadInitializer init = (JackThreadInitializer) callback;
+                jack.setupCTI(this, init.getThreadName(JackClient.this), init.isDaemon());
+            } else {
+                jack.setupCTI(this);
+            }
+        }
+
+        @Override
+        public void invoke(Pointer arg) {
+            try {
+                callback.threadInit(JackClient.this);
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, "Error in thread init callback", e);
+            }
+        }
+    }
+
+    private class ProcessLoopWrapper implements JackLibrary.JackThreadCallback {
+
+        private final ProcessCallbackWrapper cycle;
+
+        ProcessLoopWrapper(JackProcessCallback callback) {
+            this.cycle = new ProcessCallbackWrapper(callback);
+            jack.setupCTI(this);
+        }
+
+        @Override
+        public Pointer invoke(Pointer arg) {
+            try {
+                JackLibrary._jack_client client = clientPtr;
+                while (true) {
+                    // returns zero when the client is deactivated or closed
+                    int nframes = jackLib.jack_cycle_wait(client);
+                    if (nframes == 0) {
+                        break;
+                    }
+                    int ret = cycle.cycle(nframes);
+                    jackLib.jack_cycle_signal(client, ret);
+                    if (ret != 0) {
+                        break;
+                    }
+                }
+            } catch (Throwable ex) {
+                LOG.log(Level.SEVERE, "Error in process loop", ex);
+            }
+            jack.forceThreadDetach();
+            return null;
+        }
+    }
+
     private class XRunCallbackWrapper implements JackLibrary.JackXRunCallback {
 
         JackXrunCallback callback;
@@ -837,7 +1550,19 @@ public class JackClient {
         public int invoke(Pointer arg) {
             int ret = -1;
             try {
-                callback.xrunOccured(JackClient.this);
+                JackClientMetrics m = metrics;
+                if (m != null) {
+                    m.xrun(jackLib.jack_get_xrun_delayed_usecs(clientPtr));
+                }
+                JackXrunCallback cb = callback;
+                if (cb != null) {
+                    JackNotificationDispatcher d = dispatcher;
+                    if (d == null) {
+                        cb.xrunOccured(JackClient.this);
+                    } else {
+                        d.dispatch(() -> cb.xrunOccured(JackClient.this));
+                    }
+                }
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in xrun callback", e);
                 ret = -1;
@@ -879,25 +1604,56 @@ public class JackClient {
     //cjritola 2012
     private class PortConnectCallbackWrapper implements JackLibrary.JackPortConnectCallback {
 
-        JackPortConnectCallback callback;
+        final JackPortConnectCallback callback;
+        final JackPortIdConnectCallback idCallback;
 
-        PortConnectCallbackWrapper(JackPortConnectCallback callback) {
+        PortConnectCallbackWrapper(JackPortConnectCallback callback,
+                JackPortIdConnectCallback idCallback) {
             this.callback = callback;
+            this.idCallback = idCallback;
         }
 
         @Override
         public void invoke(int a, int b, int connect, Pointer arg) {
             try {
-                _jack_port pA = jackLib.jack_port_by_id(clientPtr, a);
-                _jack_port pB = jackLib.jack_port_by_id(clientPtr, b);
-
-                String portNameA = jackLib.jack_port_name(pA);
-                String portNameB = jackLib.jack_port_name(pB);
-
-                if (connect != 0) {
-                    callback.portsConnected(JackClient.this, portNameA, portNameB);
-                } else {
-                    callback.portsDisconnected(JackClient.this, portNameA, portNameB);
+                JackNotificationDispatcher d = dispatcher;
+                JackGraph g = graph;
+                if (g != null || callback != null) {
+                    String portNameA = portIds.getName(a);
+                    String portNameB = portIds.getName(b);
+                    if (g != null && portNameA != null && portNameB != null) {
+                        if (connect != 0) {
+                            g.portsConnected(portNameA, portNameB);
+                        } else {
+                            g.portsDisconnected(portNameA, portNameB);
+                        }
+                    }
+                    if (callback != null) {
+                        if (d == null) {
+                            if (connect != 0) {
+                                callback.portsConnected(JackClient.this, portNameA, portNameB);
+                            } else {
+                                callback.portsDisconnected(JackClient.this, portNameA, portNameB);
+                            }
+                        } else if (connect != 0) {
+                            d.dispatch(() -> callback.portsConnected(JackClient.this, portNameA, portNameB));
+                        } else {
+                            d.dispatch(() -> callback.portsDisconnected(JackClient.this, portNameA, portNameB));
+                        }
+                    }
+                }
+                if (idCallback != null) {
+                    if (d == null) {
+                        if (connect != 0) {
+                            idCallback.portsConnected(JackClient.this, a, b);
+                        } else {
+                            idCallback.portsDisconnected(JackClient.this, a, b);
+                        }
+                    } else if (connect != 0) {
+                        d.dispatch(() -> idCallback.portsConnected(JackClient.this, a, b));
+                    } else {
+                        d.dispatch(() -> idCallback.portsDisconnected(JackClient.this, a, b));
+                    }
                 }
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in port connection callback", e);
@@ -918,10 +1674,29 @@ public class JackClient {
         public void invoke(ByteByReference name, int register, Pointer arg) {
             try {
                 String nameString = name.getPointer().getString(0);
-                if (register != 0) {
-                    callback.clientRegistered(JackClient.this, nameString);
+                JackGraph g = graph;
+                if (g != null) {
+                    if (register != 0) {
+                        g.clientRegistered(nameString);
+                    } else {
+                        g.clientUnregistered(nameString);
+                    }
+                }
+                JackClientRegistrationCallback cb = callback;
+                if (cb == null) {
+                    return;
+                }
+                JackNotificationDispatcher d = dispatcher;
+                if (d == null) {
+                    if (register != 0) {
+                        cb.clientRegistered(JackClient.this, nameString);
+                    } else {
+                        cb.clientUnregistered(JackClient.this, nameString);
+                    }
+                } else if (register != 0) {
+                    d.dispatch(() -> cb.clientRegistered(JackClient.this, nameString));
                 } else {
-                    callback.clientUnregistered(JackClient.this, nameString);
+                    d.dispatch(() -> cb.clientUnregistered(JackClient.this, nameString));
                 }
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in client registration callback", e);
@@ -932,25 +1707,84 @@ public class JackClient {
     //cjritola 2012
     private class PortRegistrationCallbackWrapper implements JackLibrary.JackPortRegistrationCallback {
 
-        JackPortRegistrationCallback callback;
+        final JackPortRegistrationCallback callback;
+        final JackPortIdRegistrationCallback idCallback;
 
-        PortRegistrationCallbackWrapper(JackPortRegistrationCallback callback) {
+        PortRegistrationCallbackWrapper(JackPortRegistrationCallback callback,
+                JackPortIdRegistrationCallback idCallback) {
             this.callback = callback;
+            this.idCallback = idCallback;
         }
 
         @Override
         public void invoke(int port, int int1, Pointer arg) {
             try {
-
-                _jack_port p = jackLib.jack_port_by_id(clientPtr, port);
-                String portName = jackLib.jack_port_name(p);
                 if (int1 != 0) {
-                    callback.portRegistered(JackClient.this, portName);
-                } else {
-                    callback.portUnregistered(JackClient.this, portName);
+                    // ids may be reused - drop anything cached for a previous port
+                    portIds.invalidate(port);
+                }
+                JackNotificationDispatcher d = dispatcher;
+                JackGraph g = graph;
+                if (g != null || callback != null) {
+                    String portName = portIds.getName(port);
+                    if (g != null && portName != null) {
+                        if (int1 != 0) {
+                            g.portRegistered(portIds.getPort(port), portName);
+                        } else {
+                            g.portUnregistered(portName);
+                        }
+                    }
+                    if (callback != null) {
+                        if (d == null) {
+                            if (int1 != 0) {
+                                callback.portRegistered(JackClient.this, portName);
+                            } else {
+                                callback.portUnregistered(JackClient.this, portName);
+                            }
+                        } else if (int1 != 0) {
+                            d.dispatch(() -> callback.portRegistered(JackClient.this, portName));
+                        } else {
+                            d.dispatch(() -> callback.portUnregistered(JackClient.this, portName));
+                        }
+                    }
+                }
+                if (idCallback != null) {
+                    if (d == null) {
+                        if (int1 != 0) {
+                            idCallback.portRegistered(JackClient.this, port);
+                        } else {
+                            idCallback.portUnregistered(JackClient.this, port);
+                        }
+                    } else if (int1 != 0) {
+                        d.dispatch(() -> idCallback.portRegistered(JackClient.this, port));
+                    } else {
+                        d.dispatch(() -> idCallback.portUnregistered(JackClient.this, port));
+                    }
                 }
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in port registration callback", e);
+            } finally {
+                if (int1 == 0) {
+                    portIds.invalidate(port);
+                }
+            }
+        }
+    }
+
+    private class PortRenameCallbackWrapper implements JackLibrary.JackPortRenameCallback {
+
+        @Override
+        public void invoke(int port, Pointer oldName, Pointer newName, Pointer arg) {
+            try {
+                String oldString = oldName.getString(0);
+                String newString = newName.getString(0);
+                portIds.renamed(port, newString);
+                JackGraph g = graph;
+                if (g != null) {
+                    g.portRenamed(oldString, newString);
+                }
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, "Error in port rename callback", e);
             }
         }
     }
@@ -959,18 +1793,59 @@ public class JackClient {
     private class GraphOrderCallbackWrapper implements JackLibrary.JackGraphOrderCallback {
 
         JackGraphOrderCallback callback;
+        // set while a dispatched event is pending, to coalesce repeats
+        final AtomicBoolean pending;
+        final Runnable event;
 
         GraphOrderCallbackWrapper(JackGraphOrderCallback callback) {
             this.callback = callback;
+            this.pending = new AtomicBoolean();
+            this.event = () -> {
+                pending.set(false);
+                callback.graphOrderChanged(JackClient.this);
+            };
         }
 
         @Override
         public int invoke(Pointer arg) {
-            callback.graphOrderChanged(JackClient.this);
+            try {
+                JackGraph g = graph;
+                if (g != null) {
+                    g.graphOrderChanged();
+                }
+                if (callback != null) {
+                    JackNotificationDispatcher d = dispatcher;
+                    if (d == null) {
+                        callback.graphOrderChanged(JackClient.this);
+                    } else if (pending.compareAndSet(false, true) && !d.dispatch(event)) {
+                        pending.set(false);
+                    }
+                }
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, "Error in graph order callback", e);
+            }
             return 0;
         }
     }
 
+    private class FreewheelCallbackWrapper implements JackLibrary.JackFreewheelCallback {
+
+        JackFreewheelCallback callback;
+
+        FreewheelCallbackWrapper(JackFreewheelCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void invoke(int starting, Pointer arg) {
+            try {
+                callback.freewheelChanged(JackClient.this, starting != 0);
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, "Error in freewheel callback", e);
+            }
+        }
+    }
+
     private class SampleRateCallbackWrapper implements JackLibrary.JackSampleRateCallback {
 
         JackSampleRateCallback callback;
@@ -982,7 +1857,18 @@ public class JackClient {
         public int invoke(int nframes, Pointer arg) {
             int ret = -1;
             try {
-                callback.sampleRateChanged(JackClient.this, nframes);
+                JackProcessTiming timing = processTiming;
+                if (timing != null) {
+                    timing.setSampleRate(nframes);
+                }
+                JackClientMetrics m = metrics;
+                if (m != null) {
+                    m.setSampleRate(nframes);
+                }
+                JackSampleRateCallback cb = callback;
+                if (cb != null) {
+                    cb.sampleRateChanged(JackClient.this, nframes);
+                }
                 ret = 0;
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in samplerate callback", e);
@@ -997,37 +1883,31 @@ public class JackClient {
      *
      *
      */
-    private class TimebaseCallbackWrapper implements JackLibrary.JackTimebaseCallback {
+    private class TimebaseCallbackWrapper implements JackLibrary.JackTimebaseAddressCallback {
 
         private final JackTimebaseCallback callback;
+        // repointed at the position passed to each call
+        private final Pointer pointer;
         private final JackPosition position;
-        private final LRUCache<Pointer, EXT_jack_position_t> structs;
 
         public TimebaseCallbackWrapper(JackTimebaseCallback cb) {
             callback = cb;
-            position = new JackPosition(null);
-            structs = new LRUCache<Pointer, EXT_jack_position_t>(4);
+            pointer = new Pointer(0);
+            position = new JackPosition(pointer);
             jack.setupCTI(this);
         }
 
         /*
 		 * (non-Javadoc)
-		 * @see org.jaudiolibs.jnajack.lowlevel.JackLibrary.JackTimebaseCallback#invoke(int, int,
-		 * org.jaudiolibs.jnajack.lowlevel.JackLibrary.jack_position_t, int, com.sun.jna.Pointer)
+		 * @see org.jaudiolibs.jnajack.lowlevel.JackLibrary.JackTimebaseAddressCallback#invoke(int, int,
+		 * long, int, long)
          */
         @Override
-        public void invoke(int state, int nframes, Pointer pos, int new_pos, Pointer arg) {
+        public void invoke(int state, int nframes, long pos, int new_pos, long arg) {
             try {
                 JackTransportState stateEnum = JackTransportState.forVal(state);
-                EXT_jack_position_t nativePos = structs.get(pos);
-                if (nativePos == null) {
-                    nativePos = new EXT_jack_position_t(pos);
-                    structs.put(pos, nativePos);
-                }
-                nativePos.read();
-                position.setNativePosition(nativePos);
+                Pointer.nativeValue(pointer, pos);
                 callback.updatePosition(JackClient.this, stateEnum, nframes, position, new_pos != 0);
-                nativePos.write();
             } catch (Throwable e) {
                 LOG.log(Level.SEVERE, "Error in timebase callback", e);
             }
@@ -1040,37 +1920,31 @@ public class JackClient {
      *
      *
      */
-    private class SyncCallbackWrapper implements JackLibrary.JackSyncCallback {
+    private class SyncCallbackWrapper implements JackLibrary.JackSyncAddressCallback {
 
         private final JackSyncCallback callback;
+        // repointed at the position passed to each call
+        private final Pointer pointer;
         private final JackPosition position;
-        private final LRUCache<Pointer, EXT_jack_position_t> structs;
 
         public SyncCallbackWrapper(JackSyncCallback cb) {
             callback = cb;
-            position = new JackPosition(null);
-            structs = new LRUCache<Pointer, EXT_jack_position_t>(4);
+            pointer = new Pointer(0);
+            position = new JackPosition(pointer);
             jack.setupCTI(this);
         }
 
         /*
 		 * (non-Javadoc)
-		 * @see org.jaudiolibs.jnajack.lowlevel.JackLibrary.JackSyncCallback#invoke(int,
-		 * org.jaudiolibs.jnajack.lowlevel.JackLibrary.jack_position_t, com.sun.jna.Pointer)
+		 * @see org.jaudiolibs.jnajack.lowlevel.JackLibrary.JackSyncAddressCallback#invoke(int,
+		 * long, long)
          */
         @Override
-        public int invoke(int state, Pointer pos, Pointer arg) {
+        public int invoke(int state, long pos, long arg) {
             int ret = -1;
             try {
-                
                 JackTransportState stateEnum = JackTransportState.forVal(state);
-                EXT_jack_position_t nativePos = structs.get(pos);
-                if (nativePos == null) {
-                    nativePos = new EXT_jack_position_t(pos);
-                    structs.put(pos, nativePos);
-                }
-                nativePos.read();
-                position.setNativePosition(nativePos);
+                Pointer.nativeValue(pointer, pos);
                 if (callback.syncPosition(JackClient.this, position, stateEnum)) {
                     ret = 0;
                 }
@@ -1081,29 +1955,4 @@ public class JackClient {
         }
     }
 
-    private static class LRUCache<K, V> extends LinkedHashMap<K, V> {
-
-        private final int maxSize;
-
-        private LRUCache(int maxSize) {
-            super(maxSize, 0.75f, true);
-            this.maxSize = maxSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(Entry<K, V> eldest) {
-            return size() >= maxSize;
-        }
-
-    }
-
-    private static class EXT_jack_position_t extends jack_position_t {
-
-        private EXT_jack_position_t(Pointer ptr) {
-            super(ptr, 0);
-            setAutoSynch(false);
-        }
-
-    }
-
 }
@@ -0,0 +1,242 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+
+/**
+ * Polled health metrics for a client, aggregating the DSP load and delay
+ * statistics reported by the JACK server with xruns and cycle timing
+ * observed by the client. Use to monitor load and warn before audible
+ * dropouts occur.
+ *
+ * Enable using {@link JackClient#setMetricsEnabled(boolean)}. While enabled,
+ * metrics are also registered with the platform MBean server, under the
+ * domain <code>org.jaudiolibs.jnajack</code>. Cycle statistics are recorded
+ * on the process thread without locking or allocation. Server statistics are
+ * queried when read. All methods may be called from any thread, but should
+ * not be called from the process thread.
+ *
+ * @author Neil C Smith
+ */
+public final class JackClientMetrics implements JackClientMetricsMBean {
+
+    private final static Logger LOG = Logger.getLogger(JackClientMetrics.class.getName());
+    private final static String CALL_ERROR_MSG = "Error calling native lib";
+
+    private static final AtomicLongFieldUpdater<JackClientMetrics> CYCLES
+            = AtomicLongFieldUpdater.newUpdater(JackClientMetrics.class, "cycles");
+    private static final AtomicLongFieldUpdater<JackClientMetrics> OVERRUNS
+            = AtomicLongFieldUpdater.newUpdater(JackClientMetrics.class, "overruns");
+    private static final AtomicLongFieldUpdater<JackClientMetrics> XRUNS
+            = AtomicLongFieldUpdater.newUpdater(JackClientMetrics.class, "xruns");
+
+    private final JackClient client;
+    private final JackLibrary jackLib;
+    private final JackTimingHistogram jitter;
+
+    private volatile int sampleRate;
+    private volatile long cycles;
+    private volatile long overruns;
+    private volatile long xruns;
+    private volatile float lastXrunDelay;
+    private volatile boolean resetRequested;
+
+    // process thread only
+    private long lastStart;
+    private long lastPeriod;
+
+    private ObjectName objectName;
+
+    JackClientMetrics(JackClient client, int sampleRate) {
+        this.client = client;
+        this.jackLib = client.jackLib;
+        this.sampleRate = sampleRate;
+        this.jitter = new JackTimingHistogram();
+    }
+
+    /**
+     * Histogram of the deviation in nanoseconds of the time between the start
+     * of consecutive process cycles from the period of the earlier cycle.
+     *
+     * @return jitter histogram
+     */
+    public JackTimingHistogram getJitterHistogram() {
+        return jitter;
+    }
+
+    @Override
+    public String getClientName() {
+        return client.getName();
+    }
+
+    /**
+     * The DSP load of the JACK server, being a running average of the time
+     * taken to process all clients as a percentage of the period.
+     *
+     * @return DSP load percentage, or NaN if not available
+     */
+    @Override
+    public float getDspLoad() {
+        JackLibrary._jack_client ptr = client.clientPtr;
+        if (ptr == null) {
+            return Float.NaN;
+        }
+        try {
+            return jackLib.jack_cpu_load(ptr);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            return Float.NaN;
+        }
+    }
+
+    /**
+     * Number of xruns reported by the server since metrics were enabled or
+     * reset. Metrics must be enabled before the client is activated for
+     * xruns to be counted.
+     *
+     * @return xrun count
+     */
+    @Override
+    public long getXrunCount() {
+        return xruns;
+    }
+
+    /**
+     * Delay in microseconds reported by the server for the most recent xrun.
+     *
+     * @return delay of last xrun in microseconds
+     */
+    @Override
+    public float getLastXrunDelay() {
+        return lastXrunDelay;
+    }
+
+    /**
+     * Maximum delay in microseconds reported by the server backend since
+     * startup or reset.
+     *
+     * @return maximum delay in microseconds, or NaN if not available
+     */
+    @Override
+    public float getMaxDelay() {
+        JackLibrary._jack_client ptr = client.clientPtr;
+        if (ptr == null) {
+            return Float.NaN;
+        }
+        try {
+            return jackLib.jack_get_max_delayed_usecs(ptr);
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            return Float.NaN;
+        }
+    }
+
+    @Override
+    public long getCycleCount() {
+        return cycles;
+    }
+
+    @Override
+    public long getCallbackOverruns() {
+        return overruns;
+    }
+
+    @Override
+    public double getJitterMean() {
+        return jitter.getMean() / 1000;
+    }
+
+    @Override
+    public double getJitter99thPercentile() {
+        return jitter.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getJitterMax() {
+        return jitter.getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        resetRequested = true;
+        jitter.reset();
+        XRUNS.set(this, 0);
+        lastXrunDelay = 0;
+        JackLibrary._jack_client ptr = client.clientPtr;
+        if (ptr != null) {
+            try {
+                jackLib.jack_reset_max_delayed_usecs(ptr);
+            } catch (Throwable e) {
+                LOG.log(Level.SEVERE, CALL_ERROR_MSG, e);
+            }
+        }
+    }
+
+    void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    // called from notification thread
+    void xrun(float delay) {
+        XRUNS.incrementAndGet(this);
+        lastXrunDelay = delay;
+    }
+
+    // called from process thread
+    void record(long start, long end, int nframes) {
+        if (resetRequested) {
+            CYCLES.lazySet(this, 0);
+            OVERRUNS.lazySet(this, 0);
+            resetRequested = false;
+        }
+        int sr = sampleRate;
+        long period = sr > 0 ? nframes * 1_000_000_000L / sr : 0;
+        if (lastStart != 0 && lastPeriod > 0) {
+            jitter.record(Math.abs(start - lastStart - lastPeriod));
+        }
+        lastStart = start;
+        lastPeriod = period;
+        if (period > 0 && end - start > period) {
+            OVERRUNS.lazySet(this, overruns + 1);
+        }
+        CYCLES.lazySet(this, cycles + 1);
+    }
+
+    synchronized void register() {
+        if (objectName == null) {
+            objectName = ManagementSupport.register(this, "ClientMetrics", client.getName());
+        }
+    }
+
+    synchronized void unregister() {
+        ManagementSupport.unregister(objectName);
+        objectName = null;
+    }
+
+}
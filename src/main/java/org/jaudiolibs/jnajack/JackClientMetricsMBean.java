@@ -0,0 +1,90 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * JMX management interface for {@link JackClientMetrics}. All durations are
+ * in microseconds.
+ *
+ * @author Neil C Smith
+ */
+public interface JackClientMetricsMBean {
+
+    /**
+     * @return name of the client
+     */
+    String getClientName();
+
+    /**
+     * @return DSP load of the JACK server as a percentage
+     */
+    float getDspLoad();
+
+    /**
+     * @return number of xruns reported by the server
+     */
+    long getXrunCount();
+
+    /**
+     * @return delay reported for the most recent xrun
+     */
+    float getLastXrunDelay();
+
+    /**
+     * @return maximum delay reported by the server backend
+     */
+    float getMaxDelay();
+
+    /**
+     * @return number of process cycles recorded
+     */
+    long getCycleCount();
+
+    /**
+     * @return number of cycles where the process callback took longer than
+     * the period
+     */
+    long getCallbackOverruns();
+
+    /**
+     * @return mean deviation of cycle start times from the period
+     */
+    double getJitterMean();
+
+    /**
+     * @return 99th percentile deviation of cycle start times from the period
+     */
+    double getJitter99thPercentile();
+
+    /**
+     * @return maximum deviation of cycle start times from the period
+     */
+    double getJitterMax();
+
+    /**
+     * Reset all statistics, including the server's maximum delay.
+     */
+    void reset();
+
+}
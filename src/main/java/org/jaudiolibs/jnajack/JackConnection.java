@@ -0,0 +1,92 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * A connection between an output (source) port and an input (destination)
+ * port, identified by full port names.
+ *
+ * @author Neil C Smith
+ * @see Jack#applyConnections(JackClient, java.util.Set)
+ */
+public final class JackConnection {
+
+    private final String source;
+    private final String destination;
+
+    /**
+     * Create a connection.
+     *
+     * @param source full name of the output port
+     * @param destination full name of the input port
+     */
+    public JackConnection(String source, String destination) {
+        if (source == null || destination == null) {
+            throw new NullPointerException();
+        }
+        this.source = source;
+        this.destination = destination;
+    }
+
+    /**
+     * Full name of the output port.
+     *
+     * @return source port name
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Full name of the input port.
+     *
+     * @return destination port name
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof JackConnection)) {
+            return false;
+        }
+        JackConnection other = (JackConnection) obj;
+        return source.equals(other.source) && destination.equals(other.destination);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * source.hashCode() + destination.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source + " -> " + destination;
+    }
+
+}
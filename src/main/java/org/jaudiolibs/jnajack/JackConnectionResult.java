@@ -0,0 +1,115 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * Result of applying a single connection change.
+ *
+ * @author Neil C Smith
+ * @see Jack#applyConnections(JackClient, java.util.Set)
+ */
+public final class JackConnectionResult {
+
+    /**
+     * Action required to reach the desired connection state.
+     */
+    public enum Action {
+        /**
+         * Connection was already in place.
+         */
+        NONE,
+        /**
+         * Connection was requested.
+         */
+        CONNECT,
+        /**
+         * Connection was removed.
+         */
+        DISCONNECT
+    }
+
+    private final JackConnection connection;
+    private final Action action;
+    private final int errorCode;
+    private final Throwable error;
+
+    JackConnectionResult(JackConnection connection, Action action, int errorCode, Throwable error) {
+        this.connection = connection;
+        this.action = action;
+        this.errorCode = errorCode;
+        this.error = error;
+    }
+
+    /**
+     * The connection this result refers to.
+     *
+     * @return connection
+     */
+    public JackConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * The action taken for this connection.
+     *
+     * @return action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Whether the action succeeded, or no action was required.
+     *
+     * @return true on success
+     */
+    public boolean isSuccess() {
+        return errorCode == 0 && error == null;
+    }
+
+    /**
+     * The value returned by the native connect or disconnect call, or zero on
+     * success or when no call was made.
+     *
+     * @return native error code
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Exception thrown by the native call, if any.
+     *
+     * @return error, or null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return action + " " + connection + (isSuccess() ? "" : " failed (" + errorCode + ")");
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * Callback invoked when the server starts or stops freewheeling.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setFreewheelCallback(JackFreewheelCallback)
+ */
+public interface JackFreewheelCallback {
+
+    /**
+     * Method called when freewheel mode starts or stops.
+     *
+     * @param client The JACK client which is invoking this callback.
+     * @param starting true if the server is starting to freewheel
+     */
+    public void freewheelChanged(JackClient client, boolean starting);
+
+}
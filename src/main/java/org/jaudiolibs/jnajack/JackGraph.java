@@ -0,0 +1,437 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.ByteByReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary._jack_port;
+
+/**
+ * Cached view of the JACK port and connection graph, kept up to date from
+ * the port registration, port connect, client registration and graph order
+ * notifications of the owning client. Lookups of ports, flags, types and
+ * connections are answered from memory without calling into the server, and
+ * are safe to call from any thread, including from within JACK notification
+ * callbacks.
+ *
+ * The graph is fully synchronized with the server when the client is
+ * activated, and may be resynchronized at any time using {@link #resync()}.
+ * If synchronization fails the graph is marked as stale until a later
+ * resync succeeds.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setGraphEnabled(boolean)
+ */
+public final class JackGraph {
+
+    private final static Logger LOG = Logger.getLogger(JackGraph.class.getName());
+
+    private final JackClient client;
+    private final JackLibrary jackLib;
+    private final AtomicLong version;
+    private final Map<String, JackPortType> types;
+
+    private volatile State state;
+    private volatile boolean stale;
+    private List<Consumer<State>> pending;
+
+    JackGraph(JackClient client) {
+        this.client = client;
+        this.jackLib = client.jackLib;
+        this.version = new AtomicLong();
+        this.types = new ConcurrentHashMap<>();
+        types.put(JackPortType.AUDIO.getTypeString(), JackPortType.AUDIO);
+        types.put(JackPortType.MIDI.getTypeString(), JackPortType.MIDI);
+        this.state = new State();
+        this.stale = true;
+    }
+
+    /**
+     * Counter incremented on every change to the graph. Readers can compare
+     * this with a previously read value to skip work when nothing has
+     * changed.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Whether the graph may be out of date with the server, because it has
+     * not yet been synchronized or the last resync failed. Notifications
+     * are still applied to a stale graph.
+     *
+     * @return true if stale
+     * @see #resync()
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Names of all clients that currently own ports, or have been registered
+     * since the last resync.
+     *
+     * @return unmodifiable set of client names
+     */
+    public Set<String> getClients() {
+        return Collections.unmodifiableSet(state.clients);
+    }
+
+    /**
+     * Full names of all ports.
+     *
+     * @return unmodifiable set of port names
+     */
+    public Set<String> getPorts() {
+        return Collections.unmodifiableSet(state.ports.keySet());
+    }
+
+    /**
+     * Get an array of port names that match the requested criteria. Matches
+     * the behaviour of
+     * {@link Jack#getPorts(org.jaudiolibs.jnajack.JackClient, java.lang.String, org.jaudiolibs.jnajack.JackPortType, java.util.EnumSet)}
+     * but without calling into the server.
+     *
+     * @param regex A regular expression to match against the port names. If
+     * null or of zero length then no filtering will be done.
+     * @param type A JackPortType to filter results by. If null, the results
+     * will not be filtered by type.
+     * @param flags A set of JackPortFlags to filter results by. If the set is
+     * empty or null then the results will not be filtered.
+     * @return String[] of full port names.
+     */
+    public String[] getPorts(String regex, JackPortType type, EnumSet<JackPortFlags> flags) {
+        return getPorts(JackPortQuery.of(regex, type, flags));
+    }
+
+    /**
+     * Get an array of port names that match the supplied query, without
+     * calling into the server.
+     *
+     * @param query port query
+     * @return String[] of full port names.
+     */
+    public String[] getPorts(JackPortQuery query) {
+        List<String> names = new ArrayList<>();
+        for (Port port : state.ports.values()) {
+            if (query.matches(port.name, port.flags, port.type.getTypeString())) {
+                names.add(port.name);
+            }
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Whether a port of the given name exists.
+     *
+     * @param fullPortName full port name
+     * @return true if the port exists
+     */
+    public boolean hasPort(String fullPortName) {
+        return state.ports.containsKey(fullPortName);
+    }
+
+    /**
+     * The flags of the given port.
+     *
+     * @param fullPortName full port name
+     * @return port flags, or null if the port does not exist
+     */
+    public EnumSet<JackPortFlags> getPortFlags(String fullPortName) {
+        Port port = state.ports.get(fullPortName);
+        if (port == null) {
+            return null;
+        }
+        EnumSet<JackPortFlags> ret = EnumSet.noneOf(JackPortFlags.class);
+        for (JackPortFlags flag : JackPortFlags.values()) {
+            if ((flag.getIntValue() & port.flags) != 0) {
+                ret.add(flag);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The type of the given port. Audio and MIDI ports return
+     * {@link JackPortType#AUDIO} and {@link JackPortType#MIDI}.
+     *
+     * @param fullPortName full port name
+     * @return port type, or null if the port does not exist
+     */
+    public JackPortType getPortType(String fullPortName) {
+        Port port = state.ports.get(fullPortName);
+        return port == null ? null : port.type;
+    }
+
+    /**
+     * Full names of the ports connected to the given port.
+     *
+     * @param fullPortName full port name
+     * @return unmodifiable set of port names, empty if the port does not exist
+     */
+    public Set<String> getConnections(String fullPortName) {
+        Port port = state.ports.get(fullPortName);
+        return port == null ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(port.connections);
+    }
+
+    /**
+     * Whether the two ports are connected.
+     *
+     * @param portA full name of one port
+     * @param portB full name of the other port
+     * @return true if connected
+     */
+    public boolean isConnected(String portA, String portB) {
+        Port port = state.ports.get(portA);
+        return port != null && port.connections.contains(portB);
+    }
+
+    /**
+     * Rebuild the graph by querying the server. This should not normally be
+     * required, but might be used if notifications may have been missed. Must
+     * not be called from a JACK notification callback.
+     *
+     * @throws JackException
+     */
+    public void resync() throws JackException {
+        synchronized (this) {
+            if (pending != null) {
+                // resync already in progress on another thread
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        State fresh = null;
+        try {
+            fresh = query();
+        } finally {
+            synchronized (this) {
+                if (fresh != null) {
+                    for (Consumer<State> event : pending) {
+                        event.accept(fresh);
+                    }
+                    state = fresh;
+                    version.incrementAndGet();
+                }
+                stale = fresh == null;
+                pending = null;
+            }
+        }
+    }
+
+    private State query() throws JackException {
+        JackLibrary._jack_client clientPtr = client.clientPtr;
+        State fresh = new State();
+        try {
+            String[] names = new String[0];
+            Pointer ptr = jackLib.jack_get_ports(clientPtr, null, null, new NativeLong(0));
+            if (ptr != null) {
+                names = ptr.getStringArray(0);
+                jackLib.jack_free(ptr);
+            }
+            for (String name : names) {
+                _jack_port p = jackLib.jack_port_by_name(clientPtr, name);
+                if (p == null) {
+                    continue;
+                }
+                Port port = createPort(p, name);
+                Pointer con = jackLib.jack_port_get_all_connections(clientPtr, p);
+                if (con != null) {
+                    Collections.addAll(port.connections, con.getStringArray(0));
+                    jackLib.jack_free(con);
+                }
+                fresh.addPort(port);
+            }
+            fresh.clients.add(client.getName());
+        } catch (Throwable e) {
+            LOG.log(Level.SEVERE, "Error synchronizing graph", e);
+            throw new JackException(e);
+        }
+        return fresh;
+    }
+
+    void portRegistered(_jack_port p, String name) {
+        Port port = createPort(p, name);
+        // each state gets its own copy, as connections are mutable
+        update(s -> s.addPort(new Port(port.name, port.flags, port.type)));
+    }
+
+    void portUnregistered(String name) {
+        update(s -> s.removePort(name));
+    }
+
+    void portRenamed(String oldName, String newName) {
+        update(s -> s.renamePort(oldName, newName));
+    }
+
+    void portsConnected(String portA, String portB) {
+        update(s -> s.connect(portA, portB));
+    }
+
+    void portsDisconnected(String portA, String portB) {
+        update(s -> s.disconnect(portA, portB));
+    }
+
+    void clientRegistered(String name) {
+        update(s -> s.clients.add(name));
+    }
+
+    void clientUnregistered(String name) {
+        update(s -> s.removeClient(name));
+    }
+
+    void graphOrderChanged() {
+        version.incrementAndGet();
+    }
+
+    private synchronized void update(Consumer<State> event) {
+        event.accept(state);
+        if (pending != null) {
+            pending.add(event);
+        }
+        version.incrementAndGet();
+    }
+
+    private Port createPort(_jack_port p, String name) {
+        int flags = jackLib.jack_port_flags(p);
+        ByteByReference typeRef = jackLib.jack_port_type(p);
+        String typeString = typeRef == null ? "" : typeRef.getPointer().getString(0);
+        JackPortType type = types.get(typeString);
+        if (type == null) {
+            type = new JackPortType(typeString, 0);
+            types.put(typeString, type);
+        }
+        return new Port(name, flags, type);
+    }
+
+    private static String clientName(String portName) {
+        int idx = portName.indexOf(':');
+        return idx < 0 ? portName : portName.substring(0, idx);
+    }
+
+    private static class State {
+
+        private final Map<String, Port> ports = new ConcurrentHashMap<>();
+        private final Set<String> clients = ConcurrentHashMap.newKeySet();
+
+        private void addPort(Port port) {
+            if (ports.putIfAbsent(port.name, port) == null) {
+                clients.add(clientName(port.name));
+            }
+        }
+
+        private void removePort(String name) {
+            Port port = ports.remove(name);
+            if (port != null) {
+                for (String other : port.connections) {
+                    Port o = ports.get(other);
+                    if (o != null) {
+                        o.connections.remove(name);
+                    }
+                }
+            }
+        }
+
+        private void renamePort(String oldName, String newName) {
+            Port port = ports.remove(oldName);
+            if (port == null) {
+                return;
+            }
+            Port renamed = new Port(newName, port.flags, port.type);
+            renamed.connections.addAll(port.connections);
+            ports.put(newName, renamed);
+            for (String other : port.connections) {
+                Port o = ports.get(other);
+                if (o != null) {
+                    o.connections.remove(oldName);
+                    o.connections.add(newName);
+                }
+            }
+        }
+
+        private void removeClient(String name) {
+            clients.remove(name);
+            String prefix = name + ":";
+            for (String port : ports.keySet()) {
+                if (port.startsWith(prefix)) {
+                    removePort(port);
+                }
+            }
+        }
+
+        private void connect(String portA, String portB) {
+            Port a = ports.get(portA);
+            Port b = ports.get(portB);
+            if (a != null && b != null) {
+                a.connections.add(portB);
+                b.connections.add(portA);
+            }
+        }
+
+        private void disconnect(String portA, String portB) {
+            Port a = ports.get(portA);
+            Port b = ports.get(portB);
+            if (a != null) {
+                a.connections.remove(portB);
+            }
+            if (b != null) {
+                b.connections.remove(portA);
+            }
+        }
+
+    }
+
+    private static class Port {
+
+        private final String name;
+        private final int flags;
+        private final JackPortType type;
+        private final Set<String> connections;
+
+        private Port(String name, int flags, JackPortType type) {
+            this.name = name;
+            this.flags = flags;
+            this.type = type;
+            this.connections = ConcurrentHashMap.newKeySet();
+        }
+
+    }
+
+}
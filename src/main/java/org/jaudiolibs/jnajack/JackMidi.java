@@ -24,7 +24,10 @@
  */
 package org.jaudiolibs.jnajack;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
 
 /**
@@ -46,7 +49,7 @@ public class JackMidi {
      */
     public static int getEventCount(JackPort port) throws JackException {
         try {
-            return port.jackLib.jack_midi_get_event_count(port.bufferPtr);
+            return port.jackLib.jack_midi_get_event_count(port.getBufferPointer());
         } catch (Throwable e) {
             throw new JackException(e);
         }
@@ -67,7 +70,7 @@ public class JackMidi {
     public static void eventGet(Event event, JackPort port, int index) throws JackException {
         try {
             JackLibrary.jack_midi_event_t nativeEvent = event.nativeEvent;
-            int result = port.jackLib.jack_midi_event_get(nativeEvent, port.bufferPtr, index);
+            int result = port.jackLib.jack_midi_event_get(nativeEvent, port.getBufferPointer(), index);
             if (result == 0) {
                 return;
             }
@@ -90,7 +93,7 @@ public class JackMidi {
      */
     public static void clearBuffer(JackPort port) throws JackException {
         try {
-            port.jackLib.jack_midi_clear_buffer(port.bufferPtr);
+            port.jackLib.jack_midi_clear_buffer(port.getBufferPointer());
         } catch (Throwable e) {
             throw new JackException(e);
         }
@@ -108,7 +111,7 @@ public class JackMidi {
      */
     public static int maxEventSize(JackPort port) throws JackException {
         try {
-            return port.jackLib.jack_midi_max_event_size(port.bufferPtr);
+            return port.jackLib.jack_midi_max_event_size(port.getBufferPointer());
         } catch (Throwable e) {
             throw new JackException(e);
         }
@@ -136,7 +139,40 @@ public class JackMidi {
      */
     public static void eventWrite(JackPort port, int time, byte[] data, int data_size) throws JackException {
         try {
-            port.jackLib.jack_midi_event_write(port.bufferPtr, time, data, data_size);
+            port.jackLib.jack_midi_event_write(port.getBufferPointer(), time, data, data_size);
+        } catch (Throwable e) {
+            throw new JackException(e);
+        }
+    }
+
+    /**
+     * Reserve space for an event in a JackPort's buffer, so that the event
+     * data can be written in place without copying.
+     *
+     * The returned buffer is a direct view of the port buffer, with the
+     * reserved space between its position and limit. The buffer is reused,
+     * and is only valid until the next call to this method for the same
+     * port, or the end of the process callback.
+     *
+     * The same rules apply as to {@link #eventWrite(JackPort, int, byte[], int)}
+     * - events must be normalised, and reserved in order sorted by their
+     * sample offsets.
+     *
+     * @param port JackPort with buffer to reserve event in
+     * @param time Sample offset of event
+     * @param data_size Length of event data in bytes
+     * @return buffer to write event data into, or null if the event could not
+     * be reserved because the buffer is full or the time is out of order
+     * @throws JackException
+     */
+    public static ByteBuffer eventReserve(JackPort port, int time, int data_size) throws JackException {
+        try {
+            long base = port.getBufferAddress();
+            long address = port.jackLib.jack_midi_event_reserve(base, time, data_size);
+            if (address == 0) {
+                return null;
+            }
+            return port.getBufferRegion((int) (address - base), data_size);
         } catch (Throwable e) {
             throw new JackException(e);
         }
@@ -155,7 +191,7 @@ public class JackMidi {
      */
     public static int getLostEventCount(JackPort port) throws JackException {
         try {
-            return port.jackLib.jack_midi_get_lost_event_count(port.bufferPtr);
+            return port.jackLib.jack_midi_get_lost_event_count(port.getBufferPointer());
         } catch (Throwable e) {
             throw new JackException(e);
         }
@@ -213,4 +249,190 @@ public class JackMidi {
 
     }
 
+    /**
+     * Reusable cursor for iterating over the MIDI events in an input port
+     * buffer. Event data is exposed as a direct ByteBuffer view of the port
+     * buffer, so no data is copied. Once created, a cursor does not allocate,
+     * making it suitable for ports receiving dense streams of events.
+     *
+     * <pre>{@code
+     * int count = cursor.reset(port);
+     * while (cursor.next()) {
+     *     int time = cursor.time();
+     *     byte status = cursor.get(0);
+     *     ...
+     * }
+     * }</pre>
+     *
+     * Create a cursor outside of the process callback, and reuse it every
+     * cycle. A cursor may only be used from one thread, and is only valid
+     * within the process cycle in which it was reset.
+     */
+    public static final class Cursor {
+
+        // jack_midi_event_t { jack_nframes_t time; size_t size; jack_midi_data_t *buffer; }
+        private final static int SIZE_OFFSET = Native.SIZE_T_SIZE;
+        private final static int BUFFER_OFFSET = align(SIZE_OFFSET + Native.SIZE_T_SIZE,
+                Native.POINTER_SIZE);
+
+        private final Memory nativeEvent;
+        private final long eventAddress;
+
+        private JackPort port;
+        private long bufferAddress;
+        private int count;
+        private int index;
+        private int time;
+        private int size;
+        private ByteBuffer data;
+
+        /**
+         * Create a cursor. Also allocates the underlying native struct.
+         */
+        public Cursor() {
+            nativeEvent = new Memory(BUFFER_OFFSET + Native.POINTER_SIZE);
+            eventAddress = Pointer.nativeValue(nativeEvent);
+        }
+
+        /**
+         * Reset the cursor to before the first event in the port buffer.
+         * Must be called in each process cycle before calling
+         * {@link #next()}.
+         *
+         * @param port MIDI port to iterate over
+         * @return number of events in the port buffer
+         * @throws JackException
+         */
+        public int reset(JackPort port) throws JackException {
+            try {
+                this.port = port;
+                bufferAddress = port.getBufferAddress();
+                count = port.jackLib.jack_midi_get_event_count(port.getBufferPointer());
+            } catch (Throwable e) {
+                this.port = null;
+                count = 0;
+                throw new JackException(e);
+            } finally {
+                index = -1;
+                time = 0;
+                size = 0;
+                data = null;
+            }
+            return count;
+        }
+
+        /**
+         * Move to the next event in the port buffer.
+         *
+         * @return false if there are no more events
+         * @throws JackException
+         */
+        public boolean next() throws JackException {
+            if (port == null || index + 1 >= count) {
+                return false;
+            }
+            try {
+                if (port.jackLib.jack_midi_event_get(eventAddress, bufferAddress, index + 1) != 0) {
+                    throw new JackException("ENODATA");
+                }
+                time = nativeEvent.getInt(0);
+                size = (int) word(SIZE_OFFSET, Native.SIZE_T_SIZE);
+                long address = word(BUFFER_OFFSET, Native.POINTER_SIZE);
+                data = port.getBufferRegion((int) (address - bufferAddress), size);
+                index++;
+                return true;
+            } catch (JackException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new JackException(e);
+            }
+        }
+
+        /**
+         * Index of the current event.
+         *
+         * @return index, or -1 if before first event
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Number of events in the port buffer when the cursor was reset.
+         *
+         * @return event count
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Get the sample time from the start of the current frame of the
+         * current event.
+         *
+         * @return int time in samples
+         */
+        public int time() {
+            return time;
+        }
+
+        /**
+         * Get the size of the MIDI data of the current event.
+         *
+         * @return size in bytes
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Get the MIDI data of the current event, between the position and
+         * limit of the returned buffer. The buffer is a view of the port
+         * buffer, shared with other cursors on the same port, and is only
+         * valid until the next call to {@link #next()}. Do not modify the
+         * contents.
+         *
+         * @return direct ByteBuffer of event data
+         */
+        public ByteBuffer data() {
+            return data;
+        }
+
+        /**
+         * Get a byte of MIDI data from the current event.
+         *
+         * @param i index of byte ( 0 -> size() )
+         * @return MIDI data byte
+         */
+        public byte get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException();
+            }
+            return data.get(data.position() + i);
+        }
+
+        /**
+         * Copy the MIDI data of the current event into the provided byte
+         * array. The capacity of the provided array must be at least equal to
+         * size().
+         *
+         * @param dst array to copy data into
+         */
+        public void read(byte[] dst) {
+            int pos = data.position();
+            data.get(dst, 0, size);
+            data.position(pos);
+        }
+
+        private long word(int offset, int width) {
+            return width == 8 ? nativeEvent.getLong(offset)
+                    : nativeEvent.getInt(offset) & 0xFFFFFFFFL;
+        }
+
+        private static int align(int offset, int alignment) {
+            return (offset + alignment - 1) & -alignment;
+        }
+
+    }
+
 }
@@ -0,0 +1,241 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers JACK notifications to user callbacks away from the JACK
+ * notification thread, so that a slow callback does not delay other
+ * notifications (or other clients in the same process).
+ *
+ * Notifications are copied into a bounded lock-free queue by the JACK thread,
+ * and delivered in order on the provided executor. At most one task is
+ * submitted to the executor at a time, so events are never delivered
+ * concurrently, even by an executor with many threads. If the queue is full,
+ * new events are dropped and counted - see {@link #getDroppedCount()}.
+ * Repeated graph order notifications are coalesced while one is still
+ * pending delivery.
+ *
+ * Internal state such as the {@link JackGraph} and the port name cache is
+ * still updated on the JACK thread before an event is queued. Port names
+ * passed to callbacks are those at the time of the notification, but calls
+ * back into the client from a callback reflect the current state.
+ *
+ * A dispatcher may be shared between clients.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setNotificationDispatcher(JackNotificationDispatcher)
+ */
+public final class JackNotificationDispatcher {
+
+    private final static Logger LOG = Logger.getLogger(JackNotificationDispatcher.class.getName());
+    private final static int DEFAULT_CAPACITY = 1024;
+
+    private final Executor executor;
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final AtomicBoolean scheduled;
+    private final AtomicLong dropped;
+    private final Runnable drain;
+
+    private JackNotificationDispatcher(Executor executor, int capacity) {
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.executor = executor;
+        this.mask = size - 1;
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.scheduled = new AtomicBoolean();
+        this.dropped = new AtomicLong();
+        this.drain = this::drain;
+    }
+
+    /**
+     * Create a dispatcher with a default executor and queue capacity. Events
+     * are delivered on virtual threads where supported by the runtime,
+     * otherwise on a daemon thread that exits when idle.
+     *
+     * @return dispatcher
+     */
+    public static JackNotificationDispatcher create() {
+        return new JackNotificationDispatcher(defaultExecutor(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a dispatcher delivering events on the provided executor.
+     *
+     * @param executor executor to deliver events on
+     * @param capacity maximum number of pending events, rounded up to a power
+     * of two
+     * @return dispatcher
+     */
+    public static JackNotificationDispatcher create(Executor executor, int capacity) {
+        return new JackNotificationDispatcher(executor, capacity);
+    }
+
+    /**
+     * Number of events dropped because the queue was full, or the executor
+     * rejected delivery.
+     *
+     * @return dropped event count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Number of events queued but not yet delivered.
+     *
+     * @return pending event count
+     */
+    public int getPendingCount() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Queue an event for delivery.
+     *
+     * @param event event to deliver
+     * @return false if the event was dropped
+     */
+    boolean dispatch(Runnable event) {
+        if (!offer(event)) {
+            if (dropped.getAndIncrement() == 0) {
+                LOG.log(Level.WARNING, "Notification queue full - dropping events");
+            }
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    // bounded multi-producer queue, after Dmitry Vyukov
+    private boolean offer(Runnable event) {
+        while (true) {
+            long pos = tail.get();
+            int idx = (int) pos & mask;
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    events.lazySet(idx, event);
+                    sequences.set(idx, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    // single consumer, guarded by scheduled
+    private Runnable poll() {
+        long pos = head.get();
+        int idx = (int) pos & mask;
+        if (sequences.get(idx) != pos + 1) {
+            return null;
+        }
+        Runnable event = events.get(idx);
+        events.lazySet(idx, null);
+        head.lazySet(pos + 1);
+        sequences.set(idx, pos + mask + 1);
+        return event;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drain);
+            } catch (RejectedExecutionException ex) {
+                LOG.log(Level.WARNING, "Notification executor rejected delivery", ex);
+                Runnable event;
+                while ((event = poll()) != null) {
+                    dropped.incrementAndGet();
+                }
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable event;
+            while ((event = poll()) != null) {
+                try {
+                    event.run();
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in notification callback", t);
+                }
+            }
+            scheduled.set(false);
+            // recheck for events queued after the last poll
+            if (tail.get() == head.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private static Executor defaultExecutor() {
+        try {
+            Method method = java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception ex) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                    5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "JNAJack notifications");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+}
@@ -44,6 +44,8 @@ public class JackPort {
     
     private final static Logger LOG = Logger.getLogger(JackPort.class.getName());
     private final static String CALL_ERROR_MSG = "Error calling native lib";
+    private final static int FRAME_SIZE = 4;
+    private final static int VIEW_CACHE_SIZE = 4;
 
     final JackClient client;
     final String shortName;
@@ -54,8 +56,13 @@ public class JackPort {
     Pointer bufferPtr;
     ByteBuffer byteBuffer;
     FloatBuffer floatBuffer;
-    
-    
+
+    private final BufferView[] views;
+    private final int midiBufferSize;
+    private BufferView currentView;
+    private int nextView;
+    private long bufferCycle;
+
 
     JackPort(String shortName, JackClient client, JackPortType type,
             JackLibrary._jack_port portPtr) {
@@ -64,6 +71,68 @@ public class JackPort {
         this.type = type;
         this.portPtr = portPtr;
         this.jackLib = client.jackLib;
+        this.views = new BufferView[VIEW_CACHE_SIZE];
+        this.midiBufferSize = type.equals(JackPortType.MIDI)
+                ? client.getMidiBufferSize() : 0;
+    }
+
+    /**
+     * Update the buffer references for this port from the native address
+     * returned by jack_port_get_buffer(). Called on the process thread.
+     *
+     * JACK will usually return one of a small number of addresses for each
+     * port, only changing on connection or buffer size changes, so buffer
+     * views are cached by address and reused. Once all views are created,
+     * this method does not allocate.
+     *
+     * @param address native address of the port buffer
+     * @param nframes number of frames in current cycle
+     */
+    void updateBuffer(long address, int nframes) {
+        BufferView view = currentView;
+        if (view == null || view.address != address || view.nframes != nframes) {
+            view = findView(address, nframes);
+            if (view == null) {
+                view = createView(address, nframes);
+            }
+            currentView = view;
+            bufferPtr = view.pointer;
+            byteBuffer = view.byteBuffer;
+            floatBuffer = view.floatBuffer;
+        }
+        byteBuffer.rewind();
+        floatBuffer.rewind();
+    }
+
+    private BufferView findView(long address, int nframes) {
+        for (BufferView view : views) {
+            if (view != null && view.address == address && view.nframes == nframes) {
+                return view;
+            }
+        }
+        return null;
+    }
+
+    private BufferView createView(long address, int nframes) {
+        if (address == 0) {
+            throw new IllegalStateException("No buffer available for port " + shortName);
+        }
+        Pointer ptr = new Pointer(address);
+        ByteBuffer bb;
+        if (type.equals(JackPortType.AUDIO)) {
+            LOG.log(Level.FINEST, "Creating new audio port buffer");
+            bb = ptr.getByteBuffer(0, nframes * FRAME_SIZE);
+        } else if (type.equals(JackPortType.MIDI)) {
+            LOG.log(Level.FINEST, "Creating new MIDI port buffer");
+            bb = ptr.getByteBuffer(0, midiBufferSize);
+        } else {
+            LOG.log(Level.FINEST, "Creating new custom port buffer");
+            bb = ptr.getByteBuffer(0, type.getBufferSize());
+        }
+        BufferView view = new BufferView(address, nframes, ptr, bb, bb.asFloatBuffer());
+        views[nextView] = view;
+        nextView = (nextView + 1) % views.length;
+        return view;
     }
 
     /**
@@ -78,8 +147,8 @@ public class JackPort {
      *
      * @return buffer associated with this port.
      */
-    // @TODO should we create this lazily in call to client. MIDI ports won't require this.
     public ByteBuffer getBuffer() {
+        resolveBuffer();
         return byteBuffer;
     }
 
@@ -93,9 +162,58 @@ public class JackPort {
      * @return buffer associated with this port.
      */
     public FloatBuffer getFloatBuffer() {
+        resolveBuffer();
         return floatBuffer;
     }
 
+    /**
+     * Get the native buffer pointer for use by JackMidi.
+     */
+    Pointer getBufferPointer() {
+        resolveBuffer();
+        return bufferPtr;
+    }
+
+    /**
+     * Get the native buffer address for use by JackMidi.
+     */
+    long getBufferAddress() {
+        resolveBuffer();
+        return currentView.address;
+    }
+
+    /**
+     * Get a direct ByteBuffer view of the current port buffer for use by
+     * JackMidi, with position and limit set to the given region. The view is
+     * cached with the port buffer, and reused.
+     */
+    ByteBuffer getBufferRegion(int offset, int length) {
+        BufferView view = currentView;
+        ByteBuffer region = view.region;
+        if (region == null || region.capacity() < offset + length) {
+            region = view.pointer.getByteBuffer(0,
+                    Math.max(offset + length, view.byteBuffer.capacity()));
+            view.region = region;
+        }
+        region.clear();
+        region.position(offset);
+        region.limit(offset + length);
+        return region;
+    }
+
+    /**
+     * If the client is resolving port buffers lazily, retrieve the buffer for
+     * this port on first access in each process cycle.
+     */
+    private void resolveBuffer() {
+        JackClient cl = client;
+        if (cl.resolveLazily && bufferCycle != cl.processCycle) {
+            bufferCycle = cl.processCycle;
+            updateBuffer(jackLib.jack_port_get_buffer_address(portPtr, cl.processFrames),
+                    cl.processFrames);
+        }
+    }
+
     /**
      * Get the full name for this port including the "client_name:" prefix.
      *
@@ -183,4 +301,24 @@ public class JackPort {
             return nativeRange.max;
         }
     }
-}
\ No newline at end of file
+
+    private static class BufferView {
+
+        private final long address;
+        private final int nframes;
+        private final Pointer pointer;
+        private final ByteBuffer byteBuffer;
+        private final FloatBuffer floatBuffer;
+        private ByteBuffer region;
+
+        private BufferView(long address, int nframes, Pointer pointer,
+                ByteBuffer byteBuffer, FloatBuffer floatBuffer) {
+            this.address = address;
+            this.nframes = nframes;
+            this.pointer = pointer;
+            this.byteBuffer = byteBuffer;
+            this.floatBuffer = floatBuffer;
+        }
+
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.Arrays;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary._jack_port;
+
+/**
+ * Cache of port handles and full names indexed by port id, used by the
+ * notification callbacks to avoid calling into the server on every event.
+ * Entries are resolved lazily on first use, refreshed on registration and
+ * rename, and dropped on unregistration. Until rename notifications are
+ * tracked, cached names are not trusted and are queried again on each use.
+ *
+ * @author Neil C Smith
+ */
+final class JackPortIdCache {
+
+    private final static int INITIAL_CAPACITY = 64;
+
+    private final JackClient client;
+    private final JackLibrary jackLib;
+
+    private _jack_port[] ports;
+    private String[] names;
+    private boolean renamesTracked;
+
+    JackPortIdCache(JackClient client) {
+        this.client = client;
+        this.jackLib = client.jackLib;
+        this.ports = new _jack_port[INITIAL_CAPACITY];
+        this.names = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Port handle for the given id, or null if no such port exists.
+     */
+    synchronized _jack_port getPort(int id) {
+        return resolve(id) ? ports[id] : null;
+    }
+
+    /**
+     * Full port name for the given id, or null if no such port exists.
+     */
+    synchronized String getName(int id) {
+        if (!resolve(id)) {
+            return null;
+        }
+        if (!renamesTracked) {
+            String name = jackLib.jack_port_name(ports[id]);
+            if (name != null) {
+                names[id] = name;
+            }
+        }
+        return names[id];
+    }
+
+    /**
+     * Set once a port rename callback is installed, after which cached names
+     * are kept up to date by {@link #renamed(int, java.lang.String)}.
+     */
+    synchronized void setRenamesTracked(boolean tracked) {
+        renamesTracked = tracked;
+    }
+
+    /**
+     * Discard any entry for the given id. Called on registration, as port ids
+     * may be reused by the server, and after unregistration.
+     */
+    synchronized void invalidate(int id) {
+        if (id >= 0 && id < ports.length) {
+            ports[id] = null;
+            names[id] = null;
+        }
+    }
+
+    synchronized void renamed(int id, String name) {
+        if (id >= 0 && id < names.length && ports[id] != null) {
+            names[id] = name;
+        }
+    }
+
+    synchronized void clear() {
+        Arrays.fill(ports, null);
+        Arrays.fill(names, null);
+    }
+
+    private boolean resolve(int id) {
+        if (id < 0) {
+            return false;
+        }
+        if (id < ports.length && ports[id] != null) {
+            return true;
+        }
+        _jack_port port = jackLib.jack_port_by_id(client.clientPtr, id);
+        if (port == null) {
+            return false;
+        }
+        String name = jackLib.jack_port_name(port);
+        if (name == null) {
+            return false;
+        }
+        if (id >= ports.length) {
+            int capacity = Math.max(ports.length * 2, Integer.highestOneBit(id) << 1);
+            ports = Arrays.copyOf(ports, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        ports[id] = port;
+        names[id] = name;
+        return true;
+    }
+
+}
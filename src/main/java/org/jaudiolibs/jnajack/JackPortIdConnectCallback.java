@@ -0,0 +1,54 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * A JACK callback which is invoked when two ports are connected or
+ * disconnected, and is passed the numeric ids of the ports rather than their
+ * names. Use {@link JackClient#getPortName(int)} to look up the name of a
+ * port from its id.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setPortIdConnectCallback(JackPortIdConnectCallback)
+ */
+public interface JackPortIdConnectCallback {
+
+    /**
+     * Invoked when two ports are connected.
+     *
+     * @param client The JACK client which is invoking this callback.
+     * @param portId1 The id of the first port.
+     * @param portId2 The id of the second port.
+     */
+    public void portsConnected(JackClient client, int portId1, int portId2);
+
+    /**
+     * Invoked when two ports are disconnected.
+     *
+     * @param client The JACK client which is invoking this callback.
+     * @param portId1 The id of the first port.
+     * @param portId2 The id of the second port.
+     */
+    public void portsDisconnected(JackClient client, int portId1, int portId2);
+}
@@ -0,0 +1,53 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * A JACK port registration callback which is passed the numeric id of the
+ * port rather than its name. Use {@link JackClient#getPortName(int)} to look
+ * up the name of a port from its id - names are cached by the client, so
+ * this does not call into the server for known ports.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setPortIdRegistrationCallback(JackPortIdRegistrationCallback)
+ */
+public interface JackPortIdRegistrationCallback {
+
+    /**
+     * Called when a JACK port is registered.
+     *
+     * @param client The JACK client which is invoking this callback.
+     * @param portId The id of the registered port.
+     */
+    public void portRegistered(JackClient client, int portId);
+
+    /**
+     * Called when a JACK port is being unregistered. The port name is still
+     * available from the client during this callback.
+     *
+     * @param client The JACK client which is invoking this callback.
+     * @param portId The id of the unregistered port.
+     */
+    public void portUnregistered(JackClient client, int portId);
+}
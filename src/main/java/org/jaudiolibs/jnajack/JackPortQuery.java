@@ -0,0 +1,241 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.EnumSet;
+import java.util.regex.Pattern;
+
+/**
+ * A reusable, precompiled query for port names, matching on a regular
+ * expression, port type and port flags. Queries are immutable and may be
+ * shared between threads.
+ *
+ * By default, all ports of the requested type and flags are retrieved from
+ * the server and the regular expression is applied in Java. Passing
+ * arbitrary patterns to the server is unsafe, as some JACK versions will
+ * crash the VM on invalid patterns. A query may instead use native
+ * filtering, in which case the longest run of plain characters that every
+ * match must contain is extracted from the expression and passed to the
+ * server to reduce the number of names returned. Only letters, digits,
+ * spaces and the characters <code>_-:</code> are ever passed to the server,
+ * with an optional leading <code>^</code>. The full expression is still
+ * applied in Java unless it consists solely of such characters.
+ *
+ * Port names returned by a query are interned.
+ *
+ * @author Neil C Smith
+ * @see Jack#getPorts(org.jaudiolibs.jnajack.JackClient, org.jaudiolibs.jnajack.JackPortQuery)
+ * @see JackGraph#getPorts(org.jaudiolibs.jnajack.JackPortQuery)
+ */
+public final class JackPortQuery {
+
+    private final String regex;
+    private final Pattern pattern;
+    private final JackPortType type;
+    private final int flags;
+    private final String nativePattern;
+    private final boolean nativeExact;
+
+    private JackPortQuery(String regex, Pattern pattern, JackPortType type, int flags,
+            String nativePattern, boolean nativeExact) {
+        this.regex = regex;
+        this.pattern = pattern;
+        this.type = type;
+        this.flags = flags;
+        this.nativePattern = nativePattern;
+        this.nativeExact = nativeExact;
+    }
+
+    /**
+     * Create a query.
+     *
+     * @param regex A regular expression to match against the port names. If
+     * null or of zero length then no filtering will be done.
+     * @param type A JackPortType to filter results by. If null, the results
+     * will not be filtered by type.
+     * @param flags A set of JackPortFlags to filter results by. If the set is
+     * empty or null then the results will not be filtered.
+     * @return query
+     * @throws java.util.regex.PatternSyntaxException if the expression is
+     * invalid
+     */
+    public static JackPortQuery of(String regex, JackPortType type, EnumSet<JackPortFlags> flags) {
+        int fl = 0;
+        if (flags != null) {
+            for (JackPortFlags flag : flags) {
+                fl |= flag.getIntValue();
+            }
+        }
+        if (regex == null || regex.isEmpty()) {
+            return new JackPortQuery(null, null, type, fl, null, false);
+        }
+        return new JackPortQuery(regex, Pattern.compile(regex), type, fl, null, false);
+    }
+
+    /**
+     * Create a copy of this query with native filtering enabled or disabled.
+     * Has no effect if no safe native pattern can be extracted from the
+     * regular expression.
+     *
+     * @param nativeFilter whether to use native filtering
+     * @return query
+     */
+    public JackPortQuery withNativeFilter(boolean nativeFilter) {
+        if (!nativeFilter) {
+            return nativePattern == null ? this
+                    : new JackPortQuery(regex, pattern, type, flags, null, false);
+        }
+        if (nativePattern != null || regex == null) {
+            return this;
+        }
+        String literal = requiredLiteral(regex);
+        if (literal == null) {
+            return this;
+        }
+        return new JackPortQuery(regex, pattern, type, flags, literal,
+                literal.equals(regex));
+    }
+
+    /**
+     * The pattern that will be passed to the server, if native filtering is
+     * enabled and possible for this query.
+     *
+     * @return native pattern or null
+     */
+    public String getNativePattern() {
+        return nativePattern;
+    }
+
+    /**
+     * The port type, if any.
+     *
+     * @return type or null
+     */
+    public JackPortType getType() {
+        return type;
+    }
+
+    /**
+     * The required port flags, if any.
+     *
+     * @return flags
+     */
+    public EnumSet<JackPortFlags> getFlags() {
+        EnumSet<JackPortFlags> ret = EnumSet.noneOf(JackPortFlags.class);
+        for (JackPortFlags flag : JackPortFlags.values()) {
+            if ((flag.getIntValue() & flags) != 0) {
+                ret.add(flag);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Check whether a port name matches the regular expression of this
+     * query. Does not check type or flags.
+     *
+     * @param fullPortName full port name
+     * @return true if matches
+     */
+    public boolean matchesName(String fullPortName) {
+        return pattern == null || pattern.matcher(fullPortName).find();
+    }
+
+    @Override
+    public String toString() {
+        return "JackPortQuery{regex=" + regex
+                + ", type=" + (type == null ? null : type.getTypeString())
+                + ", flags=" + getFlags()
+                + ", nativePattern=" + nativePattern + "}";
+    }
+
+    int getFlagBits() {
+        return flags;
+    }
+
+    boolean matches(String fullPortName, int portFlags, String typeString) {
+        return (portFlags & flags) == flags
+                && (type == null || type.getTypeString().equals(typeString))
+                && matchesName(fullPortName);
+    }
+
+    /**
+     * Filter names returned from the server by the regular expression of
+     * this query. Type and flags are not checked, as they have already been
+     * applied by the server, and the expression is skipped if the native
+     * pattern was exact. Names are interned in place and the number of
+     * matching names, moved to the start of the array, is returned.
+     */
+    int filter(String[] names) {
+        boolean check = pattern != null && !nativeExact;
+        int count = 0;
+        for (String name : names) {
+            if (!check || pattern.matcher(name).find()) {
+                names[count++] = name.intern();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Extract a pattern of safe characters that any match of the regex must
+     * contain, or null if no such pattern can be found. Only handles the
+     * common case of a run of plain characters at the start of the
+     * expression, optionally anchored with ^.
+     */
+    static String requiredLiteral(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        if (regex.startsWith("^")) {
+            sb.append('^');
+            start = 1;
+        }
+        int end = start;
+        while (end < regex.length() && isSafe(regex.charAt(end))) {
+            end++;
+        }
+        if (end < regex.length()) {
+            char next = regex.charAt(end);
+            if (next == '?' || next == '*' || next == '{') {
+                // last character is optional
+                end--;
+            }
+        }
+        if (end <= start) {
+            return null;
+        }
+        sb.append(regex, start, end);
+        return sb.toString();
+    }
+
+    private static boolean isSafe(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == ' ' || c == '_'
+                || c == '-' || c == ':';
+    }
+
+}
@@ -15,39 +15,95 @@
  */
 package org.jaudiolibs.jnajack;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
 import java.util.EnumSet;
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
 
 /**
  * Wrapper for the native jack_position_t struct.
- *
+ * <p>
+ * Fields are read and written directly in native memory, so accessing a
+ * single field costs a memory load or store rather than synchronizing the
+ * whole structure. Positions passed to the timebase and sync callbacks are
+ * views of the structure owned by JACK, and are only valid for the duration
+ * of the callback.
  */
 public class JackPosition {
 
-    private JackLibrary.jack_position_t nativePosition;
+    private final static int SIZE;
+    private final static int WORDS;
+    private final static int USECS;
+    private final static int FRAME_RATE;
+    private final static int FRAME;
+    private final static int VALID;
+    private final static int BAR;
+    private final static int BEAT;
+    private final static int TICK;
+    private final static int BAR_START_TICK;
+    private final static int BEATS_PER_BAR;
+    private final static int BEAT_TYPE;
+    private final static int TICKS_PER_BEAT;
+    private final static int BEATS_PER_MINUTE;
+    private final static int FRAME_TIME;
+    private final static int NEXT_TIME;
+    private final static int BBT_OFFSET;
+    private final static int AUDIO_FRAMES_PER_VIDEO_FRAME;
+    private final static int VIDEO_OFFSET;
+
+    static {
+        Layout layout = new Layout();
+        WORDS = (layout.size() + 7) / 8;
+        SIZE = WORDS * 8;
+        USECS = layout.offsetOf("usecs");
+        FRAME_RATE = layout.offsetOf("frame_rate");
+        FRAME = layout.offsetOf("frame");
+        VALID = layout.offsetOf("valid");
+        BAR = layout.offsetOf("bar");
+        BEAT = layout.offsetOf("beat");
+        TICK = layout.offsetOf("tick");
+        BAR_START_TICK = layout.offsetOf("bar_start_tick");
+        BEATS_PER_BAR = layout.offsetOf("beats_per_bar");
+        BEAT_TYPE = layout.offsetOf("beat_type");
+        TICKS_PER_BEAT = layout.offsetOf("ticks_per_beat");
+        BEATS_PER_MINUTE = layout.offsetOf("beats_per_minute");
+        FRAME_TIME = layout.offsetOf("frame_time");
+        NEXT_TIME = layout.offsetOf("next_time");
+        BBT_OFFSET = layout.offsetOf("bbt_offset");
+        AUDIO_FRAMES_PER_VIDEO_FRAME = layout.offsetOf("audio_frames_per_video_frame");
+        VIDEO_OFFSET = layout.offsetOf("video_offset");
+    }
+
+    private Pointer memory;
 
     public JackPosition() {
-        nativePosition = new JackLibrary.jack_position_t();
+        Memory mem = new Memory(SIZE);
+        mem.clear();
+        memory = mem;
     }
 
-    JackPosition(JackLibrary.jack_position_t p) {
-        nativePosition = p;
+    JackPosition(Pointer memory) {
+        this.memory = memory;
     }
 
     public final long getUsecs() {
-        return nativePosition.usecs;
+        return memory.getLong(USECS);
     }
 
     public final int getFrameRate() {
-        return nativePosition.frame_rate;
+        return memory.getInt(FRAME_RATE);
     }
 
     public int getFrame() {
-        return nativePosition.frame;
+        return memory.getInt(FRAME);
+    }
+
+    public void setFrame(int frame) {
+        memory.setInt(FRAME, frame);
     }
 
     public void setValid(JackPositionBits valid) {
-        nativePosition.valid = valid.getIntValue();
+        memory.setInt(VALID, valid.getIntValue());
     }
     
     public void setValid(EnumSet<JackPositionBits> valid) {
@@ -55,11 +111,11 @@ public class JackPosition {
         for (JackPositionBits bit : valid) {
             v |= bit.getIntValue();
         }
-        nativePosition.valid = v;
+        memory.setInt(VALID, v);
     }
 
     public EnumSet<JackPositionBits> getValid() {
-        int bits = nativePosition.valid;
+        int bits = memory.getInt(VALID);
         EnumSet<JackPositionBits> ret = EnumSet.noneOf(JackPositionBits.class);
         for (JackPositionBits bit : JackPositionBits.values()) {
             if ((bit.getIntValue() & bits) != 0) {
@@ -70,140 +126,152 @@ public class JackPosition {
     }
 
     public void setBar(int b) {
-        nativePosition.bar = b;
+        memory.setInt(BAR, b);
     }
 
     public int getBar() {
-        return nativePosition.bar;
+        return memory.getInt(BAR);
     }
 
     public void setBeat(int b) {
-        nativePosition.beat = b;
+        memory.setInt(BEAT, b);
     }
 
     public int getBeat() {
-        return nativePosition.beat;
+        return memory.getInt(BEAT);
     }
 
     public void setTick(int t) {
-        nativePosition.tick = t;
+        memory.setInt(TICK, t);
     }
 
     public int getTick() {
-        return nativePosition.tick;
+        return memory.getInt(TICK);
     }
 
     public void setBarStartTick(double bsp) {
-        nativePosition.bar_start_tick = bsp;
+        memory.setDouble(BAR_START_TICK, bsp);
     }
 
     public double getBarStartTick() {
-        return nativePosition.bar_start_tick;
+        return memory.getDouble(BAR_START_TICK);
     }
 
     public void setBeatsPerBar(float bpb) {
-        nativePosition.beats_per_bar = bpb;
+        memory.setFloat(BEATS_PER_BAR, bpb);
     }
 
     public float getBeatsPerBar() {
-        return nativePosition.beats_per_bar;
+        return memory.getFloat(BEATS_PER_BAR);
     }
 
     public void setBeatType(float bt) {
-        nativePosition.beat_type = bt;
+        memory.setFloat(BEAT_TYPE, bt);
     }
 
     public float getBeatType() {
-        return nativePosition.beat_type;
+        return memory.getFloat(BEAT_TYPE);
     }
 
     public void setTicksPerBeat(double tpb) {
-        nativePosition.ticks_per_beat = tpb;
+        memory.setDouble(TICKS_PER_BEAT, tpb);
     }
 
     public double getTicksPerBeat() {
-        return nativePosition.ticks_per_beat;
+        return memory.getDouble(TICKS_PER_BEAT);
     }
 
     public void setBeatsPerMinute(double bpm) {
-        nativePosition.beats_per_minute = bpm;
+        memory.setDouble(BEATS_PER_MINUTE, bpm);
     }
 
     public double getBeatsPerMinute() {
-        return nativePosition.beats_per_minute;
+        return memory.getDouble(BEATS_PER_MINUTE);
     }
 
     public double getFrameTime() {
-        return nativePosition.frame_time;
+        return memory.getDouble(FRAME_TIME);
     }
 
     public double getNextTime() {
-        return nativePosition.next_time;
+        return memory.getDouble(NEXT_TIME);
     }
 
     public int getBbtOffset() {
-        return nativePosition.bbt_offset;
+        return memory.getInt(BBT_OFFSET);
     }
 
     public float getAudioFramesPerVideoFrame() {
-        return nativePosition.audio_frames_per_video_frame;
+        return memory.getFloat(AUDIO_FRAMES_PER_VIDEO_FRAME);
     }
 
     public int getVideoOffset() {
-        return nativePosition.video_offset;
+        return memory.getInt(VIDEO_OFFSET);
     }
 
-    JackLibrary.jack_position_t getNativePosition() {
-        return nativePosition;
+    long getAddress() {
+        return Pointer.nativeValue(memory);
     }
 
-    void setNativePosition(JackLibrary.jack_position_t np) {
-        if (np == null) {
-            throw new NullPointerException();
-        }
+    static int getWordCount() {
+        return WORDS;
+    }
+
+    void readWords(long[] words) {
+        memory.read(0, words, 0, WORDS);
+    }
 
-        nativePosition = np;
+    void setWord(int index, long value) {
+        memory.setLong(index * 8L, value);
     }
 
     // Some convenience methods
     public void incrementBar() {
-        nativePosition.bar++;
+        memory.setInt(BAR, memory.getInt(BAR) + 1);
     }
 
     public void incrementBeat() {
-        nativePosition.beat++;
+        memory.setInt(BEAT, memory.getInt(BEAT) + 1);
     }
 
     public void incrementTick() {
-        nativePosition.tick++;
+        memory.setInt(TICK, memory.getInt(TICK) + 1);
     }
 
     public void addToBar(int toAdd) {
-        nativePosition.bar += toAdd;
+        memory.setInt(BAR, memory.getInt(BAR) + toAdd);
     }
 
     public void addToBeat(int toAdd) {
-        nativePosition.beat += toAdd;
+        memory.setInt(BEAT, memory.getInt(BEAT) + toAdd);
     }
 
     public void addToTick(int toAdd) {
-        nativePosition.tick += toAdd;
+        memory.setInt(TICK, memory.getInt(TICK) + toAdd);
     }
 
     public void addToBarStartTick(double toAdd) {
-        nativePosition.bar_start_tick += toAdd;
+        memory.setDouble(BAR_START_TICK, memory.getDouble(BAR_START_TICK) + toAdd);
     }
 
     public void subtractFromBar(int toAdd) {
-        nativePosition.bar -= toAdd;
+        memory.setInt(BAR, memory.getInt(BAR) - toAdd);
     }
 
     public void subtractFromBeat(int toAdd) {
-        nativePosition.beat -= toAdd;
+        memory.setInt(BEAT, memory.getInt(BEAT) - toAdd);
     }
 
     public void subtractFromTick(int toAdd) {
-        nativePosition.tick -= toAdd;
+        memory.setInt(TICK, memory.getInt(TICK) - toAdd);
+    }
+
+    private static class Layout extends JackLibrary.jack_position_t {
+
+        private int offsetOf(String field) {
+            return fieldOffset(field);
+        }
+
     }
 
 }
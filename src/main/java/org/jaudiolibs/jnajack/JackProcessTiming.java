@@ -0,0 +1,227 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import javax.management.ObjectName;
+
+/**
+ * Per-cycle timing of a client's process callback. Each cycle is split into
+ * the overhead phase, where port buffers are refreshed before calling the
+ * {@link JackProcessCallback}, and the process phase, where the callback
+ * itself runs. Durations are recorded into {@link JackTimingHistogram}s and
+ * compared against the deadline of the cycle, being the period of nframes at
+ * the current sample rate.
+ *
+ * With lazy port buffers enabled, buffer refresh happens within the process
+ * phase.
+ *
+ * Enable using {@link JackClient#setProcessTimingEnabled(boolean)}. While
+ * enabled, timing is also registered with the platform MBean server, under
+ * the domain <code>org.jaudiolibs.jnajack</code>. All methods may be called
+ * from any thread without affecting the process thread.
+ *
+ * @author Neil C Smith
+ */
+public final class JackProcessTiming implements JackProcessTimingMBean {
+
+    private static final AtomicLongFieldUpdater<JackProcessTiming> DEADLINE_MISSES
+            = AtomicLongFieldUpdater.newUpdater(JackProcessTiming.class, "deadlineMisses");
+
+    private final String clientName;
+    private final JackTimingHistogram overhead;
+    private final JackTimingHistogram process;
+    private final JackTimingHistogram cycle;
+
+    private volatile int sampleRate;
+    private volatile long periodNanos;
+    private volatile long deadlineMisses;
+    private volatile boolean resetRequested;
+
+    // process thread only
+    private int lastFrames;
+    private int lastSampleRate;
+
+    private ObjectName objectName;
+
+    JackProcessTiming(String clientName, int sampleRate) {
+        this.clientName = clientName;
+        this.sampleRate = sampleRate;
+        this.overhead = new JackTimingHistogram();
+        this.process = new JackTimingHistogram();
+        this.cycle = new JackTimingHistogram();
+    }
+
+    /**
+     * Histogram of time spent refreshing port buffers before the process
+     * callback.
+     *
+     * @return overhead histogram
+     */
+    public JackTimingHistogram getOverheadHistogram() {
+        return overhead;
+    }
+
+    /**
+     * Histogram of time spent in the process callback.
+     *
+     * @return process histogram
+     */
+    public JackTimingHistogram getProcessHistogram() {
+        return process;
+    }
+
+    /**
+     * Histogram of total cycle time, being overhead plus process time.
+     *
+     * @return cycle histogram
+     */
+    public JackTimingHistogram getCycleHistogram() {
+        return cycle;
+    }
+
+    /**
+     * Period of the most recent cycle in nanoseconds.
+     *
+     * @return period in nanoseconds
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    @Override
+    public String getClientName() {
+        return clientName;
+    }
+
+    @Override
+    public long getCycleCount() {
+        return cycle.getCount();
+    }
+
+    @Override
+    public long getDeadlineMisses() {
+        return deadlineMisses;
+    }
+
+    @Override
+    public double getPeriod() {
+        return micros(periodNanos);
+    }
+
+    @Override
+    public double getOverheadMean() {
+        return micros(overhead.getMean());
+    }
+
+    @Override
+    public double getOverheadMax() {
+        return micros(overhead.getMax());
+    }
+
+    @Override
+    public double getProcessMean() {
+        return micros(process.getMean());
+    }
+
+    @Override
+    public double getProcess99thPercentile() {
+        return micros(process.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getProcessMax() {
+        return micros(process.getMax());
+    }
+
+    @Override
+    public double getCycleMean() {
+        return micros(cycle.getMean());
+    }
+
+    @Override
+    public double getCycle99thPercentile() {
+        return micros(cycle.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getCycle999thPercentile() {
+        return micros(cycle.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public double getCycleMax() {
+        return micros(cycle.getMax());
+    }
+
+    @Override
+    public void reset() {
+        resetRequested = true;
+        overhead.reset();
+        process.reset();
+        cycle.reset();
+    }
+
+    void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    // called from process thread
+    void record(long start, long refreshed, long end, int nframes) {
+        if (resetRequested) {
+            DEADLINE_MISSES.lazySet(this, 0);
+            resetRequested = false;
+        }
+        int sr = sampleRate;
+        if (nframes != lastFrames || sr != lastSampleRate) {
+            periodNanos = sr > 0 ? nframes * 1_000_000_000L / sr : 0;
+            lastFrames = nframes;
+            lastSampleRate = sr;
+        }
+        long total = end - start;
+        overhead.record(refreshed - start);
+        process.record(end - refreshed);
+        cycle.record(total);
+        long period = periodNanos;
+        if (period > 0 && total > period) {
+            DEADLINE_MISSES.lazySet(this, deadlineMisses + 1);
+        }
+    }
+
+    synchronized void register() {
+        if (objectName == null) {
+            objectName = ManagementSupport.register(this, "ProcessTiming", clientName);
+        }
+    }
+
+    synchronized void unregister() {
+        ManagementSupport.unregister(objectName);
+        objectName = null;
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1000;
+    }
+
+}
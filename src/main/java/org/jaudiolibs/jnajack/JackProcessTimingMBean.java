@@ -0,0 +1,104 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * JMX management interface for {@link JackProcessTiming}. All durations are
+ * in microseconds.
+ *
+ * @author Neil C Smith
+ */
+public interface JackProcessTimingMBean {
+
+    /**
+     * @return name of the client being timed
+     */
+    String getClientName();
+
+    /**
+     * @return number of cycles recorded
+     */
+    long getCycleCount();
+
+    /**
+     * @return number of cycles where the total time exceeded the period
+     */
+    long getDeadlineMisses();
+
+    /**
+     * @return period of the most recent cycle
+     */
+    double getPeriod();
+
+    /**
+     * @return mean time spent refreshing port buffers
+     */
+    double getOverheadMean();
+
+    /**
+     * @return maximum time spent refreshing port buffers
+     */
+    double getOverheadMax();
+
+    /**
+     * @return mean time spent in the process callback
+     */
+    double getProcessMean();
+
+    /**
+     * @return 99th percentile of time spent in the process callback
+     */
+    double getProcess99thPercentile();
+
+    /**
+     * @return maximum time spent in the process callback
+     */
+    double getProcessMax();
+
+    /**
+     * @return mean total cycle time
+     */
+    double getCycleMean();
+
+    /**
+     * @return 99th percentile of total cycle time
+     */
+    double getCycle99thPercentile();
+
+    /**
+     * @return 99.9th percentile of total cycle time
+     */
+    double getCycle999thPercentile();
+
+    /**
+     * @return maximum total cycle time
+     */
+    double getCycleMax();
+
+    /**
+     * Reset all statistics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,750 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+
+/**
+ * Lock-free ring buffer for passing data between a single reader thread and
+ * a single writer thread, such as between the process callback and a disk or
+ * network thread. Neither reading nor writing ever blocks, and no method
+ * used for data transfer allocates.
+ *
+ * The contract matches that of jack_ringbuffer. The size is rounded up to a
+ * power of two, and one byte less than the size is available for data. Read
+ * methods may only be called from one thread, and write methods from one
+ * (other) thread.
+ *
+ * Use {@link Jack#createRingBuffer(int)} for a ring buffer backed by the
+ * native jack_ringbuffer, which may be shared with native code, or
+ * {@link #allocate(int)} for a pure Java implementation using off-heap
+ * memory. Data may be transferred as bytes or floats, or accessed without
+ * copying using {@link Vector}.
+ *
+ * @author Neil C Smith
+ */
+public abstract class JackRingBuffer implements AutoCloseable {
+
+    private final static int FLOAT_SIZE = 4;
+
+    final int size;
+    final int mask;
+
+    private final ByteBuffer buffer;
+    private final Pointer memory;
+    private final ByteBuffer readView;
+    private final ByteBuffer writeView;
+    // float views of the buffer for each byte alignment
+    private final FloatBuffer[] readFloats;
+    private final FloatBuffer[] writeFloats;
+
+    // current vectors - only accessed by reader or writer thread respectively
+    int readOffset;
+    int readSpace;
+    int writeOffset;
+    int writeSpace;
+
+    JackRingBuffer(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.nativeOrder());
+        this.memory = Native.getDirectBufferPointer(buffer);
+        this.size = buffer.capacity();
+        this.mask = size - 1;
+        this.readView = buffer.duplicate();
+        this.writeView = buffer.duplicate();
+        this.readFloats = floatViews(buffer);
+        this.writeFloats = floatViews(buffer);
+    }
+
+    /**
+     * Allocate a ring buffer using off-heap memory managed by Java.
+     *
+     * @param size size in bytes, rounded up to a power of two
+     * @return ring buffer
+     */
+    public static JackRingBuffer allocate(int size) {
+        return new DirectRingBuffer(ringSize(size));
+    }
+
+    static JackRingBuffer create(JackLibrary jackLib, int size) {
+        int ringSize = ringSize(size);
+        JackRingBuffer rb = NativeRingBuffer.open(jackLib, ringSize);
+        return rb != null ? rb : new DirectRingBuffer(ringSize);
+    }
+
+    private static int ringSize(int size) {
+        if (size < 1 || size > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid ring buffer size " + size);
+        }
+        return Math.max(2, Integer.highestOneBit(size - 1) << 1);
+    }
+
+    /**
+     * Size of the ring buffer in bytes. One byte less than this is available
+     * for data.
+     *
+     * @return size in bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Number of bytes available for reading. Call from the reader thread.
+     *
+     * @return bytes available
+     */
+    public int getReadSpace() {
+        updateReadVector();
+        return readSpace;
+    }
+
+    /**
+     * Number of bytes available for writing. Call from the writer thread.
+     *
+     * @return bytes available
+     */
+    public int getWriteSpace() {
+        updateWriteVector();
+        return writeSpace;
+    }
+
+    /**
+     * Read up to the length of data into the provided array.
+     *
+     * @param dst destination array
+     * @param offset offset in array
+     * @param length maximum number of bytes to read
+     * @return number of bytes read
+     */
+    public int read(byte[] dst, int offset, int length) {
+        int count = peek(dst, offset, length);
+        advanceRead(count);
+        return count;
+    }
+
+    /**
+     * Read as many bytes as are available, up to the remaining space in the
+     * destination buffer. The buffer position is advanced by the number of
+     * bytes read.
+     *
+     * @param dst destination buffer
+     * @return number of bytes read
+     */
+    public int read(ByteBuffer dst) {
+        int count = peek(dst);
+        advanceRead(count);
+        return count;
+    }
+
+    /**
+     * Read data into the provided array without advancing the read position.
+     *
+     * @param dst destination array
+     * @param offset offset in array
+     * @param length maximum number of bytes to read
+     * @return number of bytes read
+     */
+    public int peek(byte[] dst, int offset, int length) {
+        checkBounds(dst.length, offset, length);
+        updateReadVector();
+        int count = Math.min(length, readSpace);
+        int first = Math.min(count, size - readOffset);
+        region(readView, readOffset, first).get(dst, offset, first);
+        if (count > first) {
+            region(readView, 0, count - first).get(dst, offset + first, count - first);
+        }
+        return count;
+    }
+
+    /**
+     * Read data into the provided buffer without advancing the read
+     * position. The buffer position is advanced by the number of bytes read.
+     *
+     * @param dst destination buffer
+     * @return number of bytes read
+     */
+    public int peek(ByteBuffer dst) {
+        updateReadVector();
+        int count = Math.min(dst.remaining(), readSpace);
+        int first = Math.min(count, size - readOffset);
+        dst.put(region(readView, readOffset, first));
+        if (count > first) {
+            dst.put(region(readView, 0, count - first));
+        }
+        return count;
+    }
+
+    /**
+     * Read as many whole floats as are available, up to the provided length.
+     *
+     * @param dst destination array
+     * @param offset offset in array
+     * @param length maximum number of floats to read
+     * @return number of floats read
+     */
+    public int read(float[] dst, int offset, int length) {
+        checkBounds(dst.length, offset, length);
+        updateReadVector();
+        int count = Math.min(length, readSpace / FLOAT_SIZE);
+        int first = Math.min(count, (size - readOffset) / FLOAT_SIZE);
+        if (first > 0) {
+            memory.read(readOffset, dst, offset, first);
+        }
+        int pos = (readOffset + first * FLOAT_SIZE) & mask;
+        int i = first;
+        if (i < count && pos > size - FLOAT_SIZE) {
+            dst[offset + i++] = getFloat(pos);
+            pos = (pos + FLOAT_SIZE) & mask;
+        }
+        if (i < count) {
+            memory.read(pos, dst, offset + i, count - i);
+        }
+        advanceRead(count * FLOAT_SIZE);
+        return count;
+    }
+
+    /**
+     * Read as many whole floats as are available, up to the remaining space
+     * in the destination buffer. The buffer position is advanced by the
+     * number of floats read.
+     *
+     * @param dst destination buffer
+     * @return number of floats read
+     */
+    public int read(FloatBuffer dst) {
+        updateReadVector();
+        int count = Math.min(dst.remaining(), readSpace / FLOAT_SIZE);
+        int first = Math.min(count, (size - readOffset) / FLOAT_SIZE);
+        dst.put(floatRegion(readFloats, readOffset, first));
+        int pos = (readOffset + first * FLOAT_SIZE) & mask;
+        int i = first;
+        if (i < count && pos > size - FLOAT_SIZE) {
+            dst.put(getFloat(pos));
+            i++;
+            pos = (pos + FLOAT_SIZE) & mask;
+        }
+        dst.put(floatRegion(readFloats, pos, count - i));
+        advanceRead(count * FLOAT_SIZE);
+        return count;
+    }
+
+    /**
+     * Write up to the length of data from the provided array.
+     *
+     * @param src source array
+     * @param offset offset in array
+     * @param length maximum number of bytes to write
+     * @return number of bytes written
+     */
+    public int write(byte[] src, int offset, int length) {
+        checkBounds(src.length, offset, length);
+        updateWriteVector();
+        int count = Math.min(length, writeSpace);
+        int first = Math.min(count, size - writeOffset);
+        region(writeView, writeOffset, first).put(src, offset, first);
+        if (count > first) {
+            region(writeView, 0, count - first).put(src, offset + first, count - first);
+        }
+        advanceWrite(count);
+        return count;
+    }
+
+    /**
+     * Write as many bytes as there is space for from the provided buffer. The
+     * buffer position is advanced by the number of bytes written.
+     *
+     * @param src source buffer
+     * @return number of bytes written
+     */
+    public int write(ByteBuffer src) {
+        updateWriteVector();
+        int count = Math.min(src.remaining(), writeSpace);
+        int first = Math.min(count, size - writeOffset);
+        int limit = src.limit();
+        src.limit(src.position() + first);
+        region(writeView, writeOffset, first).put(src);
+        src.limit(limit);
+        if (count > first) {
+            src.limit(src.position() + count - first);
+            region(writeView, 0, count - first).put(src);
+            src.limit(limit);
+        }
+        advanceWrite(count);
+        return count;
+    }
+
+    /**
+     * Write as many whole floats as there is space for, up to the provided
+     * length.
+     *
+     * @param src source array
+     * @param offset offset in array
+     * @param length maximum number of floats to write
+     * @return number of floats written
+     */
+    public int write(float[] src, int offset, int length) {
+        checkBounds(src.length, offset, length);
+        updateWriteVector();
+        int count = Math.min(length, writeSpace / FLOAT_SIZE);
+        int first = Math.min(count, (size - writeOffset) / FLOAT_SIZE);
+        if (first > 0) {
+            memory.write(writeOffset, src, offset, first);
+        }
+        int pos = (writeOffset + first * FLOAT_SIZE) & mask;
+        int i = first;
+        if (i < count && pos > size - FLOAT_SIZE) {
+            putFloat(pos, src[offset + i++]);
+            pos = (pos + FLOAT_SIZE) & mask;
+        }
+        if (i < count) {
+            memory.write(pos, src, offset + i, count - i);
+        }
+        advanceWrite(count * FLOAT_SIZE);
+        return count;
+    }
+
+    /**
+     * Write as many whole floats as there is space for from the provided
+     * buffer. The buffer position is advanced by the number of floats
+     * written.
+     *
+     * @param src source buffer
+     * @return number of floats written
+     */
+    public int write(FloatBuffer src) {
+        updateWriteVector();
+        int count = Math.min(src.remaining(), writeSpace / FLOAT_SIZE);
+        int first = Math.min(count, (size - writeOffset) / FLOAT_SIZE);
+        int limit = src.limit();
+        src.limit(src.position() + first);
+        floatRegion(writeFloats, writeOffset, first).put(src);
+        src.limit(limit);
+        int pos = (writeOffset + first * FLOAT_SIZE) & mask;
+        int i = first;
+        if (i < count && pos > size - FLOAT_SIZE) {
+            putFloat(pos, src.get());
+            i++;
+            pos = (pos + FLOAT_SIZE) & mask;
+        }
+        src.limit(src.position() + count - i);
+        floatRegion(writeFloats, pos, count - i).put(src);
+        src.limit(limit);
+        advanceWrite(count * FLOAT_SIZE);
+        return count;
+    }
+
+    /**
+     * Advance the read position, after reading data using
+     * {@link #getReadVector(Vector)}. The count must not be more than the
+     * data available.
+     *
+     * @param count number of bytes
+     */
+    public void readAdvance(int count) {
+        advanceRead(count);
+    }
+
+    /**
+     * Advance the write position, after writing data using
+     * {@link #getWriteVector(Vector)}. The count must not be more than the
+     * space available.
+     *
+     * @param count number of bytes
+     */
+    public void writeAdvance(int count) {
+        advanceWrite(count);
+    }
+
+    /**
+     * Create a Vector for use with this ring buffer. Create one for the
+     * reader and one for the writer, outside of any realtime thread.
+     *
+     * @return vector
+     */
+    public Vector createVector() {
+        return new Vector(this, buffer);
+    }
+
+    /**
+     * Update the provided vector to describe the data available for reading.
+     * After reading from the vector buffers, call
+     * {@link #readAdvance(int)}.
+     *
+     * @param vector vector created by this ring buffer
+     */
+    public void getReadVector(Vector vector) {
+        checkVector(vector);
+        updateReadVector();
+        vector.update(readOffset, readSpace);
+    }
+
+    /**
+     * Update the provided vector to describe the space available for
+     * writing. After writing into the vector buffers, call
+     * {@link #writeAdvance(int)}.
+     *
+     * @param vector vector created by this ring buffer
+     */
+    public void getWriteVector(Vector vector) {
+        checkVector(vector);
+        updateWriteVector();
+        vector.update(writeOffset, writeSpace);
+    }
+
+    /**
+     * Reset the ring buffer to empty. This is not thread safe.
+     */
+    public abstract void reset();
+
+    /**
+     * Lock the ring buffer memory into RAM, if supported. This is not a
+     * realtime operation.
+     *
+     * @return true if memory was locked
+     */
+    public abstract boolean mlock();
+
+    /**
+     * Release the ring buffer. Native memory is freed immediately, so the
+     * ring buffer must not be accessed by any thread after calling close.
+     */
+    @Override
+    public abstract void close();
+
+    abstract void updateReadVector();
+
+    abstract void updateWriteVector();
+
+    abstract void advanceRead(int count);
+
+    abstract void advanceWrite(int count);
+
+    private ByteBuffer region(ByteBuffer view, int offset, int length) {
+        view.limit(offset + length);
+        view.position(offset);
+        return view;
+    }
+
+    /*
+     * Region of length floats from the byte position pos, using the view
+     * with the same alignment.
+     */
+    private FloatBuffer floatRegion(FloatBuffer[] views, int pos, int length) {
+        FloatBuffer view = views[pos & (FLOAT_SIZE - 1)];
+        int index = pos / FLOAT_SIZE;
+        view.limit(index + length);
+        view.position(index);
+        return view;
+    }
+
+    private static FloatBuffer[] floatViews(ByteBuffer buffer) {
+        FloatBuffer[] views = new FloatBuffer[FLOAT_SIZE];
+        for (int i = 0; i < FLOAT_SIZE; i++) {
+            ByteBuffer b = buffer.duplicate();
+            b.position(Math.min(i, b.capacity()));
+            views[i] = b.slice().order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        return views;
+    }
+
+    private float getFloat(int pos) {
+        if (pos <= size - FLOAT_SIZE) {
+            return buffer.getFloat(pos);
+        }
+        // float split across end of buffer
+        int bits = 0;
+        for (int i = 0; i < FLOAT_SIZE; i++) {
+            int b = buffer.get((pos + i) & mask) & 0xFF;
+            bits |= buffer.order() == ByteOrder.LITTLE_ENDIAN
+                    ? b << (8 * i) : b << (8 * (FLOAT_SIZE - 1 - i));
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    private void putFloat(int pos, float value) {
+        if (pos <= size - FLOAT_SIZE) {
+            buffer.putFloat(pos, value);
+            return;
+        }
+        int bits = Float.floatToRawIntBits(value);
+        for (int i = 0; i < FLOAT_SIZE; i++) {
+            int shift = buffer.order() == ByteOrder.LITTLE_ENDIAN
+                    ? 8 * i : 8 * (FLOAT_SIZE - 1 - i);
+            buffer.put((pos + i) & mask, (byte) (bits >>> shift));
+        }
+    }
+
+    private void checkVector(Vector vector) {
+        if (vector.owner != this) {
+            throw new IllegalArgumentException("Vector not created by this ring buffer");
+        }
+    }
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > arrayLength) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Zero-copy access to the readable data or writable space of a ring
+     * buffer. Because the region may wrap around the end of the ring buffer,
+     * it is described by two buffers, either or both of which may have no
+     * remaining space. The buffers are views of the ring buffer memory, and
+     * are reused between calls.
+     */
+    public static final class Vector {
+
+        private final JackRingBuffer owner;
+        private final ByteBuffer first;
+        private final ByteBuffer second;
+
+        private Vector(JackRingBuffer owner, ByteBuffer buffer) {
+            this.owner = owner;
+            this.first = buffer.duplicate().order(ByteOrder.nativeOrder());
+            this.second = buffer.duplicate().order(ByteOrder.nativeOrder());
+        }
+
+        /**
+         * First region, from the current position to at most the end of the
+         * ring buffer.
+         *
+         * @return first region
+         */
+        public ByteBuffer first() {
+            return first;
+        }
+
+        /**
+         * Second region, from the start of the ring buffer. Only has
+         * remaining space if the first region reaches the end of the ring
+         * buffer.
+         *
+         * @return second region
+         */
+        public ByteBuffer second() {
+            return second;
+        }
+
+        /**
+         * Total number of bytes in both regions when the vector was last
+         * updated.
+         *
+         * @return length in bytes
+         */
+        public int length() {
+            return first.remaining() + second.remaining();
+        }
+
+        private void update(int offset, int length) {
+            int len1 = Math.min(length, owner.size - offset);
+            first.clear();
+            first.limit(offset + len1);
+            first.position(offset);
+            second.clear();
+            second.limit(length - len1);
+        }
+
+    }
+
+    /**
+     * Pure Java implementation using a direct ByteBuffer. Positions are
+     * published with ordered writes, and read with volatile reads.
+     */
+    private static final class DirectRingBuffer extends JackRingBuffer {
+
+        private static final AtomicIntegerFieldUpdater<DirectRingBuffer> READ_PTR
+                = AtomicIntegerFieldUpdater.newUpdater(DirectRingBuffer.class, "readPtr");
+        private static final AtomicIntegerFieldUpdater<DirectRingBuffer> WRITE_PTR
+                = AtomicIntegerFieldUpdater.newUpdater(DirectRingBuffer.class, "writePtr");
+
+        private volatile int readPtr;
+        private volatile int writePtr;
+
+        private DirectRingBuffer(int size) {
+            super(ByteBuffer.allocateDirect(size));
+        }
+
+        @Override
+        void updateReadVector() {
+            int w = writePtr;
+            int r = readPtr;
+            readOffset = r;
+            readSpace = (w - r) & mask;
+        }
+
+        @Override
+        void updateWriteVector() {
+            int r = readPtr;
+            int w = writePtr;
+            writeOffset = w;
+            writeSpace = (r - w - 1) & mask;
+        }
+
+        @Override
+        void advanceRead(int count) {
+            READ_PTR.lazySet(this, (readPtr + count) & mask);
+        }
+
+        @Override
+        void advanceWrite(int count) {
+            WRITE_PTR.lazySet(this, (writePtr + count) & mask);
+        }
+
+        @Override
+        public void reset() {
+            readPtr = 0;
+            writePtr = 0;
+        }
+
+        @Override
+        public boolean mlock() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // memory released when unreachable
+        }
+
+    }
+
+    /**
+     * Implementation backed by a native jack_ringbuffer_t. Vectors are
+     * retrieved into preallocated native memory using raw addresses.
+     */
+    private static final class NativeRingBuffer extends JackRingBuffer {
+
+        private final static int VECTOR_SIZE = Native.POINTER_SIZE + Native.SIZE_T_SIZE;
+
+        private final JackLibrary jackLib;
+        private final Pointer ringBuffer;
+        private final long rb;
+        private final long base;
+        private final Memory readVector;
+        private final Memory writeVector;
+        private final long readVectorAddress;
+        private final long writeVectorAddress;
+
+        private boolean closed;
+
+        private NativeRingBuffer(JackLibrary jackLib, Pointer ringBuffer,
+                Pointer data, int size) {
+            super(data.getByteBuffer(0, size));
+            this.jackLib = jackLib;
+            this.ringBuffer = ringBuffer;
+            this.rb = Pointer.nativeValue(ringBuffer);
+            this.base = Pointer.nativeValue(data);
+            this.readVector = new Memory(2 * VECTOR_SIZE);
+            this.writeVector = new Memory(2 * VECTOR_SIZE);
+            this.readVectorAddress = Pointer.nativeValue(readVector);
+            this.writeVectorAddress = Pointer.nativeValue(writeVector);
+        }
+
+        private static NativeRingBuffer open(JackLibrary jackLib, int size) {
+            Pointer rb = jackLib.jack_ringbuffer_create(new JackLibrary.size_t(size));
+            if (rb == null) {
+                // not provided by the library
+                return null;
+            }
+            // jack_ringbuffer_t { char *buf; size_t write_ptr; size_t read_ptr; size_t size; ... }
+            Pointer data = rb.getPointer(0);
+            long actualSize = word(rb, Native.POINTER_SIZE + 2 * Native.SIZE_T_SIZE);
+            return new NativeRingBuffer(jackLib, rb, data, (int) actualSize);
+        }
+
+        private static long word(Pointer ptr, long offset) {
+            return Native.SIZE_T_SIZE == 8 ? ptr.getLong(offset) : ptr.getInt(offset) & 0xFFFFFFFFL;
+        }
+
+        private long address(Pointer ptr, long offset) {
+            return Native.POINTER_SIZE == 8 ? ptr.getLong(offset) : ptr.getInt(offset) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        void updateReadVector() {
+            checkOpen();
+            jackLib.jack_ringbuffer_get_read_vector(rb, readVectorAddress);
+            readOffset = (int) (address(readVector, 0) - base);
+            readSpace = (int) (word(readVector, Native.POINTER_SIZE)
+                    + word(readVector, VECTOR_SIZE + Native.POINTER_SIZE));
+        }
+
+        @Override
+        void updateWriteVector() {
+            checkOpen();
+            jackLib.jack_ringbuffer_get_write_vector(rb, writeVectorAddress);
+            writeOffset = (int) (address(writeVector, 0) - base);
+            writeSpace = (int) (word(writeVector, Native.POINTER_SIZE)
+                    + word(writeVector, VECTOR_SIZE + Native.POINTER_SIZE));
+        }
+
+        @Override
+        void advanceRead(int count) {
+            checkOpen();
+            jackLib.jack_ringbuffer_read_advance(rb, count);
+        }
+
+        @Override
+        void advanceWrite(int count) {
+            checkOpen();
+            jackLib.jack_ringbuffer_write_advance(rb, count);
+        }
+
+        @Override
+        public void reset() {
+            checkOpen();
+            jackLib.jack_ringbuffer_reset(ringBuffer);
+        }
+
+        @Override
+        public boolean mlock() {
+            checkOpen();
+            return jackLib.jack_ringbuffer_mlock(ringBuffer) == 0;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                jackLib.jack_ringbuffer_free(ringBuffer);
+            }
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("Ring buffer has been closed");
+            }
+        }
+
+    }
+
+}
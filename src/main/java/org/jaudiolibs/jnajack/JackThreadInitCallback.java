@@ -0,0 +1,43 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+/**
+ * Callback invoked once on the thread in which the process and other
+ * realtime callbacks will be made, before any of those callbacks.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setThreadInitCallback(JackThreadInitCallback)
+ * @see JackThreadInitializer
+ */
+public interface JackThreadInitCallback {
+
+    /**
+     * Method called on the new thread.
+     *
+     * @param client The JACK client which is invoking this callback.
+     */
+    public void threadInit(JackClient client);
+
+}
@@ -0,0 +1,264 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Configurable {@link JackThreadInitCallback} to prepare the realtime thread
+ * of a client before its first process cycle, so that the early cycles after
+ * activation are not slowed by cold caches, page faults or code that has not
+ * yet been compiled.
+ *
+ * In order, the initializer :
+ * <ul>
+ * <li>names the thread (default <code>JNAJack &lt;client name&gt;</code>);</li>
+ * <li>sets the CPU affinity of the thread, if requested (Linux only);</li>
+ * <li>touches every page of the provided buffers;</li>
+ * <li>runs the provided warm-up tasks.</li>
+ * </ul>
+ *
+ * The thread name and daemon status are also used when JNA attaches the
+ * native thread to the VM. The daemon status has no effect with the FFM
+ * library.
+ *
+ * Initializers are immutable - the <code>with</code> methods return a new
+ * initializer.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setThreadInitCallback(JackThreadInitCallback)
+ */
+public final class JackThreadInitializer implements JackThreadInitCallback {
+
+    private final static Logger LOG = Logger.getLogger(JackThreadInitializer.class.getName());
+    private final static int PAGE_SIZE = 4096;
+    private final static JackThreadInitializer DEFAULT
+            = new JackThreadInitializer(null, false, null, new Buffer[0], new Runnable[0]);
+
+    private final String threadName;
+    private final boolean daemon;
+    private final int[] cpus;
+    private final Buffer[] buffers;
+    private final Runnable[] warmups;
+
+    private JackThreadInitializer(String threadName, boolean daemon,
+            int[] cpus, Buffer[] buffers, Runnable[] warmups) {
+        this.threadName = threadName;
+        this.daemon = daemon;
+        this.cpus = cpus;
+        this.buffers = buffers;
+        this.warmups = warmups;
+    }
+
+    /**
+     * Create an initializer with the default configuration, which only names
+     * the thread.
+     *
+     * @return initializer
+     */
+    public static JackThreadInitializer create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Set the name of the thread. If null, the thread is named after the
+     * client.
+     *
+     * @param threadName thread name, or null
+     * @return new initializer
+     */
+    public JackThreadInitializer withThreadName(String threadName) {
+        return new JackThreadInitializer(threadName, daemon, cpus, buffers, warmups);
+    }
+
+    /**
+     * Set whether the thread is attached to the VM as a daemon thread. The
+     * default is false.
+     *
+     * @param daemon daemon status
+     * @return new initializer
+     */
+    public JackThreadInitializer withDaemon(boolean daemon) {
+        return new JackThreadInitializer(threadName, daemon, cpus, buffers, warmups);
+    }
+
+    /**
+     * Restrict the thread to the given CPUs. Only supported on Linux -
+     * elsewhere, or if the call fails, a warning is logged and the thread
+     * continues with its existing affinity.
+     *
+     * @param cpus CPU indexes, or none to leave the affinity unchanged
+     * @return new initializer
+     */
+    public JackThreadInitializer withCpuAffinity(int... cpus) {
+        for (int cpu : cpus) {
+            if (cpu < 0 || cpu >= Affinity.MAX_CPUS) {
+                throw new IllegalArgumentException("Invalid CPU index " + cpu);
+            }
+        }
+        return new JackThreadInitializer(threadName, daemon,
+                cpus.length == 0 ? null : cpus.clone(), buffers, warmups);
+    }
+
+    /**
+     * Add buffers to be touched from the thread, one value per page, so that
+     * they are resident and in cache. Each value is written back unchanged,
+     * so buffers should not be written by other threads while the client is
+     * being activated. Only direct ByteBuffer and FloatBuffer are supported.
+     *
+     * @param buffers buffers to touch
+     * @return new initializer
+     */
+    public JackThreadInitializer withPretouch(Buffer... buffers) {
+        for (Buffer buffer : buffers) {
+            if (!(buffer instanceof ByteBuffer || buffer instanceof FloatBuffer)
+                    || !buffer.isDirect() || buffer.isReadOnly()) {
+                throw new IllegalArgumentException("Unsupported buffer " + buffer);
+            }
+        }
+        Buffer[] b = Arrays.copyOf(this.buffers, this.buffers.length + buffers.length);
+        System.arraycopy(buffers, 0, b, this.buffers.length, buffers.length);
+        return new JackThreadInitializer(threadName, daemon, cpus, b, warmups);
+    }
+
+    /**
+     * Add a task to be run from the thread after the buffers have been
+     * touched, for example to run the DSP code of the client a number of
+     * times against scratch buffers so that it is compiled before the first
+     * cycle.
+     *
+     * @param warmup task to run
+     * @return new initializer
+     */
+    public JackThreadInitializer withWarmup(Runnable warmup) {
+        if (warmup == null) {
+            throw new NullPointerException();
+        }
+        Runnable[] w = Arrays.copyOf(warmups, warmups.length + 1);
+        w[warmups.length] = warmup;
+        return new JackThreadInitializer(threadName, daemon, cpus, buffers, w);
+    }
+
+    @Override
+    public void threadInit(JackClient client) {
+        initialize(getThreadName(client));
+    }
+
+    /**
+     * Apply this initializer to the current thread. For use with threads not
+     * created by JACK, such as DSP worker threads.
+     *
+     * @param defaultName name for the thread if none is configured
+     */
+    public void initialize(String defaultName) {
+        Thread.currentThread().setName(threadName == null ? defaultName : threadName);
+        if (cpus != null) {
+            Affinity.set(cpus);
+        }
+        for (Buffer buffer : buffers) {
+            touch(buffer);
+        }
+        for (Runnable warmup : warmups) {
+            try {
+                warmup.run();
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "Error in thread warm-up", t);
+            }
+        }
+    }
+
+    String getThreadName(JackClient client) {
+        return threadName == null ? "JNAJack " + client.getName() : threadName;
+    }
+
+    boolean isDaemon() {
+        return daemon;
+    }
+
+    private static void touch(Buffer buffer) {
+        if (buffer instanceof ByteBuffer) {
+            ByteBuffer b = (ByteBuffer) buffer;
+            for (int i = 0; i < b.capacity(); i += PAGE_SIZE) {
+                b.put(i, b.get(i));
+            }
+        } else {
+            FloatBuffer b = (FloatBuffer) buffer;
+            for (int i = 0; i < b.capacity(); i += PAGE_SIZE / 4) {
+                b.put(i, b.get(i));
+            }
+        }
+    }
+
+    private static class Affinity {
+
+        private final static int MAX_CPUS = 1024;
+        private final static boolean SUPPORTED;
+
+        static {
+            boolean supported = false;
+            if (Platform.isLinux()) {
+                try {
+                    Native.register(Affinity.class, Platform.C_LIBRARY_NAME);
+                    supported = true;
+                } catch (Throwable t) {
+                    LOG.log(Level.FINE, "sched_setaffinity not available", t);
+                }
+            }
+            SUPPORTED = supported;
+        }
+
+        private static native int sched_setaffinity(int pid, NativeLong cpusetsize, Pointer mask);
+
+        private static void set(int[] cpus) {
+            if (!SUPPORTED) {
+                LOG.log(Level.WARNING, "CPU affinity is not supported on this platform");
+                return;
+            }
+            Memory mask = new Memory(MAX_CPUS / 8);
+            mask.clear();
+            // cpu_set_t is an array of unsigned long in native byte order
+            for (int cpu : cpus) {
+                long offset = (cpu / 64) * 8L;
+                mask.setLong(offset, mask.getLong(offset) | (1L << (cpu % 64)));
+            }
+            // pid zero is the calling thread
+            if (sched_setaffinity(0, new NativeLong(mask.size()), mask) != 0) {
+                LOG.log(Level.WARNING, "Unable to set CPU affinity to {0}",
+                        Arrays.toString(cpus));
+            }
+        }
+
+    }
+
+}
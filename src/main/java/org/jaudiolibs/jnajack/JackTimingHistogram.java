@@ -0,0 +1,243 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Histogram of durations in nanoseconds, suitable for recording from a
+ * realtime thread. All storage is allocated up front, and recording never
+ * blocks or allocates.
+ *
+ * Values are stored in log-linear buckets, with 32 buckets for every power
+ * of two, giving a relative precision of around 3% across the range 0ns to
+ * 2<sup>41</sup>ns (around 36 minutes). Larger values are recorded in the
+ * highest bucket.
+ *
+ * Only one thread may record values. Any thread may read values while
+ * recording is in progress - results are not an atomic snapshot, but will be
+ * consistent to within the values recorded during the read.
+ *
+ * @author Neil C Smith
+ */
+public final class JackTimingHistogram {
+
+    private final static int SUB_BUCKET_BITS = 5;
+    private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final static int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private final static int MAX_EXPONENT = 40;
+    private final static int BUCKETS = LINEAR_LIMIT
+            + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static final AtomicLongFieldUpdater<JackTimingHistogram> COUNT
+            = AtomicLongFieldUpdater.newUpdater(JackTimingHistogram.class, "count");
+    private static final AtomicLongFieldUpdater<JackTimingHistogram> SUM
+            = AtomicLongFieldUpdater.newUpdater(JackTimingHistogram.class, "sum");
+    private static final AtomicLongFieldUpdater<JackTimingHistogram> MIN
+            = AtomicLongFieldUpdater.newUpdater(JackTimingHistogram.class, "min");
+    private static final AtomicLongFieldUpdater<JackTimingHistogram> MAX
+            = AtomicLongFieldUpdater.newUpdater(JackTimingHistogram.class, "max");
+
+    private final AtomicLongArray buckets;
+
+    private volatile long count;
+    private volatile long sum;
+    private volatile long min;
+    private volatile long max;
+    private volatile boolean resetRequested;
+
+    /**
+     * Create an empty histogram.
+     */
+    public JackTimingHistogram() {
+        buckets = new AtomicLongArray(BUCKETS);
+        min = Long.MAX_VALUE;
+    }
+
+    /**
+     * Record a duration. Must only be called from a single thread.
+     *
+     * @param nanos duration in nanoseconds - negative values are recorded as
+     * zero
+     */
+    public void record(long nanos) {
+        if (resetRequested) {
+            clear();
+        }
+        long value = Math.max(0, nanos);
+        int idx = indexOf(value);
+        buckets.lazySet(idx, buckets.get(idx) + 1);
+        SUM.lazySet(this, sum + value);
+        if (value < min) {
+            MIN.lazySet(this, value);
+        }
+        if (value > max) {
+            MAX.lazySet(this, value);
+        }
+        COUNT.lazySet(this, count + 1);
+    }
+
+    /**
+     * Request that the histogram is cleared. As the histogram may only be
+     * modified by the recording thread, the reset takes effect before the
+     * next value is recorded.
+     */
+    public void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * Number of recorded values.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Smallest recorded value, or zero if no values have been recorded.
+     *
+     * @return minimum in nanoseconds
+     */
+    public long getMin() {
+        long m = min;
+        return m == Long.MAX_VALUE ? 0 : m;
+    }
+
+    /**
+     * Largest recorded value, or zero if no values have been recorded.
+     *
+     * @return maximum in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Mean of recorded values, or zero if no values have been recorded.
+     *
+     * @return mean in nanoseconds
+     */
+    public double getMean() {
+        long c = count;
+        return c == 0 ? 0 : (double) sum / c;
+    }
+
+    /**
+     * Value at the given percentile, to within the precision of the
+     * histogram. The result is the upper bound of the bucket containing the
+     * percentile, limited to the maximum recorded value.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value in nanoseconds, or zero if no values have been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long running = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            running += buckets.get(i);
+            if (running >= target) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Copy bucket counts into the provided array, which must be of at least
+     * {@link #getBucketCount()} length.
+     *
+     * @param counts array to fill
+     */
+    public void getBucketCounts(long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+    }
+
+    /**
+     * Number of buckets in the histogram.
+     *
+     * @return bucket count
+     */
+    public static int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Lowest value that will be recorded into the given bucket.
+     *
+     * @param bucket bucket index
+     * @return lower bound in nanoseconds
+     */
+    public static long getBucketLowerBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exp = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exp - SUB_BUCKET_BITS);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE
+                : getBucketLowerBound(bucket + 1) - 1;
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        if (exp > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exp - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    private void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.lazySet(i, 0);
+        }
+        SUM.lazySet(this, 0);
+        MIN.lazySet(this, Long.MAX_VALUE);
+        MAX.lazySet(this, 0);
+        COUNT.lazySet(this, 0);
+        resetRequested = false;
+    }
+
+}
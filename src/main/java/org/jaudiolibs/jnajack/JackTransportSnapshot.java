@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+
+/**
+ * Snapshot of the transport state and position, captured once per process
+ * cycle by the client that owns it. Any number of threads may read the
+ * snapshot without making native calls and without blocking the process
+ * thread.
+ *
+ * Updates are published using a sequence lock. A reader copying the full
+ * position retries only if it overlaps the capture at the start of a
+ * cycle, which takes a fraction of a microsecond.
+ *
+ * @author Neil C Smith
+ * @see JackClient#setTransportSnapshotEnabled(boolean)
+ */
+public final class JackTransportSnapshot {
+
+    private final static int SEQUENCE = 0;
+    private final static int STATE = 1;
+    private final static int FRAME = 2;
+    private final static int POSITION = 3;
+
+    private final AtomicLongArray data;
+    private final JackPosition position;
+    private final long[] words;
+
+    JackTransportSnapshot() {
+        words = new long[JackPosition.getWordCount()];
+        data = new AtomicLongArray(POSITION + words.length);
+        data.lazySet(STATE, -1);
+        position = new JackPosition();
+    }
+
+    /**
+     * Query the transport and publish the result. Must only be called from
+     * the process thread.
+     */
+    void capture(JackLibrary jackLib, JackLibrary._jack_client client) {
+        int state = jackLib.jack_transport_query_address(client, position.getAddress());
+        position.readWords(words);
+        long seq = data.get(SEQUENCE);
+        data.lazySet(SEQUENCE, seq + 1);
+        data.lazySet(STATE, state);
+        data.lazySet(FRAME, position.getFrame());
+        for (int i = 0; i < words.length; i++) {
+            data.lazySet(POSITION + i, words[i]);
+        }
+        data.lazySet(SEQUENCE, seq + 2);
+    }
+
+    /**
+     * Copy the latest transport position into the provided JackPosition,
+     * and return the matching transport state. The position and state are
+     * always consistent with each other, as if returned from a single call to
+     * {@link JackClient#transportQuery(JackPosition)} on the process thread.
+     *
+     * @param target position to copy into
+     * @return transport state, or null if no cycle has been captured yet
+     */
+    public JackTransportState read(JackPosition target) {
+        while (true) {
+            long seq = data.get(SEQUENCE);
+            if ((seq & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            int state = (int) data.get(STATE);
+            for (int i = 0; i < words.length; i++) {
+                target.setWord(i, data.get(POSITION + i));
+            }
+            if (data.get(SEQUENCE) == seq) {
+                return JackTransportState.forVal(state);
+            }
+        }
+    }
+
+    /**
+     * The transport state at the start of the latest captured cycle.
+     *
+     * @return transport state, or null if no cycle has been captured yet
+     */
+    public JackTransportState getState() {
+        return JackTransportState.forVal((int) data.get(STATE));
+    }
+
+    /**
+     * The transport frame at the start of the latest captured cycle.
+     *
+     * @return transport frame
+     */
+    public int getFrame() {
+        return (int) data.get(FRAME);
+    }
+
+    /**
+     * Number of cycles captured. Readers can compare this with a previously
+     * read value to skip work when nothing has changed.
+     *
+     * @return update count
+     */
+    public long getUpdateCount() {
+        return data.get(SEQUENCE) >>> 1;
+    }
+
+}
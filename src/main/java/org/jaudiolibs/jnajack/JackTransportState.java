@@ -66,15 +66,24 @@ public enum JackTransportState {
 	 * @return The corresponding {@code JackTransportState} if one exists, or null otherwise
 	 */
 	static JackTransportState forVal(int value) {
-		for (JackTransportState state : values) {
-			if (state.getIntValue() == value) {
-				return state;
-			}
+		if (value >= 0 && value < BY_VALUE.length) {
+			return BY_VALUE[value];
 		}
-		
 		return null;
 	}
     
-    private final static JackTransportState[] values = JackTransportState.values();
+    private final static JackTransportState[] BY_VALUE = createLookup();
+
+    private static JackTransportState[] createLookup() {
+        int max = 0;
+        for (JackTransportState state : values()) {
+            max = Math.max(max, state.val);
+        }
+        JackTransportState[] lookup = new JackTransportState[max + 1];
+        for (JackTransportState state : values()) {
+            lookup[state.val] = state;
+        }
+        return lookup;
+    }
 
 }
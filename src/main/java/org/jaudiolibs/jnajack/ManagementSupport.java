@@ -0,0 +1,67 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registration of client MBeans with the platform MBean server. Failure to
+ * register is logged, and never prevents the client from working.
+ */
+final class ManagementSupport {
+
+    private final static Logger LOG = Logger.getLogger(ManagementSupport.class.getName());
+    private final static String DOMAIN = "org.jaudiolibs.jnajack";
+
+    private ManagementSupport() {
+    }
+
+    static ObjectName register(Object mbean, String type, String clientName) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + type + ",client="
+                    + ObjectName.quote(clientName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+            return name;
+        } catch (JMException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Unable to register " + type + " MBean", ex);
+            return null;
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Unable to unregister MBean " + name, ex);
+        }
+    }
+
+}
@@ -629,14 +629,14 @@ public interface JackLibrary extends com.sun.jna.Library {
      * port name has been changed.
      *
      * * @param port the port that has been renamed
+     * @param old_name the old name
      * @param new_name the new name
      * @param arg pointer to a client supplied structure
-     * * @return zero on success, non-zero on error
      * <i>native declaration : ./jack/types.h</i>
      */
     public interface JackPortRenameCallback extends com.sun.jna.Callback {
 
-        int invoke(int port, com.sun.jna.ptr.ByteByReference new_name, com.sun.jna.Pointer arg);
+        void invoke(int port, com.sun.jna.Pointer old_name, com.sun.jna.Pointer new_name, com.sun.jna.Pointer arg);
     }
 
     /**
@@ -728,6 +728,26 @@ public interface JackLibrary extends com.sun.jna.Library {
          */
         void invoke(int state, int nframes, com.sun.jna.Pointer pos, int new_pos, com.sun.jna.Pointer arg);
     }
+
+    /**
+     * As JackSyncCallback, but with the position and argument passed as raw
+     * native addresses. With JNA direct mapping, callback arguments of
+     * primitive type are passed without conversion, so no Pointer is
+     * allocated on each call.
+     */
+    public interface JackSyncAddressCallback extends com.sun.jna.Callback {
+
+        int invoke(int state, long pos, long arg);
+    }
+
+    /**
+     * As JackTimebaseCallback, but with the position and argument passed as
+     * raw native addresses. See JackSyncAddressCallback.
+     */
+    public interface JackTimebaseAddressCallback extends com.sun.jna.Callback {
+
+        void invoke(int state, int nframes, long pos, int new_pos, long arg);
+    }
     /// <i>native declaration : jack/jack.h:998</i>
     public interface jack_error_callback extends com.sun.jna.Callback {
 
@@ -1103,9 +1123,14 @@ public interface JackLibrary extends com.sun.jna.Library {
      * signature :
      * <code>int jack_set_port_rename_callback(jack_client_t*, JackPortRenameCallback, void*)</code>
      * <i>native declaration : jack/jack.h:444</i>
+     *
+     * The default implementation returns an error code.
      */
 //	// @com.ochafik.lang.jnaerator.Mangling({"_Z29jack_set_port_rename_callbackP12_jack_client22JackPortRenameCallbackPv", "?jack_set_port_rename_callback@@YAHPA12_jack_client22JackPortRenameCallbackPAX@Z"})
-//    int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, com.sun.jna.Pointer arg);
+    default int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, com.sun.jna.Pointer arg) {
+        return -1;
+    }
+
     /**
      * Tell the JACK server to call @a graph_callback whenever the processing
      * graph is reordered, passing @a arg as a parameter. * All "notification
@@ -1219,6 +1244,21 @@ public interface JackLibrary extends com.sun.jna.Library {
      */
     com.sun.jna.Pointer jack_port_get_buffer(_jack_port jack_port_tPtr1, int nframes);
 
+    /**
+     * As jack_port_get_buffer(), but returns the raw native address of the
+     * port buffer rather than a Pointer. Used on the process thread, where
+     * implementations should avoid allocating a new Pointer every cycle.
+     *
+     * The default implementation defers to jack_port_get_buffer().
+     *
+     * @param port port to get buffer for
+     * @param nframes number of frames in current cycle
+     * @return native address of the port buffer, or 0 if none
+     */
+    default long jack_port_get_buffer_address(_jack_port port, int nframes) {
+        return Pointer.nativeValue(jack_port_get_buffer(port, nframes));
+    }
+
     /**
      * @return the full name of the jack_port_t (including the @a "client_name:"
      * prefix).
@@ -1565,6 +1605,17 @@ public interface JackLibrary extends com.sun.jna.Library {
     // @com.ochafik.lang.jnaerator.Mangling({"_Z19jack_port_type_sizev", "?jack_port_type_size@@YAHXZ"})
     int jack_port_type_size();
 
+    /**
+     * @return the buffer size of a port type, in bytes. Original signature :
+     * <code>size_t jack_port_type_get_buffer_size(jack_client_t*, const char*)</code>
+     * <i>native declaration : jack/jack.h</i>
+     *
+     * The default implementation returns 0, as for an unknown port type.
+     */
+    default size_t jack_port_type_get_buffer_size(_jack_client client, String port_type) {
+        return new size_t(0);
+    }
+
     /**
      * @return the sample rate of the jack system, as set by the user when jackd
      * was started. Original signature :
@@ -1685,6 +1736,43 @@ public interface JackLibrary extends com.sun.jna.Library {
     // @com.ochafik.lang.jnaerator.Mangling({"_Z13jack_cpu_loadP12_jack_client", "?jack_cpu_load@@YAMPA12_jack_client@Z"})
     float jack_cpu_load(_jack_client client);
 
+    /**
+     * @return the delay in microseconds due to the most recent xrun
+     * occurrence. This only makes sense when called from the xrun callback.
+     * Original signature :
+     * <code>float jack_get_xrun_delayed_usecs(jack_client_t*)</code>
+     * <i>native declaration : jack/statistics.h</i>
+     *
+     * The default implementation returns NaN.
+     */
+    default float jack_get_xrun_delayed_usecs(_jack_client client) {
+        return Float.NaN;
+    }
+
+    /**
+     * @return the maximum delay reported by the backend since startup or
+     * reset. When compared to the period size in usecs, this can be used to
+     * estimate the ideal period size for a given setup. Original signature :
+     * <code>float jack_get_max_delayed_usecs(jack_client_t*)</code>
+     * <i>native declaration : jack/statistics.h</i>
+     *
+     * The default implementation returns NaN.
+     */
+    default float jack_get_max_delayed_usecs(_jack_client client) {
+        return Float.NaN;
+    }
+
+    /**
+     * Reset the maximum delay counter. This would be useful to estimate the
+     * effect that a change to the configuration has on the delay. Original
+     * signature : <code>void jack_reset_max_delayed_usecs(jack_client_t*)</code>
+     * <i>native declaration : jack/statistics.h</i>
+     *
+     * The default implementation does nothing.
+     */
+    default void jack_reset_max_delayed_usecs(_jack_client client) {
+    }
+
     /**
      * <i>native declaration : jack/jack.h:988</i>
      * Conversion Error : pthread_t
@@ -1751,6 +1839,13 @@ public interface JackLibrary extends com.sun.jna.Library {
         public size_t size;
         public Pointer buffer;
 
+        public jack_midi_event_t() {
+        }
+
+        public jack_midi_event_t(Pointer p) {
+            super(p);
+        }
+
         @Override
         protected List getFieldOrder() {
             return Arrays.asList(new String[]{"time", "size", "buffer"});
@@ -1772,8 +1867,43 @@ public interface JackLibrary extends com.sun.jna.Library {
 
     int jack_midi_event_get(jack_midi_event_t event, Pointer port_buffer, int event_index);
 
+    /**
+     * As jack_midi_event_get(), using raw native addresses so that events can
+     * be read into preallocated memory without Structure marshalling. Used on
+     * the process thread, where implementations should avoid allocation.
+     *
+     * The default implementation defers to the Structure based function.
+     *
+     * @param event address of jack_midi_event_t to fill
+     * @param port_buffer address of port buffer
+     * @param event_index index of event to retrieve
+     * @return 0 on success, ENODATA if buffer is empty
+     */
+    default int jack_midi_event_get(long event, long port_buffer, int event_index) {
+        jack_midi_event_t ev = new jack_midi_event_t(new Pointer(event));
+        int ret = jack_midi_event_get(ev, new Pointer(port_buffer), event_index);
+        ev.write();
+        return ret;
+    }
+
     Pointer jack_midi_event_reserve(Pointer port_buffer, int time, int data_size);
 
+    /**
+     * As jack_midi_event_reserve(), using raw native addresses. Used on the
+     * process thread, where implementations should avoid allocating a new
+     * Pointer for every event.
+     *
+     * The default implementation defers to the Pointer based function.
+     *
+     * @param port_buffer address of port buffer
+     * @param time sample offset of event
+     * @param data_size length of event data in bytes
+     * @return address of reserved space, or 0 if it could not be reserved
+     */
+    default long jack_midi_event_reserve(long port_buffer, int time, int data_size) {
+        return Pointer.nativeValue(jack_midi_event_reserve(new Pointer(port_buffer), time, data_size));
+    }
+
     int jack_midi_event_write(Pointer port_buffer, int time, Pointer data, int data_size);
 
     int jack_midi_event_write(Pointer port_buffer, int time, byte[] data, int data_size);
@@ -1784,6 +1914,189 @@ public interface JackLibrary extends com.sun.jna.Library {
 
     int jack_midi_max_event_size(Pointer port_buffer);
 
+    // Ringbuffer functions ////////////////////////////////////////////////////
+    /**
+     * Allocates a ringbuffer data structure of a specified size. The caller
+     * must arrange for a call to jack_ringbuffer_free() to release the memory
+     * associated with the ringbuffer.<br>
+     * The size is rounded up to a power of two, and one byte less than the
+     * size is available for data.<br>
+     * Original signature : <code>jack_ringbuffer_t* jack_ringbuffer_create(size_t)</code>
+     *
+     * The default implementation returns NULL, and all other ringbuffer
+     * functions do nothing and return zero, or -1 for mlock. Callers should
+     * fall back to a Java ring buffer if NULL is returned.
+     *
+     * @param sz the ringbuffer size in bytes.
+     * @return a pointer to a new jack_ringbuffer_t, if successful; NULL
+     * otherwise.
+     */
+    default Pointer jack_ringbuffer_create(size_t sz) {
+        return null;
+    }
+
+    /**
+     * Frees the ringbuffer data structure allocated by an earlier call to
+     * jack_ringbuffer_create().<br>
+     * Original signature : <code>void jack_ringbuffer_free(jack_ringbuffer_t*)</code>
+     */
+    default void jack_ringbuffer_free(Pointer rb) {
+    }
+
+    /**
+     * Fill a data structure with a description of the current readable data
+     * held in the ringbuffer. This description is returned in a two element
+     * array of jack_ringbuffer_data_t (char* buf, size_t len). Two elements
+     * are needed because the data to be read may be split across the end of
+     * the ringbuffer.<br>
+     * Original signature : <code>void jack_ringbuffer_get_read_vector(const jack_ringbuffer_t*, jack_ringbuffer_data_t*)</code>
+     */
+    default void jack_ringbuffer_get_read_vector(Pointer rb, Pointer vec) {
+    }
+
+    /**
+     * Fill a data structure with a description of the current writable space
+     * in the ringbuffer. As jack_ringbuffer_get_read_vector().<br>
+     * Original signature : <code>void jack_ringbuffer_get_write_vector(const jack_ringbuffer_t*, jack_ringbuffer_data_t*)</code>
+     */
+    default void jack_ringbuffer_get_write_vector(Pointer rb, Pointer vec) {
+    }
+
+    /**
+     * Read data from the ringbuffer.<br>
+     * Original signature : <code>size_t jack_ringbuffer_read(jack_ringbuffer_t*, char*, size_t)</code>
+     *
+     * @return the number of bytes read, which may range from 0 to cnt.
+     */
+    default size_t jack_ringbuffer_read(Pointer rb, Pointer dest, size_t cnt) {
+        return new size_t(0);
+    }
+
+    /**
+     * Read data from the ringbuffer without advancing the read pointer.<br>
+     * Original signature : <code>size_t jack_ringbuffer_peek(jack_ringbuffer_t*, char*, size_t)</code>
+     *
+     * @return the number of bytes read, which may range from 0 to cnt.
+     */
+    default size_t jack_ringbuffer_peek(Pointer rb, Pointer dest, size_t cnt) {
+        return new size_t(0);
+    }
+
+    /**
+     * Advance the read pointer. After data has been read from the ringbuffer
+     * using the pointers returned by jack_ringbuffer_get_read_vector(), use
+     * this function to advance the buffer pointers, making that space
+     * available for future write operations.<br>
+     * Original signature : <code>void jack_ringbuffer_read_advance(jack_ringbuffer_t*, size_t)</code>
+     */
+    default void jack_ringbuffer_read_advance(Pointer rb, size_t cnt) {
+    }
+
+    /**
+     * Return the number of bytes available for reading.<br>
+     * Original signature : <code>size_t jack_ringbuffer_read_space(const jack_ringbuffer_t*)</code>
+     */
+    default size_t jack_ringbuffer_read_space(Pointer rb) {
+        return new size_t(0);
+    }
+
+    /**
+     * Lock a ringbuffer data block into memory. Uses the mlock() system call.
+     * This is not a realtime operation.<br>
+     * Original signature : <code>int jack_ringbuffer_mlock(jack_ringbuffer_t*)</code>
+     */
+    default int jack_ringbuffer_mlock(Pointer rb) {
+        return -1;
+    }
+
+    /**
+     * Reset the read and write pointers, making an empty buffer. This is not
+     * thread safe.<br>
+     * Original signature : <code>void jack_ringbuffer_reset(jack_ringbuffer_t*)</code>
+     */
+    default void jack_ringbuffer_reset(Pointer rb) {
+    }
+
+    /**
+     * Write data into the ringbuffer.<br>
+     * Original signature : <code>size_t jack_ringbuffer_write(jack_ringbuffer_t*, const char*, size_t)</code>
+     *
+     * @return the number of bytes write, which may range from 0 to cnt
+     */
+    default size_t jack_ringbuffer_write(Pointer rb, Pointer src, size_t cnt) {
+        return new size_t(0);
+    }
+
+    /**
+     * Advance the write pointer. After data has been written the ringbuffer
+     * using the pointers returned by jack_ringbuffer_get_write_vector(), use
+     * this function to advance the buffer pointer, making the data available
+     * for future read operations.<br>
+     * Original signature : <code>void jack_ringbuffer_write_advance(jack_ringbuffer_t*, size_t)</code>
+     */
+    default void jack_ringbuffer_write_advance(Pointer rb, size_t cnt) {
+    }
+
+    /**
+     * Return the number of bytes available for writing.<br>
+     * Original signature : <code>size_t jack_ringbuffer_write_space(const jack_ringbuffer_t*)</code>
+     */
+    default size_t jack_ringbuffer_write_space(Pointer rb) {
+        return new size_t(0);
+    }
+
+    /**
+     * As jack_ringbuffer_get_read_vector(), using raw native addresses so
+     * that calls from realtime threads do not allocate.
+     *
+     * The default implementation defers to the Pointer based function.
+     *
+     * @param rb address of jack_ringbuffer_t
+     * @param vec address of two element jack_ringbuffer_data_t array
+     */
+    default void jack_ringbuffer_get_read_vector(long rb, long vec) {
+        jack_ringbuffer_get_read_vector(new Pointer(rb), new Pointer(vec));
+    }
+
+    /**
+     * As jack_ringbuffer_get_write_vector(), using raw native addresses so
+     * that calls from realtime threads do not allocate.
+     *
+     * The default implementation defers to the Pointer based function.
+     *
+     * @param rb address of jack_ringbuffer_t
+     * @param vec address of two element jack_ringbuffer_data_t array
+     */
+    default void jack_ringbuffer_get_write_vector(long rb, long vec) {
+        jack_ringbuffer_get_write_vector(new Pointer(rb), new Pointer(vec));
+    }
+
+    /**
+     * As jack_ringbuffer_read_advance(), using raw native address and size
+     * so that calls from realtime threads do not allocate.
+     *
+     * The default implementation defers to the Pointer based function.
+     *
+     * @param rb address of jack_ringbuffer_t
+     * @param cnt bytes to advance
+     */
+    default void jack_ringbuffer_read_advance(long rb, long cnt) {
+        jack_ringbuffer_read_advance(new Pointer(rb), new size_t(cnt));
+    }
+
+    /**
+     * As jack_ringbuffer_write_advance(), using raw native address and size
+     * so that calls from realtime threads do not allocate.
+     *
+     * The default implementation defers to the Pointer based function.
+     *
+     * @param rb address of jack_ringbuffer_t
+     * @param cnt bytes to advance
+     */
+    default void jack_ringbuffer_write_advance(long rb, long cnt) {
+        jack_ringbuffer_write_advance(new Pointer(rb), new size_t(cnt));
+    }
+
     // Latency range functions //////////////////////////////////////////////////
     public static interface jack_latency_callback_mode {
         public static final int JackCaptureLatency = 0;
@@ -1911,6 +2224,26 @@ public interface JackLibrary extends com.sun.jna.Library {
 	* @return 0 on success, otherwise a non-zero error code.
 	*/
 	int jack_set_sync_callback(_jack_client client, JackSyncCallback sync_callback, Pointer arg);
+
+    /**
+     * As jack_set_sync_callback(), with a callback taking raw native
+     * addresses so that it can be invoked without allocation.
+     *
+     * The default implementation adapts the callback to the Pointer based
+     * function.
+     *
+     * @param client the JACK client structure.
+     * @param sync_callback callback, or null to unregister
+     * @param arg an argument for the callback, or 0
+     * @return 0 on success, otherwise a non-zero error code.
+     */
+    default int jack_set_sync_callback_address(_jack_client client,
+            JackSyncAddressCallback sync_callback, long arg) {
+        JackSyncCallback cb = sync_callback == null ? null
+                : (state, pos, a) -> sync_callback.invoke(state,
+                        Pointer.nativeValue(pos), Pointer.nativeValue(a));
+        return jack_set_sync_callback(client, cb, arg == 0 ? null : new Pointer(arg));
+    }
 	
 	/**
 	* Set the timeout value for slow-sync clients.
@@ -1969,6 +2302,28 @@ public interface JackLibrary extends com.sun.jna.Library {
 	*/
 	int jack_set_timebase_callback(_jack_client client, int conditional, JackTimebaseCallback timebase_callback,
 	Pointer arg);
+
+    /**
+     * As jack_set_timebase_callback(), with a callback taking raw native
+     * addresses so that it can be invoked without allocation.
+     *
+     * The default implementation adapts the callback to the Pointer based
+     * function.
+     *
+     * @param client the JACK client structure.
+     * @param conditional non-zero for a conditional request.
+     * @param timebase_callback callback
+     * @param arg an argument for the callback, or 0
+     * @return 0 on success, EBUSY if a conditional request fails, otherwise
+     * a non-zero error code.
+     */
+    default int jack_set_timebase_callback_address(_jack_client client, int conditional,
+            JackTimebaseAddressCallback timebase_callback, long arg) {
+        JackTimebaseCallback cb = timebase_callback == null ? null
+                : (state, nframes, pos, new_pos, a) -> timebase_callback.invoke(state, nframes,
+                        Pointer.nativeValue(pos), new_pos, Pointer.nativeValue(a));
+        return jack_set_timebase_callback(client, conditional, cb, arg == 0 ? null : new Pointer(arg));
+    }
 	
 	/**
 	* Reposition the transport to a new frame number.
@@ -2014,6 +2369,27 @@ public interface JackLibrary extends com.sun.jna.Library {
 	* @return Current transport state.
 	*/
 	int jack_transport_query(_jack_client client, jack_position_t pos);
+
+    /**
+     * As jack_transport_query(), but takes the raw native address of the
+     * position structure so that it can be filled without Structure
+     * marshalling.
+     *
+     * The default implementation defers to the Structure based function.
+     *
+     * @param client the JACK client structure.
+     * @param pos address of jack_position_t to fill, or 0
+     * @return Current transport state.
+     */
+    default int jack_transport_query_address(_jack_client client, long pos) {
+        if (pos == 0) {
+            return jack_transport_query(client, null);
+        }
+        jack_position_t p = new jack_position_t(new Pointer(pos), 0);
+        int ret = jack_transport_query(client, p);
+        p.write();
+        return ret;
+    }
 	
 	/**
 	* Request a new transport position.
@@ -2038,6 +2414,20 @@ public interface JackLibrary extends com.sun.jna.Library {
 	* @return 0 if valid request, EINVAL if position structure rejected.
 	*/
 	int jack_transport_reposition(_jack_client client, jack_position_t pos);
+
+    /**
+     * As jack_transport_reposition(), but takes the raw native address of
+     * the position structure.
+     *
+     * The default implementation defers to the Structure based function.
+     *
+     * @param client the JACK client structure.
+     * @param pos address of requested jack_position_t
+     * @return 0 if valid request, EINVAL if position structure rejected.
+     */
+    default int jack_transport_reposition_address(_jack_client client, long pos) {
+        return jack_transport_reposition(client, new jack_position_t(new Pointer(pos), 0));
+    }
 	
 	/**
 	* Start the JACK transport rolling.
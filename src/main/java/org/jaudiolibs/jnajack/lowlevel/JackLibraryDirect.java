@@ -1,6 +1,7 @@
 package org.jaudiolibs.jnajack.lowlevel;
 
 import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
 import com.sun.jna.NativeLong;
 import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
@@ -13,16 +14,21 @@ import com.sun.jna.ptr.IntByReference;
  */
 public class JackLibraryDirect implements JackLibrary {
 
+    private static final String LIBRARY_NAME;
+
     static {
+        String name = "jack";
         if (Platform.is64Bit()) {
             try {
                 Native.register("jack64");
+                name = "jack64";
             } catch (UnsatisfiedLinkError e) {
                 Native.register("jack");
             }
         } else {
             Native.register("jack");
         }
+        LIBRARY_NAME = name;
     }
 
     public native _jack_client jack_client_open(String client_name, int options, IntByReference status);
@@ -63,7 +69,15 @@ public class JackLibraryDirect implements JackLibrary {
 
     public native int jack_set_port_connect_callback(_jack_client jack_client_tPtr1, JackPortConnectCallback connect_callback, Pointer arg);
 
-//    public native int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, Pointer arg);
+    @Override
+    public int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, Pointer arg) {
+        if (PortRename.SUPPORTED) {
+            return PortRename.jack_set_port_rename_callback(jack_client_tPtr1, rename_callback, arg);
+        } else {
+            return JackLibrary.super.jack_set_port_rename_callback(jack_client_tPtr1, rename_callback, arg);
+        }
+    }
+
     public native int jack_set_graph_order_callback(_jack_client jack_client_tPtr1, JackGraphOrderCallback graph_callback, Pointer voidPtr1);
 
     public native int jack_set_xrun_callback(_jack_client jack_client_tPtr1, JackXRunCallback xrun_callback, Pointer arg);
@@ -78,6 +92,15 @@ public class JackLibraryDirect implements JackLibrary {
 
     public native Pointer jack_port_get_buffer(_jack_port jack_port_tPtr1, int nframes);
 
+    @Override
+    public long jack_port_get_buffer_address(_jack_port port, int nframes) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_port_get_buffer(Pointer.nativeValue(port.getPointer()), nframes);
+        } else {
+            return Pointer.nativeValue(jack_port_get_buffer(port, nframes));
+        }
+    }
+
     public native String jack_port_name(_jack_port port);
 
     public native ByteByReference jack_port_short_name(_jack_port port);
@@ -134,6 +157,15 @@ public class JackLibraryDirect implements JackLibrary {
 
     public native int jack_port_name_size();
 
+    @Override
+    public size_t jack_port_type_get_buffer_size(_jack_client client, String port_type) {
+        if (PortTypeBufferSize.SUPPORTED) {
+            return PortTypeBufferSize.jack_port_type_get_buffer_size(client, port_type);
+        } else {
+            return JackLibrary.super.jack_port_type_get_buffer_size(client, port_type);
+        }
+    }
+
     public native int jack_port_type_size();
 
     public native void jack_port_get_latency_range( _jack_port port, int mode, jack_latency_range_t range );
@@ -158,6 +190,31 @@ public class JackLibraryDirect implements JackLibrary {
 
     public native float jack_cpu_load(_jack_client client);
 
+    @Override
+    public float jack_get_xrun_delayed_usecs(_jack_client client) {
+        if (Statistics.SUPPORTED) {
+            return Statistics.jack_get_xrun_delayed_usecs(client);
+        } else {
+            return JackLibrary.super.jack_get_xrun_delayed_usecs(client);
+        }
+    }
+
+    @Override
+    public float jack_get_max_delayed_usecs(_jack_client client) {
+        if (Statistics.SUPPORTED) {
+            return Statistics.jack_get_max_delayed_usecs(client);
+        } else {
+            return JackLibrary.super.jack_get_max_delayed_usecs(client);
+        }
+    }
+
+    @Override
+    public void jack_reset_max_delayed_usecs(_jack_client client) {
+        if (Statistics.SUPPORTED) {
+            Statistics.jack_reset_max_delayed_usecs(client);
+        }
+    }
+
     public native void jack_set_error_function(func arg1);
 
     public native void jack_set_info_function(func arg1);
@@ -173,8 +230,26 @@ public class JackLibraryDirect implements JackLibrary {
     
     public native int jack_midi_event_get(jack_midi_event_t event, Pointer port_buffer, int event_index);
 
+    @Override
+    public int jack_midi_event_get(long event, long port_buffer, int event_index) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_midi_event_get(event, port_buffer, event_index);
+        } else {
+            return JackLibrary.super.jack_midi_event_get(event, port_buffer, event_index);
+        }
+    }
+
     public native Pointer jack_midi_event_reserve(Pointer port_buffer, int time, int data_size);
 
+    @Override
+    public long jack_midi_event_reserve(long port_buffer, int time, int data_size) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_midi_event_reserve(port_buffer, time, data_size);
+        } else {
+            return JackLibrary.super.jack_midi_event_reserve(port_buffer, time, data_size);
+        }
+    }
+
     public native int jack_midi_event_write(Pointer port_buffer, int time, Pointer data, int data_size);
     
     public native int jack_midi_event_write(Pointer port_buffer, int time, byte[] data, int data_size);
@@ -184,6 +259,159 @@ public class JackLibraryDirect implements JackLibrary {
     public native int jack_midi_get_lost_event_count(Pointer port_buffer);
     
     public native int jack_midi_max_event_size(Pointer port_buffer);
+
+    @Override
+    public Pointer jack_ringbuffer_create(size_t sz) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_create(sz);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_create(sz);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_free(Pointer rb) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_free(rb);
+        } else {
+            JackLibrary.super.jack_ringbuffer_free(rb);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_read_vector(Pointer rb, Pointer vec) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_get_read_vector(rb, vec);
+        } else {
+            JackLibrary.super.jack_ringbuffer_get_read_vector(rb, vec);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_write_vector(Pointer rb, Pointer vec) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_get_write_vector(rb, vec);
+        } else {
+            JackLibrary.super.jack_ringbuffer_get_write_vector(rb, vec);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read(Pointer rb, Pointer dest, size_t cnt) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_read(rb, dest, cnt);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_read(rb, dest, cnt);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_peek(Pointer rb, Pointer dest, size_t cnt) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_peek(rb, dest, cnt);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_peek(rb, dest, cnt);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_read_advance(Pointer rb, size_t cnt) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_read_advance(rb, cnt);
+        } else {
+            JackLibrary.super.jack_ringbuffer_read_advance(rb, cnt);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read_space(Pointer rb) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_read_space(rb);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_read_space(rb);
+        }
+    }
+
+    @Override
+    public int jack_ringbuffer_mlock(Pointer rb) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_mlock(rb);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_mlock(rb);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_reset(Pointer rb) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_reset(rb);
+        } else {
+            JackLibrary.super.jack_ringbuffer_reset(rb);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write(Pointer rb, Pointer src, size_t cnt) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_write(rb, src, cnt);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_write(rb, src, cnt);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_write_advance(Pointer rb, size_t cnt) {
+        if (RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_write_advance(rb, cnt);
+        } else {
+            JackLibrary.super.jack_ringbuffer_write_advance(rb, cnt);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write_space(Pointer rb) {
+        if (RingBuffer.SUPPORTED) {
+            return RingBuffer.jack_ringbuffer_write_space(rb);
+        } else {
+            return JackLibrary.super.jack_ringbuffer_write_space(rb);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_read_vector(long rb, long vec) {
+        if (Raw.SUPPORTED && RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_get_read_vector(rb, vec);
+        } else {
+            jack_ringbuffer_get_read_vector(new Pointer(rb), new Pointer(vec));
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_write_vector(long rb, long vec) {
+        if (Raw.SUPPORTED && RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_get_write_vector(rb, vec);
+        } else {
+            jack_ringbuffer_get_write_vector(new Pointer(rb), new Pointer(vec));
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_read_advance(long rb, long cnt) {
+        if (Raw.SUPPORTED && RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_read_advance(rb, cnt);
+        } else {
+            jack_ringbuffer_read_advance(new Pointer(rb), new size_t(cnt));
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_write_advance(long rb, long cnt) {
+        if (Raw.SUPPORTED && RingBuffer.SUPPORTED) {
+            RingBuffer.jack_ringbuffer_write_advance(rb, cnt);
+        } else {
+            jack_ringbuffer_write_advance(new Pointer(rb), new size_t(cnt));
+        }
+    }
     
   /// Transport
   	@Override
@@ -195,6 +423,15 @@ public class JackLibraryDirect implements JackLibrary {
   	@Override
   	public native int jack_set_sync_callback(_jack_client client, JackSyncCallback sync_callback, Pointer arg);
 
+    @Override
+    public int jack_set_sync_callback_address(_jack_client client, JackSyncAddressCallback sync_callback, long arg) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_set_sync_callback(Pointer.nativeValue(client.getPointer()), sync_callback, arg);
+        } else {
+            return JackLibrary.super.jack_set_sync_callback_address(client, sync_callback, arg);
+        }
+    }
+
   	@Override
   	public native int jack_set_sync_timeout(_jack_client client, long timeout);
 
@@ -202,18 +439,210 @@ public class JackLibraryDirect implements JackLibrary {
   	public native int jack_set_timebase_callback(_jack_client client, int conditional, JackTimebaseCallback timebase_callback,
   			Pointer arg);
 
+    @Override
+    public int jack_set_timebase_callback_address(_jack_client client, int conditional,
+            JackTimebaseAddressCallback timebase_callback, long arg) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_set_timebase_callback(Pointer.nativeValue(client.getPointer()),
+                    conditional, timebase_callback, arg);
+        } else {
+            return JackLibrary.super.jack_set_timebase_callback_address(client, conditional, timebase_callback, arg);
+        }
+    }
+
   	@Override
   	public native int jack_transport_locate(_jack_client client, int frame);
 
   	@Override
   	public native int jack_transport_query(_jack_client client, jack_position_t pos);
 
+    @Override
+    public int jack_transport_query_address(_jack_client client, long pos) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_transport_query(Pointer.nativeValue(client.getPointer()), pos);
+        } else {
+            return JackLibrary.super.jack_transport_query_address(client, pos);
+        }
+    }
+
   	@Override
   	public native int jack_transport_reposition(_jack_client client, jack_position_t pos);
 
+    @Override
+    public int jack_transport_reposition_address(_jack_client client, long pos) {
+        if (Raw.SUPPORTED) {
+            return Raw.jack_transport_reposition(Pointer.nativeValue(client.getPointer()), pos);
+        } else {
+            return JackLibrary.super.jack_transport_reposition_address(client, pos);
+        }
+    }
+
   	@Override
   	public native void jack_transport_start(_jack_client client);
 
   	@Override
   	public native void jack_transport_stop(_jack_client client);
+
+    /**
+     * Direct bindings using raw addresses in place of Pointer types, so
+     * calls on the process thread do not allocate. Callbacks bound here are
+     * invoked directly by JNA, and take raw addresses for the same reason.
+     * Only used where pointers and Java longs are the same size.
+     */
+    private static class Raw {
+
+        private static final boolean SUPPORTED = Native.POINTER_SIZE == 8;
+
+        static {
+            if (SUPPORTED) {
+                Native.register(Raw.class, NativeLibrary.getInstance(LIBRARY_NAME));
+            }
+        }
+
+        private static native long jack_port_get_buffer(long port, int nframes);
+
+        private static native int jack_midi_event_get(long event, long port_buffer, int event_index);
+
+        private static native long jack_midi_event_reserve(long port_buffer, int time, long data_size);
+
+        private static native int jack_transport_query(long client, long pos);
+
+        private static native int jack_transport_reposition(long client, long pos);
+
+        private static native int jack_set_sync_callback(long client, JackSyncAddressCallback sync_callback, long arg);
+
+        private static native int jack_set_timebase_callback(long client, int conditional,
+                JackTimebaseAddressCallback timebase_callback, long arg);
+
+    }
+
+    /**
+     * Port rename notification is missing from older JACK versions, so is
+     * registered separately to avoid failing to load the whole library.
+     */
+    private static class PortRename {
+
+        private static final boolean SUPPORTED;
+
+        static {
+            boolean supported;
+            try {
+                Native.register(PortRename.class, NativeLibrary.getInstance(LIBRARY_NAME));
+                supported = true;
+            } catch (Throwable t) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        private static native int jack_set_port_rename_callback(_jack_client client,
+                JackPortRenameCallback rename_callback, Pointer arg);
+
+    }
+
+    /**
+     * Ring buffer functions are registered separately so a JACK library
+     * without them does not fail to load. The raw address overloads are only
+     * called where pointers and Java longs are the same size.
+     */
+    private static class RingBuffer {
+
+        private static final boolean SUPPORTED;
+
+        static {
+            boolean supported;
+            try {
+                Native.register(RingBuffer.class, NativeLibrary.getInstance(LIBRARY_NAME));
+                supported = true;
+            } catch (Throwable t) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        private static native Pointer jack_ringbuffer_create(size_t sz);
+
+        private static native void jack_ringbuffer_free(Pointer rb);
+
+        private static native void jack_ringbuffer_get_read_vector(Pointer rb, Pointer vec);
+
+        private static native void jack_ringbuffer_get_write_vector(Pointer rb, Pointer vec);
+
+        private static native size_t jack_ringbuffer_read(Pointer rb, Pointer dest, size_t cnt);
+
+        private static native size_t jack_ringbuffer_peek(Pointer rb, Pointer dest, size_t cnt);
+
+        private static native void jack_ringbuffer_read_advance(Pointer rb, size_t cnt);
+
+        private static native size_t jack_ringbuffer_read_space(Pointer rb);
+
+        private static native int jack_ringbuffer_mlock(Pointer rb);
+
+        private static native void jack_ringbuffer_reset(Pointer rb);
+
+        private static native size_t jack_ringbuffer_write(Pointer rb, Pointer src, size_t cnt);
+
+        private static native void jack_ringbuffer_write_advance(Pointer rb, size_t cnt);
+
+        private static native size_t jack_ringbuffer_write_space(Pointer rb);
+
+        private static native void jack_ringbuffer_get_read_vector(long rb, long vec);
+
+        private static native void jack_ringbuffer_get_write_vector(long rb, long vec);
+
+        private static native void jack_ringbuffer_read_advance(long rb, long cnt);
+
+        private static native void jack_ringbuffer_write_advance(long rb, long cnt);
+
+    }
+
+    /**
+     * Backend statistics are missing from some JACK versions, so are
+     * registered separately to avoid failing to load the whole library.
+     */
+    private static class Statistics {
+
+        private static final boolean SUPPORTED;
+
+        static {
+            boolean supported;
+            try {
+                Native.register(Statistics.class, NativeLibrary.getInstance(LIBRARY_NAME));
+                supported = true;
+            } catch (Throwable t) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        private static native float jack_get_xrun_delayed_usecs(_jack_client client);
+
+        private static native float jack_get_max_delayed_usecs(_jack_client client);
+
+        private static native void jack_reset_max_delayed_usecs(_jack_client client);
+
+    }
+
+    /**
+     * Port type buffer size is missing from older JACK versions, so is
+     * registered separately to avoid failing to load the whole library.
+     */
+    private static class PortTypeBufferSize {
+
+        private static final boolean SUPPORTED;
+
+        static {
+            boolean supported;
+            try {
+                Native.register(PortTypeBufferSize.class, NativeLibrary.getInstance(LIBRARY_NAME));
+                supported = true;
+            } catch (Throwable t) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        private static native size_t jack_port_type_get_buffer_size(_jack_client client, String port_type);
+
+    }
 }
@@ -0,0 +1,2528 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.lowlevel;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.ByteByReference;
+import com.sun.jna.ptr.IntByReference;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Pure Java implementation of JackLibrary that simulates a JACK server
+ * in-process, for testing and offline rendering without a JACK daemon.
+ *
+ * Clients, ports and connections are managed in Java, while port buffers are
+ * allocated in native memory so that the rest of JNAJack works unchanged. A
+ * driver thread runs process cycles at the configured sample rate and buffer
+ * size, either paced to the wall clock or, if realtime is disabled, as fast as
+ * possible. Input ports with a single connection share the buffer of the
+ * connected output, and multiple connections are mixed, as in JACK. Clients
+ * are processed in graph order. Transport, timebase, MIDI buffers, ring
+ * buffers and the process thread API are also simulated.
+ *
+ * A "system" client provides physical capture and playback ports. Use a
+ * {@link CycleListener} to fill capture buffers and read playback buffers.
+ * Alternatively, disable auto start and drive the server from the calling
+ * thread with {@link #runCycles(int)}.
+ *
+ * Use with <code>Jack.getSimulatedInstance()</code>, or set the system
+ * property <code>jnajack.library=simulated</code>.
+ *
+ * @author Neil C Smith
+ */
+public class JackLibrarySimulated implements JackLibrary {
+
+    private final static Logger LOG = Logger.getLogger(JackLibrarySimulated.class.getName());
+
+    public final static int DEFAULT_SAMPLE_RATE = 48000;
+    public final static int DEFAULT_BUFFER_SIZE = 256;
+    public final static int MAX_BUFFER_SIZE = 8192;
+    public final static String SYSTEM_CLIENT = "system";
+
+    private final static int CLIENT_NAME_SIZE = 64;
+    private final static int PORT_NAME_SIZE = 320;
+    private final static int PORT_TYPE_SIZE = 32;
+    private final static int FRAME_SIZE = 4;
+    private final static int MAX_ALIASES = 2;
+    private final static long DEFAULT_SYNC_TIMEOUT = 2000000;
+
+    private final static int TYPE_AUDIO = 0;
+    private final static int TYPE_MIDI = 1;
+    private final static int TYPE_CUSTOM = 2;
+
+    // MIDI buffer layout - header, then event table growing up from the
+    // header and event data growing down from the end of the buffer
+    private final static int MIDI_BUFFER_SIZE = MAX_BUFFER_SIZE * FRAME_SIZE;
+    private final static int MIDI_COUNT = 0;
+    private final static int MIDI_LOST = 4;
+    private final static int MIDI_DATA = 8;
+    private final static int MIDI_LAST_TIME = 12;
+    private final static int MIDI_HEADER_SIZE = 16;
+    private final static int MIDI_EVENT_SIZE = 12;
+
+    private final static int EBUSY = 16;
+    private final static int EEXIST = 17;
+    private final static int EINVAL = 22;
+    private final static int ENODATA = 61;
+    private final static int ENOBUFS = 105;
+
+    // jack_ringbuffer_t { char *buf; size_t write_ptr; size_t read_ptr;
+    //      size_t size; size_t size_mask; int mlocked; }
+    private final static long RB_BUF = 0;
+    private final static long RB_WRITE_PTR = Native.POINTER_SIZE;
+    private final static long RB_READ_PTR = RB_WRITE_PTR + Native.SIZE_T_SIZE;
+    private final static long RB_SIZE = RB_READ_PTR + Native.SIZE_T_SIZE;
+    private final static long RB_SIZE_MASK = RB_SIZE + Native.SIZE_T_SIZE;
+    private final static long RB_MLOCKED = RB_SIZE_MASK + Native.SIZE_T_SIZE;
+    private final static long RB_HEADER_SIZE = RB_MLOCKED + 8;
+    // jack_ringbuffer_data_t { char *buf; size_t len; }
+    private final static long RB_VECTOR_SIZE = Native.POINTER_SIZE + Native.SIZE_T_SIZE;
+
+    private final static Client[] NO_CLIENTS = new Client[0];
+    private final static Port[] NO_PORTS = new Port[0];
+
+    private final int sampleRate;
+    private final long startNanos;
+    private final Object lock;
+    private final Object cycleLock;
+    private final Object transportLock;
+    private final List<Client> clients;
+    private final Deque<Integer> freePortIDs;
+    private final ExecutorService notifier;
+    private final Client system;
+    private final jack_position_t position;
+
+    private volatile Client[] clientTable;
+    private volatile Port[] portTable;
+    private volatile Client[] order;
+    private volatile int bufferSize;
+    private volatile boolean realtime;
+    private volatile boolean autoStart;
+    private volatile boolean freewheel;
+    private volatile boolean shutdown;
+    private volatile CycleListener listener;
+
+    private Thread driver;
+    private volatile boolean running;
+
+    private Memory silence;
+    private FloatBuffer silenceView;
+    private final Memory emptyMidi;
+
+    private volatile long frameTime;
+    private volatile long cycleNanos;
+    private volatile float cpuLoad;
+    private volatile float xrunDelayedUsecs;
+    private volatile float maxDelayedUsecs;
+    private final AtomicInteger xruns;
+    private final Map<Long, RingBuffer> ringBuffers;
+
+    private int transportState;
+    private int transportFrame;
+    private int requestedFrame;
+    private long syncTimeout;
+    private long syncStart;
+    private long positionID;
+    private volatile Client timebaseMaster;
+
+    /**
+     * Create a simulated server with the default sample rate and buffer size,
+     * and two physical capture and playback ports.
+     */
+    public JackLibrarySimulated() {
+        this(DEFAULT_SAMPLE_RATE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a simulated server with two physical capture and playback ports.
+     *
+     * @param sampleRate sample rate
+     * @param bufferSize initial buffer size
+     */
+    public JackLibrarySimulated(int sampleRate, int bufferSize) {
+        this(sampleRate, bufferSize, 2, 2);
+    }
+
+    /**
+     * Create a simulated server.
+     *
+     * @param sampleRate sample rate
+     * @param bufferSize initial buffer size
+     * @param captureChannels number of physical capture ports
+     * @param playbackChannels number of physical playback ports
+     */
+    public JackLibrarySimulated(int sampleRate, int bufferSize,
+            int captureChannels, int playbackChannels) {
+        if (sampleRate < 1 || bufferSize < 1 || bufferSize > MAX_BUFFER_SIZE
+                || captureChannels < 0 || playbackChannels < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.sampleRate = sampleRate;
+        this.bufferSize = bufferSize;
+        startNanos = System.nanoTime();
+        lock = new Object();
+        cycleLock = new Object();
+        transportLock = new Object();
+        clients = new ArrayList<>();
+        freePortIDs = new ArrayDeque<>();
+        notifier = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "JNAJack simulated notifications");
+            t.setDaemon(true);
+            return t;
+        });
+        clientTable = NO_CLIENTS;
+        portTable = NO_PORTS;
+        order = NO_CLIENTS;
+        realtime = true;
+        autoStart = true;
+        requestedFrame = -1;
+        xruns = new AtomicInteger();
+        ringBuffers = new ConcurrentHashMap<>();
+        syncTimeout = DEFAULT_SYNC_TIMEOUT;
+        position = new jack_position_t();
+        silence = allocate(bufferSize * FRAME_SIZE);
+        silenceView = floatView(silence);
+        emptyMidi = allocate(MIDI_BUFFER_SIZE);
+        midiClear(emptyMidi);
+        synchronized (lock) {
+            system = createClient(SYSTEM_CLIENT);
+            system.active = true;
+            int physical = JackPortFlags.JackPortIsPhysical | JackPortFlags.JackPortIsTerminal;
+            for (int i = 1; i <= captureChannels; i++) {
+                createPort(system, "capture_" + i, JACK_DEFAULT_AUDIO_TYPE,
+                        JackPortFlags.JackPortIsOutput | physical, 0);
+            }
+            for (int i = 1; i <= playbackChannels; i++) {
+                createPort(system, "playback_" + i, JACK_DEFAULT_AUDIO_TYPE,
+                        JackPortFlags.JackPortIsInput | physical, 0);
+            }
+        }
+    }
+
+    /**
+     * Listener for the driver cycle, used to provide and collect data on the
+     * physical ports of the system client. Methods are called on the driver
+     * thread, or the thread calling {@link #runCycles(int)}.
+     */
+    public static interface CycleListener {
+
+        /**
+         * Called at the start of each cycle, before any client is processed.
+         * Write data to physical capture ports here.
+         *
+         * @param server simulated server
+         * @param nframes frames in this cycle
+         */
+        void cycleStarted(JackLibrarySimulated server, int nframes);
+
+        /**
+         * Called at the end of each cycle, after all clients are processed.
+         * Read data from physical playback ports here.
+         *
+         * @param server simulated server
+         * @param nframes frames in this cycle
+         */
+        void cycleFinished(JackLibrarySimulated server, int nframes);
+
+    }
+
+    /**
+     * Set whether the driver thread is paced to the wall clock. If false,
+     * cycles run as fast as clients can process them while any client is
+     * active. Defaults to true.
+     *
+     * @param realtime pace driver to wall clock
+     */
+    public void setRealtime(boolean realtime) {
+        this.realtime = realtime;
+    }
+
+    /**
+     * Whether the driver thread is paced to the wall clock.
+     *
+     * @return realtime
+     */
+    public boolean isRealtime() {
+        return realtime;
+    }
+
+    /**
+     * Set whether the driver thread is started automatically when a client
+     * is activated. Defaults to true. Disable to drive the server using
+     * {@link #runCycles(int)}.
+     *
+     * @param autoStart start driver on client activation
+     */
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+    /**
+     * Set the listener for driver cycles. May be null.
+     *
+     * @param listener cycle listener
+     */
+    public void setCycleListener(CycleListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start the driver thread. Does nothing if already running.
+     *
+     * @throws IllegalStateException if the server has been shut down
+     */
+    public void start() {
+        synchronized (lock) {
+            if (shutdown) {
+                throw new IllegalStateException("Server has been shut down");
+            }
+            if (driver != null) {
+                return;
+            }
+            running = true;
+            driver = new Thread(this::runDriver, "JNAJack simulated driver");
+            driver.setDaemon(true);
+            driver.setPriority(Thread.MAX_PRIORITY);
+            driver.start();
+        }
+    }
+
+    /**
+     * Stop the driver thread, waiting for the current cycle to complete.
+     */
+    public void stop() {
+        Thread t;
+        synchronized (lock) {
+            t = driver;
+            driver = null;
+            running = false;
+        }
+        if (t != null && t != Thread.currentThread()) {
+            try {
+                t.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Whether the driver thread is running.
+     *
+     * @return running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Run the specified number of process cycles on the calling thread.
+     *
+     * @param cycles number of cycles to run
+     * @throws IllegalStateException if the driver thread is running or the
+     * server has been shut down
+     */
+    public void runCycles(int cycles) {
+        if (running) {
+            throw new IllegalStateException("Driver thread is running");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Server has been shut down");
+        }
+        for (int i = 0; i < cycles; i++) {
+            cycle();
+        }
+    }
+
+    /**
+     * Shut down the server. The driver thread is stopped, and the shutdown
+     * callback of every open client is called.
+     */
+    public void shutdown() {
+        stop();
+        List<Client> closing;
+        synchronized (lock) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            closing = new ArrayList<>(clients);
+            for (Client c : closing) {
+                c.active = false;
+                c.zombie = true;
+            }
+            order = NO_CLIENTS;
+        }
+        for (Client c : closing) {
+            c.stopProcessThread();
+            if (c.shutdown != null) {
+                notify(c, () -> c.shutdown.invoke(c.shutdownArg));
+            }
+        }
+        notifier.shutdown();
+    }
+
+    /**
+     * Simulate an xrun, calling the xrun callback of every active client.
+     */
+    public void simulateXrun() {
+        xrunDelayedUsecs = 0;
+        xrun();
+    }
+
+    /**
+     * Number of xruns since the server was created, including those caused
+     * by cycles overrunning their period in realtime mode.
+     *
+     * @return xrun count
+     */
+    public int getXrunCount() {
+        return xruns.get();
+    }
+
+    /**
+     * Frame time at the start of the current or last cycle.
+     *
+     * @return frame time
+     */
+    public long getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * Get the buffer of the named audio port for the current cycle. For input
+     * ports this contains the mix of all connected outputs. Only valid inside
+     * {@link CycleListener} methods, or while no cycle is running. The
+     * returned buffer is direct and contains the current buffer size of
+     * frames.
+     *
+     * @param portName full port name
+     * @return buffer, or null if no such audio port exists
+     */
+    public FloatBuffer getAudioBuffer(String portName) {
+        Port port = findPort(portName);
+        if (port == null || port.kind != TYPE_AUDIO) {
+            return null;
+        }
+        if (port.isInput() && port.client == system) {
+            resolveInput(port);
+        }
+        FloatBuffer view = port.view;
+        view.clear();
+        return view;
+    }
+
+    // driver
+    private void runDriver() {
+        long deadline = System.nanoTime();
+        while (running) {
+            cycle();
+            Client[] active = order;
+            if (active.length > 0 && (!realtime || freewheel)) {
+                deadline = System.nanoTime();
+                continue;
+            }
+            long period = bufferSize * 1000000000L / sampleRate;
+            deadline += period;
+            long wait = deadline - System.nanoTime();
+            if (wait < 0) {
+                maxDelayedUsecs = Math.max(maxDelayedUsecs, -wait / 1000f);
+            }
+            if (wait < -period) {
+                if (active.length > 0) {
+                    xrunDelayedUsecs = -wait / 1000f;
+                    xrun();
+                }
+                deadline = System.nanoTime();
+            }
+            while ((wait = deadline - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private void cycle() {
+        synchronized (cycleLock) {
+            int nframes = bufferSize;
+            long start = System.nanoTime();
+            cycleNanos = start;
+            Client[] active = order;
+            silence.clear();
+            cycleTransport(active, nframes);
+            CycleListener l = listener;
+            if (l != null) {
+                try {
+                    l.cycleStarted(this, nframes);
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in cycle listener", t);
+                }
+            }
+            for (Client c : active) {
+                if (!c.zombie) {
+                    processClient(c, nframes);
+                }
+            }
+            if (l != null) {
+                try {
+                    l.cycleFinished(this, nframes);
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in cycle listener", t);
+                }
+            }
+            synchronized (transportLock) {
+                if (transportState == jack_transport_state_t.JackTransportRolling) {
+                    transportFrame += nframes;
+                }
+            }
+            frameTime += nframes;
+            float load = (System.nanoTime() - start) * sampleRate / (nframes * 1e7f);
+            cpuLoad = cpuLoad * 0.9f + load * 0.1f;
+        }
+    }
+
+    private void processClient(Client c, int nframes) {
+        for (Port port : c.ports) {
+            if (port.isInput()) {
+                resolveInput(port);
+            }
+        }
+        if (c.processThread != null) {
+            if (!c.cycle()) {
+                zombify(c);
+            }
+            return;
+        }
+        JackProcessCallback process = c.process;
+        if (process == null) {
+            return;
+        }
+        if (c.initThread != Thread.currentThread()) {
+            c.initThread = Thread.currentThread();
+            c.threadInit();
+        }
+        int ret;
+        try {
+            ret = process.invoke(nframes);
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in process callback", t);
+            ret = -1;
+        }
+        if (ret != 0) {
+            zombify(c);
+        }
+    }
+
+    private void resolveInput(Port port) {
+        Port[] sources = port.connections;
+        if (sources.length == 1) {
+            Port src = sources[0];
+            port.address = src.own;
+            port.view = src.ownView;
+        } else if (sources.length == 0) {
+            switch (port.kind) {
+                case TYPE_AUDIO:
+                    port.address = Pointer.nativeValue(silence);
+                    port.view = silenceView;
+                    break;
+                case TYPE_MIDI:
+                    port.address = Pointer.nativeValue(emptyMidi);
+                    break;
+                default:
+                    port.memory.clear();
+                    port.address = port.own;
+            }
+        } else {
+            port.address = port.own;
+            port.view = port.ownView;
+            switch (port.kind) {
+                case TYPE_AUDIO:
+                    mixAudio(port, sources);
+                    break;
+                case TYPE_MIDI:
+                    mixMidi(port, sources);
+                    break;
+                default:
+                    port.memory.clear();
+            }
+        }
+    }
+
+    private void mixAudio(Port port, Port[] sources) {
+        FloatBuffer out = port.ownView;
+        int size = bufferSize;
+        FloatBuffer in = sources[0].ownView;
+        for (int i = 0; i < size; i++) {
+            out.put(i, in.get(i));
+        }
+        for (int s = 1; s < sources.length; s++) {
+            in = sources[s].ownView;
+            for (int i = 0; i < size; i++) {
+                out.put(i, out.get(i) + in.get(i));
+            }
+        }
+    }
+
+    private void mixMidi(Port port, Port[] sources) {
+        Memory out = port.memory;
+        midiClear(out);
+        int[] cursors = port.cursors;
+        Arrays.fill(cursors, 0);
+        while (true) {
+            int next = -1;
+            int nextTime = Integer.MAX_VALUE;
+            for (int s = 0; s < sources.length; s++) {
+                Memory in = sources[s].memory;
+                if (cursors[s] < in.getInt(MIDI_COUNT)) {
+                    int time = in.getInt(MIDI_HEADER_SIZE + cursors[s] * MIDI_EVENT_SIZE);
+                    if (time < nextTime) {
+                        next = s;
+                        nextTime = time;
+                    }
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            Memory in = sources[next].memory;
+            long entry = MIDI_HEADER_SIZE + cursors[next] * MIDI_EVENT_SIZE;
+            int size = in.getInt(entry + 4);
+            int offset = in.getInt(entry + 8);
+            long dst = midiReserve(out, nextTime, size);
+            if (dst > 0) {
+                for (int i = 0; i < size; i++) {
+                    out.setByte(dst + i, in.getByte(offset + i));
+                }
+            }
+            cursors[next]++;
+        }
+    }
+
+    private void zombify(Client c) {
+        synchronized (lock) {
+            if (c.zombie) {
+                return;
+            }
+            c.zombie = true;
+            c.active = false;
+            updateOrder();
+        }
+        LOG.log(Level.WARNING, "Client {0} removed from process graph", c.name);
+        if (c.shutdown != null) {
+            notify(c, () -> c.shutdown.invoke(c.shutdownArg));
+        }
+    }
+
+    private void xrun() {
+        xruns.incrementAndGet();
+        for (Client c : order) {
+            if (c.xrun != null) {
+                notifyActive(c, () -> c.xrun.invoke(c.xrunArg));
+            }
+        }
+    }
+
+    // transport
+    private void cycleTransport(Client[] active, int nframes) {
+        int state;
+        boolean newPosition = false;
+        synchronized (transportLock) {
+            if (requestedFrame >= 0) {
+                transportFrame = requestedFrame;
+                requestedFrame = -1;
+                newPosition = true;
+                if (transportState == jack_transport_state_t.JackTransportRolling) {
+                    transportState = jack_transport_state_t.JackTransportStarting;
+                    syncStart = frameTime;
+                }
+            }
+            state = transportState;
+            positionID++;
+            position.unique_1 = positionID;
+            position.unique_2 = positionID;
+            position.usecs = usecs();
+            position.frame_rate = sampleRate;
+            position.frame = transportFrame;
+            position.valid = 0;
+        }
+        // native position only written when required by callbacks, as
+        // Structure.write() allocates
+        Pointer pos = position.getPointer();
+        boolean written = false;
+        if (state == jack_transport_state_t.JackTransportStarting) {
+            boolean ready = true;
+            for (Client c : active) {
+                JackSyncCallback sync = c.sync;
+                if (sync != null) {
+                    if (!written) {
+                        writePosition();
+                        written = true;
+                    }
+                    try {
+                        ready &= sync.invoke(state, pos, c.syncArg) != 0;
+                    } catch (Throwable t) {
+                        LOG.log(Level.SEVERE, "Error in sync callback", t);
+                    }
+                }
+            }
+            synchronized (transportLock) {
+                long waited = (frameTime - syncStart) * 1000000L / sampleRate;
+                if (transportState == jack_transport_state_t.JackTransportStarting
+                        && (ready || waited >= syncTimeout)) {
+                    transportState = jack_transport_state_t.JackTransportRolling;
+                }
+                state = transportState;
+            }
+        }
+        Client master = timebaseMaster;
+        if (master != null && master.active && master.timebase != null
+                && (newPosition || state == jack_transport_state_t.JackTransportRolling)) {
+            if (!written) {
+                writePosition();
+            }
+            try {
+                master.timebase.invoke(state, nframes, pos, newPosition ? 1 : 0, master.timebaseArg);
+            } catch (Throwable t) {
+                LOG.log(Level.SEVERE, "Error in timebase callback", t);
+            }
+            synchronized (transportLock) {
+                position.read();
+                position.frame = transportFrame;
+            }
+        }
+    }
+
+    private void writePosition() {
+        synchronized (transportLock) {
+            position.write();
+        }
+    }
+
+    private long usecs() {
+        if (realtime) {
+            return (System.nanoTime() - startNanos) / 1000;
+        } else {
+            return frameTime * 1000000L / sampleRate;
+        }
+    }
+
+    private int framesSinceCycleStart() {
+        if (!realtime) {
+            return 0;
+        }
+        long frames = (System.nanoTime() - cycleNanos) * sampleRate / 1000000000L;
+        return (int) Math.max(0, Math.min(frames, bufferSize));
+    }
+
+    // graph
+    private Client createClient(String name) {
+        Client[] table = clientTable;
+        Client c = new Client(table.length + 1, name);
+        clientTable = Arrays.copyOf(table, table.length + 1);
+        clientTable[table.length] = c;
+        clients.add(c);
+        return c;
+    }
+
+    private Port createPort(Client client, String shortName, String type, int flags, int size) {
+        int kind;
+        if (JACK_DEFAULT_AUDIO_TYPE.equals(type)) {
+            kind = TYPE_AUDIO;
+        } else if (JACK_DEFAULT_MIDI_TYPE.equals(type)) {
+            kind = TYPE_MIDI;
+        } else if (size > 0) {
+            kind = TYPE_CUSTOM;
+        } else {
+            return null;
+        }
+        Port[] table = portTable;
+        Integer free = freePortIDs.poll();
+        int id = free == null ? table.length + 1 : free;
+        Port port = new Port(id, client, shortName, type, flags, kind, size);
+        if (free == null) {
+            table = Arrays.copyOf(table, table.length + 1);
+        } else {
+            table = table.clone();
+        }
+        table[id - 1] = port;
+        portTable = table;
+        client.ports = append(client.ports, port);
+        return port;
+    }
+
+    private void updateOrder() {
+        List<Client> remaining = new ArrayList<>();
+        for (Client c : clients) {
+            if (c.active && !c.zombie && c != system) {
+                remaining.add(c);
+            }
+        }
+        // Kahn's algorithm - clients fed by no remaining client go first,
+        // any clients in feedback loops are appended in activation order
+        List<Client> sorted = new ArrayList<>(remaining.size());
+        while (!remaining.isEmpty()) {
+            Client next = null;
+            for (Client c : remaining) {
+                if (!isFedBy(c, remaining)) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next == null) {
+                next = remaining.get(0);
+            }
+            remaining.remove(next);
+            sorted.add(next);
+        }
+        order = sorted.toArray(NO_CLIENTS);
+    }
+
+    private boolean isFedBy(Client client, List<Client> others) {
+        for (Port port : client.ports) {
+            if (port.isInput()) {
+                for (Port src : port.connections) {
+                    if (src.client != client && others.contains(src.client)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean connect(Port src, Port dst) {
+        if (!src.isOutput() || !dst.isInput() || !src.type.equals(dst.type)) {
+            return false;
+        }
+        dst.connections = append(dst.connections, src);
+        dst.cursors = new int[dst.connections.length];
+        src.connections = append(src.connections, dst);
+        return true;
+    }
+
+    private void disconnect(Port src, Port dst) {
+        dst.connections = remove(dst.connections, src);
+        dst.cursors = new int[dst.connections.length];
+        src.connections = remove(src.connections, dst);
+    }
+
+    private void disconnectAll(Port port, List<Port[]> disconnected) {
+        for (Port other : port.connections) {
+            if (port.isOutput()) {
+                disconnect(port, other);
+                disconnected.add(new Port[]{port, other});
+            } else {
+                disconnect(other, port);
+                disconnected.add(new Port[]{other, port});
+            }
+        }
+    }
+
+    private void unregister(Port port, List<Port[]> disconnected) {
+        disconnectAll(port, disconnected);
+        port.registered = false;
+        port.client.ports = remove(port.client.ports, port);
+    }
+
+    private Client findClient(_jack_client handle) {
+        if (handle == null) {
+            return null;
+        }
+        Client[] table = clientTable;
+        long id = Pointer.nativeValue(handle.getPointer());
+        if (id < 1 || id > table.length) {
+            return null;
+        }
+        Client c = table[(int) id - 1];
+        return c.closed ? null : c;
+    }
+
+    private Port findPort(_jack_port handle) {
+        if (handle == null) {
+            return null;
+        }
+        Port[] table = portTable;
+        long id = Pointer.nativeValue(handle.getPointer());
+        if (id < 1 || id > table.length) {
+            return null;
+        }
+        return table[(int) id - 1];
+    }
+
+    private Port findPort(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Port port : portTable) {
+            if (port != null && port.registered) {
+                if (port.matches(name)) {
+                    return port;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<String> findPortNames(String namePattern, String typePattern, int flags) {
+        Pattern names = compile(namePattern);
+        Pattern types = compile(typePattern);
+        List<String> result = new ArrayList<>();
+        for (Port port : portTable) {
+            if (port == null || !port.registered || (port.flags & flags) != flags) {
+                continue;
+            }
+            String name = port.name();
+            if ((names == null || names.matcher(name).find())
+                    && (types == null || types.matcher(port.type).find())) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    private Pattern compile(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(pattern);
+        } catch (PatternSyntaxException ex) {
+            return Pattern.compile(Pattern.quote(pattern));
+        }
+    }
+
+    private boolean isUniqueClientName(String name) {
+        for (Client c : clients) {
+            if (c.name.equals(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // notifications
+    private void notify(Client c, Runnable task) {
+        try {
+            notifier.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in notification callback for client " + c.name, t);
+                }
+            });
+        } catch (Exception ex) {
+            LOG.log(Level.FINE, "Notification dropped after shutdown", ex);
+        }
+    }
+
+    private void notifyActive(Client c, Runnable task) {
+        notify(c, () -> {
+            if (c.active) {
+                task.run();
+            }
+        });
+    }
+
+    private void notifyClientRegistration(Client client, boolean registered) {
+        for (Client c : clients) {
+            if (c != client && c.active && c.clientRegistration != null) {
+                JackClientRegistrationCallback cb = c.clientRegistration;
+                notifyActive(c, () -> cb.invoke(toByteRef(client.name),
+                        registered ? 1 : 0, c.clientRegistrationArg));
+            }
+        }
+    }
+
+    private void notifyPortRegistration(Port port, boolean registered) {
+        for (Client c : clients) {
+            if (c.active && c.portRegistration != null) {
+                JackPortRegistrationCallback cb = c.portRegistration;
+                notifyActive(c, () -> cb.invoke(port.id, registered ? 1 : 0, c.portRegistrationArg));
+            }
+        }
+    }
+
+    private void notifyPortConnect(Port src, Port dst, boolean connected) {
+        for (Client c : clients) {
+            if (c.active && c.portConnect != null) {
+                JackPortConnectCallback cb = c.portConnect;
+                notifyActive(c, () -> cb.invoke(src.id, dst.id, connected ? 1 : 0, c.portConnectArg));
+            }
+        }
+    }
+
+    private void notifyPortRename(Port port, String oldName, String newName) {
+        for (Client c : clients) {
+            if (c.active && c.portRename != null) {
+                JackPortRenameCallback cb = c.portRename;
+                notifyActive(c, () -> cb.invoke(port.id, toByteRef(oldName).getPointer(),
+                        toByteRef(newName).getPointer(), c.portRenameArg));
+            }
+        }
+    }
+
+    private void notifyGraphOrder() {
+        for (Client c : clients) {
+            if (c.active && c.graphOrder != null) {
+                JackGraphOrderCallback cb = c.graphOrder;
+                notifyActive(c, () -> cb.invoke(c.graphOrderArg));
+            }
+        }
+    }
+
+    private void releasePortIDs(List<Port> ports) {
+        // ids remain valid until queued notifications have been delivered
+        notify(system, () -> {
+            synchronized (lock) {
+                for (Port port : ports) {
+                    if (portTable[port.id - 1] == port) {
+                        freePortIDs.add(port.id);
+                    }
+                }
+            }
+        });
+    }
+
+    // utility
+    private Memory allocate(long size) {
+        Memory mem = new Memory(size);
+        mem.clear();
+        return mem;
+    }
+
+    private static FloatBuffer floatView(Memory mem) {
+        return mem.getByteBuffer(0, mem.size()).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static ByteByReference toByteRef(String value) {
+        byte[] bytes = Native.toByteArray(value);
+        Memory mem = new Memory(bytes.length);
+        mem.write(0, bytes, 0, bytes.length);
+        ByteByReference ref = new ByteByReference();
+        ref.setPointer(mem);
+        return ref;
+    }
+
+    private static Pointer toStringArray(List<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        int tableSize = (values.size() + 1) * Native.POINTER_SIZE;
+        List<byte[]> bytes = new ArrayList<>(values.size());
+        long size = tableSize;
+        for (String value : values) {
+            byte[] b = Native.toByteArray(value);
+            bytes.add(b);
+            size += b.length;
+        }
+        Memory mem = new Memory(size);
+        long offset = tableSize;
+        for (int i = 0; i < bytes.size(); i++) {
+            byte[] b = bytes.get(i);
+            mem.write(offset, b, 0, b.length);
+            mem.setPointer((long) i * Native.POINTER_SIZE, mem.share(offset));
+            offset += b.length;
+        }
+        mem.setPointer((long) values.size() * Native.POINTER_SIZE, null);
+        return mem;
+    }
+
+    private static <T> T[] append(T[] array, T value) {
+        T[] ret = Arrays.copyOf(array, array.length + 1);
+        ret[array.length] = value;
+        return ret;
+    }
+
+    private static <T> T[] remove(T[] array, T value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) {
+                T[] ret = Arrays.copyOf(array, array.length - 1);
+                System.arraycopy(array, i + 1, ret, i, array.length - i - 1);
+                return ret;
+            }
+        }
+        return array;
+    }
+
+    // MIDI buffers
+    private static void midiClear(Pointer buffer) {
+        buffer.setInt(MIDI_COUNT, 0);
+        buffer.setInt(MIDI_LOST, 0);
+        buffer.setInt(MIDI_DATA, MIDI_BUFFER_SIZE);
+        buffer.setInt(MIDI_LAST_TIME, 0);
+    }
+
+    private long midiReserve(Pointer buffer, int time, int size) {
+        int count = buffer.getInt(MIDI_COUNT);
+        if (time < 0 || time >= bufferSize || size < 1
+                || (count > 0 && time < buffer.getInt(MIDI_LAST_TIME))) {
+            return -EINVAL;
+        }
+        int data = buffer.getInt(MIDI_DATA) - size;
+        if (data < MIDI_HEADER_SIZE + (count + 1) * MIDI_EVENT_SIZE) {
+            buffer.setInt(MIDI_LOST, buffer.getInt(MIDI_LOST) + 1);
+            return -ENOBUFS;
+        }
+        long entry = MIDI_HEADER_SIZE + count * MIDI_EVENT_SIZE;
+        buffer.setInt(entry, time);
+        buffer.setInt(entry + 4, size);
+        buffer.setInt(entry + 8, data);
+        buffer.setInt(MIDI_DATA, data);
+        buffer.setInt(MIDI_COUNT, count + 1);
+        buffer.setInt(MIDI_LAST_TIME, time);
+        return data;
+    }
+
+    // JackLibrary implementation
+    @Override
+    public _jack_client jack_client_open(String client_name, int options, IntByReference status) {
+        int stat = 0;
+        _jack_client handle = null;
+        synchronized (lock) {
+            if (shutdown) {
+                stat = JackStatus.JackFailure | JackStatus.JackServerFailed;
+            } else if (client_name == null || client_name.isEmpty()
+                    || client_name.length() >= CLIENT_NAME_SIZE) {
+                stat = JackStatus.JackFailure | JackStatus.JackInvalidOption;
+            } else {
+                String name = client_name;
+                if (!isUniqueClientName(name)) {
+                    stat |= JackStatus.JackNameNotUnique;
+                    if ((options & JackOptions.JackUseExactName) != 0) {
+                        stat |= JackStatus.JackFailure;
+                        name = null;
+                    } else {
+                        for (int i = 1; !isUniqueClientName(name); i++) {
+                            name = String.format("%s-%02d", client_name, i);
+                        }
+                        if (name.length() >= CLIENT_NAME_SIZE) {
+                            stat |= JackStatus.JackFailure;
+                            name = null;
+                        }
+                    }
+                }
+                if (name != null) {
+                    Client client = createClient(name);
+                    handle = client.handle;
+                    notifyClientRegistration(client, true);
+                }
+            }
+        }
+        if (status != null) {
+            status.setValue(stat);
+        }
+        return handle;
+    }
+
+    @Override
+    public int jack_client_close(_jack_client client) {
+        Client c = findClient(client);
+        if (c == null || c == system) {
+            return -1;
+        }
+        jack_deactivate(client);
+        List<Port> ports;
+        synchronized (lock) {
+            ports = Arrays.asList(c.ports);
+            List<Port[]> disconnected = new ArrayList<>();
+            for (Port port : ports) {
+                unregister(port, disconnected);
+            }
+            for (Port[] pair : disconnected) {
+                notifyPortConnect(pair[0], pair[1], false);
+            }
+            for (Port port : ports) {
+                notifyPortRegistration(port, false);
+            }
+            releasePortIDs(ports);
+            c.closed = true;
+            clients.remove(c);
+            if (timebaseMaster == c) {
+                timebaseMaster = null;
+            }
+            notifyClientRegistration(c, false);
+            if (!disconnected.isEmpty()) {
+                notifyGraphOrder();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_client_name_size() {
+        return CLIENT_NAME_SIZE;
+    }
+
+    @Override
+    public String jack_get_client_name(_jack_client client) {
+        Client c = findClient(client);
+        return c == null ? null : c.name;
+    }
+
+    @Override
+    public int jack_is_realtime(_jack_client client) {
+        return realtime ? 1 : 0;
+    }
+
+    @Override
+    public void jack_on_shutdown(_jack_client client, JackShutdownCallback shutdown_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c != null) {
+            c.shutdown = shutdown_callback;
+            c.shutdownArg = arg;
+        }
+    }
+
+    @Override
+    public int jack_set_process_callback(_jack_client client, JackProcessCallback process_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active || c.thread != null) {
+            return -1;
+        }
+        c.process = process_callback;
+        return 0;
+    }
+
+    @Override
+    public int jack_cycle_wait(_jack_client client) {
+        Client c = findClient(client);
+        if (c == null) {
+            return 0;
+        }
+        return c.cycleWait();
+    }
+
+    @Override
+    public void jack_cycle_signal(_jack_client client, int status) {
+        Client c = findClient(client);
+        if (c != null) {
+            c.cycleSignal(status);
+        }
+    }
+
+    @Override
+    public int jack_set_process_thread(_jack_client client, JackThreadCallback thread_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active || c.process != null) {
+            return -1;
+        }
+        c.thread = thread_callback;
+        c.threadArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_thread_init_callback(_jack_client client, JackThreadInitCallback thread_init_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.threadInit = thread_init_callback;
+        c.threadInitArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_freewheel_callback(_jack_client client, JackFreewheelCallback freewheel_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.freewheel = freewheel_callback;
+        c.freewheelArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_freewheel(_jack_client client, int onoff) {
+        if (findClient(client) == null) {
+            return -1;
+        }
+        boolean on = onoff != 0;
+        synchronized (cycleLock) {
+            if (freewheel == on) {
+                return 0;
+            }
+            freewheel = on;
+            for (Client c : order) {
+                JackFreewheelCallback cb = c.freewheel;
+                if (cb != null) {
+                    try {
+                        cb.invoke(onoff, c.freewheelArg);
+                    } catch (Throwable t) {
+                        LOG.log(Level.SEVERE, "Error in freewheel callback", t);
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_set_buffer_size(_jack_client client, int nframes) {
+        if (findClient(client) == null || nframes < 1 || nframes > MAX_BUFFER_SIZE) {
+            return -1;
+        }
+        synchronized (cycleLock) {
+            if (nframes == bufferSize) {
+                return 0;
+            }
+            List<Client> notify;
+            synchronized (lock) {
+                bufferSize = nframes;
+                silence = allocate(nframes * FRAME_SIZE);
+                silenceView = floatView(silence);
+                for (Port port : portTable) {
+                    if (port != null && port.registered && port.kind == TYPE_AUDIO) {
+                        port.allocate();
+                    }
+                }
+                notify = new ArrayList<>(clients);
+            }
+            for (Client c : notify) {
+                JackBufferSizeCallback cb = c.bufferSizeCallback;
+                if (c.active && cb != null) {
+                    try {
+                        cb.invoke(nframes, c.bufferSizeArg);
+                    } catch (Throwable t) {
+                        LOG.log(Level.SEVERE, "Error in buffer size callback", t);
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_set_buffer_size_callback(_jack_client client, JackBufferSizeCallback bufsize_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.bufferSizeCallback = bufsize_callback;
+        c.bufferSizeArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_sample_rate_callback(_jack_client client, JackSampleRateCallback srate_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.sampleRateCallback = srate_callback;
+        if (srate_callback != null) {
+            srate_callback.invoke(sampleRate, arg);
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_set_client_registration_callback(_jack_client jack_client_tPtr1, JackClientRegistrationCallback registration_callback, Pointer arg) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.clientRegistration = registration_callback;
+        c.clientRegistrationArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_port_registration_callback(_jack_client jack_client_tPtr1, JackPortRegistrationCallback registration_callback, Pointer arg) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.portRegistration = registration_callback;
+        c.portRegistrationArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_port_connect_callback(_jack_client jack_client_tPtr1, JackPortConnectCallback connect_callback, Pointer arg) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.portConnect = connect_callback;
+        c.portConnectArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, Pointer arg) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.portRename = rename_callback;
+        c.portRenameArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_graph_order_callback(_jack_client jack_client_tPtr1, JackGraphOrderCallback graph_callback, Pointer voidPtr1) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.graphOrder = graph_callback;
+        c.graphOrderArg = voidPtr1;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_xrun_callback(_jack_client jack_client_tPtr1, JackXRunCallback xrun_callback, Pointer arg) {
+        Client c = findClient(jack_client_tPtr1);
+        if (c == null || c.active) {
+            return -1;
+        }
+        c.xrun = xrun_callback;
+        c.xrunArg = arg;
+        return 0;
+    }
+
+    @Override
+    public int jack_activate(_jack_client client) {
+        Client c = findClient(client);
+        if (c == null || c.zombie) {
+            return -1;
+        }
+        synchronized (lock) {
+            if (c.active) {
+                return 0;
+            }
+            c.active = true;
+            c.startProcessThread();
+            updateOrder();
+            notifyGraphOrder();
+            if (autoStart && driver == null) {
+                start();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_deactivate(_jack_client client) {
+        Client c = findClient(client);
+        if (c == null) {
+            return -1;
+        }
+        List<Port[]> disconnected = new ArrayList<>();
+        synchronized (lock) {
+            if (!c.active) {
+                return 0;
+            }
+            c.active = false;
+            for (Port port : c.ports) {
+                disconnectAll(port, disconnected);
+            }
+            updateOrder();
+            for (Port[] pair : disconnected) {
+                notifyPortConnect(pair[0], pair[1], false);
+            }
+            notifyGraphOrder();
+        }
+        // wait for any running cycle to complete
+        synchronized (cycleLock) {
+            c.stopProcessThread();
+        }
+        return 0;
+    }
+
+    @Override
+    public _jack_port jack_port_register(_jack_client client, String port_name, String port_type, NativeLong flags, NativeLong buffer_size) {
+        Client c = findClient(client);
+        if (c == null || port_name == null || port_type == null
+                || port_name.isEmpty() || port_type.length() >= PORT_TYPE_SIZE
+                || (c.name.length() + port_name.length() + 1) >= PORT_NAME_SIZE) {
+            return null;
+        }
+        int fl = flags == null ? 0 : flags.intValue();
+        if ((fl & (JackPortFlags.JackPortIsInput | JackPortFlags.JackPortIsOutput)) == 0
+                || (fl & JackPortFlags.JackPortIsInput) != 0 && (fl & JackPortFlags.JackPortIsOutput) != 0) {
+            return null;
+        }
+        synchronized (lock) {
+            for (Port port : c.ports) {
+                if (port.shortName.equals(port_name)) {
+                    return null;
+                }
+            }
+            int size = buffer_size == null ? 0 : buffer_size.intValue();
+            Port port = createPort(c, port_name, port_type, fl, size);
+            if (port == null) {
+                return null;
+            }
+            notifyPortRegistration(port, true);
+            return port.handle;
+        }
+    }
+
+    @Override
+    public int jack_port_unregister(_jack_client jack_client_tPtr1, _jack_port jack_port_tPtr1) {
+        Client c = findClient(jack_client_tPtr1);
+        Port port = findPort(jack_port_tPtr1);
+        if (c == null || port == null || port.client != c || !port.registered) {
+            return -1;
+        }
+        List<Port[]> disconnected = new ArrayList<>();
+        synchronized (lock) {
+            unregister(port, disconnected);
+            for (Port[] pair : disconnected) {
+                notifyPortConnect(pair[0], pair[1], false);
+            }
+            notifyPortRegistration(port, false);
+            releasePortIDs(Arrays.asList(port));
+            if (!disconnected.isEmpty()) {
+                updateOrder();
+                notifyGraphOrder();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public Pointer jack_port_get_buffer(_jack_port jack_port_tPtr1, int nframes) {
+        long address = jack_port_get_buffer_address(jack_port_tPtr1, nframes);
+        return address == 0 ? null : new Pointer(address);
+    }
+
+    @Override
+    public long jack_port_get_buffer_address(_jack_port port, int nframes) {
+        Port p = findPort(port);
+        return p == null ? 0 : p.address;
+    }
+
+    @Override
+    public String jack_port_name(_jack_port port) {
+        Port p = findPort(port);
+        return p == null ? null : p.name();
+    }
+
+    @Override
+    public ByteByReference jack_port_short_name(_jack_port port) {
+        Port p = findPort(port);
+        return p == null ? null : toByteRef(p.shortName);
+    }
+
+    @Override
+    public int jack_port_flags(_jack_port port) {
+        Port p = findPort(port);
+        return p == null ? 0 : p.flags;
+    }
+
+    @Override
+    public ByteByReference jack_port_type(_jack_port port) {
+        Port p = findPort(port);
+        return p == null ? null : toByteRef(p.type);
+    }
+
+    @Override
+    public int jack_port_is_mine(_jack_client jack_client_tPtr1, _jack_port port) {
+        Client c = findClient(jack_client_tPtr1);
+        Port p = findPort(port);
+        return c != null && p != null && p.client == c ? 1 : 0;
+    }
+
+    @Override
+    public int jack_port_connected(_jack_port port) {
+        Port p = findPort(port);
+        return p == null ? 0 : p.connections.length;
+    }
+
+    @Override
+    public int jack_port_connected_to(_jack_port port, String port_name) {
+        Port p = findPort(port);
+        if (p == null) {
+            return 0;
+        }
+        for (Port other : p.connections) {
+            if (other.matches(port_name)) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public Pointer jack_port_get_connections(_jack_port port) {
+        Port p = findPort(port);
+        if (p == null) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (Port other : p.connections) {
+            names.add(other.name());
+        }
+        return toStringArray(names);
+    }
+
+    @Override
+    public Pointer jack_port_get_all_connections(_jack_client client, _jack_port port) {
+        return jack_port_get_connections(port);
+    }
+
+    @Override
+    public int jack_port_tie(_jack_port src, _jack_port dst) {
+        return -1;
+    }
+
+    @Override
+    public int jack_port_untie(_jack_port port) {
+        return -1;
+    }
+
+    @Override
+    public int jack_port_get_latency(_jack_port port) {
+        Port p = findPort(port);
+        return p != null && p.isPhysical() ? bufferSize : 0;
+    }
+
+    @Override
+    public int jack_port_get_total_latency(_jack_client jack_client_tPtr1, _jack_port port) {
+        return jack_port_get_latency(port);
+    }
+
+    @Override
+    public void jack_port_set_latency(_jack_port jack_port_tPtr1) {
+    }
+
+    @Override
+    public int jack_recompute_total_latency(_jack_client jack_client_tPtr1, _jack_port port) {
+        return 0;
+    }
+
+    @Override
+    public int jack_recompute_total_latencies(_jack_client jack_client_tPtr1) {
+        return 0;
+    }
+
+    @Override
+    public int jack_port_set_name(_jack_port port, String port_name) {
+        Port p = findPort(port);
+        if (p == null || port_name == null || port_name.isEmpty()) {
+            return -1;
+        }
+        synchronized (lock) {
+            for (Port other : p.client.ports) {
+                if (other != p && other.shortName.equals(port_name)) {
+                    return -1;
+                }
+            }
+            String oldName = p.name();
+            p.shortName = port_name;
+            if (p.registered) {
+                notifyPortRename(p, oldName, p.name());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_set_alias(_jack_port port, String alias) {
+        Port p = findPort(port);
+        if (p == null || alias == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            if (p.aliases.length >= MAX_ALIASES) {
+                return -1;
+            }
+            p.aliases = append(p.aliases, alias);
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_unset_alias(_jack_port port, String alias) {
+        Port p = findPort(port);
+        if (p == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            for (String a : p.aliases) {
+                if (a.equals(alias)) {
+                    p.aliases = remove(p.aliases, a);
+                    return 0;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int jack_port_request_monitor(_jack_port port, int onoff) {
+        Port p = findPort(port);
+        if (p == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            if (onoff != 0) {
+                p.monitors++;
+            } else if (p.monitors > 0) {
+                p.monitors--;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_request_monitor_by_name(_jack_client client, String port_name, int onoff) {
+        Port p = findPort(port_name);
+        return p == null ? -1 : jack_port_request_monitor(p.handle, onoff);
+    }
+
+    @Override
+    public int jack_port_ensure_monitor(_jack_port port, int onoff) {
+        Port p = findPort(port);
+        if (p == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            if (onoff != 0 && p.monitors == 0) {
+                p.monitors = 1;
+            } else if (onoff == 0 && p.monitors > 0) {
+                p.monitors = 0;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_monitoring_input(_jack_port port) {
+        Port p = findPort(port);
+        return p != null && p.monitors > 0 ? 1 : 0;
+    }
+
+    @Override
+    public int jack_connect(_jack_client jack_client_tPtr1, String source_port, String destination_port) {
+        if (findClient(jack_client_tPtr1) == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            Port src = findPort(source_port);
+            Port dst = findPort(destination_port);
+            if (src == null || dst == null) {
+                return -1;
+            }
+            if (Arrays.asList(dst.connections).contains(src)) {
+                return EEXIST;
+            }
+            if (!connect(src, dst)) {
+                return -1;
+            }
+            updateOrder();
+            notifyPortConnect(src, dst, true);
+            notifyGraphOrder();
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_disconnect(_jack_client jack_client_tPtr1, String source_port, String destination_port) {
+        if (findClient(jack_client_tPtr1) == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            Port src = findPort(source_port);
+            Port dst = findPort(destination_port);
+            if (src == null || dst == null
+                    || !Arrays.asList(dst.connections).contains(src)) {
+                return -1;
+            }
+            disconnect(src, dst);
+            updateOrder();
+            notifyPortConnect(src, dst, false);
+            notifyGraphOrder();
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_disconnect(_jack_client jack_client_tPtr1, _jack_port jack_port_tPtr1) {
+        Port port = findPort(jack_port_tPtr1);
+        if (findClient(jack_client_tPtr1) == null || port == null) {
+            return -1;
+        }
+        synchronized (lock) {
+            List<Port[]> disconnected = new ArrayList<>();
+            disconnectAll(port, disconnected);
+            if (!disconnected.isEmpty()) {
+                updateOrder();
+                for (Port[] pair : disconnected) {
+                    notifyPortConnect(pair[0], pair[1], false);
+                }
+                notifyGraphOrder();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_port_name_size() {
+        return PORT_NAME_SIZE;
+    }
+
+    @Override
+    public int jack_port_type_size() {
+        return PORT_TYPE_SIZE;
+    }
+
+    @Override
+    public size_t jack_port_type_get_buffer_size(_jack_client client, String port_type) {
+        if (JACK_DEFAULT_AUDIO_TYPE.equals(port_type)) {
+            return new size_t(bufferSize * FRAME_SIZE);
+        } else if (JACK_DEFAULT_MIDI_TYPE.equals(port_type)) {
+            return new size_t(MIDI_BUFFER_SIZE);
+        } else {
+            return new size_t(0);
+        }
+    }
+
+    @Override
+    public int jack_get_sample_rate(_jack_client jack_client_tPtr1) {
+        return sampleRate;
+    }
+
+    @Override
+    public int jack_get_buffer_size(_jack_client jack_client_tPtr1) {
+        return bufferSize;
+    }
+
+    @Override
+    public Pointer jack_get_ports(_jack_client jack_client_tPtr1, String port_name_pattern, String type_name_pattern, NativeLong flags) {
+        int fl = flags == null ? 0 : flags.intValue();
+        synchronized (lock) {
+            return toStringArray(findPortNames(port_name_pattern, type_name_pattern, fl));
+        }
+    }
+
+    @Override
+    public _jack_port jack_port_by_name(_jack_client jack_client_tPtr1, String port_name) {
+        Port p = findPort(port_name);
+        return p == null ? null : p.handle;
+    }
+
+    @Override
+    public _jack_port jack_port_by_id(_jack_client client, int port_id) {
+        Port[] table = portTable;
+        if (port_id < 1 || port_id > table.length) {
+            return null;
+        }
+        Port p = table[port_id - 1];
+        return p == null ? null : p.handle;
+    }
+
+    @Override
+    public void jack_port_get_latency_range(_jack_port port, int mode, jack_latency_range_t range) {
+        Port p = findPort(port);
+        int latency = 0;
+        if (p != null && p.isPhysical()) {
+            if ((mode == jack_latency_callback_mode.JackCaptureLatency && p.isOutput())
+                    || (mode == jack_latency_callback_mode.JackPlaybackLatency && p.isInput())) {
+                latency = bufferSize;
+            }
+        }
+        range.min = latency;
+        range.max = latency;
+    }
+
+    @Override
+    public int jack_frames_since_cycle_start(_jack_client jack_client_tPtr1) {
+        return framesSinceCycleStart();
+    }
+
+    @Override
+    public int jack_frame_time(_jack_client jack_client_tPtr1) {
+        return (int) (frameTime + framesSinceCycleStart());
+    }
+
+    @Override
+    public int jack_last_frame_time(_jack_client client) {
+        return (int) frameTime;
+    }
+
+    @Override
+    public int jack_time_to_frames(_jack_client client) {
+        return jack_frame_time(client);
+    }
+
+    @Override
+    public float jack_cpu_load(_jack_client client) {
+        return cpuLoad;
+    }
+
+    @Override
+    public float jack_get_xrun_delayed_usecs(_jack_client client) {
+        return xrunDelayedUsecs;
+    }
+
+    @Override
+    public float jack_get_max_delayed_usecs(_jack_client client) {
+        return maxDelayedUsecs;
+    }
+
+    @Override
+    public void jack_reset_max_delayed_usecs(_jack_client client) {
+        maxDelayedUsecs = 0;
+    }
+
+    @Override
+    public void jack_set_error_function(func arg1) {
+    }
+
+    @Override
+    public void jack_set_info_function(func arg1) {
+    }
+
+    @Override
+    public NativeLong jack_get_time() {
+        return new NativeLong(usecs());
+    }
+
+    @Override
+    public void jack_free(Pointer ptr) {
+        // memory is released when unreachable
+    }
+
+    @Override
+    public void jack_midi_clear_buffer(Pointer port_buffer) {
+        midiClear(port_buffer);
+    }
+
+    @Override
+    public int jack_midi_event_get(jack_midi_event_t event, Pointer port_buffer, int event_index) {
+        if (event_index < 0 || event_index >= port_buffer.getInt(MIDI_COUNT)) {
+            return -ENODATA;
+        }
+        long entry = MIDI_HEADER_SIZE + event_index * MIDI_EVENT_SIZE;
+        event.time = port_buffer.getInt(entry);
+        int size = port_buffer.getInt(entry + 4);
+        if (event.size == null) {
+            event.size = new size_t(size);
+        } else {
+            event.size.setValue(size);
+        }
+        event.buffer = port_buffer.share(port_buffer.getInt(entry + 8));
+        return 0;
+    }
+
+    @Override
+    public Pointer jack_midi_event_reserve(Pointer port_buffer, int time, int data_size) {
+        long offset = midiReserve(port_buffer, time, data_size);
+        return offset > 0 ? port_buffer.share(offset) : null;
+    }
+
+    @Override
+    public int jack_midi_event_write(Pointer port_buffer, int time, Pointer data, int data_size) {
+        long offset = midiReserve(port_buffer, time, data_size);
+        if (offset < 0) {
+            return (int) offset;
+        }
+        for (int i = 0; i < data_size; i++) {
+            port_buffer.setByte(offset + i, data.getByte(i));
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_midi_event_write(Pointer port_buffer, int time, byte[] data, int data_size) {
+        long offset = midiReserve(port_buffer, time, data_size);
+        if (offset < 0) {
+            return (int) offset;
+        }
+        port_buffer.write(offset, data, 0, data_size);
+        return 0;
+    }
+
+    @Override
+    public int jack_midi_get_event_count(Pointer port_buffer) {
+        return port_buffer.getInt(MIDI_COUNT);
+    }
+
+    @Override
+    public int jack_midi_get_lost_event_count(Pointer port_buffer) {
+        return port_buffer.getInt(MIDI_LOST);
+    }
+
+    @Override
+    public int jack_midi_max_event_size(Pointer port_buffer) {
+        int count = port_buffer.getInt(MIDI_COUNT);
+        int free = port_buffer.getInt(MIDI_DATA) - MIDI_HEADER_SIZE
+                - (count + 1) * MIDI_EVENT_SIZE;
+        return Math.max(0, free);
+    }
+
+    @Override
+    public Pointer jack_ringbuffer_create(size_t sz) {
+        long request = sz.longValue();
+        if (request < 1 || request > (1 << 30)) {
+            return null;
+        }
+        int size = 1;
+        while (size < request) {
+            size <<= 1;
+        }
+        RingBuffer rb = new RingBuffer(allocate(RB_HEADER_SIZE), allocate(size));
+        rb.header.setPointer(RB_BUF, rb.data);
+        setWord(rb.header, RB_SIZE, size);
+        setWord(rb.header, RB_SIZE_MASK, size - 1);
+        ringBuffers.put(Pointer.nativeValue(rb.header), rb);
+        return rb.header;
+    }
+
+    @Override
+    public void jack_ringbuffer_free(Pointer rb) {
+        if (rb != null) {
+            ringBuffers.remove(Pointer.nativeValue(rb));
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_read_vector(Pointer rb, Pointer vec) {
+        long r = word(rb, RB_READ_PTR);
+        long size = word(rb, RB_SIZE);
+        long free = ringbufferReadSpace(rb);
+        Pointer buf = rb.getPointer(RB_BUF);
+        if (r + free > size) {
+            setVector(vec, 0, buf.share(r), size - r);
+            setVector(vec, 1, buf, (r + free) & word(rb, RB_SIZE_MASK));
+        } else {
+            setVector(vec, 0, buf.share(r), free);
+            setVector(vec, 1, buf, 0);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_write_vector(Pointer rb, Pointer vec) {
+        long w = word(rb, RB_WRITE_PTR);
+        long size = word(rb, RB_SIZE);
+        long free = ringbufferWriteSpace(rb);
+        Pointer buf = rb.getPointer(RB_BUF);
+        if (w + free > size) {
+            setVector(vec, 0, buf.share(w), size - w);
+            setVector(vec, 1, buf, (w + free) & word(rb, RB_SIZE_MASK));
+        } else {
+            setVector(vec, 0, buf.share(w), free);
+            setVector(vec, 1, buf, 0);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read(Pointer rb, Pointer dest, size_t cnt) {
+        long count = ringbufferCopyOut(rb, dest, cnt.longValue());
+        ringbufferAdvance(rb, RB_READ_PTR, count);
+        return new size_t(count);
+    }
+
+    @Override
+    public size_t jack_ringbuffer_peek(Pointer rb, Pointer dest, size_t cnt) {
+        return new size_t(ringbufferCopyOut(rb, dest, cnt.longValue()));
+    }
+
+    @Override
+    public void jack_ringbuffer_read_advance(Pointer rb, size_t cnt) {
+        ringbufferAdvance(rb, RB_READ_PTR, cnt.longValue());
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read_space(Pointer rb) {
+        return new size_t(ringbufferReadSpace(rb));
+    }
+
+    @Override
+    public int jack_ringbuffer_mlock(Pointer rb) {
+        // nothing to lock - record as locked for consistency with JACK
+        rb.setInt(RB_MLOCKED, 1);
+        return 0;
+    }
+
+    @Override
+    public void jack_ringbuffer_reset(Pointer rb) {
+        setWord(rb, RB_READ_PTR, 0);
+        setWord(rb, RB_WRITE_PTR, 0);
+        rb.getPointer(RB_BUF).setMemory(0, word(rb, RB_SIZE), (byte) 0);
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write(Pointer rb, Pointer src, size_t cnt) {
+        long count = Math.min(cnt.longValue(), ringbufferWriteSpace(rb));
+        long w = word(rb, RB_WRITE_PTR);
+        long size = word(rb, RB_SIZE);
+        long n1 = Math.min(count, size - w);
+        Pointer buf = rb.getPointer(RB_BUF);
+        if (n1 > 0) {
+            buf.write(w, src.getByteArray(0, (int) n1), 0, (int) n1);
+        }
+        if (count > n1) {
+            buf.write(0, src.getByteArray(n1, (int) (count - n1)), 0, (int) (count - n1));
+        }
+        ringbufferAdvance(rb, RB_WRITE_PTR, count);
+        return new size_t(count);
+    }
+
+    @Override
+    public void jack_ringbuffer_write_advance(Pointer rb, size_t cnt) {
+        ringbufferAdvance(rb, RB_WRITE_PTR, cnt.longValue());
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write_space(Pointer rb) {
+        return new size_t(ringbufferWriteSpace(rb));
+    }
+
+    private long ringbufferReadSpace(Pointer rb) {
+        long w = word(rb, RB_WRITE_PTR);
+        long r = word(rb, RB_READ_PTR);
+        return (w - r) & word(rb, RB_SIZE_MASK);
+    }
+
+    private long ringbufferWriteSpace(Pointer rb) {
+        long w = word(rb, RB_WRITE_PTR);
+        long r = word(rb, RB_READ_PTR);
+        return (r - w - 1) & word(rb, RB_SIZE_MASK);
+    }
+
+    private long ringbufferCopyOut(Pointer rb, Pointer dest, long cnt) {
+        long count = Math.min(cnt, ringbufferReadSpace(rb));
+        long r = word(rb, RB_READ_PTR);
+        long size = word(rb, RB_SIZE);
+        long n1 = Math.min(count, size - r);
+        Pointer buf = rb.getPointer(RB_BUF);
+        if (n1 > 0) {
+            dest.write(0, buf.getByteArray(r, (int) n1), 0, (int) n1);
+        }
+        if (count > n1) {
+            dest.write(n1, buf.getByteArray(0, (int) (count - n1)), 0, (int) (count - n1));
+        }
+        return count;
+    }
+
+    private void ringbufferAdvance(Pointer rb, long field, long cnt) {
+        setWord(rb, field, (word(rb, field) + cnt) & word(rb, RB_SIZE_MASK));
+    }
+
+    private static void setVector(Pointer vec, int index, Pointer buf, long len) {
+        long offset = (long) index * RB_VECTOR_SIZE;
+        vec.setPointer(offset, buf);
+        setWord(vec, offset + Native.POINTER_SIZE, len);
+    }
+
+    private static long word(Pointer ptr, long offset) {
+        return Native.SIZE_T_SIZE == 8 ? ptr.getLong(offset) : ptr.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private static void setWord(Pointer ptr, long offset, long value) {
+        if (Native.SIZE_T_SIZE == 8) {
+            ptr.setLong(offset, value);
+        } else {
+            ptr.setInt(offset, (int) value);
+        }
+    }
+
+    @Override
+    public int jack_release_timebase(_jack_client client) {
+        Client c = findClient(client);
+        synchronized (lock) {
+            if (c == null || timebaseMaster != c) {
+                return EINVAL;
+            }
+            timebaseMaster = null;
+            c.timebase = null;
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_get_current_transport_frame(_jack_client client) {
+        synchronized (transportLock) {
+            if (transportState == jack_transport_state_t.JackTransportRolling) {
+                return transportFrame + framesSinceCycleStart();
+            }
+            return transportFrame;
+        }
+    }
+
+    @Override
+    public int jack_set_sync_callback(_jack_client client, JackSyncCallback sync_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null) {
+            return -1;
+        }
+        c.syncArg = arg;
+        c.sync = sync_callback;
+        return 0;
+    }
+
+    @Override
+    public int jack_set_sync_timeout(_jack_client client, long timeout) {
+        synchronized (transportLock) {
+            syncTimeout = timeout;
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_set_timebase_callback(_jack_client client, int conditional, JackTimebaseCallback timebase_callback, Pointer arg) {
+        Client c = findClient(client);
+        if (c == null || timebase_callback == null) {
+            return EINVAL;
+        }
+        synchronized (lock) {
+            if (conditional != 0 && timebaseMaster != null && timebaseMaster != c) {
+                return EBUSY;
+            }
+            if (timebaseMaster != null && timebaseMaster != c) {
+                timebaseMaster.timebase = null;
+            }
+            c.timebaseArg = arg;
+            c.timebase = timebase_callback;
+            timebaseMaster = c;
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_transport_locate(_jack_client client, int frame) {
+        if (frame < 0) {
+            return EINVAL;
+        }
+        synchronized (transportLock) {
+            requestedFrame = frame;
+        }
+        return 0;
+    }
+
+    @Override
+    public int jack_transport_query(_jack_client client, jack_position_t pos) {
+        synchronized (transportLock) {
+            if (pos != null) {
+                pos.unique_1 = position.unique_1;
+                pos.usecs = position.usecs;
+                pos.frame_rate = position.frame_rate;
+                pos.frame = position.frame;
+                pos.valid = position.valid;
+                pos.bar = position.bar;
+                pos.beat = position.beat;
+                pos.tick = position.tick;
+                pos.bar_start_tick = position.bar_start_tick;
+                pos.beats_per_bar = position.beats_per_bar;
+                pos.beat_type = position.beat_type;
+                pos.ticks_per_beat = position.ticks_per_beat;
+                pos.beats_per_minute = position.beats_per_minute;
+                pos.frame_time = position.frame_time;
+                pos.next_time = position.next_time;
+                pos.bbt_offset = position.bbt_offset;
+                pos.audio_frames_per_video_frame = position.audio_frames_per_video_frame;
+                pos.video_offset = position.video_offset;
+                pos.unique_2 = position.unique_2;
+            }
+            return transportState;
+        }
+    }
+
+    @Override
+    public int jack_transport_reposition(_jack_client client, jack_position_t pos) {
+        if (pos == null) {
+            return EINVAL;
+        }
+        return jack_transport_locate(client, pos.frame);
+    }
+
+    @Override
+    public void jack_transport_start(_jack_client client) {
+        synchronized (transportLock) {
+            if (transportState == jack_transport_state_t.JackTransportStopped) {
+                transportState = jack_transport_state_t.JackTransportStarting;
+                syncStart = frameTime;
+            }
+        }
+    }
+
+    @Override
+    public void jack_transport_stop(_jack_client client) {
+        synchronized (transportLock) {
+            transportState = jack_transport_state_t.JackTransportStopped;
+        }
+    }
+
+    private final class Client {
+
+        private final int id;
+        private final _jack_client handle;
+        private final String name;
+        private final Semaphore cycleStart;
+        private final Semaphore cycleDone;
+
+        private volatile Port[] ports;
+        private volatile boolean active;
+        private volatile boolean zombie;
+        private volatile boolean closed;
+
+        private volatile JackProcessCallback process;
+        private volatile JackThreadCallback thread;
+        private volatile JackThreadInitCallback threadInit;
+        private volatile JackShutdownCallback shutdown;
+        private volatile JackFreewheelCallback freewheel;
+        private volatile JackBufferSizeCallback bufferSizeCallback;
+        private volatile JackSampleRateCallback sampleRateCallback;
+        private volatile JackClientRegistrationCallback clientRegistration;
+        private volatile JackPortRegistrationCallback portRegistration;
+        private volatile JackPortConnectCallback portConnect;
+        private volatile JackPortRenameCallback portRename;
+        private volatile JackGraphOrderCallback graphOrder;
+        private volatile JackXRunCallback xrun;
+        private volatile JackSyncCallback sync;
+        private volatile JackTimebaseCallback timebase;
+
+        private Pointer threadArg;
+        private Pointer threadInitArg;
+        private Pointer shutdownArg;
+        private Pointer freewheelArg;
+        private Pointer bufferSizeArg;
+        private Pointer clientRegistrationArg;
+        private Pointer portRegistrationArg;
+        private Pointer portConnectArg;
+        private Pointer portRenameArg;
+        private Pointer graphOrderArg;
+        private Pointer xrunArg;
+        private Pointer syncArg;
+        private Pointer timebaseArg;
+
+        private Thread initThread;
+        private Thread processThread;
+        private volatile boolean threadExited;
+        private volatile boolean waiting;
+        private volatile int cycleStatus;
+
+        private Client(int id, String name) {
+            this.id = id;
+            this.handle = new _jack_client(new Pointer(id));
+            this.name = name;
+            this.ports = NO_PORTS;
+            this.cycleStart = new Semaphore(0);
+            this.cycleDone = new Semaphore(0);
+        }
+
+        private void threadInit() {
+            JackThreadInitCallback cb = threadInit;
+            if (cb != null) {
+                try {
+                    cb.invoke(threadInitArg);
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in thread init callback", t);
+                }
+            }
+        }
+
+        private void startProcessThread() {
+            JackThreadCallback cb = thread;
+            if (cb == null || processThread != null) {
+                return;
+            }
+            threadExited = false;
+            cycleStart.drainPermits();
+            cycleDone.drainPermits();
+            processThread = new Thread(() -> {
+                threadInit();
+                try {
+                    cb.invoke(threadArg);
+                } catch (Throwable t) {
+                    LOG.log(Level.SEVERE, "Error in process thread callback", t);
+                } finally {
+                    threadExited = true;
+                    cycleStatus = -1;
+                    cycleDone.release();
+                }
+            }, "JNAJack simulated process " + name);
+            processThread.setDaemon(true);
+            processThread.start();
+        }
+
+        private void stopProcessThread() {
+            Thread t = processThread;
+            if (t != null) {
+                processThread = null;
+                // wake any waiting cycle_wait() so the thread can exit
+                cycleStart.release();
+            }
+        }
+
+        private boolean cycle() {
+            if (threadExited) {
+                return false;
+            }
+            cycleStatus = 0;
+            cycleStart.release();
+            cycleDone.acquireUninterruptibly();
+            return cycleStatus == 0;
+        }
+
+        private int cycleWait() {
+            if (waiting) {
+                cycleSignal(0);
+            }
+            cycleStart.acquireUninterruptibly();
+            if (!active || processThread == null) {
+                return 0;
+            }
+            waiting = true;
+            return bufferSize;
+        }
+
+        private void cycleSignal(int status) {
+            if (waiting) {
+                waiting = false;
+                cycleStatus = status;
+                cycleDone.release();
+            }
+        }
+
+    }
+
+    private static final class RingBuffer {
+
+        // keeps native memory reachable until jack_ringbuffer_free
+        private final Memory header;
+        private final Memory data;
+
+        private RingBuffer(Memory header, Memory data) {
+            this.header = header;
+            this.data = data;
+        }
+
+    }
+
+    private final class Port {
+
+        private final int id;
+        private final _jack_port handle;
+        private final Client client;
+        private final String type;
+        private final int flags;
+        private final int kind;
+        private final int customSize;
+
+        private volatile String shortName;
+        private volatile boolean registered;
+        private volatile Port[] connections;
+        private volatile String[] aliases;
+        private int[] cursors;
+        private int monitors;
+
+        private Memory memory;
+        private FloatBuffer ownView;
+        private long own;
+        private long address;
+        private FloatBuffer view;
+
+        private Port(int id, Client client, String shortName, String type,
+                int flags, int kind, int customSize) {
+            this.id = id;
+            this.handle = new _jack_port(new Pointer(id));
+            this.client = client;
+            this.shortName = shortName;
+            this.type = type;
+            this.flags = flags;
+            this.kind = kind;
+            this.customSize = customSize;
+            this.registered = true;
+            this.connections = NO_PORTS;
+            this.aliases = new String[0];
+            this.cursors = new int[0];
+            allocate();
+        }
+
+        private void allocate() {
+            switch (kind) {
+                case TYPE_AUDIO:
+                    memory = JackLibrarySimulated.this.allocate(
+                            (long) JackLibrarySimulated.this.bufferSize * FRAME_SIZE);
+                    break;
+                case TYPE_MIDI:
+                    memory = JackLibrarySimulated.this.allocate(MIDI_BUFFER_SIZE);
+                    midiClear(memory);
+                    break;
+                default:
+                    memory = JackLibrarySimulated.this.allocate(customSize);
+            }
+            own = Pointer.nativeValue(memory);
+            address = own;
+            ownView = kind == TYPE_AUDIO ? floatView(memory) : null;
+            view = ownView;
+        }
+
+        private String name() {
+            return client.name + ":" + shortName;
+        }
+
+        private boolean matches(String name) {
+            if (name.equals(name())) {
+                return true;
+            }
+            for (String alias : aliases) {
+                if (alias.equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isInput() {
+            return (flags & JackPortFlags.JackPortIsInput) != 0;
+        }
+
+        private boolean isOutput() {
+            return (flags & JackPortFlags.JackPortIsOutput) != 0;
+        }
+
+        private boolean isPhysical() {
+            return (flags & JackPortFlags.JackPortIsPhysical) != 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,418 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import org.jaudiolibs.jnajack.Jack;
+import org.jaudiolibs.jnajack.JackClient;
+import org.jaudiolibs.jnajack.JackException;
+import org.jaudiolibs.jnajack.JackFreewheelCallback;
+import org.jaudiolibs.jnajack.JackPort;
+import org.jaudiolibs.jnajack.JackPortFlags;
+import org.jaudiolibs.jnajack.JackPortType;
+import org.jaudiolibs.jnajack.JackProcessCallback;
+import org.jaudiolibs.jnajack.JackShutdownCallback;
+
+/**
+ * Offline bounce of JACK audio ports. A bounce opens its own client with an
+ * input port connected to each source port. Each capture switches the server
+ * to freewheel mode, records the requested number of frames as fast as the
+ * process graph can run, and then restores realtime mode.
+ *
+ * Freewheel mode affects every client of the server. Capture starts at the
+ * first process cycle after the server reports that it is freewheeling -
+ * position and start the transport beforehand if required. If freewheel mode
+ * is stopped by another client before capture is complete, the capture
+ * fails.
+ *
+ * @author Neil C Smith
+ */
+public class JackBounce {
+
+    /**
+     * Receives captured audio. Writers are called from the process thread,
+     * but as the server is freewheeling may block, for example to write to a
+     * file.
+     */
+    public static interface Writer {
+
+        /**
+         * Write captured audio. The buffers are only valid during this call,
+         * and must not be modified.
+         *
+         * @param channels one buffer per source port, in order
+         * @param nframes number of frames to read from index 0 of each buffer
+         * @throws IOException
+         */
+        public void write(FloatBuffer[] channels, int nframes) throws IOException;
+
+    }
+
+    private final JackClient client;
+    private final JackPort[] ports;
+    private final FloatBuffer[] buffers;
+
+    private volatile Capture pending;
+    private volatile Capture capture;
+    private volatile boolean freewheeling;
+
+    private JackBounce(JackClient client, JackPort[] ports) {
+        this.client = client;
+        this.ports = ports;
+        this.buffers = new FloatBuffer[ports.length];
+    }
+
+    /**
+     * Create a bounce, opening a new client connected to the given source
+     * ports.
+     *
+     * @param jack Jack instance
+     * @param name client name
+     * @param sources full names of the output ports to capture
+     * @return bounce
+     * @throws JackException
+     */
+    public static JackBounce create(Jack jack, String name, String... sources)
+            throws JackException {
+        if (sources.length == 0) {
+            throw new IllegalArgumentException("No source ports");
+        }
+        JackClient client = jack.openClient(name, null, null);
+        try {
+            String[] names = new String[sources.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = "in_" + (i + 1);
+            }
+            JackPort[] ports = client.registerPorts(names, JackPortType.AUDIO,
+                    JackPortFlags.JackPortIsInput);
+            JackBounce bounce = new JackBounce(client, ports);
+            client.setProcessCallback(bounce.new Callback());
+            client.setFreewheelCallback(bounce.new FreewheelHook());
+            client.onShutdown(bounce.new ShutdownHook());
+            client.activate();
+            for (int i = 0; i < sources.length; i++) {
+                jack.connect(client, sources[i], ports[i].getName());
+            }
+            return bounce;
+        } catch (JackException ex) {
+            client.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * The client used to capture audio.
+     *
+     * @return client
+     */
+    public JackClient getClient() {
+        return client;
+    }
+
+    /**
+     * Capture audio into newly allocated direct buffers, one per source port.
+     * Blocks until capture is complete.
+     *
+     * @param frames number of frames to capture
+     * @return buffers, each holding the requested number of frames
+     * @throws JackException
+     * @throws InterruptedException
+     */
+    public FloatBuffer[] captureToBuffers(int frames) throws JackException, InterruptedException {
+        FloatBuffer[] out = new FloatBuffer[ports.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ByteBuffer.allocateDirect(frames * 4)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        try {
+            capture(frames, (channels, nframes) -> {
+                for (int ch = 0; ch < channels.length; ch++) {
+                    FloatBuffer src = channels[ch];
+                    FloatBuffer dst = out[ch];
+                    for (int i = 0; i < nframes; i++) {
+                        dst.put(src.get(i));
+                    }
+                }
+            });
+        } catch (IOException ex) {
+            throw new JackException(ex);
+        }
+        for (FloatBuffer buffer : out) {
+            buffer.flip();
+        }
+        return out;
+    }
+
+    /**
+     * Capture audio, passing it to the provided writer. Blocks until capture
+     * is complete.
+     *
+     * @param frames number of frames to capture
+     * @param writer writer to receive audio
+     * @throws JackException if the server shuts down or freewheel mode cannot
+     * be changed
+     * @throws IOException if the writer fails
+     * @throws InterruptedException
+     */
+    public synchronized void capture(long frames, Writer writer)
+            throws JackException, IOException, InterruptedException {
+        if (frames <= 0) {
+            return;
+        }
+        Capture cap = new Capture(frames, writer);
+        // armed by the freewheel callback, so no realtime cycle is captured
+        pending = cap;
+        try {
+            client.setFreewheel(true);
+            try {
+                if (freewheeling) {
+                    // already freewheeling - no notification will follow
+                    capture = cap;
+                }
+                cap.done.await();
+            } finally {
+                client.setFreewheel(false);
+            }
+        } finally {
+            pending = null;
+            capture = null;
+        }
+        Throwable error = cap.error;
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof JackException) {
+            throw (JackException) error;
+        } else if (error != null) {
+            throw new JackException(error);
+        }
+    }
+
+    /**
+     * Close the client.
+     */
+    public void close() {
+        client.close();
+        Capture cap = pending;
+        if (cap != null) {
+            cap.finish(new JackException("Bounce closed"));
+        }
+    }
+
+    /**
+     * Create a writer to a 32 bit float WAV file. The file is created, or
+     * truncated if it exists, on the first write. The writer must be closed
+     * after capture to complete the file header. Writes that would take the
+     * file beyond the 4 GiB limit of the RIFF format fail with an
+     * IOException.
+     *
+     * @param file file to write to
+     * @param sampleRate sample rate to write in the header
+     * @return writer
+     */
+    public static WavWriter wavWriter(Path file, int sampleRate) {
+        return new WavWriter(file, sampleRate);
+    }
+
+    /**
+     * {@link Writer} to a 32 bit float WAV file.
+     *
+     * @see #wavWriter(java.nio.file.Path, int)
+     */
+    public static final class WavWriter implements Writer, Closeable {
+
+        // RIFF, fmt (WAVE_FORMAT_IEEE_FLOAT with cbSize), fact and data headers
+        private final static int HEADER_SIZE = 58;
+        // RIFF and data chunk sizes are unsigned 32 bit
+        private final static long MAX_DATA_SIZE = 0xFFFFFFFFL - (HEADER_SIZE - 8);
+
+        private final Path file;
+        private final int sampleRate;
+
+        private FileChannel channel;
+        private ByteBuffer staging;
+        private int channels;
+        private long dataSize;
+
+        private WavWriter(Path file, int sampleRate) {
+            this.file = file;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public void write(FloatBuffer[] buffers, int nframes) throws IOException {
+            if (channel == null) {
+                channels = buffers.length;
+                channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                channel.position(HEADER_SIZE);
+            } else if (buffers.length != channels) {
+                throw new IOException("Channel count changed");
+            }
+            int required = nframes * channels * 4;
+            if (dataSize + required > MAX_DATA_SIZE) {
+                throw new IOException("WAV file would exceed the 4 GiB RIFF size limit");
+            }
+            if (staging == null || staging.capacity() < required) {
+                staging = ByteBuffer.allocateDirect(required).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            staging.clear();
+            for (int i = 0; i < nframes; i++) {
+                for (FloatBuffer buffer : buffers) {
+                    staging.putFloat(buffer.get(i));
+                }
+            }
+            staging.flip();
+            while (staging.hasRemaining()) {
+                channel.write(staging);
+            }
+            dataSize += required;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                // sizes are at most MAX_DATA_SIZE, so fit an unsigned int
+                header.put(new byte[]{'R', 'I', 'F', 'F'});
+                header.putInt((int) (HEADER_SIZE - 8 + dataSize));
+                header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+                header.putInt(18);
+                header.putShort((short) 3); // IEEE float
+                header.putShort((short) channels);
+                header.putInt(sampleRate);
+                header.putInt(sampleRate * channels * 4);
+                header.putShort((short) (channels * 4));
+                header.putShort((short) 32);
+                header.putShort((short) 0); // no extension
+                // fact chunk is required for non-PCM formats
+                header.put(new byte[]{'f', 'a', 'c', 't'});
+                header.putInt(4);
+                header.putInt((int) (dataSize / (channels * 4)));
+                header.put(new byte[]{'d', 'a', 't', 'a'});
+                header.putInt((int) dataSize);
+                header.flip();
+                channel.position(0);
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+
+    }
+
+    private static class Capture {
+
+        private final Writer writer;
+        private final CountDownLatch done;
+
+        private long remaining;
+        private volatile Throwable error;
+
+        private Capture(long frames, Writer writer) {
+            this.writer = writer;
+            this.remaining = frames;
+            this.done = new CountDownLatch(1);
+        }
+
+        private void finish(Throwable error) {
+            if (done.getCount() > 0) {
+                this.error = error;
+                done.countDown();
+            }
+        }
+
+    }
+
+    private class Callback implements JackProcessCallback {
+
+        @Override
+        public boolean process(JackClient client, int nframes) {
+            Capture cap = capture;
+            if (cap == null || cap.done.getCount() == 0) {
+                return true;
+            }
+            int n = (int) Math.min(nframes, cap.remaining);
+            for (int i = 0; i < ports.length; i++) {
+                buffers[i] = ports[i].getFloatBuffer();
+            }
+            try {
+                cap.writer.write(buffers, n);
+            } catch (Throwable t) {
+                cap.finish(t);
+                return true;
+            }
+            cap.remaining -= n;
+            if (cap.remaining == 0) {
+                cap.finish(null);
+            }
+            return true;
+        }
+
+    }
+
+    private class FreewheelHook implements JackFreewheelCallback {
+
+        @Override
+        public void freewheelChanged(JackClient client, boolean starting) {
+            freewheeling = starting;
+            if (starting) {
+                capture = pending;
+            } else {
+                Capture cap = capture;
+                capture = null;
+                if (cap != null) {
+                    cap.finish(new JackException("Freewheel mode stopped"));
+                }
+            }
+        }
+
+    }
+
+    private class ShutdownHook implements JackShutdownCallback {
+
+        @Override
+        public void clientShutdown(JackClient client) {
+            Capture cap = pending;
+            if (cap != null) {
+                cap.finish(new JackException("Server shut down"));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.nio.FloatBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Common DSP kernels operating on audio port buffers, as returned by
+ * {@link org.jaudiolibs.jnajack.JackPort#getFloatBuffer()}.
+ *
+ * All methods operate on <code>n</code> samples from the current position of
+ * each buffer, using absolute access - buffer positions and limits are not
+ * modified. Methods do not allocate, and are safe to call from the process
+ * callback.
+ *
+ * On Java 22 and above, kernels can use the Vector API for direct buffers in
+ * native byte order, such as port buffers. The Vector API is an incubator
+ * module that is not resolved by default - the application must be run with
+ * <code>--add-modules jdk.incubator.vector</code>, otherwise the scalar
+ * implementations are used without warning. Scalar implementations are also
+ * used on earlier Java versions, or if the system property
+ * <code>jnajack.dsp.vector</code> is set to false. Use {@link #isVectorized()}
+ * to check which is in use. Interleave and deinterleave are only vectorized
+ * for stereo.
+ *
+ * @author Neil C Smith
+ */
+public final class JackDsp {
+
+    private final static Logger LOG = Logger.getLogger(JackDsp.class.getName());
+    private final static String PROP_VECTOR = "jnajack.dsp.vector";
+    private final static String VECTOR_KERNELS = "org.jaudiolibs.jnajack.util.JackDspVector";
+    private final static JackDspKernels KERNELS = loadKernels();
+
+    private JackDsp() {
+    }
+
+    /**
+     * Whether the kernels are implemented using the Vector API.
+     *
+     * @return true if vectorized
+     */
+    public static boolean isVectorized() {
+        return KERNELS.isVectorized();
+    }
+
+    /**
+     * Set n samples to zero.
+     *
+     * @param buf buffer
+     * @param n number of samples
+     */
+    public static void clear(FloatBuffer buf, int n) {
+        KERNELS.clear(buf, offset(buf, n), n);
+    }
+
+    /**
+     * Copy n samples from src to dst.
+     *
+     * @param src source buffer
+     * @param dst destination buffer
+     * @param n number of samples
+     */
+    public static void copy(FloatBuffer src, FloatBuffer dst, int n) {
+        KERNELS.copy(src, offset(src, n), dst, offset(dst, n), n);
+    }
+
+    /**
+     * Multiply n samples by gain, in place.
+     *
+     * @param buf buffer
+     * @param gain gain
+     * @param n number of samples
+     */
+    public static void gain(FloatBuffer buf, float gain, int n) {
+        int offset = offset(buf, n);
+        KERNELS.gain(buf, offset, buf, offset, gain, n);
+    }
+
+    /**
+     * Write n samples from src multiplied by gain to dst.
+     *
+     * @param src source buffer
+     * @param dst destination buffer
+     * @param gain gain
+     * @param n number of samples
+     */
+    public static void gain(FloatBuffer src, FloatBuffer dst, float gain, int n) {
+        KERNELS.gain(src, offset(src, n), dst, offset(dst, n), gain, n);
+    }
+
+    /**
+     * Add n samples from src to dst.
+     *
+     * @param src source buffer
+     * @param dst destination buffer
+     * @param n number of samples
+     */
+    public static void mixAdd(FloatBuffer src, FloatBuffer dst, int n) {
+        mixAdd(src, dst, 1, n);
+    }
+
+    /**
+     * Add n samples from src multiplied by gain to dst.
+     *
+     * @param src source buffer
+     * @param dst destination buffer
+     * @param gain gain
+     * @param n number of samples
+     */
+    public static void mixAdd(FloatBuffer src, FloatBuffer dst, float gain, int n) {
+        KERNELS.mixAdd(src, offset(src, n), dst, offset(dst, n), gain, n);
+    }
+
+    /**
+     * Write n samples from a mono source to left and right buffers, using
+     * an equal power pan law.
+     *
+     * @param src source buffer
+     * @param left left output buffer
+     * @param right right output buffer
+     * @param pan pan position, from -1 (left) to 1 (right)
+     * @param n number of samples
+     */
+    public static void pan(FloatBuffer src, FloatBuffer left, FloatBuffer right,
+            float pan, int n) {
+        int srcOffset = offset(src, n);
+        double angle = panAngle(pan);
+        KERNELS.gain(src, srcOffset, left, offset(left, n), (float) Math.cos(angle), n);
+        KERNELS.gain(src, srcOffset, right, offset(right, n), (float) Math.sin(angle), n);
+    }
+
+    /**
+     * Add n samples from a mono source to left and right buffers, using an
+     * equal power pan law.
+     *
+     * @param src source buffer
+     * @param left left output buffer
+     * @param right right output buffer
+     * @param pan pan position, from -1 (left) to 1 (right)
+     * @param n number of samples
+     */
+    public static void panAdd(FloatBuffer src, FloatBuffer left, FloatBuffer right,
+            float pan, int n) {
+        int srcOffset = offset(src, n);
+        double angle = panAngle(pan);
+        KERNELS.mixAdd(src, srcOffset, left, offset(left, n), (float) Math.cos(angle), n);
+        KERNELS.mixAdd(src, srcOffset, right, offset(right, n), (float) Math.sin(angle), n);
+    }
+
+    /**
+     * The maximum absolute value of n samples.
+     *
+     * @param buf buffer
+     * @param n number of samples
+     * @return peak
+     */
+    public static float peak(FloatBuffer buf, int n) {
+        return KERNELS.peak(buf, offset(buf, n), n);
+    }
+
+    /**
+     * The root mean square of n samples.
+     *
+     * @param buf buffer
+     * @param n number of samples
+     * @return RMS, or zero if n is zero
+     */
+    public static float rms(FloatBuffer buf, int n) {
+        int offset = offset(buf, n);
+        return n == 0 ? 0 : (float) Math.sqrt(KERNELS.sumOfSquares(buf, offset, n) / n);
+    }
+
+    /**
+     * Interleave n samples from each of the source buffers into dst, which
+     * must have space for <code>n * src.length</code> samples.
+     *
+     * @param src source buffers, one per channel
+     * @param dst interleaved destination buffer
+     * @param n number of samples per channel
+     */
+    public static void interleave(FloatBuffer[] src, FloatBuffer dst, int n) {
+        for (FloatBuffer buf : src) {
+            offset(buf, n);
+        }
+        KERNELS.interleave(src, dst, offset(dst, n * src.length), 0, n);
+    }
+
+    /**
+     * Deinterleave n samples per channel from src, which must contain
+     * <code>n * dst.length</code> samples, into each of the destination
+     * buffers.
+     *
+     * @param src interleaved source buffer
+     * @param dst destination buffers, one per channel
+     * @param n number of samples per channel
+     */
+    public static void deinterleave(FloatBuffer src, FloatBuffer[] dst, int n) {
+        for (FloatBuffer buf : dst) {
+            offset(buf, n);
+        }
+        KERNELS.deinterleave(src, offset(src, n * dst.length), dst, 0, n);
+    }
+
+    private static double panAngle(float pan) {
+        return (Math.max(-1, Math.min(1, pan)) + 1) * Math.PI / 4;
+    }
+
+    private static int offset(FloatBuffer buf, int n) {
+        if (n < 0 || n > buf.remaining()) {
+            throw new IndexOutOfBoundsException("Invalid sample count " + n
+                    + " for buffer with " + buf.remaining() + " remaining");
+        }
+        return buf.position();
+    }
+
+    private static JackDspKernels loadKernels() {
+        if (!"false".equals(System.getProperty(PROP_VECTOR))) {
+            try {
+                return (JackDspKernels) Class.forName(VECTOR_KERNELS)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException ex) {
+                LOG.log(Level.FINE, "Vector kernels require Java 22 or above");
+            } catch (Throwable ex) {
+                LOG.log(Level.FINE, "Vector kernels unavailable - using scalar kernels", ex);
+            }
+        }
+        return new JackDspKernels();
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Scalar implementation of the JackDsp kernels, using absolute get and put.
+ * Buffer positions are resolved and bounds checked by JackDsp. Interleave and
+ * deinterleave read the position of each channel buffer directly, and
+ * process samples <code>from</code> to <code>n</code> of each channel, so
+ * that no offset arrays are required.
+ *
+ * @author Neil C Smith
+ */
+class JackDspKernels {
+
+    void clear(FloatBuffer buf, int offset, int n) {
+        for (int i = 0; i < n; i++) {
+            buf.put(offset + i, 0);
+        }
+    }
+
+    void copy(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset, int n) {
+        for (int i = 0; i < n; i++) {
+            dst.put(dstOffset + i, src.get(srcOffset + i));
+        }
+    }
+
+    void gain(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset,
+            float gain, int n) {
+        for (int i = 0; i < n; i++) {
+            dst.put(dstOffset + i, src.get(srcOffset + i) * gain);
+        }
+    }
+
+    void mixAdd(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset,
+            float gain, int n) {
+        for (int i = 0; i < n; i++) {
+            dst.put(dstOffset + i, dst.get(dstOffset + i) + src.get(srcOffset + i) * gain);
+        }
+    }
+
+    float peak(FloatBuffer buf, int offset, int n) {
+        float peak = 0;
+        for (int i = 0; i < n; i++) {
+            peak = Math.max(peak, Math.abs(buf.get(offset + i)));
+        }
+        return peak;
+    }
+
+    double sumOfSquares(FloatBuffer buf, int offset, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            float f = buf.get(offset + i);
+            sum += f * f;
+        }
+        return sum;
+    }
+
+    void interleave(FloatBuffer[] src, FloatBuffer dst, int dstOffset, int from, int n) {
+        int channels = src.length;
+        for (int ch = 0; ch < channels; ch++) {
+            FloatBuffer s = src[ch];
+            int so = s.position();
+            for (int i = from, d = dstOffset + from * channels + ch; i < n; i++, d += channels) {
+                dst.put(d, s.get(so + i));
+            }
+        }
+    }
+
+    void deinterleave(FloatBuffer src, int srcOffset, FloatBuffer[] dst, int from, int n) {
+        int channels = dst.length;
+        for (int ch = 0; ch < channels; ch++) {
+            FloatBuffer d = dst[ch];
+            int dOff = d.position();
+            for (int i = from, s = srcOffset + from * channels + ch; i < n; i++, s += channels) {
+                d.put(dOff + i, src.get(s));
+            }
+        }
+    }
+
+    boolean isVectorized() {
+        return false;
+    }
+
+}
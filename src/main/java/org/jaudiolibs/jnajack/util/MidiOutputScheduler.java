@@ -0,0 +1,378 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jaudiolibs.jnajack.JackClient;
+import org.jaudiolibs.jnajack.JackException;
+import org.jaudiolibs.jnajack.JackMidi;
+import org.jaudiolibs.jnajack.JackPort;
+import org.jaudiolibs.jnajack.JackPortType;
+
+/**
+ * Schedules timestamped MIDI events for output on a JACK MIDI port.
+ *
+ * Events may be scheduled from any number of threads, in any order, using
+ * absolute frame times as returned by {@link JackClient#getFrameTime()} or
+ * {@link JackClient#getLastFrameTime()}. Calling {@link #process(int)} from
+ * the process callback writes every event due within the current cycle to the
+ * port buffer in time order. Events that do not fit in the port buffer are
+ * carried over to the next cycle, and events scheduled for a time already
+ * passed are written at the start of the cycle.
+ *
+ * All storage is preallocated. Scheduling is lock-free, and processing does
+ * not lock or allocate. Events that cannot be scheduled because the scheduler
+ * is full, or are larger than the maximum event size, are dropped and
+ * counted.
+ *
+ * Frame times are compared using 32 bit wraparound arithmetic, so all pending
+ * events must be scheduled within 2<sup>31</sup> frames of each other.
+ *
+ * @author Neil C Smith
+ */
+public class MidiOutputScheduler {
+
+    /**
+     * Default maximum number of pending events.
+     */
+    public final static int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Default maximum event size in bytes.
+     */
+    public final static int DEFAULT_MAX_EVENT_SIZE = 64;
+
+    private final JackClient client;
+    private final JackPort port;
+    private final int capacity;
+    private final int maxEventSize;
+
+    // incoming bounded multi-producer queue
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private final long[] queueTime;
+    private final int[] queueSize;
+    private final byte[] queueData;
+    private long head;
+
+    // pending events - process thread only
+    private final long[] eventTime;
+    private final long[] eventOrder;
+    private final int[] eventSize;
+    private final byte[] eventData;
+    private final int[] free;
+    private final int[] heap;
+    private int freeCount;
+    private int heapSize;
+    private long order;
+
+    private final AtomicLong dropped;
+    private volatile long late;
+    private volatile long overflows;
+    private volatile boolean clearRequested;
+
+    /**
+     * Create a scheduler for the given port, with default capacity and
+     * maximum event size.
+     *
+     * @param client client that owns the port
+     * @param port MIDI output port
+     */
+    public MidiOutputScheduler(JackClient client, JackPort port) {
+        this(client, port, DEFAULT_CAPACITY, DEFAULT_MAX_EVENT_SIZE);
+    }
+
+    /**
+     * Create a scheduler for the given port.
+     *
+     * @param client client that owns the port
+     * @param port MIDI output port
+     * @param capacity maximum number of pending events, rounded up to a power
+     * of two
+     * @param maxEventSize maximum size of event in bytes
+     */
+    public MidiOutputScheduler(JackClient client, JackPort port, int capacity, int maxEventSize) {
+        if (port.getType() != JackPortType.MIDI) {
+            throw new IllegalArgumentException("Not a MIDI port");
+        }
+        if (capacity < 1 || capacity > (1 << 20) || maxEventSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.client = client;
+        this.port = port;
+        int cap = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.capacity = cap;
+        this.maxEventSize = maxEventSize;
+        mask = cap - 1;
+        sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            sequences.set(i, i);
+        }
+        tail = new AtomicLong();
+        queueTime = new long[cap];
+        queueSize = new int[cap];
+        queueData = new byte[cap * maxEventSize];
+        eventTime = new long[cap];
+        eventOrder = new long[cap];
+        eventSize = new int[cap];
+        eventData = new byte[cap * maxEventSize];
+        free = new int[cap];
+        heap = new int[cap];
+        for (int i = 0; i < cap; i++) {
+            free[i] = cap - 1 - i;
+        }
+        freeCount = cap;
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Schedule an event for output. May be called from any thread.
+     *
+     * @param frameTime absolute frame time of event
+     * @param data event data
+     * @return false if the event was dropped
+     */
+    public boolean schedule(long frameTime, byte[] data) {
+        return schedule(frameTime, data, 0, data.length);
+    }
+
+    /**
+     * Schedule an event for output. May be called from any thread.
+     *
+     * @param frameTime absolute frame time of event
+     * @param data array containing event data
+     * @param offset offset of event data in array
+     * @param length length of event data
+     * @return false if the event was dropped
+     */
+    public boolean schedule(long frameTime, byte[] data, int offset, int length) {
+        if (length < 1 || length > maxEventSize) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        long pos = tail.get();
+        int idx;
+        while (true) {
+            idx = (int) (pos & mask);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        queueTime[idx] = frameTime;
+        queueSize[idx] = length;
+        System.arraycopy(data, offset, queueData, idx * maxEventSize, length);
+        sequences.lazySet(idx, pos + 1);
+        return true;
+    }
+
+    /**
+     * Write all events due in the current cycle into the port buffer. The
+     * port buffer is cleared first. Must be called from the process callback
+     * of the client, once per cycle.
+     *
+     * @param nframes number of frames in the current cycle
+     * @return number of events written
+     * @throws JackException
+     */
+    public int process(int nframes) throws JackException {
+        if (clearRequested) {
+            clearPending();
+        }
+        drainQueue();
+        JackMidi.clearBuffer(port);
+        long start = client.getLastFrameTime();
+        int written = 0;
+        while (heapSize > 0) {
+            int slot = heap[0];
+            int offset = (int) (eventTime[slot] - start);
+            if (offset >= nframes) {
+                break;
+            }
+            int size = eventSize[slot];
+            ByteBuffer buffer = JackMidi.eventReserve(port, Math.max(0, offset), size);
+            if (buffer == null) {
+                // port buffer full - carry remaining events to next cycle
+                overflows++;
+                break;
+            }
+            buffer.put(eventData, slot * maxEventSize, size);
+            if (offset < 0) {
+                late++;
+            }
+            removeFirst();
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Discard all pending events. May be called from any thread - takes
+     * effect on the next call to {@link #process(int)}.
+     */
+    public void clear() {
+        clearRequested = true;
+    }
+
+    /**
+     * Number of events dropped because the scheduler was full, or the event
+     * was invalid.
+     *
+     * @return dropped count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Number of events written after their scheduled time.
+     *
+     * @return late count
+     */
+    public long getLateCount() {
+        return late;
+    }
+
+    /**
+     * Number of cycles in which the port buffer was filled, and due events
+     * were carried over to the next cycle.
+     *
+     * @return overflow count
+     */
+    public long getOverflowCount() {
+        return overflows;
+    }
+
+    /**
+     * Maximum number of pending events.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Maximum size of a single event in bytes.
+     *
+     * @return maximum event size
+     */
+    public int getMaxEventSize() {
+        return maxEventSize;
+    }
+
+    private void drainQueue() {
+        long pos = head;
+        while (true) {
+            int idx = (int) (pos & mask);
+            if (sequences.get(idx) != pos + 1) {
+                break;
+            }
+            if (freeCount == 0) {
+                // too many events pending
+                dropped.incrementAndGet();
+            } else {
+                int slot = free[--freeCount];
+                eventTime[slot] = queueTime[idx];
+                eventSize[slot] = queueSize[idx];
+                eventOrder[slot] = order++;
+                System.arraycopy(queueData, idx * maxEventSize,
+                        eventData, slot * maxEventSize, queueSize[idx]);
+                insert(slot);
+            }
+            sequences.lazySet(idx, pos + capacity);
+            pos++;
+        }
+        head = pos;
+    }
+
+    private void clearPending() {
+        clearRequested = false;
+        long pos = head;
+        while (true) {
+            int idx = (int) (pos & mask);
+            if (sequences.get(idx) != pos + 1) {
+                break;
+            }
+            sequences.lazySet(idx, pos + capacity);
+            pos++;
+        }
+        head = pos;
+        while (heapSize > 0) {
+            free[freeCount++] = heap[--heapSize];
+        }
+    }
+
+    private boolean before(int a, int b) {
+        int diff = (int) (eventTime[a] - eventTime[b]);
+        return diff < 0 || (diff == 0 && eventOrder[a] < eventOrder[b]);
+    }
+
+    private void insert(int slot) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(slot, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = slot;
+    }
+
+    private void removeFirst() {
+        free[freeCount++] = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = last;
+        }
+    }
+
+}
@@ -0,0 +1,390 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jaudiolibs.jnajack.JackThreadInitializer;
+
+/**
+ * Runs independent units of work, such as per-channel DSP, in parallel from
+ * within a single process callback.
+ *
+ * Worker threads are started up front. Each call to
+ * {@link #process(Task, int, int)} publishes a cycle, wakes any parked
+ * workers, and then claims and runs items on the calling thread alongside the
+ * workers, returning once every item is complete. Items are claimed one at a
+ * time from a shared atomic counter, so a slow or descheduled worker only
+ * delays the items it has already claimed - the calling thread takes
+ * everything else, and with no workers available processing is simply
+ * serial.
+ *
+ * Between cycles, workers spin for a configurable time and then park. The
+ * realtime path does not allocate or use locks. Waking a parked worker uses
+ * {@link LockSupport#unpark(java.lang.Thread)}.
+ *
+ * If, in any cycle, the calling thread waits longer than the deadline for
+ * workers to complete their items, the following cycles are processed
+ * serially on the calling thread without waking workers, before parallel
+ * processing is tried again.
+ *
+ * Only one thread may call {@link #process(Task, int, int)} at a time.
+ *
+ * @author Neil C Smith
+ */
+public final class ParallelProcessor {
+
+    /**
+     * A unit of work to run for each item index.
+     */
+    public static interface Task {
+
+        /**
+         * Process one item. Called from the process thread or a worker
+         * thread, concurrently with other items.
+         *
+         * @param index item index
+         * @param nframes number of frames in the cycle
+         */
+        public void process(int index, int nframes);
+
+    }
+
+    /**
+     * Default time workers spin waiting for the next cycle before parking.
+     */
+    public final static long DEFAULT_SPIN_NANOS = 50_000;
+
+    /**
+     * Default number of serial cycles after a deadline is missed.
+     */
+    public final static int DEFAULT_BACKOFF_CYCLES = 256;
+
+    private final static Logger LOG = Logger.getLogger(ParallelProcessor.class.getName());
+    private final static int YIELD_SPINS = 1000;
+
+    private final Worker[] workers;
+    // current cycle in the upper 32 bits, next item index in the lower 32 bits
+    private final AtomicLong claims;
+    private final AtomicInteger completed;
+    private final AtomicLong parallelCycles;
+    private final AtomicLong serialCycles;
+    private final AtomicLong missedDeadlines;
+
+    private volatile int cycle;
+    private volatile boolean running;
+    private volatile long spinNanos;
+    private volatile long deadlineNanos;
+    private volatile int backoffCycles;
+
+    private Task task;
+    private int count;
+    private int nframes;
+    private int serialRemaining;
+
+    private ParallelProcessor(int workerCount, JackThreadInitializer initializer, int[] cpus) {
+        this.claims = new AtomicLong();
+        this.completed = new AtomicInteger();
+        this.parallelCycles = new AtomicLong();
+        this.serialCycles = new AtomicLong();
+        this.missedDeadlines = new AtomicLong();
+        this.spinNanos = DEFAULT_SPIN_NANOS;
+        this.deadlineNanos = Long.MAX_VALUE;
+        this.backoffCycles = DEFAULT_BACKOFF_CYCLES;
+        this.running = true;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            JackThreadInitializer init = initializer;
+            if (cpus != null && cpus.length > 0) {
+                init = init.withCpuAffinity(cpus[i % cpus.length]);
+            }
+            workers[i] = new Worker(i, init);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Create a processor with the given number of worker threads, in
+     * addition to the calling thread.
+     *
+     * @param workers number of worker threads, may be zero
+     * @return processor
+     */
+    public static ParallelProcessor create(int workers) {
+        return create(workers, null);
+    }
+
+    /**
+     * Create a processor with the given number of worker threads, in
+     * addition to the calling thread, pinning worker <i>n</i> to CPU
+     * <code>cpus[n % cpus.length]</code>.
+     *
+     * @param workers number of worker threads, may be zero
+     * @param initializer initializer to apply to each worker thread, or null
+     * @param cpus CPUs to pin workers to, or none to leave affinity unchanged
+     * @return processor
+     * @see JackThreadInitializer#withCpuAffinity(int...)
+     */
+    public static ParallelProcessor create(int workers, JackThreadInitializer initializer,
+            int... cpus) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("Negative worker count");
+        }
+        return new ParallelProcessor(workers,
+                initializer == null ? JackThreadInitializer.create() : initializer, cpus);
+    }
+
+    /**
+     * Number of worker threads.
+     *
+     * @return worker count
+     */
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Set how long workers spin waiting for the next cycle before parking.
+     * Spinning reduces wake-up latency at the cost of CPU time.
+     *
+     * @param nanos spin time in nanoseconds
+     */
+    public void setSpinNanos(long nanos) {
+        this.spinNanos = Math.max(0, nanos);
+    }
+
+    /**
+     * Set the maximum time the calling thread may wait for workers to
+     * complete their items in a cycle, for example a fraction of the period.
+     * If exceeded, the next cycles are processed serially.
+     *
+     * @param nanos deadline in nanoseconds, or Long.MAX_VALUE for none
+     * @param backoffCycles number of serial cycles before trying parallel
+     * processing again
+     */
+    public void setDeadline(long nanos, int backoffCycles) {
+        this.deadlineNanos = nanos;
+        this.backoffCycles = Math.max(0, backoffCycles);
+    }
+
+    /**
+     * Number of cycles processed in parallel.
+     *
+     * @return parallel cycle count
+     */
+    public long getParallelCycles() {
+        return parallelCycles.get();
+    }
+
+    /**
+     * Number of cycles processed serially, after a missed deadline or because
+     * there were too few items.
+     *
+     * @return serial cycle count
+     */
+    public long getSerialCycles() {
+        return serialCycles.get();
+    }
+
+    /**
+     * Number of cycles in which the deadline was missed.
+     *
+     * @return missed deadline count
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines.get();
+    }
+
+    /**
+     * Run the task for every index from zero to count - 1, returning when all
+     * are complete. Exceptions thrown by the task on worker threads are
+     * logged.
+     *
+     * @param task task to run
+     * @param count number of items
+     * @param nframes number of frames, passed to the task
+     */
+    public void process(Task task, int count, int nframes) {
+        if (count <= 0) {
+            return;
+        }
+        if (workers.length == 0 || count == 1 || serialRemaining > 0) {
+            if (serialRemaining > 0) {
+                serialRemaining--;
+            }
+            serialCycles.lazySet(serialCycles.get() + 1);
+            for (int i = 0; i < count; i++) {
+                task.process(i, nframes);
+            }
+            return;
+        }
+        this.task = task;
+        this.count = count;
+        this.nframes = nframes;
+        int c = cycle + 1;
+        completed.set(0);
+        claims.set((long) c << 32);
+        cycle = c;
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+            }
+        }
+        try {
+            runItems(c, task, nframes);
+        } catch (RuntimeException | Error ex) {
+            // skip unclaimed items so the cycle can complete
+            while (claim(c) >= 0) {
+                completed.incrementAndGet();
+            }
+            throw ex;
+        } finally {
+            // workers must finish this cycle before the next can be published
+            awaitCompletion(count);
+            this.task = null;
+            parallelCycles.lazySet(parallelCycles.get() + 1);
+        }
+    }
+
+    /**
+     * Stop and release the worker threads. Must not be called concurrently
+     * with {@link #process(Task, int, int)}.
+     */
+    public void close() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    private void runItems(int c, Task task, int nframes) {
+        int item;
+        while ((item = claim(c)) >= 0) {
+            try {
+                task.process(item, nframes);
+            } finally {
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    private void awaitCompletion(int count) {
+        if (completed.get() == count) {
+            return;
+        }
+        long start = System.nanoTime();
+        int spins = 0;
+        while (completed.get() < count) {
+            if (++spins > YIELD_SPINS) {
+                Thread.yield();
+            }
+        }
+        if (System.nanoTime() - start > deadlineNanos) {
+            missedDeadlines.lazySet(missedDeadlines.get() + 1);
+            serialRemaining = backoffCycles;
+        }
+    }
+
+    private int claim(int c) {
+        while (true) {
+            long current = claims.get();
+            if ((int) (current >>> 32) != c) {
+                return -1;
+            }
+            int index = (int) current;
+            if (index >= count) {
+                return -1;
+            }
+            if (claims.compareAndSet(current, current + 1)) {
+                return index;
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final Thread thread;
+        private final int index;
+        private final JackThreadInitializer initializer;
+        private final int startCycle;
+
+        private volatile boolean parked;
+
+        private Worker(int index, JackThreadInitializer initializer) {
+            this.index = index;
+            this.initializer = initializer;
+            // read before the thread starts, so the first cycle is never missed
+            this.startCycle = cycle;
+            this.thread = new Thread(this);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            initializer.initialize("JNAJack worker " + (index + 1));
+            int seen = startCycle;
+            while (running) {
+                int c = awaitCycle(seen);
+                if (c == seen) {
+                    continue;
+                }
+                seen = c;
+                // task is only read once an item of cycle c is claimed, so is current
+                int item;
+                while ((item = claim(c)) >= 0) {
+                    try {
+                        task.process(item, nframes);
+                    } catch (Throwable t) {
+                        LOG.log(Level.SEVERE, "Error in parallel task", t);
+                    } finally {
+                        completed.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        private int awaitCycle(int seen) {
+            long spinUntil = System.nanoTime() + spinNanos;
+            int c;
+            while ((c = cycle) == seen && running) {
+                if (System.nanoTime() > spinUntil) {
+                    parked = true;
+                    if (cycle == seen && running) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    spinUntil = System.nanoTime() + spinNanos;
+                }
+            }
+            return c;
+        }
+
+    }
+
+}
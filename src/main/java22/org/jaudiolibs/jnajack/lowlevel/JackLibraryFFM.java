@@ -0,0 +1,1804 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.lowlevel;
+
+import com.sun.jna.Callback;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+import com.sun.jna.Structure;
+import com.sun.jna.ptr.ByteByReference;
+import com.sun.jna.ptr.IntByReference;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * Implementation of JackLibrary using the Java 22+ Foreign Function and Memory
+ * API in place of JNA direct mapping. Select by setting the system property
+ * <code>jnajack.library=ffm</code>. Only available in the multi-release jar
+ * when running on Java 22 or above.
+ *
+ * JNA types are still used in the JackLibrary signatures, and are converted
+ * to and from raw addresses. Callbacks are bound as upcall stubs, which live
+ * until the callback is replaced or the client is closed. Process thread
+ * functions use raw addresses and critical downcalls so that they do not
+ * allocate. Critical downcalls never access the Java heap, so do not pin
+ * arrays. Only 64-bit platforms are supported.
+ *
+ * Applications should run with <code>--enable-native-access=ALL-UNNAMED</code>
+ * (or the relevant module) to avoid runtime warnings.
+ *
+ * @author Neil C Smith
+ */
+public class JackLibraryFFM implements JackLibrary {
+
+    private final static Logger LOG = Logger.getLogger(JackLibraryFFM.class.getName());
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup LIBRARY = findLibrary();
+    private static final MemoryLayout C_LONG = LINKER.canonicalLayouts().get("long");
+    // as returned by jack_midi_event_write when no space can be reserved
+    private static final int ENOBUFS = 105;
+
+    // error and info function stubs, kept reachable while set
+    private static MemorySegment errorFunction;
+    private static MemorySegment infoFunction;
+
+    private static final MethodHandle CLIENT_OPEN = downcall("jack_client_open",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT, ADDRESS),
+            Linker.Option.firstVariadicArg(3));
+    private static final MethodHandle CLIENT_CLOSE = downcall("jack_client_close",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle CLIENT_NAME_SIZE = downcall("jack_client_name_size",
+            FunctionDescriptor.of(JAVA_INT));
+    private static final MethodHandle GET_CLIENT_NAME = downcall("jack_get_client_name",
+            FunctionDescriptor.of(ADDRESS, ADDRESS));
+    private static final MethodHandle IS_REALTIME = downcall("jack_is_realtime",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle ON_SHUTDOWN = downcall("jack_on_shutdown",
+            FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_PROCESS_CALLBACK = downcall("jack_set_process_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle CYCLE_WAIT = downcall("jack_cycle_wait",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle CYCLE_SIGNAL = downcall("jack_cycle_signal",
+            FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT));
+    private static final MethodHandle SET_PROCESS_THREAD = downcall("jack_set_process_thread",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_THREAD_INIT_CALLBACK = downcall("jack_set_thread_init_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_FREEWHEEL_CALLBACK = downcall("jack_set_freewheel_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_FREEWHEEL = downcall("jack_set_freewheel",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle SET_BUFFER_SIZE = downcall("jack_set_buffer_size",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle SET_BUFFER_SIZE_CALLBACK = downcall("jack_set_buffer_size_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_SAMPLE_RATE_CALLBACK = downcall("jack_set_sample_rate_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_CLIENT_REGISTRATION_CALLBACK = downcall("jack_set_client_registration_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_PORT_REGISTRATION_CALLBACK = downcall("jack_set_port_registration_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_PORT_CONNECT_CALLBACK = downcall("jack_set_port_connect_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_PORT_RENAME_CALLBACK = downcall("jack_set_port_rename_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_GRAPH_ORDER_CALLBACK = downcall("jack_set_graph_order_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_XRUN_CALLBACK = downcall("jack_set_xrun_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle ACTIVATE = downcall("jack_activate",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle DEACTIVATE = downcall("jack_deactivate",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_REGISTER = downcall("jack_port_register",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, C_LONG, C_LONG));
+    private static final MethodHandle PORT_UNREGISTER = downcall("jack_port_unregister",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_GET_BUFFER = downcall("jack_port_get_buffer",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    private static final MethodHandle PORT_GET_BUFFER_RAW = downcall("jack_port_get_buffer",
+            FunctionDescriptor.of(JAVA_LONG, JAVA_LONG, JAVA_INT), Linker.Option.critical(false));
+    private static final MethodHandle PORT_NAME = downcall("jack_port_name",
+            FunctionDescriptor.of(ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_SHORT_NAME = downcall("jack_port_short_name",
+            FunctionDescriptor.of(ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_FLAGS = downcall("jack_port_flags",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_TYPE = downcall("jack_port_type",
+            FunctionDescriptor.of(ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_IS_MINE = downcall("jack_port_is_mine",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_CONNECTED = downcall("jack_port_connected",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_CONNECTED_TO = downcall("jack_port_connected_to",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_GET_CONNECTIONS = downcall("jack_port_get_connections",
+            FunctionDescriptor.of(ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_GET_ALL_CONNECTIONS = downcall("jack_port_get_all_connections",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_TIE = downcall("jack_port_tie",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_UNTIE = downcall("jack_port_untie",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_GET_LATENCY = downcall("jack_port_get_latency",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_GET_TOTAL_LATENCY = downcall("jack_port_get_total_latency",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_SET_LATENCY = downcall("jack_port_set_latency",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle RECOMPUTE_TOTAL_LATENCY = downcall("jack_recompute_total_latency",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle RECOMPUTE_TOTAL_LATENCIES = downcall("jack_recompute_total_latencies",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle PORT_SET_NAME = downcall("jack_port_set_name",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_SET_ALIAS = downcall("jack_port_set_alias",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_UNSET_ALIAS = downcall("jack_port_unset_alias",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_REQUEST_MONITOR = downcall("jack_port_request_monitor",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle PORT_REQUEST_MONITOR_BY_NAME = downcall("jack_port_request_monitor_by_name",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT));
+    private static final MethodHandle PORT_ENSURE_MONITOR = downcall("jack_port_ensure_monitor",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle PORT_MONITORING_INPUT = downcall("jack_port_monitoring_input",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle CONNECT = downcall("jack_connect",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle DISCONNECT = downcall("jack_disconnect",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_DISCONNECT = downcall("jack_port_disconnect",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_NAME_SIZE = downcall("jack_port_name_size",
+            FunctionDescriptor.of(JAVA_INT));
+    private static final MethodHandle PORT_TYPE_SIZE = downcall("jack_port_type_size",
+            FunctionDescriptor.of(JAVA_INT));
+    private static final MethodHandle PORT_TYPE_GET_BUFFER_SIZE = downcall("jack_port_type_get_buffer_size",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_GET_LATENCY_RANGE = downcall("jack_port_get_latency_range",
+            FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS));
+    private static final MethodHandle GET_SAMPLE_RATE = downcall("jack_get_sample_rate",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle GET_BUFFER_SIZE = downcall("jack_get_buffer_size",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle GET_PORTS = downcall("jack_get_ports",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, C_LONG));
+    private static final MethodHandle PORT_BY_NAME = downcall("jack_port_by_name",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle PORT_BY_ID = downcall("jack_port_by_id",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    private static final MethodHandle FRAMES_SINCE_CYCLE_START = downcall("jack_frames_since_cycle_start",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle FRAME_TIME = downcall("jack_frame_time",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle LAST_FRAME_TIME = downcall("jack_last_frame_time",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle TIME_TO_FRAMES = downcall("jack_time_to_frames",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle CPU_LOAD = downcall("jack_cpu_load",
+            FunctionDescriptor.of(JAVA_FLOAT, ADDRESS));
+    private static final MethodHandle GET_XRUN_DELAYED_USECS = downcall("jack_get_xrun_delayed_usecs",
+            FunctionDescriptor.of(JAVA_FLOAT, ADDRESS));
+    private static final MethodHandle GET_MAX_DELAYED_USECS = downcall("jack_get_max_delayed_usecs",
+            FunctionDescriptor.of(JAVA_FLOAT, ADDRESS));
+    private static final MethodHandle RESET_MAX_DELAYED_USECS = downcall("jack_reset_max_delayed_usecs",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle SET_ERROR_FUNCTION = downcall("jack_set_error_function",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle SET_INFO_FUNCTION = downcall("jack_set_info_function",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle GET_TIME = downcall("jack_get_time",
+            FunctionDescriptor.of(JAVA_LONG));
+    private static final MethodHandle FREE = downcall("jack_free",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle MIDI_CLEAR_BUFFER = downcall("jack_midi_clear_buffer",
+            FunctionDescriptor.ofVoid(ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_EVENT_GET = downcall("jack_midi_event_get",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_EVENT_GET_RAW = downcall("jack_midi_event_get",
+            FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG, JAVA_INT), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_EVENT_RESERVE = downcall("jack_midi_event_reserve",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_EVENT_RESERVE_RAW = downcall("jack_midi_event_reserve",
+            FunctionDescriptor.of(JAVA_LONG, JAVA_LONG, JAVA_INT, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_EVENT_WRITE = downcall("jack_midi_event_write",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_GET_EVENT_COUNT = downcall("jack_midi_get_event_count",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_GET_LOST_EVENT_COUNT = downcall("jack_midi_get_lost_event_count",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle MIDI_MAX_EVENT_SIZE = downcall("jack_midi_max_event_size",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_CREATE = downcall("jack_ringbuffer_create",
+            FunctionDescriptor.of(ADDRESS, JAVA_LONG));
+    private static final MethodHandle RINGBUFFER_FREE = downcall("jack_ringbuffer_free",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle RINGBUFFER_GET_READ_VECTOR = downcall("jack_ringbuffer_get_read_vector",
+            FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_GET_WRITE_VECTOR = downcall("jack_ringbuffer_get_write_vector",
+            FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_READ = downcall("jack_ringbuffer_read",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_PEEK = downcall("jack_ringbuffer_peek",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_READ_ADVANCE = downcall("jack_ringbuffer_read_advance",
+            FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_READ_SPACE = downcall("jack_ringbuffer_read_space",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_MLOCK = downcall("jack_ringbuffer_mlock",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle RINGBUFFER_RESET = downcall("jack_ringbuffer_reset",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle RINGBUFFER_WRITE = downcall("jack_ringbuffer_write",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_WRITE_ADVANCE = downcall("jack_ringbuffer_write_advance",
+            FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle RINGBUFFER_WRITE_SPACE = downcall("jack_ringbuffer_write_space",
+            FunctionDescriptor.of(JAVA_LONG, ADDRESS), Linker.Option.critical(false));
+    private static final MethodHandle RELEASE_TIMEBASE = downcall("jack_release_timebase",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle GET_CURRENT_TRANSPORT_FRAME = downcall("jack_get_current_transport_frame",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    private static final MethodHandle SET_SYNC_CALLBACK = downcall("jack_set_sync_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    private static final MethodHandle SET_SYNC_TIMEOUT = downcall("jack_set_sync_timeout",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG));
+    private static final MethodHandle SET_TIMEBASE_CALLBACK = downcall("jack_set_timebase_callback",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle TRANSPORT_LOCATE = downcall("jack_transport_locate",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle TRANSPORT_QUERY = downcall("jack_transport_query",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle TRANSPORT_QUERY_RAW = downcall("jack_transport_query",
+            FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle TRANSPORT_REPOSITION = downcall("jack_transport_reposition",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS));
+    private static final MethodHandle TRANSPORT_REPOSITION_RAW = downcall("jack_transport_reposition",
+            FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle TRANSPORT_START = downcall("jack_transport_start",
+            FunctionDescriptor.ofVoid(ADDRESS));
+    private static final MethodHandle TRANSPORT_STOP = downcall("jack_transport_stop",
+            FunctionDescriptor.ofVoid(ADDRESS));
+
+    private static final FunctionDescriptor PROCESS_UPCALL
+            = FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor THREAD_UPCALL
+            = FunctionDescriptor.of(ADDRESS, ADDRESS);
+    private static final FunctionDescriptor POINTER_UPCALL
+            = FunctionDescriptor.ofVoid(ADDRESS);
+    private static final FunctionDescriptor POINTER_INT_UPCALL
+            = FunctionDescriptor.of(JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor INT_POINTER_INT_UPCALL
+            = FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor INT_POINTER_UPCALL
+            = FunctionDescriptor.ofVoid(JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor PORT_REGISTRATION_UPCALL
+            = FunctionDescriptor.ofVoid(JAVA_INT, JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor CLIENT_REGISTRATION_UPCALL
+            = FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor PORT_CONNECT_UPCALL
+            = FunctionDescriptor.ofVoid(JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS);
+    private static final FunctionDescriptor PORT_RENAME_UPCALL
+            = FunctionDescriptor.ofVoid(JAVA_INT, ADDRESS, ADDRESS, ADDRESS);
+    private static final FunctionDescriptor SYNC_UPCALL
+            = FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, ADDRESS);
+    private static final FunctionDescriptor TIMEBASE_UPCALL
+            = FunctionDescriptor.ofVoid(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS);
+
+    // upcall stubs by client address
+    private final Map<Long, Upcalls> clientUpcalls = new ConcurrentHashMap<>();
+
+    public JackLibraryFFM() {
+        if (ADDRESS.byteSize() != 8) {
+            throw new UnsatisfiedLinkError("FFM JACK library is only supported on 64-bit platforms");
+        }
+        if (LIBRARY == null) {
+            throw new UnsatisfiedLinkError("Unable to load JACK library");
+        }
+    }
+
+    @Override
+    public _jack_client jack_client_open(String client_name, int options, IntByReference status) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment stat = arena.allocate(JAVA_INT);
+            MemorySegment client = (MemorySegment) CLIENT_OPEN.invokeExact(
+                    string(arena, client_name), options, stat);
+            if (status != null) {
+                status.setValue(stat.get(JAVA_INT, 0));
+            }
+            return client.address() == 0 ? null : new _jack_client(pointer(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_client_close(_jack_client client) {
+        try {
+            return (int) CLIENT_CLOSE.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        } finally {
+            // no more callbacks once the client is closed
+            Upcalls upcalls = clientUpcalls.remove(segment(client).address());
+            if (upcalls != null) {
+                upcalls.close();
+            }
+        }
+    }
+
+    @Override
+    public int jack_client_name_size() {
+        try {
+            return (int) CLIENT_NAME_SIZE.invokeExact();
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public String jack_get_client_name(_jack_client client) {
+        try {
+            return string((MemorySegment) GET_CLIENT_NAME.invokeExact(segment(client)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_is_realtime(_jack_client client) {
+        try {
+            return (int) IS_REALTIME.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_on_shutdown(_jack_client client, JackShutdownCallback shutdown_callback, Pointer arg) {
+        try {
+            bind(client, shutdown_callback, JackShutdownCallback.class, "shutdown", POINTER_UPCALL,
+                    stub -> {
+                        ON_SHUTDOWN.invokeExact(segment(client), stub, segment(arg));
+                        return 0;
+                    });
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_process_callback(_jack_client client, JackProcessCallback process_callback, Pointer arg) {
+        try {
+            return bind(client, process_callback, JackProcessCallback.class, "process", PROCESS_UPCALL,
+                    stub -> (int) SET_PROCESS_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_cycle_wait(_jack_client client) {
+        try {
+            return (int) CYCLE_WAIT.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_cycle_signal(_jack_client client, int status) {
+        try {
+            CYCLE_SIGNAL.invokeExact(segment(client), status);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_process_thread(_jack_client client, JackThreadCallback thread_callback, Pointer arg) {
+        try {
+            return bind(client, thread_callback, JackThreadCallback.class, "thread", THREAD_UPCALL,
+                    stub -> (int) SET_PROCESS_THREAD.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_thread_init_callback(_jack_client client, JackThreadInitCallback thread_init_callback, Pointer arg) {
+        try {
+            return bind(client, thread_init_callback, JackThreadInitCallback.class, "threadInit", POINTER_UPCALL,
+                    stub -> (int) SET_THREAD_INIT_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_freewheel_callback(_jack_client client, JackFreewheelCallback freewheel_callback, Pointer arg) {
+        try {
+            return bind(client, freewheel_callback, JackFreewheelCallback.class, "freewheel", INT_POINTER_UPCALL,
+                    stub -> (int) SET_FREEWHEEL_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_freewheel(_jack_client client, int onoff) {
+        try {
+            return (int) SET_FREEWHEEL.invokeExact(segment(client), onoff);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_buffer_size(_jack_client client, int nframes) {
+        try {
+            return (int) SET_BUFFER_SIZE.invokeExact(segment(client), nframes);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_buffer_size_callback(_jack_client client, JackBufferSizeCallback bufsize_callback, Pointer arg) {
+        try {
+            return bind(client, bufsize_callback, JackBufferSizeCallback.class, "bufferSize", INT_POINTER_INT_UPCALL,
+                    stub -> (int) SET_BUFFER_SIZE_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_sample_rate_callback(_jack_client client, JackSampleRateCallback srate_callback, Pointer arg) {
+        try {
+            return bind(client, srate_callback, JackSampleRateCallback.class, "sampleRate", INT_POINTER_INT_UPCALL,
+                    stub -> (int) SET_SAMPLE_RATE_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_client_registration_callback(_jack_client jack_client_tPtr1, JackClientRegistrationCallback registration_callback, Pointer arg) {
+        try {
+            return bind(jack_client_tPtr1, registration_callback, JackClientRegistrationCallback.class, "clientRegistration", CLIENT_REGISTRATION_UPCALL,
+                    stub -> (int) SET_CLIENT_REGISTRATION_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_port_registration_callback(_jack_client jack_client_tPtr1, JackPortRegistrationCallback registration_callback, Pointer arg) {
+        try {
+            return bind(jack_client_tPtr1, registration_callback, JackPortRegistrationCallback.class, "portRegistration", PORT_REGISTRATION_UPCALL,
+                    stub -> (int) SET_PORT_REGISTRATION_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_port_connect_callback(_jack_client jack_client_tPtr1, JackPortConnectCallback connect_callback, Pointer arg) {
+        try {
+            return bind(jack_client_tPtr1, connect_callback, JackPortConnectCallback.class, "portConnect", PORT_CONNECT_UPCALL,
+                    stub -> (int) SET_PORT_CONNECT_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_port_rename_callback(_jack_client jack_client_tPtr1, JackPortRenameCallback rename_callback, Pointer arg) {
+        if (SET_PORT_RENAME_CALLBACK == null) {
+            return JackLibrary.super.jack_set_port_rename_callback(jack_client_tPtr1, rename_callback, arg);
+        }
+        try {
+            return bind(jack_client_tPtr1, rename_callback, JackPortRenameCallback.class, "portRename", PORT_RENAME_UPCALL,
+                    stub -> (int) SET_PORT_RENAME_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_graph_order_callback(_jack_client jack_client_tPtr1, JackGraphOrderCallback graph_callback, Pointer voidPtr1) {
+        try {
+            return bind(jack_client_tPtr1, graph_callback, JackGraphOrderCallback.class, "graphOrder", POINTER_INT_UPCALL,
+                    stub -> (int) SET_GRAPH_ORDER_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(voidPtr1)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_xrun_callback(_jack_client jack_client_tPtr1, JackXRunCallback xrun_callback, Pointer arg) {
+        try {
+            return bind(jack_client_tPtr1, xrun_callback, JackXRunCallback.class, "xrun", POINTER_INT_UPCALL,
+                    stub -> (int) SET_XRUN_CALLBACK.invokeExact(segment(jack_client_tPtr1), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_activate(_jack_client client) {
+        try {
+            int result = (int) ACTIVATE.invokeExact(segment(client));
+            if (result == 0) {
+                Upcalls upcalls = upcalls(client);
+                synchronized (upcalls) {
+                    upcalls.active = true;
+                }
+            }
+            return result;
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_deactivate(_jack_client client) {
+        try {
+            int result = (int) DEACTIVATE.invokeExact(segment(client));
+            if (result == 0) {
+                Upcalls upcalls = upcalls(client);
+                synchronized (upcalls) {
+                    upcalls.active = false;
+                    upcalls.release();
+                }
+            }
+            return result;
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public _jack_port jack_port_register(_jack_client client, String port_name, String port_type, NativeLong flags, NativeLong buffer_size) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment port;
+            if (C_LONG.byteSize() == 8) {
+                port = (MemorySegment) PORT_REGISTER.invokeExact(segment(client),
+                        string(arena, port_name), string(arena, port_type),
+                        flags.longValue(), buffer_size.longValue());
+            } else {
+                port = (MemorySegment) PORT_REGISTER.invokeExact(segment(client),
+                        string(arena, port_name), string(arena, port_type),
+                        flags.intValue(), buffer_size.intValue());
+            }
+            return port(port);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_unregister(_jack_client jack_client_tPtr1, _jack_port jack_port_tPtr1) {
+        try {
+            return (int) PORT_UNREGISTER.invokeExact(segment(jack_client_tPtr1), segment(jack_port_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_port_get_buffer(_jack_port jack_port_tPtr1, int nframes) {
+        try {
+            return pointer((MemorySegment) PORT_GET_BUFFER.invokeExact(segment(jack_port_tPtr1), nframes));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public long jack_port_get_buffer_address(_jack_port port, int nframes) {
+        try {
+            return (long) PORT_GET_BUFFER_RAW.invokeExact(Pointer.nativeValue(port.getPointer()), nframes);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public String jack_port_name(_jack_port port) {
+        try {
+            return string((MemorySegment) PORT_NAME.invokeExact(segment(port)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public ByteByReference jack_port_short_name(_jack_port port) {
+        try {
+            return byteReference((MemorySegment) PORT_SHORT_NAME.invokeExact(segment(port)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_flags(_jack_port port) {
+        try {
+            return (int) PORT_FLAGS.invokeExact(segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public ByteByReference jack_port_type(_jack_port port) {
+        try {
+            return byteReference((MemorySegment) PORT_TYPE.invokeExact(segment(port)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_is_mine(_jack_client jack_client_tPtr1, _jack_port port) {
+        try {
+            return (int) PORT_IS_MINE.invokeExact(segment(jack_client_tPtr1), segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_connected(_jack_port port) {
+        try {
+            return (int) PORT_CONNECTED.invokeExact(segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_connected_to(_jack_port port, String port_name) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) PORT_CONNECTED_TO.invokeExact(segment(port), string(arena, port_name));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_port_get_connections(_jack_port port) {
+        try {
+            return pointer((MemorySegment) PORT_GET_CONNECTIONS.invokeExact(segment(port)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_port_get_all_connections(_jack_client client, _jack_port port) {
+        try {
+            return pointer((MemorySegment) PORT_GET_ALL_CONNECTIONS.invokeExact(segment(client), segment(port)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_tie(_jack_port src, _jack_port dst) {
+        try {
+            return (int) PORT_TIE.invokeExact(segment(src), segment(dst));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_untie(_jack_port port) {
+        try {
+            return (int) PORT_UNTIE.invokeExact(segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_get_latency(_jack_port port) {
+        try {
+            return (int) PORT_GET_LATENCY.invokeExact(segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_get_total_latency(_jack_client jack_client_tPtr1, _jack_port port) {
+        try {
+            return (int) PORT_GET_TOTAL_LATENCY.invokeExact(segment(jack_client_tPtr1), segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_port_set_latency(_jack_port jack_port_tPtr1) {
+        try {
+            PORT_SET_LATENCY.invokeExact(segment(jack_port_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_recompute_total_latency(_jack_client jack_client_tPtr1, _jack_port port) {
+        try {
+            return (int) RECOMPUTE_TOTAL_LATENCY.invokeExact(segment(jack_client_tPtr1), segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_recompute_total_latencies(_jack_client jack_client_tPtr1) {
+        try {
+            return (int) RECOMPUTE_TOTAL_LATENCIES.invokeExact(segment(jack_client_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_set_name(_jack_port port, String port_name) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) PORT_SET_NAME.invokeExact(segment(port), string(arena, port_name));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_set_alias(_jack_port port, String alias) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) PORT_SET_ALIAS.invokeExact(segment(port), string(arena, alias));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_unset_alias(_jack_port port, String alias) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) PORT_UNSET_ALIAS.invokeExact(segment(port), string(arena, alias));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_request_monitor(_jack_port port, int onoff) {
+        try {
+            return (int) PORT_REQUEST_MONITOR.invokeExact(segment(port), onoff);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_request_monitor_by_name(_jack_client client, String port_name, int onoff) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) PORT_REQUEST_MONITOR_BY_NAME.invokeExact(segment(client),
+                    string(arena, port_name), onoff);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_ensure_monitor(_jack_port port, int onoff) {
+        try {
+            return (int) PORT_ENSURE_MONITOR.invokeExact(segment(port), onoff);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_monitoring_input(_jack_port port) {
+        try {
+            return (int) PORT_MONITORING_INPUT.invokeExact(segment(port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_connect(_jack_client jack_client_tPtr1, String source_port, String destination_port) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) CONNECT.invokeExact(segment(jack_client_tPtr1),
+                    string(arena, source_port), string(arena, destination_port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_disconnect(_jack_client jack_client_tPtr1, String source_port, String destination_port) {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) DISCONNECT.invokeExact(segment(jack_client_tPtr1),
+                    string(arena, source_port), string(arena, destination_port));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_disconnect(_jack_client jack_client_tPtr1, _jack_port jack_port_tPtr1) {
+        try {
+            return (int) PORT_DISCONNECT.invokeExact(segment(jack_client_tPtr1), segment(jack_port_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_name_size() {
+        try {
+            return (int) PORT_NAME_SIZE.invokeExact();
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_port_type_size() {
+        try {
+            return (int) PORT_TYPE_SIZE.invokeExact();
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public size_t jack_port_type_get_buffer_size(_jack_client client, String port_type) {
+        if (PORT_TYPE_GET_BUFFER_SIZE == null) {
+            return JackLibrary.super.jack_port_type_get_buffer_size(client, port_type);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            return new size_t((long) PORT_TYPE_GET_BUFFER_SIZE.invokeExact(segment(client),
+                    string(arena, port_type)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_port_get_latency_range(_jack_port port, int mode, jack_latency_range_t range) {
+        try {
+            PORT_GET_LATENCY_RANGE.invokeExact(segment(port), mode, segment(range));
+            range.read();
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_get_sample_rate(_jack_client jack_client_tPtr1) {
+        try {
+            return (int) GET_SAMPLE_RATE.invokeExact(segment(jack_client_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_get_buffer_size(_jack_client jack_client_tPtr1) {
+        try {
+            return (int) GET_BUFFER_SIZE.invokeExact(segment(jack_client_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_get_ports(_jack_client jack_client_tPtr1, String port_name_pattern, String type_name_pattern, NativeLong flags) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment ports;
+            if (C_LONG.byteSize() == 8) {
+                ports = (MemorySegment) GET_PORTS.invokeExact(segment(jack_client_tPtr1),
+                        string(arena, port_name_pattern), string(arena, type_name_pattern),
+                        flags.longValue());
+            } else {
+                ports = (MemorySegment) GET_PORTS.invokeExact(segment(jack_client_tPtr1),
+                        string(arena, port_name_pattern), string(arena, type_name_pattern),
+                        flags.intValue());
+            }
+            return pointer(ports);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public _jack_port jack_port_by_name(_jack_client jack_client_tPtr1, String port_name) {
+        try (Arena arena = Arena.ofConfined()) {
+            return port((MemorySegment) PORT_BY_NAME.invokeExact(segment(jack_client_tPtr1),
+                    string(arena, port_name)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public _jack_port jack_port_by_id(_jack_client client, int port_id) {
+        try {
+            return port((MemorySegment) PORT_BY_ID.invokeExact(segment(client), port_id));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_frames_since_cycle_start(_jack_client jack_client_tPtr1) {
+        try {
+            return (int) FRAMES_SINCE_CYCLE_START.invokeExact(segment(jack_client_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_frame_time(_jack_client jack_client_tPtr1) {
+        try {
+            return (int) FRAME_TIME.invokeExact(segment(jack_client_tPtr1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_last_frame_time(_jack_client client) {
+        try {
+            return (int) LAST_FRAME_TIME.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_time_to_frames(_jack_client client) {
+        try {
+            return (int) TIME_TO_FRAMES.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public float jack_cpu_load(_jack_client client) {
+        try {
+            return (float) CPU_LOAD.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public float jack_get_xrun_delayed_usecs(_jack_client client) {
+        if (GET_XRUN_DELAYED_USECS == null) {
+            return JackLibrary.super.jack_get_xrun_delayed_usecs(client);
+        }
+        try {
+            return (float) GET_XRUN_DELAYED_USECS.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public float jack_get_max_delayed_usecs(_jack_client client) {
+        if (GET_MAX_DELAYED_USECS == null) {
+            return JackLibrary.super.jack_get_max_delayed_usecs(client);
+        }
+        try {
+            return (float) GET_MAX_DELAYED_USECS.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_reset_max_delayed_usecs(_jack_client client) {
+        if (RESET_MAX_DELAYED_USECS == null) {
+            return;
+        }
+        try {
+            RESET_MAX_DELAYED_USECS.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_set_error_function(func arg1) {
+        try {
+            SET_ERROR_FUNCTION.invokeExact(errorFunction = globalUpcall(arg1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_set_info_function(func arg1) {
+        try {
+            SET_INFO_FUNCTION.invokeExact(infoFunction = globalUpcall(arg1));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public NativeLong jack_get_time() {
+        try {
+            return new NativeLong((long) GET_TIME.invokeExact());
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_free(Pointer ptr) {
+        try {
+            FREE.invokeExact(segment(ptr));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_midi_clear_buffer(Pointer port_buffer) {
+        try {
+            MIDI_CLEAR_BUFFER.invokeExact(segment(port_buffer));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_event_get(jack_midi_event_t event, Pointer port_buffer, int event_index) {
+        try {
+            int ret = (int) MIDI_EVENT_GET.invokeExact(segment(event), segment(port_buffer), event_index);
+            event.read();
+            return ret;
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_event_get(long event, long port_buffer, int event_index) {
+        try {
+            return (int) MIDI_EVENT_GET_RAW.invokeExact(event, port_buffer, event_index);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_midi_event_reserve(Pointer port_buffer, int time, int data_size) {
+        try {
+            return pointer((MemorySegment) MIDI_EVENT_RESERVE.invokeExact(segment(port_buffer),
+                    time, (long) data_size));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public long jack_midi_event_reserve(long port_buffer, int time, int data_size) {
+        try {
+            return (long) MIDI_EVENT_RESERVE_RAW.invokeExact(port_buffer, time, (long) data_size);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_event_write(Pointer port_buffer, int time, Pointer data, int data_size) {
+        try {
+            return (int) MIDI_EVENT_WRITE.invokeExact(segment(port_buffer), time,
+                    segment(data), (long) data_size);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_event_write(Pointer port_buffer, int time, byte[] data, int data_size) {
+        try {
+            // reserve and copy, as jack_midi_event_write does, rather than
+            // passing a heap segment and pinning the array
+            long event = (long) MIDI_EVENT_RESERVE_RAW.invokeExact(
+                    Pointer.nativeValue(port_buffer), time, (long) data_size);
+            if (event == 0) {
+                return -ENOBUFS;
+            }
+            MemorySegment.copy(data, 0, MemorySegment.ofAddress(event).reinterpret(data_size),
+                    JAVA_BYTE, 0, data_size);
+            return 0;
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_get_event_count(Pointer port_buffer) {
+        try {
+            return (int) MIDI_GET_EVENT_COUNT.invokeExact(segment(port_buffer));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_get_lost_event_count(Pointer port_buffer) {
+        try {
+            return (int) MIDI_GET_LOST_EVENT_COUNT.invokeExact(segment(port_buffer));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_midi_max_event_size(Pointer port_buffer) {
+        try {
+            return (int) (long) MIDI_MAX_EVENT_SIZE.invokeExact(segment(port_buffer));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public Pointer jack_ringbuffer_create(size_t sz) {
+        if (RINGBUFFER_CREATE == null) {
+            return JackLibrary.super.jack_ringbuffer_create(sz);
+        }
+        try {
+            return pointer((MemorySegment) RINGBUFFER_CREATE.invokeExact(sz.longValue()));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_free(Pointer rb) {
+        try {
+            RINGBUFFER_FREE.invokeExact(segment(rb));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_read_vector(Pointer rb, Pointer vec) {
+        jack_ringbuffer_get_read_vector(Pointer.nativeValue(rb), Pointer.nativeValue(vec));
+    }
+
+    @Override
+    public void jack_ringbuffer_get_write_vector(Pointer rb, Pointer vec) {
+        jack_ringbuffer_get_write_vector(Pointer.nativeValue(rb), Pointer.nativeValue(vec));
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read(Pointer rb, Pointer dest, size_t cnt) {
+        try {
+            return new size_t((long) RINGBUFFER_READ.invokeExact(segment(rb), segment(dest), cnt.longValue()));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_peek(Pointer rb, Pointer dest, size_t cnt) {
+        try {
+            return new size_t((long) RINGBUFFER_PEEK.invokeExact(segment(rb), segment(dest), cnt.longValue()));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_read_advance(Pointer rb, size_t cnt) {
+        jack_ringbuffer_read_advance(Pointer.nativeValue(rb), cnt.longValue());
+    }
+
+    @Override
+    public size_t jack_ringbuffer_read_space(Pointer rb) {
+        try {
+            return new size_t((long) RINGBUFFER_READ_SPACE.invokeExact(segment(rb)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_ringbuffer_mlock(Pointer rb) {
+        try {
+            return (int) RINGBUFFER_MLOCK.invokeExact(segment(rb));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_reset(Pointer rb) {
+        try {
+            RINGBUFFER_RESET.invokeExact(segment(rb));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write(Pointer rb, Pointer src, size_t cnt) {
+        try {
+            return new size_t((long) RINGBUFFER_WRITE.invokeExact(segment(rb), segment(src), cnt.longValue()));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_write_advance(Pointer rb, size_t cnt) {
+        jack_ringbuffer_write_advance(Pointer.nativeValue(rb), cnt.longValue());
+    }
+
+    @Override
+    public size_t jack_ringbuffer_write_space(Pointer rb) {
+        try {
+            return new size_t((long) RINGBUFFER_WRITE_SPACE.invokeExact(segment(rb)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_read_vector(long rb, long vec) {
+        try {
+            RINGBUFFER_GET_READ_VECTOR.invokeExact(rb, vec);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_get_write_vector(long rb, long vec) {
+        try {
+            RINGBUFFER_GET_WRITE_VECTOR.invokeExact(rb, vec);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_read_advance(long rb, long cnt) {
+        try {
+            RINGBUFFER_READ_ADVANCE.invokeExact(rb, cnt);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_ringbuffer_write_advance(long rb, long cnt) {
+        try {
+            RINGBUFFER_WRITE_ADVANCE.invokeExact(rb, cnt);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_release_timebase(_jack_client client) {
+        try {
+            return (int) RELEASE_TIMEBASE.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_get_current_transport_frame(_jack_client client) {
+        try {
+            return (int) GET_CURRENT_TRANSPORT_FRAME.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_sync_callback(_jack_client client, JackSyncCallback sync_callback, Pointer arg) {
+        try {
+            return bind(client, sync_callback, JackSyncCallback.class, "sync", SYNC_UPCALL,
+                    stub -> (int) SET_SYNC_CALLBACK.invokeExact(segment(client), stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_sync_timeout(_jack_client client, long timeout) {
+        try {
+            return (int) SET_SYNC_TIMEOUT.invokeExact(segment(client), timeout);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_set_timebase_callback(_jack_client client, int conditional, JackTimebaseCallback timebase_callback, Pointer arg) {
+        try {
+            return bind(client, timebase_callback, JackTimebaseCallback.class, "timebase", TIMEBASE_UPCALL,
+                    stub -> (int) SET_TIMEBASE_CALLBACK.invokeExact(segment(client), conditional, stub, segment(arg)));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_transport_locate(_jack_client client, int frame) {
+        try {
+            return (int) TRANSPORT_LOCATE.invokeExact(segment(client), frame);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_transport_query(_jack_client client, jack_position_t pos) {
+        try {
+            int ret = (int) TRANSPORT_QUERY.invokeExact(segment(client), segment(pos));
+            if (pos != null) {
+                pos.read();
+            }
+            return ret;
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_transport_query_address(_jack_client client, long pos) {
+        try {
+            return (int) TRANSPORT_QUERY_RAW.invokeExact(Pointer.nativeValue(client.getPointer()), pos);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_transport_reposition(_jack_client client, jack_position_t pos) {
+        try {
+            pos.write();
+            return (int) TRANSPORT_REPOSITION.invokeExact(segment(client), segment(pos));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public int jack_transport_reposition_address(_jack_client client, long pos) {
+        try {
+            return (int) TRANSPORT_REPOSITION_RAW.invokeExact(Pointer.nativeValue(client.getPointer()), pos);
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_transport_start(_jack_client client) {
+        try {
+            TRANSPORT_START.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public void jack_transport_stop(_jack_client client) {
+        try {
+            TRANSPORT_STOP.invokeExact(segment(client));
+        } catch (Throwable t) {
+            throw failure(t);
+        }
+    }
+
+    // conversion utilities ////////////////////////////////////////////////////
+    private static SymbolLookup findLibrary() {
+        String[] names = new String[]{
+            System.mapLibraryName("jack64"),
+            "libjack.so.0",
+            System.mapLibraryName("jack"),
+            "libjack.0.dylib"
+        };
+        for (String name : names) {
+            try {
+                return SymbolLookup.libraryLookup(name, Arena.global());
+            } catch (IllegalArgumentException ex) {
+                LOG.log(Level.FINEST, "Unable to load " + name, ex);
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle downcall(String name, FunctionDescriptor descriptor,
+            Linker.Option... options) {
+        if (LIBRARY == null) {
+            return null;
+        }
+        return LIBRARY.find(name)
+                .map(symbol -> LINKER.downcallHandle(symbol, descriptor, options))
+                .orElse(null);
+    }
+
+    private static MemorySegment segment(PointerType type) {
+        return type == null ? MemorySegment.NULL : segment(type.getPointer());
+    }
+
+    private static MemorySegment segment(Structure struct) {
+        return struct == null ? MemorySegment.NULL : segment(struct.getPointer());
+    }
+
+    private static MemorySegment segment(Pointer pointer) {
+        return MemorySegment.ofAddress(Pointer.nativeValue(pointer));
+    }
+
+    private static MemorySegment string(Arena arena, String string) {
+        return string == null ? MemorySegment.NULL : arena.allocateFrom(string);
+    }
+
+    private static String string(MemorySegment segment) {
+        return segment.address() == 0 ? null
+                : segment.reinterpret(Long.MAX_VALUE).getString(0);
+    }
+
+    private static Pointer pointer(MemorySegment segment) {
+        long address = segment.address();
+        return address == 0 ? null : new Pointer(address);
+    }
+
+    private static _jack_port port(MemorySegment segment) {
+        return segment.address() == 0 ? null : new _jack_port(pointer(segment));
+    }
+
+    private static ByteByReference byteReference(MemorySegment segment) {
+        if (segment.address() == 0) {
+            return null;
+        }
+        ByteByReference ref = new ByteByReference();
+        ref.setPointer(pointer(segment));
+        return ref;
+    }
+
+    private static RuntimeException failure(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new RuntimeException(t);
+    }
+
+    // upcalls /////////////////////////////////////////////////////////////////
+    /**
+     * Bind the provided callback using the setter. The upcall stub is reused
+     * if the callback is already bound, otherwise a new stub is created for
+     * the target. The target is a static method in this class taking the
+     * callback as the first argument, followed by the native arguments in the
+     * order of the descriptor.
+     *
+     * Each stub has its own arena. A stub replaced while the client is
+     * inactive is freed as soon as the setter succeeds. JACK rejects callbacks
+     * set on an active client, but if a stub is replaced while active it is
+     * kept until the client is deactivated or closed, in case a callback is
+     * still running. A stub rejected by the setter is freed immediately.
+     */
+    private <T extends Callback> int bind(_jack_client client, T callback,
+            Class<T> type, String target, FunctionDescriptor descriptor,
+            Setter setter) throws Throwable {
+        Upcalls upcalls = upcalls(client);
+        synchronized (upcalls) {
+            Upcall current = upcalls.bound.get(target);
+            if (current != null && current.callback == callback) {
+                return setter.set(current.stub);
+            }
+            Upcall next = callback == null ? null
+                    : new Upcall(callback, handle(callback, type, target, descriptor), descriptor);
+            int result;
+            try {
+                result = setter.set(next == null ? MemorySegment.NULL : next.stub);
+            } catch (Throwable t) {
+                if (next != null) {
+                    next.arena.close();
+                }
+                throw t;
+            }
+            if (result != 0) {
+                if (next != null) {
+                    next.arena.close();
+                }
+                return result;
+            }
+            if (next == null) {
+                upcalls.bound.remove(target);
+            } else {
+                upcalls.bound.put(target, next);
+            }
+            if (current != null) {
+                upcalls.retired.add(current);
+                if (!upcalls.active) {
+                    upcalls.release();
+                }
+            }
+            return result;
+        }
+    }
+
+    private Upcalls upcalls(_jack_client client) {
+        return clientUpcalls.computeIfAbsent(segment(client).address(),
+                address -> new Upcalls());
+    }
+
+    /**
+     * Create an upcall stub for the error or info function. The stub is freed
+     * once it is no longer referenced, so must be kept in a field while set.
+     */
+    private static MemorySegment globalUpcall(func callback) throws ReflectiveOperationException {
+        if (callback == null) {
+            return MemorySegment.NULL;
+        }
+        return LINKER.upcallStub(handle(callback, func.class, "message", POINTER_UPCALL),
+                POINTER_UPCALL, Arena.ofAuto());
+    }
+
+    private static <T extends Callback> MethodHandle handle(T callback, Class<T> type,
+            String target, FunctionDescriptor descriptor) throws ReflectiveOperationException {
+        MethodType methodType = descriptor.toMethodType().insertParameterTypes(0, type);
+        return MethodHandles.lookup()
+                .findStatic(JackLibraryFFM.class, target, methodType)
+                .bindTo(callback);
+    }
+
+    @FunctionalInterface
+    private static interface Setter {
+
+        int set(MemorySegment stub) throws Throwable;
+
+    }
+
+    private static class Upcall {
+
+        private final Callback callback;
+        private final Arena arena;
+        private final MemorySegment stub;
+
+        private Upcall(Callback callback, MethodHandle handle, FunctionDescriptor descriptor) {
+            this.callback = callback;
+            this.arena = Arena.ofShared();
+            this.stub = LINKER.upcallStub(handle, descriptor, arena);
+        }
+
+    }
+
+    // upcall stubs of a client, guarded by the instance lock
+    private static class Upcalls {
+
+        private final Map<String, Upcall> bound = new HashMap<>();
+        private final List<Upcall> retired = new ArrayList<>();
+        private boolean active;
+
+        private void release() {
+            for (Upcall upcall : retired) {
+                upcall.arena.close();
+            }
+            retired.clear();
+        }
+
+        private synchronized void close() {
+            release();
+            for (Upcall upcall : bound.values()) {
+                upcall.arena.close();
+            }
+            bound.clear();
+        }
+
+    }
+
+    private static int process(JackProcessCallback callback, int nframes, MemorySegment arg) {
+        try {
+            return callback.invoke(nframes);
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in process upcall", t);
+            return 1;
+        }
+    }
+
+    private static MemorySegment thread(JackThreadCallback callback, MemorySegment arg) {
+        try {
+            callback.invoke(pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in thread upcall", t);
+        }
+        return MemorySegment.NULL;
+    }
+
+    private static void threadInit(JackThreadInitCallback callback, MemorySegment arg) {
+        try {
+            callback.invoke(pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in thread init upcall", t);
+        }
+    }
+
+    private static void shutdown(JackShutdownCallback callback, MemorySegment arg) {
+        try {
+            callback.invoke(pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in shutdown upcall", t);
+        }
+    }
+
+    private static void freewheel(JackFreewheelCallback callback, int starting, MemorySegment arg) {
+        try {
+            callback.invoke(starting, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in freewheel upcall", t);
+        }
+    }
+
+    private static int bufferSize(JackBufferSizeCallback callback, int nframes, MemorySegment arg) {
+        try {
+            return callback.invoke(nframes, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in buffer size upcall", t);
+            return -1;
+        }
+    }
+
+    private static int sampleRate(JackSampleRateCallback callback, int nframes, MemorySegment arg) {
+        try {
+            return callback.invoke(nframes, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in sample rate upcall", t);
+            return -1;
+        }
+    }
+
+    private static void clientRegistration(JackClientRegistrationCallback callback,
+            MemorySegment name, int register, MemorySegment arg) {
+        try {
+            callback.invoke(byteReference(name), register, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in client registration upcall", t);
+        }
+    }
+
+    private static void portRegistration(JackPortRegistrationCallback callback,
+            int port, int register, MemorySegment arg) {
+        try {
+            callback.invoke(port, register, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in port registration upcall", t);
+        }
+    }
+
+    private static void portConnect(JackPortConnectCallback callback,
+            int a, int b, int connect, MemorySegment arg) {
+        try {
+            callback.invoke(a, b, connect, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in port connect upcall", t);
+        }
+    }
+
+    private static void portRename(JackPortRenameCallback callback,
+            int port, MemorySegment oldName, MemorySegment newName, MemorySegment arg) {
+        try {
+            callback.invoke(port, pointer(oldName), pointer(newName), pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in port rename upcall", t);
+        }
+    }
+
+    private static int graphOrder(JackGraphOrderCallback callback, MemorySegment arg) {
+        try {
+            return callback.invoke(pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in graph order upcall", t);
+            return -1;
+        }
+    }
+
+    private static int xrun(JackXRunCallback callback, MemorySegment arg) {
+        try {
+            return callback.invoke(pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in xrun upcall", t);
+            return -1;
+        }
+    }
+
+    private static int sync(JackSyncCallback callback, int state, MemorySegment pos, MemorySegment arg) {
+        try {
+            return callback.invoke(state, pointer(pos), pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in sync upcall", t);
+            return 0;
+        }
+    }
+
+    private static void timebase(JackTimebaseCallback callback, int state, int nframes,
+            MemorySegment pos, int newPos, MemorySegment arg) {
+        try {
+            callback.invoke(state, nframes, pointer(pos), newPos, pointer(arg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in timebase upcall", t);
+        }
+    }
+
+    private static void message(func callback, MemorySegment msg) {
+        try {
+            callback.invoke(byteReference(msg));
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "Error in message upcall", t);
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 Neil C Smith.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation; either version 2.1 of the License,
+ * or (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this work; if not, see http://www.gnu.org/licenses/
+ *
+ *
+ * Please visit http://neilcsmith.net if you need additional information or
+ * have any questions.
+ *
+ */
+package org.jaudiolibs.jnajack.util;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of the JackDsp kernels. Loaded reflectively by
+ * JackDsp, so requires the jdk.incubator.vector module to be resolved. Falls
+ * back to the scalar kernels for heap, read only or non-native order buffers.
+ *
+ * @author Neil C Smith
+ */
+class JackDspVector extends JackDspKernels {
+
+    private final static VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private final static int LANES = SPECIES.length();
+    private final static long STEP = LANES * (long) Float.BYTES;
+    private final static ByteOrder ORDER = ByteOrder.nativeOrder();
+    // single vector shuffles, combined with blend, which is faster than
+    // two vector rearrange
+    private final static VectorShuffle<Float> ZIP_LOW
+            = VectorShuffle.fromOp(SPECIES, i -> i / 2);
+    private final static VectorShuffle<Float> ZIP_HIGH
+            = VectorShuffle.fromOp(SPECIES, i -> LANES / 2 + i / 2);
+    private final static VectorShuffle<Float> UNZIP_EVEN
+            = VectorShuffle.fromOp(SPECIES, i -> (i * 2) % LANES);
+    private final static VectorShuffle<Float> UNZIP_ODD
+            = VectorShuffle.fromOp(SPECIES, i -> (i * 2 + 1) % LANES);
+    private final static VectorMask<Float> ODD_LANES
+            = VectorMask.fromLong(SPECIES, 0xAAAAAAAAAAAAAAAAL);
+    private final static VectorMask<Float> HIGH_LANES
+            = SPECIES.indexInRange(LANES / 2, LANES).not();
+
+    @Override
+    void clear(FloatBuffer buf, int offset, int n) {
+        if (!writable(buf)) {
+            super.clear(buf, offset, n);
+            return;
+        }
+        MemorySegment seg = segment(buf, offset, n);
+        FloatVector zero = FloatVector.zero(SPECIES);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            zero.intoMemorySegment(seg, b, ORDER);
+        }
+        super.clear(buf, offset + loopBound(n), n - loopBound(n));
+    }
+
+    @Override
+    void copy(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset, int n) {
+        if (!readable(src) || !writable(dst)) {
+            super.copy(src, srcOffset, dst, dstOffset, n);
+            return;
+        }
+        MemorySegment s = segment(src, srcOffset, n);
+        MemorySegment d = segment(dst, dstOffset, n);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            FloatVector.fromMemorySegment(SPECIES, s, b, ORDER).intoMemorySegment(d, b, ORDER);
+        }
+        int t = loopBound(n);
+        super.copy(src, srcOffset + t, dst, dstOffset + t, n - t);
+    }
+
+    @Override
+    void gain(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset,
+            float gain, int n) {
+        if (!readable(src) || !writable(dst)) {
+            super.gain(src, srcOffset, dst, dstOffset, gain, n);
+            return;
+        }
+        MemorySegment s = segment(src, srcOffset, n);
+        MemorySegment d = segment(dst, dstOffset, n);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            FloatVector.fromMemorySegment(SPECIES, s, b, ORDER)
+                    .mul(gain)
+                    .intoMemorySegment(d, b, ORDER);
+        }
+        int t = loopBound(n);
+        super.gain(src, srcOffset + t, dst, dstOffset + t, gain, n - t);
+    }
+
+    @Override
+    void mixAdd(FloatBuffer src, int srcOffset, FloatBuffer dst, int dstOffset,
+            float gain, int n) {
+        if (!readable(src) || !writable(dst)) {
+            super.mixAdd(src, srcOffset, dst, dstOffset, gain, n);
+            return;
+        }
+        MemorySegment s = segment(src, srcOffset, n);
+        MemorySegment d = segment(dst, dstOffset, n);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            FloatVector.fromMemorySegment(SPECIES, s, b, ORDER)
+                    .mul(gain)
+                    .add(FloatVector.fromMemorySegment(SPECIES, d, b, ORDER))
+                    .intoMemorySegment(d, b, ORDER);
+        }
+        int t = loopBound(n);
+        super.mixAdd(src, srcOffset + t, dst, dstOffset + t, gain, n - t);
+    }
+
+    @Override
+    float peak(FloatBuffer buf, int offset, int n) {
+        if (!readable(buf)) {
+            return super.peak(buf, offset, n);
+        }
+        MemorySegment seg = segment(buf, offset, n);
+        FloatVector max = FloatVector.zero(SPECIES);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            max = max.max(FloatVector.fromMemorySegment(SPECIES, seg, b, ORDER).abs());
+        }
+        int t = loopBound(n);
+        return Math.max(max.reduceLanes(VectorOperators.MAX),
+                super.peak(buf, offset + t, n - t));
+    }
+
+    @Override
+    double sumOfSquares(FloatBuffer buf, int offset, int n) {
+        if (!readable(buf)) {
+            return super.sumOfSquares(buf, offset, n);
+        }
+        MemorySegment seg = segment(buf, offset, n);
+        FloatVector sum = FloatVector.zero(SPECIES);
+        long bound = byteBound(n);
+        for (long b = 0; b < bound; b += STEP) {
+            FloatVector v = FloatVector.fromMemorySegment(SPECIES, seg, b, ORDER);
+            sum = v.fma(v, sum);
+        }
+        int t = loopBound(n);
+        return sum.reduceLanes(VectorOperators.ADD) + super.sumOfSquares(buf, offset + t, n - t);
+    }
+
+    @Override
+    void interleave(FloatBuffer[] src, FloatBuffer dst, int dstOffset, int from, int n) {
+        if (from != 0 || src.length != 2 || !readable(src[0]) || !readable(src[1]) || !writable(dst)) {
+            super.interleave(src, dst, dstOffset, from, n);
+            return;
+        }
+        MemorySegment l = segment(src[0], src[0].position(), n);
+        MemorySegment r = segment(src[1], src[1].position(), n);
+        MemorySegment d = segment(dst, dstOffset, n * 2);
+        long bound = byteBound(n);
+        for (long b = 0, db = 0; b < bound; b += STEP, db += STEP * 2) {
+            FloatVector lv = FloatVector.fromMemorySegment(SPECIES, l, b, ORDER);
+            FloatVector rv = FloatVector.fromMemorySegment(SPECIES, r, b, ORDER);
+            lv.rearrange(ZIP_LOW).blend(rv.rearrange(ZIP_LOW), ODD_LANES)
+                    .intoMemorySegment(d, db, ORDER);
+            lv.rearrange(ZIP_HIGH).blend(rv.rearrange(ZIP_HIGH), ODD_LANES)
+                    .intoMemorySegment(d, db + STEP, ORDER);
+        }
+        super.interleave(src, dst, dstOffset, loopBound(n), n);
+    }
+
+    @Override
+    void deinterleave(FloatBuffer src, int srcOffset, FloatBuffer[] dst, int from, int n) {
+        if (from != 0 || dst.length != 2 || !readable(src) || !writable(dst[0]) || !writable(dst[1])) {
+            super.deinterleave(src, srcOffset, dst, from, n);
+            return;
+        }
+        MemorySegment s = segment(src, srcOffset, n * 2);
+        MemorySegment l = segment(dst[0], dst[0].position(), n);
+        MemorySegment r = segment(dst[1], dst[1].position(), n);
+        long bound = byteBound(n);
+        for (long b = 0, sb = 0; b < bound; b += STEP, sb += STEP * 2) {
+            FloatVector v1 = FloatVector.fromMemorySegment(SPECIES, s, sb, ORDER);
+            FloatVector v2 = FloatVector.fromMemorySegment(SPECIES, s, sb + STEP, ORDER);
+            v1.rearrange(UNZIP_EVEN).blend(v2.rearrange(UNZIP_EVEN), HIGH_LANES)
+                    .intoMemorySegment(l, b, ORDER);
+            v1.rearrange(UNZIP_ODD).blend(v2.rearrange(UNZIP_ODD), HIGH_LANES)
+                    .intoMemorySegment(r, b, ORDER);
+        }
+        super.deinterleave(src, srcOffset, dst, loopBound(n), n);
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    private static boolean readable(FloatBuffer buf) {
+        return buf.isDirect() && buf.order() == ORDER;
+    }
+
+    private static boolean writable(FloatBuffer buf) {
+        return readable(buf) && !buf.isReadOnly();
+    }
+
+    private static MemorySegment segment(FloatBuffer buf, int offset, int n) {
+        // segment starts at the buffer position
+        return MemorySegment.ofBuffer(buf)
+                .asSlice((offset - buf.position()) * (long) Float.BYTES, n * (long) Float.BYTES);
+    }
+
+    private static long byteBound(int n) {
+        return loopBound(n) * (long) Float.BYTES;
+    }
+
+    private static int loopBound(int n) {
+        return SPECIES.loopBound(n);
+    }
+
+}
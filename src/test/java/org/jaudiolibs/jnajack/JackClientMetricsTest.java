@@ -0,0 +1,96 @@
+package org.jaudiolibs.jnajack;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackClientMetricsTest {
+
+    private JackLibrarySimulated server;
+    private Jack jack;
+
+    public JackClientMetricsTest() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        server = new JackLibrarySimulated(48000, 64);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        jack = Jack.getSimulatedInstance(server);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        JackClient client = jack.openClient("Metrics", null, null);
+        client.setProcessCallback((c, nframes) -> true);
+        client.setMetricsEnabled(true);
+        JackClientMetrics metrics = client.getMetrics();
+        assertNotNull(metrics);
+        client.activate();
+        server.runCycles(20);
+        assertEquals(20, metrics.getCycleCount());
+        assertEquals(19, metrics.getJitterHistogram().getCount());
+        assertFalse(Float.isNaN(metrics.getDspLoad()));
+        assertEquals(0, metrics.getXrunCount());
+
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(
+                "org.jaudiolibs.jnajack:type=ClientMetrics,client=\"Metrics\"");
+        assertEquals(20L, mbs.getAttribute(name, "CycleCount"));
+
+        metrics.reset();
+        server.runCycles(1);
+        assertEquals(1, metrics.getCycleCount());
+        client.close();
+        assertFalse(mbs.isRegistered(name));
+        assertTrue(Float.isNaN(metrics.getDspLoad()));
+    }
+
+    @Test
+    public void testXrunCount() throws Exception {
+        JackClient client = jack.openClient("Xruns", null, null);
+        CountDownLatch latch = new CountDownLatch(2);
+        client.setProcessCallback((c, nframes) -> true);
+        client.setXrunCallback(c -> latch.countDown());
+        // metrics and user callback share the native xrun callback
+        client.setMetricsEnabled(true);
+        client.activate();
+        server.simulateXrun();
+        server.simulateXrun();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, client.getMetrics().getXrunCount());
+        client.close();
+
+        // removing user callback keeps xrun counting
+        client = jack.openClient("Xruns", null, null);
+        client.setMetricsEnabled(true);
+        client.setXrunCallback(null);
+        client.activate();
+        server.simulateXrun();
+        JackClientMetrics metrics = client.getMetrics();
+        long end = System.currentTimeMillis() + 5000;
+        while (metrics.getXrunCount() < 1 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, metrics.getXrunCount());
+        client.close();
+    }
+
+}
@@ -1,9 +1,18 @@
 package org.jaudiolibs.jnajack;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.lang.management.ManagementFactory;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -27,4 +36,228 @@ public class JackClientTest {
         assertEquals(true, client.isRealtime());
     }
 
+    @Test
+    public void testPortBufferViewsReused() throws JackException {
+        TestLibrary lib = new TestLibrary(256);
+        Jack jack = Jack.getSimulatedInstance(lib);
+        JackClient client = jack.openClient("TestBuffers", null, null);
+        JackPort port = client.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        client.setProcessCallback((c, nframes) -> true);
+
+        assertEquals(0, lib.processCallback.invoke(256));
+        FloatBuffer first = port.getFloatBuffer();
+        assertEquals(256, first.remaining());
+        long firstAddress = lib.getBuffer(port);
+
+        lib.setBuffer(port, lib.allocateBuffer());
+        assertEquals(0, lib.processCallback.invoke(256));
+        FloatBuffer second = port.getFloatBuffer();
+        assertNotSame(first, second);
+
+        lib.setBuffer(port, firstAddress);
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertSame(first, port.getFloatBuffer(), "Buffer view not reused");
+
+        assertEquals(0, lib.processCallback.invoke(128));
+        assertEquals(128, port.getFloatBuffer().remaining(), "Buffer view not resized");
+    }
+
+    @Test
+    public void testBatchPortRegistration() throws JackException {
+        TestLibrary lib = new TestLibrary(256);
+        Jack jack = Jack.getSimulatedInstance(lib);
+        JackClient client = jack.openClient("TestBatch", null, null);
+        String[] names = new String[16];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "port" + i;
+        }
+        JackPort[] ports = client.registerPorts(names, JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        assertEquals(16, ports.length);
+        assertEquals("port5", ports[5].getShortName());
+        client.setProcessCallback((c, nframes) -> true);
+
+        lib.bufferRequests = 0;
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertEquals(16, lib.bufferRequests);
+
+        client.unregisterPorts(Arrays.copyOfRange(ports, 4, 12));
+        lib.bufferRequests = 0;
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertEquals(8, lib.bufferRequests);
+    }
+
+    @Test
+    public void testBatchPortRegistrationRollback() throws JackException {
+        JackLibrary lib = mock(JackLibrary.class);
+        when(lib.jack_client_open(any(), anyInt(), any()))
+                .thenReturn(new JackLibrary._jack_client());
+        JackLibrary._jack_port port = new JackLibrary._jack_port();
+        when(lib.jack_port_register(any(), any(), any(), any(), any()))
+                .thenReturn(port, port, null);
+
+        Jack jack = new Jack(lib);
+        JackClient client = jack.openClient("TestRollback", null, null);
+        assertThrows(JackException.class, () -> client.registerPorts(
+                new String[]{"a", "b", "c", "d"}, JackPortType.AUDIO, JackPortFlags.JackPortIsInput));
+        verify(lib, times(3)).jack_port_register(any(), any(), any(), any(), any());
+        verify(lib, times(2)).jack_port_unregister(any(), same(port));
+    }
+
+    @Test
+    public void testLazyPortBuffers() throws JackException {
+        TestLibrary lib = new TestLibrary(256);
+        Jack jack = Jack.getSimulatedInstance(lib);
+        JackClient client = jack.openClient("TestLazy", null, null);
+        JackPort[] ports = new JackPort[8];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = client.registerPort("port" + i, JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        }
+        client.setLazyPortBuffers(true);
+        client.setProcessCallback((c, nframes) -> {
+            FloatBuffer buffer = ports[2].getFloatBuffer();
+            buffer.put(1);
+            assertSame(buffer, ports[2].getFloatBuffer());
+            assertEquals(1, buffer.position(), "Buffer rewound within cycle");
+            return true;
+        });
+
+        lib.bufferRequests = 0;
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertEquals(2, lib.bufferRequests);
+        assertEquals(1, ports[2].getFloatBuffer().position(), "Buffer resolved outside cycle");
+
+        client.setLazyPortBuffers(false);
+        lib.bufferRequests = 0;
+        assertEquals(0, lib.processCallback.invoke(256));
+        assertEquals(ports.length, lib.bufferRequests);
+    }
+
+    @Test
+    public void testProcessCycleDoesNotAllocate() throws JackException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        TestLibrary lib = new TestLibrary(256);
+        Jack jack = Jack.getSimulatedInstance(lib);
+        JackClient client = jack.openClient("TestAllocation", null, null);
+        JackPort[] ports = new JackPort[64];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = client.registerPort("port" + i, JackPortType.AUDIO,
+                    i % 2 == 0 ? JackPortFlags.JackPortIsInput : JackPortFlags.JackPortIsOutput);
+        }
+        client.setProcessCallback((c, nframes) -> {
+            for (int i = 1; i < ports.length; i += 2) {
+                FloatBuffer in = ports[i - 1].getFloatBuffer();
+                FloatBuffer out = ports[i].getFloatBuffer();
+                while (in.hasRemaining()) {
+                    out.put(in.get());
+                }
+            }
+            return true;
+        });
+        JackLibrary.JackProcessCallback cycle = lib.processCallback;
+
+        // alternate between two buffers on half the ports so cached views are exercised
+        long[] alternate = new long[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            alternate[i] = lib.allocateBuffer();
+        }
+        for (int i = 0; i < 20000; i++) {
+            runCycle(lib, cycle, ports, alternate, i);
+        }
+
+        long tid = Thread.currentThread().getId();
+        long overhead = threadBean.getThreadAllocatedBytes(tid);
+        overhead = threadBean.getThreadAllocatedBytes(tid) - overhead;
+        long start = threadBean.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 10000; i++) {
+            runCycle(lib, cycle, ports, alternate, i);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(tid) - start - overhead;
+        assertEquals(0, allocated, "Process cycles allocated " + allocated + " bytes");
+    }
+
+    private static void runCycle(TestLibrary lib, JackLibrary.JackProcessCallback cycle,
+            JackPort[] ports, long[] alternate, int count) {
+        if (count % 16 == 0) {
+            for (int p = 0; p < ports.length; p += 4) {
+                long current = lib.getBuffer(ports[p]);
+                lib.setBuffer(ports[p], alternate[p]);
+                alternate[p] = current;
+            }
+        }
+        assertEquals(0, cycle.invoke(256));
+    }
+
+    /**
+     * Simulated server that keeps the process callback, so tests can invoke
+     * it directly, and allows port buffers to be swapped to simulate JACK
+     * changing buffers.
+     */
+    private static class TestLibrary extends JackLibrarySimulated {
+
+        private final int bufferSize;
+        private final List<Memory> memory;
+        private long[] buffers;
+
+        JackProcessCallback processCallback;
+        int bufferRequests;
+
+        private TestLibrary(int bufferSize) {
+            super(DEFAULT_SAMPLE_RATE, bufferSize);
+            setAutoStart(false);
+            this.bufferSize = bufferSize;
+            this.memory = new ArrayList<>();
+            this.buffers = new long[0];
+        }
+
+        long allocateBuffer() {
+            Memory mem = new Memory(bufferSize * 4L);
+            mem.clear();
+            memory.add(mem);
+            return Pointer.nativeValue(mem);
+        }
+
+        void setBuffer(JackPort port, long address) {
+            int id = id(port.portPtr);
+            if (id >= buffers.length) {
+                buffers = Arrays.copyOf(buffers, id + 16);
+            }
+            buffers[id] = address;
+        }
+
+        long getBuffer(JackPort port) {
+            return buffer(port.portPtr, bufferSize);
+        }
+
+        @Override
+        public int jack_set_process_callback(_jack_client client, JackProcessCallback process_callback, Pointer arg) {
+            processCallback = process_callback;
+            return super.jack_set_process_callback(client, process_callback, arg);
+        }
+
+        @Override
+        public long jack_port_get_buffer_address(_jack_port port, int nframes) {
+            bufferRequests++;
+            return buffer(port, nframes);
+        }
+
+        private long buffer(_jack_port port, int nframes) {
+            int id = id(port);
+            if (id < buffers.length && buffers[id] != 0) {
+                return buffers[id];
+            }
+            return super.jack_port_get_buffer_address(port, nframes);
+        }
+
+        private static int id(_jack_port port) {
+            return (int) Pointer.nativeValue(port.getPointer());
+        }
+
+    }
+
 }
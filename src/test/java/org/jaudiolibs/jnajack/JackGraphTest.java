@@ -0,0 +1,269 @@
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackGraphTest {
+
+    private JackLibrarySimulated server;
+    private Jack jack;
+
+    public JackGraphTest() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        server = new JackLibrarySimulated(48000, 64);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        jack = Jack.getSimulatedInstance(server);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    public void testGraph() throws Exception {
+        JackClient other = jack.openClient("Other", null, null);
+        other.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        other.registerPort("midi_in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        other.activate();
+
+        JackClient client = jack.openClient("Patchbay", null, null);
+        client.setGraphEnabled(true);
+        JackGraph graph = client.getGraph();
+        client.activate();
+        assertTrue(graph.hasPort("Other:out"));
+        assertTrue(graph.hasPort("system:playback_1"));
+        assertTrue(graph.getClients().contains("Other"));
+        assertEquals(JackPortType.MIDI, graph.getPortType("Other:midi_in"));
+        assertEquals(EnumSet.of(JackPortFlags.JackPortIsOutput), graph.getPortFlags("Other:out"));
+        assertArrayEquals(new String[]{"Other:midi_in"},
+                graph.getPorts("Other", JackPortType.MIDI, null));
+
+        long version = graph.getVersion();
+        jack.connect(client, "Other:out", "system:playback_1");
+        await(() -> graph.isConnected("Other:out", "system:playback_1"));
+        assertTrue(graph.getVersion() > version);
+        assertTrue(graph.getConnections("system:playback_1").contains("Other:out"));
+
+        JackPort port = other.registerPort("late", JackPortType.AUDIO, JackPortFlags.JackPortIsInput);
+        await(() -> graph.hasPort("Other:late"));
+        assertEquals(EnumSet.of(JackPortFlags.JackPortIsInput), graph.getPortFlags("Other:late"));
+        other.unregisterPort(port);
+        await(() -> !graph.hasPort("Other:late"));
+
+        jack.disconnect(client, "Other:out", "system:playback_1");
+        await(() -> graph.getConnections("Other:out").isEmpty());
+
+        jack.connect(client, "Other:out", "system:playback_2");
+        await(() -> graph.isConnected("system:playback_2", "Other:out"));
+        other.close();
+        await(() -> !graph.getClients().contains("Other"));
+        assertFalse(graph.hasPort("Other:out"));
+        assertTrue(graph.getConnections("system:playback_2").isEmpty());
+
+        graph.resync();
+        assertFalse(graph.hasPort("Other:out"));
+        assertTrue(graph.hasPort("system:playback_2"));
+    }
+
+    @Test
+    public void testUserCallbacks() throws Exception {
+        JackClient client = jack.openClient("Patchbay", null, null);
+        StringBuilder log = new StringBuilder();
+        client.setPortRegistrationCallback(new JackPortRegistrationCallback() {
+            @Override
+            public void portRegistered(JackClient client, String portFullName) {
+                synchronized (log) {
+                    log.append(portFullName);
+                }
+            }
+
+            @Override
+            public void portUnregistered(JackClient client, String portFullName) {
+            }
+        });
+        client.setGraphEnabled(true);
+        client.activate();
+        JackClient other = jack.openClient("Other", null, null);
+        other.activate();
+        other.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        JackGraph graph = client.getGraph();
+        await(() -> graph.hasPort("Other:out"));
+        await(() -> {
+            synchronized (log) {
+                return log.toString().contains("Other:out");
+            }
+        });
+    }
+
+    @Test
+    public void testPortIdCallbacks() throws Exception {
+        JackClient client = jack.openClient("Patchbay", null, null);
+        List<Integer> registered = new CopyOnWriteArrayList<>();
+        List<String> unregistered = new CopyOnWriteArrayList<>();
+        List<String> connected = new CopyOnWriteArrayList<>();
+        client.setPortIdRegistrationCallback(new JackPortIdRegistrationCallback() {
+            @Override
+            public void portRegistered(JackClient client, int portId) {
+                registered.add(portId);
+            }
+
+            @Override
+            public void portUnregistered(JackClient client, int portId) {
+                try {
+                    unregistered.add(client.getPortName(portId));
+                } catch (JackException ex) {
+                    fail(ex);
+                }
+            }
+        });
+        client.setPortIdConnectCallback(new JackPortIdConnectCallback() {
+            @Override
+            public void portsConnected(JackClient client, int portId1, int portId2) {
+                try {
+                    connected.add(client.getPortName(portId1) + ">" + client.getPortName(portId2));
+                } catch (JackException ex) {
+                    fail(ex);
+                }
+            }
+
+            @Override
+            public void portsDisconnected(JackClient client, int portId1, int portId2) {
+            }
+        });
+        client.setGraphEnabled(true);
+        client.activate();
+        JackGraph graph = client.getGraph();
+
+        JackClient other = jack.openClient("Other", null, null);
+        other.activate();
+        JackPort port = other.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        await(() -> !registered.isEmpty());
+        int id = registered.get(0);
+        assertEquals("Other:out", client.getPortName(id));
+
+        jack.connect(client, "Other:out", "system:playback_1");
+        await(() -> connected.contains("Other:out>system:playback_1"));
+
+        assertEquals(0, server.jack_port_set_name(port.portPtr, "renamed"));
+        await(() -> graph.hasPort("Other:renamed"));
+        assertEquals("Other:renamed", client.getPortName(id));
+        assertFalse(graph.hasPort("Other:out"));
+        assertTrue(graph.isConnected("system:playback_1", "Other:renamed"));
+
+        other.unregisterPort(port);
+        await(() -> unregistered.contains("Other:renamed"));
+        await(() -> !graph.hasPort("Other:renamed"));
+    }
+
+    @Test
+    public void testRenamedPortConnectCallback() throws Exception {
+        checkRenamedPortConnectCallback(server, jack);
+    }
+
+    @Test
+    public void testRenamedPortConnectCallbackNoRenameSupport() throws Exception {
+        JackLibrarySimulated noRename = new JackLibrarySimulated(48000, 64) {
+            @Override
+            public int jack_set_port_rename_callback(JackLibrary._jack_client client,
+                    JackLibrary.JackPortRenameCallback rename_callback, Pointer arg) {
+                return -1;
+            }
+        };
+        noRename.setRealtime(false);
+        noRename.setAutoStart(false);
+        try {
+            checkRenamedPortConnectCallback(noRename, Jack.getSimulatedInstance(noRename));
+        } finally {
+            noRename.shutdown();
+        }
+    }
+
+    private void checkRenamedPortConnectCallback(JackLibrarySimulated server, Jack jack)
+            throws Exception {
+        JackClient client = jack.openClient("Patchbay", null, null);
+        List<String> connected = new CopyOnWriteArrayList<>();
+        client.setPortConnectCallback(new JackPortConnectCallback() {
+            @Override
+            public void portsConnected(JackClient client, String portName1, String portName2) {
+                connected.add(portName1 + ">" + portName2);
+            }
+
+            @Override
+            public void portsDisconnected(JackClient client, String portName1, String portName2) {
+            }
+        });
+        client.activate();
+        JackClient other = jack.openClient("Other", null, null);
+        other.activate();
+        JackPort port = other.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        jack.connect(client, "Other:out", "system:playback_1");
+        await(() -> connected.contains("Other:out>system:playback_1"));
+        assertEquals(0, server.jack_port_set_name(port.portPtr, "renamed"));
+        jack.connect(client, "Other:renamed", "system:playback_2");
+        await(() -> connected.contains("Other:renamed>system:playback_2"));
+    }
+
+    @Test
+    public void testActivateResyncFailure() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        JackLibrarySimulated failServer = new JackLibrarySimulated(48000, 64) {
+            @Override
+            public Pointer jack_get_ports(JackLibrary._jack_client client,
+                    String port_name_pattern, String type_name_pattern, NativeLong flags) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Simulated failure");
+                }
+                return super.jack_get_ports(client, port_name_pattern, type_name_pattern, flags);
+            }
+        };
+        failServer.setRealtime(false);
+        failServer.setAutoStart(false);
+        try {
+            JackClient client = Jack.getSimulatedInstance(failServer)
+                    .openClient("Patchbay", null, null);
+            client.setGraphEnabled(true);
+            JackGraph graph = client.getGraph();
+            assertTrue(graph.isStale());
+            client.activate();
+            assertTrue(graph.isStale());
+            assertFalse(graph.hasPort("system:playback_1"));
+            failing.set(false);
+            graph.resync();
+            assertFalse(graph.isStale());
+            assertTrue(graph.hasPort("system:playback_1"));
+        } finally {
+            failServer.shutdown();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("Timed out waiting for graph update");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.jaudiolibs.jnajack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackNotificationDispatcherTest {
+
+    public JackNotificationDispatcherTest() {
+    }
+
+    @Test
+    public void testOrderAndOverflow() {
+        HeldExecutor executor = new HeldExecutor();
+        JackNotificationDispatcher dispatcher = JackNotificationDispatcher.create(executor, 4);
+        List<Integer> delivered = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int value = i;
+            dispatcher.dispatch(() -> delivered.add(value));
+        }
+        assertEquals(1, executor.tasks.size());
+        assertEquals(4, dispatcher.getPendingCount());
+        assertEquals(2, dispatcher.getDroppedCount());
+        executor.runAll();
+        assertEquals(Arrays.asList(0, 1, 2, 3), delivered);
+        assertEquals(0, dispatcher.getPendingCount());
+
+        dispatcher.dispatch(() -> {
+            throw new IllegalStateException();
+        });
+        dispatcher.dispatch(() -> delivered.add(4));
+        executor.runAll();
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), delivered);
+    }
+
+    @Test
+    public void testClientDispatch() throws Exception {
+        JackLibrarySimulated server = new JackLibrarySimulated(48000, 64);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            JackClient other = jack.openClient("Other", null, null);
+            for (int i = 1; i <= 3; i++) {
+                other.registerPort("out_" + i, JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+            }
+            other.activate();
+
+            HeldExecutor executor = new HeldExecutor();
+            JackNotificationDispatcher dispatcher = JackNotificationDispatcher.create(executor, 64);
+            JackClient client = jack.openClient("Patchbay", null, null);
+            client.setNotificationDispatcher(dispatcher);
+            assertSame(dispatcher, client.getNotificationDispatcher());
+            List<String> connections = new CopyOnWriteArrayList<>();
+            AtomicInteger graphOrders = new AtomicInteger();
+            client.setPortConnectCallback(new JackPortConnectCallback() {
+                @Override
+                public void portsConnected(JackClient client, String portName1, String portName2) {
+                    connections.add(portName1);
+                }
+
+                @Override
+                public void portsDisconnected(JackClient client, String portName1, String portName2) {
+                }
+            });
+            client.setGraphOrderCallback(c -> graphOrders.incrementAndGet());
+            client.activate();
+            for (int i = 1; i <= 3; i++) {
+                jack.connect(client, "Other:out_" + i, "system:playback_" + (i % 2 + 1));
+            }
+            // three connections plus a single coalesced graph order event
+            await(() -> dispatcher.getPendingCount() == 4);
+            assertTrue(connections.isEmpty());
+            executor.runAll();
+            assertEquals(Arrays.asList("Other:out_1", "Other:out_2", "Other:out_3"), connections);
+            assertEquals(1, graphOrders.get());
+
+            jack.disconnect(client, "Other:out_1", "system:playback_2");
+            await(() -> dispatcher.getPendingCount() == 2);
+            executor.runAll();
+            assertEquals(2, graphOrders.get());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("Timed out waiting for notifications");
+            }
+            Thread.sleep(1);
+        }
+        // allow any further events to be queued
+        Thread.sleep(50);
+    }
+
+    private static class HeldExecutor implements Executor {
+
+        private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        private void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+    }
+
+}
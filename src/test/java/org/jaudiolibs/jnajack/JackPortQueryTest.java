@@ -0,0 +1,72 @@
+package org.jaudiolibs.jnajack;
+
+import java.util.EnumSet;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackPortQueryTest {
+
+    public JackPortQueryTest() {
+    }
+
+    @Test
+    public void testRequiredLiteral() {
+        assertEquals("system:", JackPortQuery.requiredLiteral("system:.*"));
+        assertEquals("^system:capture_", JackPortQuery.requiredLiteral("^system:capture_\\d+"));
+        assertEquals("^Synt", JackPortQuery.requiredLiteral("^Synth?"));
+        assertEquals("out", JackPortQuery.requiredLiteral("out+"));
+        assertNull(JackPortQuery.requiredLiteral("a|b"));
+        assertNull(JackPortQuery.requiredLiteral("(?i)system"));
+        assertNull(JackPortQuery.requiredLiteral("^[a-z]+"));
+        assertNull(JackPortQuery.requiredLiteral("x*"));
+    }
+
+    @Test
+    public void testNativeFilter() {
+        JackPortQuery query = JackPortQuery.of("^system:.*_1$", null, null);
+        assertNull(query.getNativePattern());
+        JackPortQuery nativeQuery = query.withNativeFilter(true);
+        assertEquals("^system:", nativeQuery.getNativePattern());
+        assertNull(nativeQuery.withNativeFilter(false).getNativePattern());
+        JackPortQuery unsafe = JackPortQuery.of("(a|b)", null, null).withNativeFilter(true);
+        assertNull(unsafe.getNativePattern());
+    }
+
+    @Test
+    public void testGetPorts() throws JackException {
+        JackLibrarySimulated server = new JackLibrarySimulated(48000, 64);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            JackClient client = jack.openClient("Query", null, null);
+            client.registerPort("out_1", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+            client.registerPort("midi_1", JackPortType.MIDI, JackPortFlags.JackPortIsOutput);
+            client.setGraphEnabled(true);
+            client.activate();
+
+            JackPortQuery query = JackPortQuery.of("^system:.*_1$", JackPortType.AUDIO,
+                    EnumSet.of(JackPortFlags.JackPortIsInput));
+            String[] expected = jack.getPorts(client, "^system:.*_1$", JackPortType.AUDIO,
+                    EnumSet.of(JackPortFlags.JackPortIsInput));
+            assertArrayEquals(new String[]{"system:playback_1"}, expected);
+            assertArrayEquals(expected, jack.getPorts(client, query));
+            assertArrayEquals(expected, jack.getPorts(client, query.withNativeFilter(true)));
+            assertArrayEquals(expected, client.getGraph().getPorts(query));
+
+            JackPortQuery literal = JackPortQuery.of("Query:", null,
+                    EnumSet.of(JackPortFlags.JackPortIsOutput)).withNativeFilter(true);
+            String[] ports = jack.getPorts(client, literal);
+            assertEquals(2, ports.length);
+            assertSame(ports[0], jack.getPorts(client, literal)[0]);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Pointer;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackProcessTimingTest {
+
+    public JackProcessTimingTest() {
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        int buckets = JackTimingHistogram.getBucketCount();
+        for (int i = 1; i < buckets; i++) {
+            long lower = JackTimingHistogram.getBucketLowerBound(i);
+            assertTrue(lower > JackTimingHistogram.getBucketLowerBound(i - 1));
+            assertEquals(i, JackTimingHistogram.indexOf(lower));
+            assertEquals(i - 1, JackTimingHistogram.indexOf(lower - 1));
+        }
+        assertEquals(buckets - 1, JackTimingHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testHistogramValues() {
+        JackTimingHistogram histogram = new JackTimingHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.04);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        histogram.reset();
+        assertEquals(1000, histogram.getCount());
+        histogram.record(42);
+        assertEquals(1, histogram.getCount());
+        assertEquals(42, histogram.getMin());
+        assertEquals(42, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testClientTiming() throws Exception {
+        JackLibrarySimulated server = new JackLibrarySimulated(48000, 128);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            JackClient client = jack.openClient("Timing", null, null);
+            client.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+            client.setProcessCallback((c, nframes) -> true);
+            assertNull(client.getProcessTiming());
+            client.setProcessTimingEnabled(true);
+            JackProcessTiming timing = client.getProcessTiming();
+            assertNotNull(timing);
+            client.activate();
+            server.runCycles(10);
+            assertEquals(10, timing.getCycleCount());
+            assertEquals(128 * 1_000_000_000L / 48000, timing.getPeriodNanos());
+            assertTrue(timing.getCycleHistogram().getMax()
+                    >= timing.getProcessHistogram().getMax());
+
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    "org.jaudiolibs.jnajack:type=ProcessTiming,client=\"Timing\"");
+            assertEquals(10L, mbs.getAttribute(name, "CycleCount"));
+            client.close();
+            assertFalse(mbs.isRegistered(name));
+            assertNull(client.getProcessTiming());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testSampleRateTracked() throws Exception {
+        AtomicReference<JackLibrary.JackSampleRateCallback> srate = new AtomicReference<>();
+        JackLibrarySimulated server = new JackLibrarySimulated(48000, 128) {
+            @Override
+            public int jack_set_sample_rate_callback(JackLibrary._jack_client client,
+                    JackLibrary.JackSampleRateCallback srate_callback, Pointer arg) {
+                srate.set(srate_callback);
+                return super.jack_set_sample_rate_callback(client, srate_callback, arg);
+            }
+        };
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            JackClient client = jack.openClient("Rate", null, null);
+            client.setProcessCallback((c, nframes) -> true);
+            // no JackSampleRateCallback set
+            client.setProcessTimingEnabled(true);
+            JackProcessTiming timing = client.getProcessTiming();
+            client.activate();
+            server.runCycles(1);
+            assertEquals(128 * 1_000_000_000L / 48000, timing.getPeriodNanos());
+            assertNotNull(srate.get());
+            srate.get().invoke(96000, null);
+            server.runCycles(1);
+            assertEquals(128 * 1_000_000_000L / 96000, timing.getPeriodNanos());
+            client.close();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+}
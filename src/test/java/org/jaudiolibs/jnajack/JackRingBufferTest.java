@@ -0,0 +1,221 @@
+package org.jaudiolibs.jnajack;
+
+import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackRingBufferTest {
+
+    public JackRingBufferTest() {
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(2, JackRingBuffer.allocate(1).getSize());
+        assertEquals(1024, JackRingBuffer.allocate(1024).getSize());
+        assertEquals(2048, JackRingBuffer.allocate(1025).getSize());
+        assertThrows(IllegalArgumentException.class, () -> JackRingBuffer.allocate(0));
+        JackRingBuffer rb = JackRingBuffer.allocate(16);
+        assertEquals(0, rb.getReadSpace());
+        assertEquals(15, rb.getWriteSpace());
+    }
+
+    @Test
+    public void testBytesWrapAround() {
+        JackRingBuffer rb = JackRingBuffer.allocate(16);
+        byte[] data = new byte[20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        assertEquals(15, rb.write(data, 0, 20));
+        assertEquals(0, rb.getWriteSpace());
+        byte[] out = new byte[10];
+        assertEquals(10, rb.read(out, 0, 10));
+        assertEquals(9, out[9]);
+        // wraps around end of buffer
+        assertEquals(10, rb.write(ByteBuffer.wrap(data, 0, 10)));
+        byte[] peek = new byte[3];
+        assertEquals(3, rb.peek(peek, 0, 3));
+        assertArrayEquals(new byte[]{10, 11, 12}, peek);
+        ByteBuffer dst = ByteBuffer.allocate(32);
+        assertEquals(15, rb.read(dst));
+        dst.flip();
+        assertEquals(10, dst.get(0));
+        assertEquals(14, dst.get(4));
+        assertEquals(0, dst.get(5));
+        assertEquals(9, dst.get(14));
+        assertEquals(0, rb.getReadSpace());
+    }
+
+    @Test
+    public void testFloats() {
+        JackRingBuffer rb = JackRingBuffer.allocate(32);
+        float[] data = new float[7];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i + 0.5f;
+        }
+        // offset ring by a non-multiple of 4 so floats are split at the end
+        rb.write(new byte[3], 0, 3);
+        rb.read(new byte[3], 0, 3);
+        assertEquals(7, rb.write(data, 0, 7));
+        assertEquals(3, rb.getWriteSpace());
+        assertEquals(0, rb.write(data, 0, 1));
+        FloatBuffer out = FloatBuffer.allocate(8);
+        assertEquals(7, rb.read(out));
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], out.get(i));
+        }
+        assertEquals(7, rb.write(FloatBuffer.wrap(data)));
+        float[] result = new float[7];
+        assertEquals(7, rb.read(result, 0, 7));
+        assertArrayEquals(data, result);
+        // direct buffers, as used for port buffers
+        FloatBuffer direct = ByteBuffer.allocateDirect(8 * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        direct.put(data).flip();
+        assertEquals(7, rb.write(direct));
+        assertFalse(direct.hasRemaining());
+        direct.clear();
+        assertEquals(7, rb.read(direct));
+        assertEquals(7, direct.position());
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], direct.get(i));
+        }
+    }
+
+    @Test
+    public void testVectors() {
+        JackRingBuffer rb = JackRingBuffer.allocate(16);
+        JackRingBuffer.Vector writeVec = rb.createVector();
+        JackRingBuffer.Vector readVec = rb.createVector();
+        rb.write(new byte[12], 0, 12);
+        rb.read(new byte[12], 0, 12);
+        rb.getWriteVector(writeVec);
+        assertEquals(15, writeVec.length());
+        assertEquals(4, writeVec.first().remaining());
+        assertEquals(11, writeVec.second().remaining());
+        for (byte i = 0; i < 6; i++) {
+            ByteBuffer b = writeVec.first().hasRemaining() ? writeVec.first() : writeVec.second();
+            b.put(i);
+        }
+        rb.writeAdvance(6);
+        rb.getReadVector(readVec);
+        assertEquals(6, readVec.length());
+        assertEquals(0, readVec.first().get());
+        assertEquals(4, readVec.second().get());
+        rb.readAdvance(6);
+        assertEquals(0, rb.getReadSpace());
+        assertThrows(IllegalArgumentException.class,
+                () -> JackRingBuffer.allocate(16).getReadVector(readVec));
+    }
+
+    @Test
+    public void testThreaded() throws Exception {
+        JackRingBuffer rb = JackRingBuffer.allocate(64);
+        int total = 20000;
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            float[] buf = new float[5];
+            int expected = 0;
+            while (expected < total) {
+                int count = rb.read(buf, 0, buf.length);
+                if (count == 0) {
+                    Thread.yield();
+                }
+                for (int i = 0; i < count; i++) {
+                    if (buf[i] != expected) {
+                        error.set("Expected " + expected + " but got " + buf[i]);
+                        return;
+                    }
+                    expected++;
+                }
+            }
+        });
+        reader.start();
+        float[] buf = new float[3];
+        int next = 0;
+        while (next < total) {
+            int len = Math.min(buf.length, total - next);
+            for (int i = 0; i < len; i++) {
+                buf[i] = next + i;
+            }
+            int count = rb.write(buf, 0, len);
+            if (count == 0) {
+                if (!reader.isAlive()) {
+                    break;
+                }
+                Thread.yield();
+            }
+            next += count;
+        }
+        reader.join(10000);
+        assertNull(error.get());
+        assertFalse(reader.isAlive());
+    }
+
+    @Test
+    public void testSimulatedNative() throws JackException {
+        JackLibrarySimulated server = new JackLibrarySimulated();
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            try (JackRingBuffer rb = jack.createRingBuffer(100)) {
+                assertEquals(128, rb.getSize());
+                // only native ring buffers can be locked
+                assertTrue(rb.mlock());
+                byte[] data = new byte[100];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = (byte) i;
+                }
+                assertEquals(100, rb.write(data, 0, 100));
+                assertEquals(27, rb.getWriteSpace());
+                byte[] out = new byte[100];
+                assertEquals(100, rb.read(out, 0, 100));
+                assertArrayEquals(data, out);
+                // wraps around end of buffer
+                assertEquals(100, rb.write(data, 0, 100));
+                JackRingBuffer.Vector readVec = rb.createVector();
+                rb.getReadVector(readVec);
+                assertEquals(28, readVec.first().remaining());
+                assertEquals(72, readVec.second().remaining());
+                assertEquals(28, readVec.second().get());
+                rb.readAdvance(50);
+                assertEquals(50, rb.getReadSpace());
+                rb.reset();
+                assertEquals(0, rb.getReadSpace());
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testFallback() throws JackException {
+        JackLibrarySimulated server = new JackLibrarySimulated() {
+            @Override
+            public Pointer jack_ringbuffer_create(JackLibrary.size_t sz) {
+                return null;
+            }
+        };
+        try {
+            Jack jack = Jack.getSimulatedInstance(server);
+            try (JackRingBuffer rb = jack.createRingBuffer(100)) {
+                assertEquals(128, rb.getSize());
+                assertFalse(rb.mlock());
+                assertEquals(4, rb.write(new byte[4], 0, 4));
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,493 @@
+package org.jaudiolibs.jnajack;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackSimulatedTest {
+
+    private static final int BUFFER_SIZE = 64;
+
+    private JackLibrarySimulated server;
+    private Jack jack;
+
+    public JackSimulatedTest() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        server = new JackLibrarySimulated(48000, BUFFER_SIZE);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        jack = Jack.getSimulatedInstance(server);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    public void testOpenClient() throws JackException {
+        JackClient first = jack.openClient("Test", null, null);
+        EnumSet<JackStatus> status = EnumSet.noneOf(JackStatus.class);
+        JackClient second = jack.openClient("Test", null, status);
+        assertEquals("Test", first.getName());
+        assertEquals("Test-01", second.getName());
+        assertEquals(EnumSet.of(JackStatus.JackNameNotUnique), status);
+        assertThrows(JackException.class,
+                () -> jack.openClient("Test", EnumSet.of(JackOptions.JackUseExactName), null));
+        assertEquals(48000, first.getSampleRate());
+        assertEquals(BUFFER_SIZE, first.getBufferSize());
+    }
+
+    @Test
+    public void testAudioGraph() throws JackException {
+        JackClient gain = jack.openClient("Gain", null, null);
+        JackPort gainIn = gain.registerPort("in", JackPortType.AUDIO, JackPortFlags.JackPortIsInput);
+        JackPort gainOut = gain.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        gain.setProcessCallback((client, nframes) -> {
+            FloatBuffer in = gainIn.getFloatBuffer();
+            FloatBuffer out = gainOut.getFloatBuffer();
+            for (int i = 0; i < nframes; i++) {
+                out.put(i, in.get(i) * 2);
+            }
+            return true;
+        });
+        JackClient source = jack.openClient("Source", null, null);
+        JackPort sourceOut = source.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        source.setProcessCallback((client, nframes) -> {
+            FloatBuffer out = sourceOut.getFloatBuffer();
+            for (int i = 0; i < nframes; i++) {
+                out.put(i, 0.25f);
+            }
+            return true;
+        });
+        // activate downstream client first to check graph ordering
+        gain.activate();
+        source.activate();
+        jack.connect(gain, "Source:out", "Gain:in");
+        jack.connect(gain, "Gain:out", "system:playback_1");
+        jack.connect(gain, "Source:out", "system:playback_1");
+
+        float[] result = new float[1];
+        server.setCycleListener(new JackLibrarySimulated.CycleListener() {
+            @Override
+            public void cycleStarted(JackLibrarySimulated server, int nframes) {
+            }
+
+            @Override
+            public void cycleFinished(JackLibrarySimulated server, int nframes) {
+                FloatBuffer playback = server.getAudioBuffer("system:playback_1");
+                assertEquals(nframes, playback.remaining());
+                result[0] = playback.get(nframes - 1);
+            }
+        });
+        server.runCycles(1);
+        assertEquals(0.75f, result[0], 0.0001f);
+        assertArrayEquals(new String[]{"Gain:in", "system:playback_1"}, sourceOut.getConnections());
+        assertEquals(BUFFER_SIZE, server.getFrameTime());
+    }
+
+    @Test
+    public void testGetPorts() throws JackException {
+        JackClient client = jack.openClient("Ports", null, null);
+        client.registerPort("midi_in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        assertArrayEquals(new String[]{"system:playback_1", "system:playback_2"},
+                jack.getPorts(client, "playback", JackPortType.AUDIO,
+                        EnumSet.of(JackPortFlags.JackPortIsPhysical, JackPortFlags.JackPortIsInput)));
+        assertArrayEquals(new String[]{"Ports:midi_in"},
+                jack.getPorts(client, null, JackPortType.MIDI, null));
+        client.close();
+        assertEquals(0, jack.getPorts(null, JackPortType.MIDI, null).length);
+    }
+
+    @Test
+    public void testApplyConnections() throws Exception {
+        JackClient client = jack.openClient("Router", null, null);
+        client.registerPort("out_1", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        client.registerPort("out_2", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        client.activate();
+        jack.connect(client, "Router:out_1", "system:playback_1");
+        jack.connect(client, "Router:out_2", "system:playback_1");
+
+        Set<JackConnection> desired = new HashSet<>(Arrays.asList(
+                new JackConnection("Router:out_1", "system:playback_1"),
+                new JackConnection("Router:out_2", "system:playback_2"),
+                new JackConnection("Router:out_1", "system:missing")));
+        Map<JackConnection, JackConnectionResult> results = new HashMap<>();
+        for (JackConnectionResult result : jack.applyConnections(client, desired)) {
+            results.put(result.getConnection(), result);
+        }
+        // without a scope no connections are removed
+        assertEquals(3, results.size());
+        assertEquals(JackConnectionResult.Action.NONE,
+                results.get(new JackConnection("Router:out_1", "system:playback_1")).getAction());
+        assertTrue(results.get(new JackConnection("Router:out_2", "system:playback_2")).isSuccess());
+        assertFalse(results.get(new JackConnection("Router:out_1", "system:missing")).isSuccess());
+        assertArrayEquals(new String[]{"system:playback_1", "system:playback_2"},
+                jack.getAllConnections(client, "Router:out_2"));
+
+        // scoped to output ports, applied in parallel, undesired connections are removed
+        desired.remove(new JackConnection("Router:out_1", "system:missing"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            results.clear();
+            for (JackConnectionResult result : jack.applyConnections(client, desired,
+                    JackPortQuery.of("Router", JackPortType.AUDIO, null), executor)) {
+                results.put(result.getConnection(), result);
+            }
+            assertEquals(3, results.size());
+            JackConnectionResult removed = results.get(new JackConnection("Router:out_2", "system:playback_1"));
+            assertEquals(JackConnectionResult.Action.DISCONNECT, removed.getAction());
+            assertTrue(removed.isSuccess());
+            assertArrayEquals(new String[]{"system:playback_2"},
+                    jack.getAllConnections(client, "Router:out_2"));
+            // re-applying is a no-op
+            for (JackConnectionResult result : jack.applyConnections(client, desired,
+                    JackPortQuery.of("Router", JackPortType.AUDIO, null), executor)) {
+                assertEquals(JackConnectionResult.Action.NONE, result.getAction());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMidi() throws JackException {
+        JackClient client = jack.openClient("Midi", null, null);
+        JackPort out = client.registerPort("out", JackPortType.MIDI, JackPortFlags.JackPortIsOutput);
+        JackPort in = client.registerPort("in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        JackMidi.Event event = new JackMidi.Event();
+        byte[] data = new byte[3];
+        AtomicInteger received = new AtomicInteger();
+        client.setProcessCallback((c, nframes) -> {
+            try {
+                if (JackMidi.getEventCount(in) == 1) {
+                    JackMidi.eventGet(event, in, 0);
+                    event.read(data);
+                    if (event.time() == 3 && data[1] == 60) {
+                        received.incrementAndGet();
+                    }
+                }
+                JackMidi.clearBuffer(out);
+                JackMidi.eventWrite(out, 3, new byte[]{(byte) 0x90, 60, 100}, 3);
+            } catch (JackException ex) {
+                return false;
+            }
+            return true;
+        });
+        client.activate();
+        jack.connect(client, "Midi:out", "Midi:in");
+        server.runCycles(3);
+        // events written in one cycle are received in the next
+        assertEquals(2, received.get());
+    }
+
+    @Test
+    public void testMidiCursor() throws JackException {
+        JackClient client = jack.openClient("Cursor", null, null);
+        JackPort out = client.registerPort("out", JackPortType.MIDI, JackPortFlags.JackPortIsOutput);
+        JackPort in = client.registerPort("in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        JackMidi.Cursor cursor = new JackMidi.Cursor();
+        byte[] data = new byte[3];
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        client.setProcessCallback((c, nframes) -> {
+            try {
+                cursor.reset(in);
+                while (cursor.next()) {
+                    cursor.read(data);
+                    if (cursor.time() != cursor.index() * 2
+                            || cursor.size() != 3
+                            || cursor.get(1) != cursor.index()
+                            || cursor.data().remaining() != 3
+                            || data[2] != 100) {
+                        errors.incrementAndGet();
+                    }
+                    received.incrementAndGet();
+                }
+                JackMidi.clearBuffer(out);
+                for (int i = 0; i < 20; i++) {
+                    JackMidi.eventWrite(out, i * 2, new byte[]{(byte) 0x90, (byte) i, 100}, 3);
+                }
+            } catch (JackException ex) {
+                return false;
+            }
+            return true;
+        });
+        client.activate();
+        jack.connect(client, "Cursor:out", "Cursor:in");
+        server.runCycles(3);
+        assertEquals(40, received.get());
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void testMidiReserve() throws JackException {
+        JackClient client = jack.openClient("Reserve", null, null);
+        JackPort out = client.registerPort("out", JackPortType.MIDI, JackPortFlags.JackPortIsOutput);
+        JackPort in = client.registerPort("in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        JackMidi.Cursor cursor = new JackMidi.Cursor();
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        client.setProcessCallback((c, nframes) -> {
+            try {
+                cursor.reset(in);
+                while (cursor.next()) {
+                    if (cursor.time() == 5 && cursor.get(0) == (byte) 0xB0
+                            && cursor.get(2) == 127) {
+                        received.incrementAndGet();
+                    }
+                }
+                JackMidi.clearBuffer(out);
+                ByteBuffer event = JackMidi.eventReserve(out, 5, 3);
+                event.put((byte) 0xB0).put((byte) 7).put((byte) 127);
+                // out of order
+                if (JackMidi.eventReserve(out, 4, 3) == null) {
+                    rejected.incrementAndGet();
+                }
+            } catch (JackException ex) {
+                return false;
+            }
+            return true;
+        });
+        client.activate();
+        jack.connect(client, "Reserve:out", "Reserve:in");
+        server.runCycles(3);
+        assertEquals(2, received.get());
+        assertEquals(3, rejected.get());
+    }
+
+    @Test
+    public void testTransport() throws JackException {
+        JackClient client = jack.openClient("Transport", null, null);
+        client.setProcessCallback((c, nframes) -> true);
+        client.activate();
+        JackPosition position = new JackPosition();
+        assertEquals(JackTransportState.JackTransportStopped, client.transportQuery(position));
+
+        client.transportStart();
+        server.runCycles(2);
+        assertEquals(JackTransportState.JackTransportRolling, client.transportQuery(position));
+        assertEquals(BUFFER_SIZE, position.getFrame());
+        assertEquals(2 * BUFFER_SIZE, client.getCurrentTransportFrame());
+
+        client.transportLocate(48000);
+        server.runCycles(1);
+        client.transportQuery(position);
+        assertEquals(48000, position.getFrame());
+        assertEquals(48000, position.getFrameRate());
+
+        client.transportStop();
+        server.runCycles(1);
+        assertEquals(JackTransportState.JackTransportStopped, client.transportQuery(position));
+        assertEquals(48000 + BUFFER_SIZE, client.getCurrentTransportFrame());
+    }
+
+    @Test
+    public void testTimebase() throws JackException {
+        JackClient client = jack.openClient("Timebase", null, null);
+        client.setProcessCallback((c, nframes) -> true);
+        client.setTimebaseCallback((c, state, nframes, position, newPosition) -> {
+            position.setValid(JackPositionBits.JackPositionBBT);
+            position.setBar(3);
+            position.setBeat(2);
+            position.setBeatsPerMinute(140);
+            position.incrementTick();
+        }, false);
+        client.activate();
+        client.transportStart();
+        server.runCycles(3);
+        JackPosition position = new JackPosition();
+        assertEquals(JackTransportState.JackTransportRolling, client.transportQuery(position));
+        assertEquals(EnumSet.of(JackPositionBits.JackPositionBBT), position.getValid());
+        assertEquals(3, position.getBar());
+        assertEquals(2, position.getBeat());
+        assertEquals(140, position.getBeatsPerMinute());
+        assertTrue(position.getTick() > 0);
+        assertEquals(48000, position.getFrameRate());
+
+        position.setFrame(96000);
+        assertTrue(client.transportReposition(position));
+        server.runCycles(1);
+        client.transportQuery(position);
+        assertEquals(96000, position.getFrame());
+    }
+
+    @Test
+    public void testTransportSnapshot() throws Exception {
+        JackClient client = jack.openClient("Snapshot", null, null);
+        client.setProcessCallback((c, nframes) -> true);
+        client.setTimebaseCallback((c, state, nframes, position, newPosition) -> {
+            position.setValid(JackPositionBits.JackPositionBBT);
+            position.setBar(position.getFrame());
+            position.setTick(-position.getFrame());
+        }, false);
+        client.setTransportSnapshotEnabled(true);
+        JackTransportSnapshot snapshot = client.getTransportSnapshot();
+        assertNull(snapshot.getState());
+        client.activate();
+        server.runCycles(1);
+        assertEquals(JackTransportState.JackTransportStopped, snapshot.getState());
+        assertEquals(1, snapshot.getUpdateCount());
+
+        client.transportStart();
+        AtomicInteger errors = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            JackPosition position = new JackPosition();
+            while (snapshot.getUpdateCount() < 1000) {
+                snapshot.read(position);
+                if (position.getBar() != -position.getTick()) {
+                    errors.incrementAndGet();
+                }
+                Thread.yield();
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 999; i++) {
+            server.runCycles(1);
+            Thread.yield();
+        }
+        reader.join(10000);
+        assertFalse(reader.isAlive());
+        assertEquals(0, errors.get());
+
+        JackPosition position = new JackPosition();
+        assertEquals(JackTransportState.JackTransportRolling, snapshot.read(position));
+        assertEquals(snapshot.getFrame(), position.getFrame());
+        assertTrue(position.getFrame() > 0);
+        assertEquals(-position.getTick(), position.getBar());
+        assertEquals(48000, position.getFrameRate());
+    }
+
+    @Test
+    public void testDriverThread() throws Exception {
+        server.setAutoStart(true);
+        CountDownLatch latch = new CountDownLatch(100);
+        JackClient client = jack.openClient("Driver", null, null);
+        client.setProcessCallback((c, nframes) -> {
+            latch.countDown();
+            return true;
+        });
+        assertFalse(server.isRunning());
+        client.activate();
+        assertTrue(server.isRunning());
+        // faster than realtime - 100 cycles of 64 frames is ~133ms
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        client.close();
+    }
+
+    @Test
+    public void testProcessLoop() throws Exception {
+        JackClient client = jack.openClient("Loop", null, null);
+        JackPort out = client.registerPort("out", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger cycles = new AtomicInteger();
+        client.setProcessLoop((c, nframes) -> {
+            threads.add(Thread.currentThread());
+            FloatBuffer buffer = out.getFloatBuffer();
+            for (int i = 0; i < nframes; i++) {
+                buffer.put(i, 0.5f);
+            }
+            return cycles.incrementAndGet() < 8;
+        });
+        assertThrows(JackException.class, () -> client.setProcessCallback((c, nframes) -> true));
+        JackClient other = jack.openClient("Callback", null, null);
+        other.setProcessCallback((c, nframes) -> true);
+        assertThrows(JackException.class, () -> other.setProcessLoop((c, nframes) -> true));
+        other.close();
+        CountDownLatch shutdown = new CountDownLatch(1);
+        client.onShutdown(c -> shutdown.countDown());
+        client.activate();
+        server.runCycles(5);
+        assertEquals(5, cycles.get());
+        assertEquals(1, threads.size());
+        assertNotSame(Thread.currentThread(), threads.iterator().next());
+        assertEquals(0.5f, out.getFloatBuffer().get(BUFFER_SIZE - 1));
+        // returning false ends the loop and removes the client
+        server.runCycles(5);
+        assertEquals(8, cycles.get());
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testProcessLoopExcludesCallback() throws Exception {
+        JackClient client = jack.openClient("Exclusive", null, null);
+        client.setProcessLoop((c, nframes) -> true);
+        JackException ex = assertThrows(JackException.class,
+                () -> client.setProcessCallback((c, nframes) -> true));
+        assertEquals("Process loop already set", ex.getMessage());
+        // removing the loop allows a process callback to be set
+        client.setProcessLoop(null);
+        AtomicInteger cycles = new AtomicInteger();
+        client.setProcessCallback((c, nframes) -> cycles.incrementAndGet() > 0);
+        client.activate();
+        server.runCycles(3);
+        assertEquals(3, cycles.get());
+        client.close();
+    }
+
+    @Test
+    public void testThreadInit() throws Exception {
+        server.setAutoStart(true);
+        ByteBuffer scratch = ByteBuffer.allocateDirect(3 * 4096);
+        scratch.put(4096, (byte) 42);
+        AtomicInteger warmups = new AtomicInteger();
+        JackClient client = jack.openClient("Init", null, null);
+        client.setThreadInitCallback(JackThreadInitializer.create()
+                .withCpuAffinity(0)
+                .withPretouch(scratch)
+                .withWarmup(warmups::incrementAndGet));
+        CountDownLatch latch = new CountDownLatch(10);
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        client.setProcessCallback((c, nframes) -> {
+            names.add(Thread.currentThread().getName());
+            latch.countDown();
+            return true;
+        });
+        client.activate();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, warmups.get());
+        assertEquals(Collections.singleton("JNAJack Init"), names);
+        assertEquals(42, scratch.get(4096));
+        client.close();
+        assertThrows(IllegalArgumentException.class,
+                () -> JackThreadInitializer.create().withPretouch(ByteBuffer.allocate(16)));
+    }
+
+    @Test
+    public void testProcessFailureRemovesClient() throws Exception {
+        CountDownLatch shutdown = new CountDownLatch(1);
+        AtomicInteger cycles = new AtomicInteger();
+        JackClient client = jack.openClient("Failure", null, null);
+        client.setProcessCallback((c, nframes) -> cycles.incrementAndGet() < 2);
+        client.onShutdown(c -> shutdown.countDown());
+        client.activate();
+        server.runCycles(4);
+        assertEquals(2, cycles.get());
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+    }
+
+}
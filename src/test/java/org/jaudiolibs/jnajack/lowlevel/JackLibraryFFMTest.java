@@ -0,0 +1,108 @@
+package org.jaudiolibs.jnajack.lowlevel;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrary.size_t;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+/**
+ * Runs the FFM library against the native JACK library. Skipped unless
+ * running on Java 22 with the JACK library installed. The client test also
+ * requires a running JACK server.
+ */
+public class JackLibraryFFMTest {
+
+    private static JackLibrary lib;
+
+    public JackLibraryFFMTest() {
+    }
+
+    @BeforeAll
+    public static void loadLibrary() {
+        try {
+            lib = (JackLibrary) Class.forName("org.jaudiolibs.jnajack.lowlevel.JackLibraryFFM")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            lib = null;
+        }
+    }
+
+    @Test
+    public void testRingBuffer() {
+        assumeTrue(lib != null, "FFM library not available");
+        Pointer rb = lib.jack_ringbuffer_create(new size_t(100));
+        assertNotNull(rb);
+        try {
+            assertEquals(127, lib.jack_ringbuffer_write_space(rb).longValue());
+            Memory src = new Memory(100);
+            for (int i = 0; i < 100; i++) {
+                src.setByte(i, (byte) i);
+            }
+            assertEquals(100, lib.jack_ringbuffer_write(rb, src, new size_t(100)).longValue());
+            assertEquals(100, lib.jack_ringbuffer_read_space(rb).longValue());
+            Memory dst = new Memory(100);
+            assertEquals(40, lib.jack_ringbuffer_read(rb, dst, new size_t(40)).longValue());
+            assertEquals(39, dst.getByte(39));
+            lib.jack_ringbuffer_read_advance(rb, new size_t(10));
+            assertEquals(50, lib.jack_ringbuffer_read_space(rb).longValue());
+            lib.jack_ringbuffer_reset(rb);
+            assertEquals(0, lib.jack_ringbuffer_read_space(rb).longValue());
+        } finally {
+            lib.jack_ringbuffer_free(rb);
+        }
+    }
+
+    @Test
+    public void testReplaceCallback() throws InterruptedException {
+        assumeTrue(lib != null, "FFM library not available");
+        JackLibrary._jack_client client = lib.jack_client_open("JackLibraryFFMTest",
+                JackLibrary.JackOptions.JackNoStartServer, new IntByReference());
+        assumeTrue(client != null, "JACK server not running");
+        try {
+            AtomicInteger first = new AtomicInteger();
+            AtomicInteger second = new AtomicInteger();
+            JackLibrary.JackProcessCallback firstCallback = nframes -> {
+                first.incrementAndGet();
+                return 0;
+            };
+            JackLibrary.JackProcessCallback secondCallback = nframes -> {
+                second.incrementAndGet();
+                return 0;
+            };
+            assertEquals(0, lib.jack_set_process_callback(client, firstCallback, null));
+            // replacing the callback frees the first stub
+            assertEquals(0, lib.jack_set_process_callback(client, secondCallback, null));
+            assertEquals(0, lib.jack_activate(client));
+            await(() -> second.get() > 0);
+            // callbacks can't be set while active
+            assertNotEquals(0, lib.jack_set_process_callback(client, firstCallback, null));
+            assertEquals(0, lib.jack_deactivate(client));
+            assertEquals(0, lib.jack_set_process_callback(client, firstCallback, null));
+            int count = second.get();
+            assertEquals(0, lib.jack_activate(client));
+            await(() -> first.get() > 0);
+            assertEquals(0, lib.jack_deactivate(client));
+            assertEquals(count, second.get());
+        } finally {
+            lib.jack_client_close(client);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("Timed out waiting for process callback");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+}
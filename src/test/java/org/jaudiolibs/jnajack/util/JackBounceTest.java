@@ -0,0 +1,136 @@
+package org.jaudiolibs.jnajack.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jaudiolibs.jnajack.Jack;
+import org.jaudiolibs.jnajack.JackClient;
+import org.jaudiolibs.jnajack.JackException;
+import org.jaudiolibs.jnajack.JackPort;
+import org.jaudiolibs.jnajack.JackPortFlags;
+import org.jaudiolibs.jnajack.JackPortType;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class JackBounceTest {
+
+    private static final int SAMPLE_RATE = 48000;
+
+    private JackLibrarySimulated server;
+    private Jack jack;
+    private List<Boolean> freewheel;
+
+    public JackBounceTest() {
+    }
+
+    @BeforeEach
+    public void setUp() throws JackException {
+        server = new JackLibrarySimulated(SAMPLE_RATE, 64);
+        server.setRealtime(true);
+        server.setAutoStart(true);
+        jack = Jack.getSimulatedInstance(server);
+        freewheel = new CopyOnWriteArrayList<>();
+        JackClient source = jack.openClient("Source", null, null);
+        JackPort left = source.registerPort("out_1", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        JackPort right = source.registerPort("out_2", JackPortType.AUDIO, JackPortFlags.JackPortIsOutput);
+        float[] counter = new float[1];
+        source.setProcessCallback((c, nframes) -> {
+            FloatBuffer l = left.getFloatBuffer();
+            FloatBuffer r = right.getFloatBuffer();
+            for (int i = 0; i < nframes; i++) {
+                float v = counter[0]++ % 1000;
+                l.put(i, v);
+                r.put(i, -v);
+            }
+            return true;
+        });
+        source.setFreewheelCallback((c, starting) -> freewheel.add(starting));
+        source.activate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    public void testCaptureToBuffers() throws Exception {
+        JackBounce bounce = JackBounce.create(jack, "Bounce", "Source:out_1", "Source:out_2");
+        int frames = SAMPLE_RATE * 10 + 17;
+        long start = System.nanoTime();
+        FloatBuffer[] out = bounce.captureToBuffers(frames);
+        // ten seconds of audio, much faster than realtime
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        assertEquals(2, out.length);
+        assertEquals(frames, out[0].remaining());
+        for (int i = 1; i < frames; i++) {
+            float expected = (out[0].get(i - 1) + 1) % 1000;
+            assertEquals(expected, out[0].get(i), "Discontinuity at " + i);
+            assertEquals(-expected, out[1].get(i));
+        }
+        assertEquals(2, freewheel.size());
+        assertTrue(freewheel.get(0));
+        assertFalse(freewheel.get(1));
+        bounce.close();
+    }
+
+    @Test
+    public void testWavWriter(@TempDir Path dir) throws Exception {
+        JackBounce bounce = JackBounce.create(jack, "Bounce", "Source:out_1", "Source:out_2");
+        Path file = dir.resolve("bounce.wav");
+        try (JackBounce.WavWriter writer = JackBounce.wavWriter(file, SAMPLE_RATE)) {
+            bounce.capture(1000, writer);
+        }
+        bounce.close();
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(58 + 1000 * 2 * 4, data.limit());
+        assertEquals(50 + 8000, data.getInt(4));
+        assertEquals(18, data.getInt(16));
+        assertEquals(3, data.getShort(20));
+        assertEquals(2, data.getShort(22));
+        assertEquals(SAMPLE_RATE, data.getInt(24));
+        assertEquals(0, data.getShort(36));
+        assertEquals('f', data.get(38));
+        assertEquals(1000, data.getInt(46));
+        assertEquals('d', data.get(50));
+        assertEquals(8000, data.getInt(54));
+        assertEquals(-data.getFloat(58), data.getFloat(62));
+        assertEquals((data.getFloat(58) + 1) % 1000, data.getFloat(66));
+    }
+
+    @Test
+    public void testFreewheelStopped() throws Exception {
+        JackBounce bounce = JackBounce.create(jack, "Bounce", "Source:out_1");
+        JackClient other = jack.openClient("Other", null, null);
+        AtomicBoolean stopping = new AtomicBoolean();
+        JackException ex = assertThrows(JackException.class, () -> bounce.capture(Long.MAX_VALUE,
+                (channels, nframes) -> {
+                    if (stopping.compareAndSet(false, true)) {
+                        new Thread(() -> {
+                            try {
+                                other.setFreewheel(false);
+                            } catch (JackException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }).start();
+                    }
+                }));
+        assertEquals("Freewheel mode stopped", ex.getMessage());
+        other.close();
+        bounce.close();
+    }
+
+}
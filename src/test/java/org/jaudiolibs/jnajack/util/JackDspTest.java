@@ -0,0 +1,155 @@
+package org.jaudiolibs.jnajack.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+/**
+ *
+ */
+public class JackDspTest {
+
+    // not a multiple of any vector length, to exercise the scalar tail
+    private static final int N = 67;
+    private static final float DELTA = 1e-5f;
+
+    public JackDspTest() {
+    }
+
+    @Test
+    public void testVectorized() {
+        // the JDK 22 build runs tests with the incubator module added
+        assumeTrue(Integer.parseInt(System.getProperty("java.specification.version")
+                .replaceFirst("^1\\.", "")) >= 22, "Vector kernels require Java 22");
+        assertTrue(JackDsp.isVectorized());
+    }
+
+    @Test
+    public void testGainCopyClear() {
+        FloatBuffer src = buffer(N, 1);
+        FloatBuffer dst = buffer(N, 0);
+        JackDsp.gain(src, dst, 0.5f, N);
+        for (int i = 0; i < N; i++) {
+            assertEquals(value(i, 1) * 0.5f, dst.get(i), DELTA);
+        }
+        JackDsp.gain(dst, 2, N);
+        JackDsp.copy(dst, src, N);
+        for (int i = 0; i < N; i++) {
+            assertEquals(value(i, 1), src.get(i), DELTA);
+        }
+        JackDsp.clear(src, N - 1);
+        for (int i = 0; i < N - 1; i++) {
+            assertEquals(0, src.get(i));
+        }
+        assertEquals(value(N - 1, 1), src.get(N - 1), DELTA);
+    }
+
+    @Test
+    public void testMixAdd() {
+        FloatBuffer src = buffer(N, 1);
+        FloatBuffer dst = buffer(N, 2);
+        JackDsp.mixAdd(src, dst, 0.25f, N);
+        for (int i = 0; i < N; i++) {
+            assertEquals(value(i, 2) + value(i, 1) * 0.25f, dst.get(i), DELTA);
+        }
+    }
+
+    @Test
+    public void testPosition() {
+        FloatBuffer src = buffer(N, 1);
+        FloatBuffer dst = buffer(N, 0);
+        src.position(3);
+        dst.position(5);
+        JackDsp.copy(src, dst, N - 5);
+        assertEquals(3, src.position());
+        assertEquals(5, dst.position());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, dst.get(i));
+        }
+        for (int i = 5; i < N; i++) {
+            assertEquals(value(i - 2, 1), dst.get(i), DELTA);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> JackDsp.copy(src, dst, N - 4));
+    }
+
+    @Test
+    public void testPeakRms() {
+        FloatBuffer buf = buffer(N, 0);
+        buf.put(40, -0.75f);
+        buf.put(N - 1, 0.5f);
+        assertEquals(0.75f, JackDsp.peak(buf, N), DELTA);
+        assertEquals(0, JackDsp.peak(buf, 40), DELTA);
+        assertEquals(Math.sqrt((0.75 * 0.75 + 0.5 * 0.5) / N), JackDsp.rms(buf, N), DELTA);
+        assertEquals(0, JackDsp.rms(buf, 0));
+    }
+
+    @Test
+    public void testPan() {
+        FloatBuffer src = buffer(N, 1);
+        FloatBuffer left = buffer(N, 0);
+        FloatBuffer right = buffer(N, 0);
+        JackDsp.pan(src, left, right, -1, N);
+        assertEquals(value(10, 1), left.get(10), DELTA);
+        assertEquals(0, right.get(10), DELTA);
+        JackDsp.pan(src, left, right, 0, N);
+        assertEquals(value(10, 1) * Math.sqrt(0.5), left.get(10), DELTA);
+        assertEquals(value(10, 1) * Math.sqrt(0.5), right.get(10), DELTA);
+        JackDsp.panAdd(src, left, right, 1, N);
+        assertEquals(value(10, 1) * Math.sqrt(0.5), left.get(10), DELTA);
+        assertEquals(value(10, 1) * (1 + Math.sqrt(0.5)), right.get(10), DELTA);
+    }
+
+    @Test
+    public void testInterleave() {
+        for (int channels = 1; channels <= 3; channels++) {
+            FloatBuffer[] in = new FloatBuffer[channels];
+            FloatBuffer[] out = new FloatBuffer[channels];
+            for (int ch = 0; ch < channels; ch++) {
+                in[ch] = buffer(N, ch + 1);
+                out[ch] = buffer(N, 0);
+            }
+            FloatBuffer interleaved = buffer(N * channels, 0);
+            JackDsp.interleave(in, interleaved, N);
+            for (int i = 0; i < N; i++) {
+                for (int ch = 0; ch < channels; ch++) {
+                    assertEquals(value(i, ch + 1), interleaved.get(i * channels + ch), DELTA);
+                }
+            }
+            JackDsp.deinterleave(interleaved, out, N);
+            for (int ch = 0; ch < channels; ch++) {
+                assertEquals(in[ch], out[ch]);
+            }
+        }
+    }
+
+    @Test
+    public void testHeapBuffers() {
+        FloatBuffer src = FloatBuffer.allocate(N);
+        FloatBuffer dst = FloatBuffer.allocate(N);
+        for (int i = 0; i < N; i++) {
+            src.put(i, value(i, 1));
+        }
+        JackDsp.mixAdd(src, dst, 2, N);
+        assertEquals(value(20, 1) * 2, dst.get(20), DELTA);
+    }
+
+    private static FloatBuffer buffer(int size, int seed) {
+        FloatBuffer buf = ByteBuffer.allocateDirect(size * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        if (seed != 0) {
+            for (int i = 0; i < size; i++) {
+                buf.put(i, value(i, seed));
+            }
+        }
+        return buf;
+    }
+
+    private static float value(int i, int seed) {
+        return (float) Math.sin(i * 0.1 * seed) * seed;
+    }
+
+}
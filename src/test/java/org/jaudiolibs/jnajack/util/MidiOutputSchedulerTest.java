@@ -0,0 +1,129 @@
+package org.jaudiolibs.jnajack.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jaudiolibs.jnajack.Jack;
+import org.jaudiolibs.jnajack.JackClient;
+import org.jaudiolibs.jnajack.JackException;
+import org.jaudiolibs.jnajack.JackMidi;
+import org.jaudiolibs.jnajack.JackPort;
+import org.jaudiolibs.jnajack.JackPortFlags;
+import org.jaudiolibs.jnajack.JackPortType;
+import org.jaudiolibs.jnajack.lowlevel.JackLibrarySimulated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class MidiOutputSchedulerTest {
+
+    private static final int BUFFER_SIZE = 64;
+
+    private JackLibrarySimulated server;
+    private JackClient client;
+    private JackPort in;
+    private JackPort out;
+    private List<long[]> received;
+
+    public MidiOutputSchedulerTest() {
+    }
+
+    @BeforeEach
+    public void setUp() throws JackException {
+        server = new JackLibrarySimulated(48000, BUFFER_SIZE);
+        server.setRealtime(false);
+        server.setAutoStart(false);
+        Jack jack = Jack.getSimulatedInstance(server);
+        client = jack.openClient("Scheduler", null, null);
+        out = client.registerPort("out", JackPortType.MIDI, JackPortFlags.JackPortIsOutput);
+        in = client.registerPort("in", JackPortType.MIDI, JackPortFlags.JackPortIsInput);
+        received = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    private void start(MidiOutputScheduler scheduler) throws JackException {
+        JackMidi.Cursor cursor = new JackMidi.Cursor();
+        client.setProcessCallback((c, nframes) -> {
+            try {
+                long frame = c.getLastFrameTime();
+                cursor.reset(in);
+                while (cursor.next()) {
+                    // input is one cycle behind output
+                    received.add(new long[]{frame - nframes + cursor.time(), cursor.get(1)});
+                }
+                scheduler.process(nframes);
+            } catch (JackException ex) {
+                return false;
+            }
+            return true;
+        });
+        client.activate();
+        Jack.getSimulatedInstance(server).connect(client, "Scheduler:out", "Scheduler:in");
+    }
+
+    @Test
+    public void testOrdering() throws JackException {
+        MidiOutputScheduler scheduler = new MidiOutputScheduler(client, out);
+        start(scheduler);
+        long[] times = {150, 10, 70, 10, 63, 64, 200};
+        for (int i = 0; i < times.length; i++) {
+            assertTrue(scheduler.schedule(times[i], new byte[]{(byte) 0x90, (byte) i, 100}));
+        }
+        server.runCycles(5);
+        assertEquals(times.length, received.size());
+        long[][] expected = {{10, 1}, {10, 3}, {63, 4}, {64, 5}, {70, 2}, {150, 0}, {200, 6}};
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], received.get(i));
+        }
+        assertEquals(0, scheduler.getLateCount());
+        assertEquals(0, scheduler.getDroppedCount());
+    }
+
+    @Test
+    public void testLateAndDropped() throws JackException {
+        MidiOutputScheduler scheduler = new MidiOutputScheduler(client, out, 4, 3);
+        start(scheduler);
+        server.runCycles(2);
+        assertFalse(scheduler.schedule(200, new byte[4]));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(scheduler.schedule(10, new byte[]{(byte) 0x90, (byte) i, 100}));
+        }
+        assertFalse(scheduler.schedule(10, new byte[]{(byte) 0x90, 4, 100}));
+        server.runCycles(2);
+        assertEquals(4, received.size());
+        // late events written at start of cycle
+        assertEquals(2 * BUFFER_SIZE, received.get(0)[0]);
+        assertEquals(4, scheduler.getLateCount());
+        assertEquals(2, scheduler.getDroppedCount());
+
+        scheduler.schedule(1000, new byte[]{(byte) 0x90, 1, 100});
+        scheduler.clear();
+        server.runCycles(20);
+        assertEquals(4, received.size());
+    }
+
+    @Test
+    public void testOverflow() throws JackException {
+        MidiOutputScheduler scheduler = new MidiOutputScheduler(client, out, 8192, 3);
+        start(scheduler);
+        int count = 4000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(scheduler.schedule(0, new byte[]{(byte) 0x90, (byte) (i & 0x7F), 100}));
+        }
+        server.runCycles(4);
+        assertEquals(count, received.size());
+        assertTrue(scheduler.getOverflowCount() > 0);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i & 0x7F, received.get(i)[1]);
+        }
+    }
+
+}
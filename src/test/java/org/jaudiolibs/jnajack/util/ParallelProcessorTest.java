@@ -0,0 +1,108 @@
+package org.jaudiolibs.jnajack.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ */
+public class ParallelProcessorTest {
+
+    public ParallelProcessorTest() {
+    }
+
+    @Test
+    public void testAllItemsProcessed() {
+        ParallelProcessor processor = ParallelProcessor.create(3);
+        try {
+            int items = 64;
+            int cycles = 500;
+            AtomicIntegerArray counts = new AtomicIntegerArray(items);
+            ParallelProcessor.Task task = (index, nframes) -> {
+                assertEquals(128, nframes);
+                counts.incrementAndGet(index);
+            };
+            for (int i = 0; i < cycles; i++) {
+                processor.process(task, items, 128);
+                // every item complete on return
+                for (int item = 0; item < items; item++) {
+                    assertEquals(i + 1, counts.get(item));
+                }
+            }
+            assertEquals(cycles, processor.getParallelCycles());
+            assertEquals(0, processor.getSerialCycles());
+        } finally {
+            processor.close();
+        }
+    }
+
+    @Test
+    public void testSerial() {
+        ParallelProcessor processor = ParallelProcessor.create(0);
+        int[] counts = new int[8];
+        processor.process((index, nframes) -> counts[index]++, 8, 64);
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1, 1, 1}, counts);
+        assertEquals(1, processor.getSerialCycles());
+        processor.close();
+    }
+
+    @Test
+    public void testDeadlineFallback() {
+        ParallelProcessor processor = ParallelProcessor.create(1);
+        try {
+            processor.setSpinNanos(0);
+            processor.setDeadline(0, 5);
+            Thread caller = Thread.currentThread();
+            AtomicIntegerArray workerItems = new AtomicIntegerArray(1);
+            processor.process((index, nframes) -> {
+                if (Thread.currentThread() == caller) {
+                    // let the worker claim the other item
+                    long end = System.currentTimeMillis() + 5000;
+                    while (workerItems.get(0) == 0 && System.currentTimeMillis() < end) {
+                        Thread.yield();
+                    }
+                } else {
+                    workerItems.incrementAndGet(0);
+                    sleep(5);
+                }
+            }, 2, 64);
+            assertEquals(1, workerItems.get(0));
+            assertEquals(1, processor.getMissedDeadlines());
+            for (int i = 0; i < 5; i++) {
+                processor.process((index, nframes) -> assertSame(caller, Thread.currentThread()), 2, 64);
+            }
+            assertEquals(5, processor.getSerialCycles());
+            assertEquals(1, processor.getParallelCycles());
+        } finally {
+            processor.close();
+        }
+    }
+
+    @Test
+    public void testCallerException() {
+        ParallelProcessor processor = ParallelProcessor.create(2);
+        try {
+            assertThrows(IllegalStateException.class, () -> processor.process((index, nframes) -> {
+                throw new IllegalStateException();
+            }, 16, 64));
+            AtomicIntegerArray counts = new AtomicIntegerArray(16);
+            processor.process((index, nframes) -> counts.incrementAndGet(index), 16, 64);
+            for (int i = 0; i < 16; i++) {
+                assertEquals(1, counts.get(i));
+            }
+        } finally {
+            processor.close();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}